@@ -0,0 +1,182 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.elasticsearch.benchmark.ingest;
+
+import org.elasticsearch.action.ActionRequest;
+import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.action.index.IndexRequest;
+import org.elasticsearch.cluster.ClusterChangedEvent;
+import org.elasticsearch.cluster.ClusterName;
+import org.elasticsearch.cluster.ClusterState;
+import org.elasticsearch.cluster.metadata.MetaData;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.common.xcontent.XContentFactory;
+import org.elasticsearch.ingest.IngestMetadata;
+import org.elasticsearch.ingest.PipelineConfiguration;
+import org.elasticsearch.ingest.PipelineExecutionService;
+import org.elasticsearch.ingest.PipelineStore;
+import org.elasticsearch.ingest.ProcessorsRegistry;
+import org.elasticsearch.ingest.common.ConvertProcessor;
+import org.elasticsearch.ingest.common.DateProcessor;
+import org.elasticsearch.ingest.common.GrokProcessor;
+import org.elasticsearch.ingest.common.IngestCommonPlugin;
+import org.elasticsearch.ingest.common.LowercaseProcessor;
+import org.elasticsearch.ingest.common.RemoveProcessor;
+import org.elasticsearch.ingest.common.RenameProcessor;
+import org.elasticsearch.ingest.common.SetProcessor;
+import org.elasticsearch.threadpool.ThreadPool;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of running a typical log parsing pipeline on the documents of a bulk request, the way the bulk action does. This
+ * includes parsing the source of each document, but not parsing the pipeline itself.
+ */
+@Fork(3)
+@Warmup(iterations = 10)
+@Measurement(iterations = 10)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@SuppressWarnings("unused") //invoked by benchmarking framework
+public class PipelineExecutionBenchmark {
+    // Do NOT make any field final (even if it is not annotated with @Param)! See also
+    // http://hg.openjdk.java.net/code-tools/jmh/file/tip/jmh-samples/src/main/java/org/openjdk/jmh/samples/JMHSample_10_ConstantFold.java
+
+    private static final String PIPELINE_ID = "access-logs";
+
+    private static final String[] MESSAGES = new String[] {
+        "55.3.244.1 GET /index.html 15824 0.043",
+        "10.0.0.17 POST /api/v1/orders?id=17 512 0.210",
+        "192.168.1.42 GET /static/app.js 120433 0.008",
+        "172.16.0.3 DELETE /api/v1/orders/17 0 0.017"
+    };
+
+    @Param({"100", "1000"})
+    public int bulkSize = 100;
+
+    private ThreadPool threadPool;
+
+    private PipelineExecutionService executionService;
+
+    private BulkRequest bulkRequest;
+
+    @Setup
+    public void setUp() throws Exception {
+        Map<String, String> patterns = IngestCommonPlugin.loadBuiltinPatterns();
+        ProcessorsRegistry.Builder builder = new ProcessorsRegistry.Builder();
+        builder.registerProcessor(GrokProcessor.TYPE, (registry) -> new GrokProcessor.Factory(patterns));
+        builder.registerProcessor(DateProcessor.TYPE, (registry) -> new DateProcessor.Factory());
+        builder.registerProcessor(ConvertProcessor.TYPE, (registry) -> new ConvertProcessor.Factory());
+        builder.registerProcessor(SetProcessor.TYPE, (registry) -> new SetProcessor.Factory(registry.getTemplateService()));
+        builder.registerProcessor(RenameProcessor.TYPE, (registry) -> new RenameProcessor.Factory());
+        builder.registerProcessor(RemoveProcessor.TYPE, (registry) -> new RemoveProcessor.Factory(registry.getTemplateService()));
+        builder.registerProcessor(LowercaseProcessor.TYPE, (registry) -> new LowercaseProcessor.Factory());
+
+        Settings settings = Settings.builder().put("node.name", "benchmark").build();
+        threadPool = new ThreadPool(settings);
+        PipelineStore store = new PipelineStore(settings);
+        store.buildProcessorFactoryRegistry(builder, null, null, threadPool);
+        executionService = new PipelineExecutionService(store, threadPool);
+
+        XContentBuilder config = XContentFactory.jsonBuilder().startObject()
+            .field("description", "parses access logs")
+            .startArray("processors")
+                .startObject().startObject(GrokProcessor.TYPE)
+                    .field("field", "message")
+                    .array("patterns", "%{IP:client} %{WORD:method} %{URIPATHPARAM:request} %{NUMBER:bytes} %{NUMBER:duration}")
+                .endObject().endObject()
+                .startObject().startObject(DateProcessor.TYPE)
+                    .field("field", "timestamp")
+                    .array("formats", "ISO8601")
+                .endObject().endObject()
+                .startObject().startObject(ConvertProcessor.TYPE).field("field", "bytes").field("type", "integer").endObject().endObject()
+                .startObject().startObject(ConvertProcessor.TYPE).field("field", "duration").field("type", "float").endObject().endObject()
+                .startObject().startObject(SetProcessor.TYPE).field("field", "event.kind").field("value", "access").endObject().endObject()
+                .startObject().startObject(RenameProcessor.TYPE).field("field", "client").field("target_field", "source.ip").endObject()
+                    .endObject()
+                .startObject().startObject(RemoveProcessor.TYPE).field("field", "message").endObject().endObject()
+                .startObject().startObject(LowercaseProcessor.TYPE).field("field", "method").endObject().endObject()
+            .endArray()
+            .endObject();
+        IngestMetadata ingestMetadata =
+            new IngestMetadata(Collections.singletonMap(PIPELINE_ID, new PipelineConfiguration(PIPELINE_ID, config.bytes())));
+        ClusterState previousState = ClusterState.builder(ClusterName.CLUSTER_NAME_SETTING.getDefault(Settings.EMPTY)).build();
+        ClusterState state = ClusterState.builder(previousState)
+            .metaData(MetaData.builder().putCustom(IngestMetadata.TYPE, ingestMetadata))
+            .build();
+        ClusterChangedEvent event = new ClusterChangedEvent("benchmark", state, previousState);
+        store.clusterChanged(event);
+        executionService.clusterChanged(event);
+    }
+
+    @TearDown
+    public void tearDown() {
+        ThreadPool.terminate(threadPool, 30, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Running the pipelines consumes the bulk request, so every invocation gets a fresh one.
+     */
+    @Setup(Level.Invocation)
+    public void createBulkRequest() {
+        bulkRequest = new BulkRequest();
+        for (int i = 0; i < bulkSize; i++) {
+            Map<String, Object> source = new HashMap<>();
+            source.put("message", MESSAGES[i & 3]);
+            source.put("timestamp", "2016-06-30T10:15:30.000Z");
+            bulkRequest.add(new IndexRequest("logs", "access", Integer.toString(i)).source(source).setPipeline(PIPELINE_ID));
+        }
+    }
+
+    @Benchmark
+    public List<ActionRequest<?>> executeBulkRequest() throws Exception {
+        CompletableFuture<Void> completion = new CompletableFuture<>();
+        executionService.executeBulkRequest(bulkRequest.requests(), (request, failure) -> completion.completeExceptionally(failure),
+            failure -> {
+                if (failure != null) {
+                    completion.completeExceptionally(failure);
+                } else {
+                    completion.complete(null);
+                }
+            });
+        completion.get();
+        return bulkRequest.requests();
+    }
+}
@@ -24,11 +24,16 @@ import org.elasticsearch.cluster.ClusterState;
 import org.elasticsearch.cluster.metadata.IndexMetaData;
 import org.elasticsearch.cluster.metadata.MetaData;
 import org.elasticsearch.cluster.node.DiscoveryNodes;
+import org.elasticsearch.cluster.routing.IndexRoutingTable;
+import org.elasticsearch.cluster.routing.IndexShardRoutingTable;
 import org.elasticsearch.cluster.routing.RoutingTable;
+import org.elasticsearch.cluster.routing.ShardRouting;
 import org.elasticsearch.cluster.routing.ShardRoutingState;
+import org.elasticsearch.cluster.routing.UnassignedInfo;
 import org.elasticsearch.cluster.routing.allocation.AllocationService;
 import org.elasticsearch.cluster.routing.allocation.RoutingAllocation;
 import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.index.shard.ShardId;
 import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.annotations.BenchmarkMode;
 import org.openjdk.jmh.annotations.Fork;
@@ -107,7 +112,11 @@ public class AllocationBenchmark {
         "       10,     10,        2,    50",
         "      100,      1,        2,    50",
         "      100,      3,        2,    50",
-        "      100,     10,        2,    50"
+        "      100,     10,        2,    50",
+
+        // 100k shards on 500 nodes. Allocating these from scratch with measureAllocation takes minutes per invocation, select
+        // measureReroute (rerouting the already allocated cluster) when running this combination
+        "     1000,     50,        1,   500"
     })
     public String indicesShardsReplicasNodes = "10,1,0,1";
 
@@ -115,6 +124,7 @@ public class AllocationBenchmark {
 
     private AllocationService strategy;
     private ClusterState initialClusterState;
+    private ClusterState allocatedClusterState;
 
     @Setup
     public void setUp() throws Exception {
@@ -150,6 +160,27 @@ public class AllocationBenchmark {
         initialClusterState = ClusterState.builder(ClusterName.CLUSTER_NAME_SETTING.getDefault(Settings.EMPTY))
             .metaData(metaData).routingTable(routingTable).nodes
                 (nb).build();
+
+        // all shard copies started and spread round-robin over the nodes, which is balanced and satisfies the tag awareness
+        RoutingTable.Builder allocated = RoutingTable.builder();
+        int nodeOrdinal = 0;
+        for (int i = 1; i <= numIndices; i++) {
+            IndexMetaData indexMetaData = metaData.index("test_" + i);
+            IndexRoutingTable.Builder indexRoutingTable = IndexRoutingTable.builder(indexMetaData.getIndex());
+            for (int shard = 0; shard < numShards; shard++) {
+                ShardId shardId = new ShardId(indexMetaData.getIndex(), shard);
+                IndexShardRoutingTable.Builder shardRoutingTable = new IndexShardRoutingTable.Builder(shardId);
+                for (int copy = 0; copy <= numReplicas; copy++) {
+                    String nodeId = "node" + (nodeOrdinal++ % numNodes + 1);
+                    shardRoutingTable.addShard(ShardRouting.newUnassigned(shardId, null, copy == 0,
+                        new UnassignedInfo(UnassignedInfo.Reason.INDEX_CREATED, "benchmark"))
+                        .initialize(nodeId, null, -1).moveToStarted());
+                }
+                indexRoutingTable.addIndexShard(shardRoutingTable.build());
+            }
+            allocated.add(indexRoutingTable);
+        }
+        allocatedClusterState = ClusterState.builder(initialClusterState).routingTable(allocated.build()).build();
     }
 
     private int toInt(String v) {
@@ -168,4 +199,9 @@ public class AllocationBenchmark {
         }
         return clusterState;
     }
+
+    @Benchmark
+    public RoutingAllocation.Result measureReroute() {
+        return strategy.reroute(allocatedClusterState, "reroute");
+    }
 }
@@ -145,4 +145,12 @@ public class NodesStatsRequestBuilder extends NodesOperationRequestBuilder<Nodes
         request.ingest(ingest);
         return this;
     }
+
+    /**
+     * Should the snapshot and restore statistics of the repositories be returned.
+     */
+    public NodesStatsRequestBuilder setRepositories(boolean repositories) {
+        request.repositories(repositories);
+        return this;
+    }
 }
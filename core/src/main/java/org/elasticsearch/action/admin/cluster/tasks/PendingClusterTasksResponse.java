@@ -94,6 +94,10 @@ public class PendingClusterTasksResponse extends ActionResponse implements Itera
             builder.field(Fields.EXECUTING, pendingClusterTask.isExecuting());
             builder.field(Fields.TIME_IN_QUEUE_MILLIS, pendingClusterTask.getTimeInQueueInMillis());
             builder.field(Fields.TIME_IN_QUEUE, pendingClusterTask.getTimeInQueue());
+            builder.field(Fields.BATCH_SIZE, pendingClusterTask.getBatchSize());
+            builder.field(Fields.LAST_BATCH_SIZE, pendingClusterTask.getLastBatchSize());
+            builder.field(Fields.LAST_BATCH_TIME_MILLIS, pendingClusterTask.getLastBatchTimeInMillis());
+            builder.field(Fields.LAST_BATCH_TIME, pendingClusterTask.getLastBatchTime());
             builder.endObject();
         }
         builder.endArray();
@@ -109,6 +113,10 @@ public class PendingClusterTasksResponse extends ActionResponse implements Itera
         static final String SOURCE = "source";
         static final String TIME_IN_QUEUE_MILLIS = "time_in_queue_millis";
         static final String TIME_IN_QUEUE = "time_in_queue";
+        static final String BATCH_SIZE = "batch_size";
+        static final String LAST_BATCH_SIZE = "last_batch_size";
+        static final String LAST_BATCH_TIME_MILLIS = "last_batch_time_millis";
+        static final String LAST_BATCH_TIME = "last_batch_time";
 
     }
 
@@ -267,9 +267,19 @@ public class BulkRequest extends ActionRequest<BulkRequest> implements Composite
     }
 
     public BulkRequest add(BytesReference data, @Nullable String defaultIndex, @Nullable String defaultType, @Nullable String defaultRouting, @Nullable String[] defaultFields, @Nullable String defaultPipeline, @Nullable Object payload, boolean allowExplicitIndex) throws Exception {
-        XContent xContent = XContentFactory.xContent(data);
+        addCompleteEntries(data, XContentFactory.xContent(data), defaultIndex, defaultType, defaultRouting, defaultFields, defaultPipeline, payload, allowExplicitIndex);
+        return this;
+    }
+
+    /**
+     * Adds the complete action/metadata and source entries found in the given data and returns the number of bytes they
+     * took up. Unlike the other <tt>add</tt> methods this allows the data to end with an incomplete entry, which is left
+     * alone so that the bulk can be parsed incrementally while it is still being received.
+     */
+    public int addCompleteEntries(BytesReference data, XContent xContent, @Nullable String defaultIndex, @Nullable String defaultType, @Nullable String defaultRouting, @Nullable String[] defaultFields, @Nullable String defaultPipeline, @Nullable Object payload, boolean allowExplicitIndex) throws Exception {
         int line = 0;
         int from = 0;
+        int consumed = 0;
         int length = data.length();
         byte marker = xContent.streamSeparator();
         while (true) {
@@ -373,6 +383,7 @@ public class BulkRequest extends ActionRequest<BulkRequest> implements Composite
 
                 if ("delete".equals(action)) {
                     add(new DeleteRequest(index, type, id).routing(routing).parent(parent).version(version).versionType(versionType), payload);
+                    consumed = from;
                 } else {
                     nextMarker = findNextMarker(marker, from, data, length);
                     if (nextMarker == -1) {
@@ -425,10 +436,11 @@ public class BulkRequest extends ActionRequest<BulkRequest> implements Composite
                     }
                     // move pointers
                     from = nextMarker + 1;
+                    consumed = from;
                 }
             }
         }
-        return this;
+        return consumed;
     }
 
     /**
@@ -106,7 +106,7 @@ public final class IngestActionFilter extends AbstractComponent implements Actio
         BulkRequestModifier bulkRequestModifier = new BulkRequestModifier(original);
         executionService.executeBulkRequest(() -> bulkRequestModifier, (indexRequest, throwable) -> {
             logger.debug("failed to execute pipeline [{}] for document [{}/{}/{}]", throwable, indexRequest.getPipeline(), indexRequest.index(), indexRequest.type(), indexRequest.id());
-            bulkRequestModifier.markCurrentItemAsFailed(throwable);
+            bulkRequestModifier.markItemAsFailed(indexRequest, throwable);
         }, (throwable) -> {
             if (throwable != null) {
                 logger.error("failed to execute pipeline for a bulk request", throwable);
@@ -139,6 +139,7 @@ public final class IngestActionFilter extends AbstractComponent implements Actio
         final List<BulkItemResponse> itemResponses;
 
         int currentSlot = -1;
+        int lastFailedSlot = -1;
         int[] originalSlots;
 
         BulkRequestModifier(BulkRequest bulkRequest) {
@@ -197,15 +198,23 @@ public final class IngestActionFilter extends AbstractComponent implements Actio
             }
         }
 
-        void markCurrentItemAsFailed(Throwable e) {
-            IndexRequest indexRequest = (IndexRequest) bulkRequest.requests().get(currentSlot);
+        /**
+         * Marks an index request from the bulk as failed. Failures must be reported in the order of the requests in the bulk.
+         */
+        void markItemAsFailed(IndexRequest indexRequest, Throwable e) {
+            // failures are reported in order so the failed request is always after the previously failed one
+            int slot = lastFailedSlot + 1;
+            while (bulkRequest.requests().get(slot) != indexRequest) {
+                slot++;
+            }
+            lastFailedSlot = slot;
             // We hit a error during preprocessing a request, so we:
             // 1) Remember the request item slot from the bulk, so that we're done processing all requests we know what failed
             // 2) Add a bulk item failure for this request
             // 3) Continue with the next request in the bulk.
-            failedSlots.add(currentSlot);
+            failedSlots.add(slot);
             BulkItemResponse.Failure failure = new BulkItemResponse.Failure(indexRequest.index(), indexRequest.type(), indexRequest.id(), e);
-            itemResponses.add(new BulkItemResponse(currentSlot, indexRequest.opType().lowercase(), failure));
+            itemResponses.add(new BulkItemResponse(slot, indexRequest.opType().lowercase(), failure));
         }
 
     }
@@ -19,14 +19,16 @@
 
 package org.elasticsearch.cluster;
 
+import com.carrotsearch.hppc.cursors.ObjectCursor;
 import org.elasticsearch.cluster.routing.ShardRouting;
 import org.elasticsearch.common.collect.ImmutableOpenMap;
 
 /**
  * ClusterInfo is an object representing a map of nodes to {@link DiskUsage}
- * and a map of shard ids to shard sizes, see
+ * and maps of shard ids to shard sizes and to the indexing and search rates
+ * of the shards, see
  * <code>InternalClusterInfoService.shardIdentifierFromRouting(String)</code>
- * for the key used in the shardSizes map
+ * for the key used in the shard maps
  */
 public class ClusterInfo {
     private final ImmutableOpenMap<String, DiskUsage> leastAvailableSpaceUsage;
@@ -34,11 +36,23 @@ public class ClusterInfo {
     final ImmutableOpenMap<String, Long> shardSizes;
     public static final ClusterInfo EMPTY = new ClusterInfo();
     private final ImmutableOpenMap<ShardRouting, String> routingToDataPath;
+    private final ImmutableOpenMap<String, Double> shardIndexingRates;
+    private final ImmutableOpenMap<String, Double> shardSearchRates;
 
     protected ClusterInfo() {
        this(ImmutableOpenMap.of(), ImmutableOpenMap.of(), ImmutableOpenMap.of(), ImmutableOpenMap.of());
     }
 
+    /**
+     * Creates a new ClusterInfo instance without shard indexing and search rates.
+     */
+    public ClusterInfo(ImmutableOpenMap<String, DiskUsage> leastAvailableSpaceUsage,
+            ImmutableOpenMap<String, DiskUsage> mostAvailableSpaceUsage, ImmutableOpenMap<String, Long> shardSizes,
+            ImmutableOpenMap<ShardRouting, String> routingToDataPath) {
+        this(leastAvailableSpaceUsage, mostAvailableSpaceUsage, shardSizes, routingToDataPath, ImmutableOpenMap.of(),
+            ImmutableOpenMap.of());
+    }
+
     /**
      * Creates a new ClusterInfo instance.
      *
@@ -46,15 +60,20 @@ public class ClusterInfo {
      * @param mostAvailableSpaceUsage  a node id to disk usage mapping for the path that has the most available space on the node.
      * @param shardSizes a shardkey to size in bytes mapping per shard.
      * @param routingToDataPath the shard routing to datapath mapping
+     * @param shardIndexingRates a shardkey to indexing operations per second mapping per shard.
+     * @param shardSearchRates a shardkey to search queries per second mapping per shard.
      * @see #shardIdentifierFromRouting
      */
     public ClusterInfo(ImmutableOpenMap<String, DiskUsage> leastAvailableSpaceUsage,
             ImmutableOpenMap<String, DiskUsage> mostAvailableSpaceUsage, ImmutableOpenMap<String, Long> shardSizes,
-            ImmutableOpenMap<ShardRouting, String> routingToDataPath) {
+            ImmutableOpenMap<ShardRouting, String> routingToDataPath, ImmutableOpenMap<String, Double> shardIndexingRates,
+            ImmutableOpenMap<String, Double> shardSearchRates) {
         this.leastAvailableSpaceUsage = leastAvailableSpaceUsage;
         this.shardSizes = shardSizes;
         this.mostAvailableSpaceUsage = mostAvailableSpaceUsage;
         this.routingToDataPath = routingToDataPath;
+        this.shardIndexingRates = shardIndexingRates;
+        this.shardSearchRates = shardSearchRates;
     }
 
     /**
@@ -93,6 +112,49 @@ public class ClusterInfo {
         return shardSize == null ? defaultValue : shardSize;
     }
 
+    /**
+     * Returns the number of indexing operations per second of the given shard or <code>defaultValue</code> if that metric is
+     * not available.
+     */
+    public double getShardIndexingRate(ShardRouting shardRouting, double defaultValue) {
+        Double rate = shardIndexingRates.get(shardIdentifierFromRouting(shardRouting));
+        return rate == null ? defaultValue : rate;
+    }
+
+    /**
+     * Returns the number of search queries per second of the given shard or <code>defaultValue</code> if that metric is
+     * not available.
+     */
+    public double getShardSearchRate(ShardRouting shardRouting, double defaultValue) {
+        Double rate = shardSearchRates.get(shardIdentifierFromRouting(shardRouting));
+        return rate == null ? defaultValue : rate;
+    }
+
+    /**
+     * Returns the average number of indexing operations per second of the shards that report it, or <code>0</code> if none does.
+     */
+    public double getAverageShardIndexingRate() {
+        return average(shardIndexingRates);
+    }
+
+    /**
+     * Returns the average number of search queries per second of the shards that report it, or <code>0</code> if none does.
+     */
+    public double getAverageShardSearchRate() {
+        return average(shardSearchRates);
+    }
+
+    private static double average(ImmutableOpenMap<String, Double> rates) {
+        if (rates.isEmpty()) {
+            return 0;
+        }
+        double sum = 0;
+        for (ObjectCursor<Double> rate : rates.values()) {
+            sum += rate.value;
+        }
+        return sum / rates.size();
+    }
+
     /**
      * Method that incorporates the ShardId for the shard into a string that
      * includes a 'p' or 'r' depending on whether the shard is a primary.
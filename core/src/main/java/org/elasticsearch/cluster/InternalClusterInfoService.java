@@ -52,7 +52,9 @@ import org.elasticsearch.monitor.fs.FsInfo;
 import org.elasticsearch.threadpool.ThreadPool;
 import org.elasticsearch.transport.ReceiveTimeoutTransportException;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
@@ -65,8 +67,10 @@ import java.util.concurrent.TimeUnit;
  * Listens for changes in the number of data nodes and immediately submits a
  * ClusterInfoUpdateJob if a node has been added.
  *
- * Every time the timer runs, gathers information about the disk usage and
- * shard sizes across the cluster.
+ * Every time the timer runs, gathers information about the disk usage,
+ * shard sizes and the indexing and search rates of the shards across the cluster.
+ * The rates are derived from the change of the shards' operation counts since
+ * the previous run.
  */
 public class InternalClusterInfoService extends AbstractComponent implements ClusterInfoService, LocalNodeMasterListener, ClusterStateListener {
 
@@ -83,6 +87,10 @@ public class InternalClusterInfoService extends AbstractComponent implements Clu
     private volatile ImmutableOpenMap<String, DiskUsage> mostAvailableSpaceUsages;
     private volatile ImmutableOpenMap<ShardRouting, String> shardRoutingToDataPath;
     private volatile ImmutableOpenMap<String, Long> shardSizes;
+    private volatile ImmutableOpenMap<String, Double> shardIndexingRates;
+    private volatile ImmutableOpenMap<String, Double> shardSearchRates;
+    // the operation counts of each shard copy, keyed by allocation id, as of the previous refresh
+    private final Map<String, ShardOperationCounts> previousOperationCounts = new HashMap<>();
     private volatile boolean isMaster = false;
     private volatile boolean enabled;
     private volatile TimeValue fetchTimeout;
@@ -102,6 +110,8 @@ public class InternalClusterInfoService extends AbstractComponent implements Clu
         this.mostAvailableSpaceUsages = ImmutableOpenMap.of();
         this.shardRoutingToDataPath = ImmutableOpenMap.of();
         this.shardSizes = ImmutableOpenMap.of();
+        this.shardIndexingRates = ImmutableOpenMap.of();
+        this.shardSearchRates = ImmutableOpenMap.of();
         this.transportNodesStatsAction = transportNodesStatsAction;
         this.transportIndicesStatsAction = transportIndicesStatsAction;
         this.clusterService = clusterService;
@@ -206,7 +216,8 @@ public class InternalClusterInfoService extends AbstractComponent implements Clu
 
     @Override
     public ClusterInfo getClusterInfo() {
-        return new ClusterInfo(leastAvailableSpaceUsages, mostAvailableSpaceUsages, shardSizes, shardRoutingToDataPath);
+        return new ClusterInfo(leastAvailableSpaceUsages, mostAvailableSpaceUsages, shardSizes, shardRoutingToDataPath,
+            shardIndexingRates, shardSearchRates);
     }
 
     @Override
@@ -275,6 +286,8 @@ public class InternalClusterInfoService extends AbstractComponent implements Clu
         final IndicesStatsRequest indicesStatsRequest = new IndicesStatsRequest();
         indicesStatsRequest.clear();
         indicesStatsRequest.store(true);
+        indicesStatsRequest.indexing(true);
+        indicesStatsRequest.search(true);
 
         transportIndicesStatsAction.execute(indicesStatsRequest, new LatchedActionListener<>(listener, latch));
         return latch;
@@ -336,6 +349,14 @@ public class InternalClusterInfoService extends AbstractComponent implements Clu
                 buildShardLevelInfo(logger, stats, newShardSizes, newShardRoutingToDataPath, clusterService.state());
                 shardSizes = newShardSizes.build();
                 shardRoutingToDataPath = newShardRoutingToDataPath.build();
+                ImmutableOpenMap.Builder<String, Double> newShardIndexingRates = ImmutableOpenMap.builder();
+                ImmutableOpenMap.Builder<String, Double> newShardSearchRates = ImmutableOpenMap.builder();
+                synchronized (previousOperationCounts) {
+                    buildShardRates(stats, System.nanoTime(), previousOperationCounts, shardIndexingRates, shardSearchRates,
+                        newShardIndexingRates, newShardSearchRates);
+                }
+                shardIndexingRates = newShardIndexingRates.build();
+                shardSearchRates = newShardSearchRates.build();
             }
 
             @Override
@@ -353,6 +374,8 @@ public class InternalClusterInfoService extends AbstractComponent implements Clu
                     // we empty the usages list, to be safe - we don't know what's going on.
                     shardSizes = ImmutableOpenMap.of();
                     shardRoutingToDataPath = ImmutableOpenMap.of();
+                    shardIndexingRates = ImmutableOpenMap.of();
+                    shardSearchRates = ImmutableOpenMap.of();
                 }
             }
         });
@@ -404,6 +427,71 @@ public class InternalClusterInfoService extends AbstractComponent implements Clu
         }
     }
 
+    /**
+     * Computes the indexing and search rates of each shard from the difference between its current operation counts and
+     * the ones recorded in <code>previousCounts</code>, which is updated to the current counts. The counts are tracked per
+     * shard copy while the rates are keyed by shard, see {@link ClusterInfo#shardIdentifierFromRouting(ShardRouting)}.
+     * Shard copies seen for the first time or whose counts went backwards, e.g. because they were relocated or recovered
+     * anew, keep the previous rate of their shard until their own rate is known, so that a relocated shard doesn't look idle.
+     * The copies of a shard that share a key, such as the replicas, are reported with the highest rate among them.
+     */
+    static void buildShardRates(ShardStats[] stats, long nowInNanos, Map<String, ShardOperationCounts> previousCounts,
+                                ImmutableOpenMap<String, Double> previousIndexingRates,
+                                ImmutableOpenMap<String, Double> previousSearchRates,
+                                ImmutableOpenMap.Builder<String, Double> newShardIndexingRates,
+                                ImmutableOpenMap.Builder<String, Double> newShardSearchRates) {
+        final Map<String, ShardOperationCounts> currentCounts = new HashMap<>();
+        for (ShardStats s : stats) {
+            final ShardRouting shardRouting = s.getShardRouting();
+            if (shardRouting.allocationId() == null || s.getStats().getIndexing() == null || s.getStats().getSearch() == null) {
+                continue;
+            }
+            final ShardOperationCounts counts = new ShardOperationCounts(s.getStats().getIndexing().getTotal().getIndexCount(),
+                s.getStats().getSearch().getTotal().getQueryCount(), nowInNanos);
+            final String allocationId = shardRouting.allocationId().getId();
+            currentCounts.put(allocationId, counts);
+            final ShardOperationCounts previous = previousCounts.get(allocationId);
+            final String sid = ClusterInfo.shardIdentifierFromRouting(shardRouting);
+            if (previous == null || nowInNanos <= previous.timestampInNanos
+                || counts.indexCount < previous.indexCount || counts.queryCount < previous.queryCount) {
+                final Double previousIndexingRate = previousIndexingRates.get(sid);
+                if (previousIndexingRate != null) {
+                    putMax(newShardIndexingRates, sid, previousIndexingRate);
+                }
+                final Double previousSearchRate = previousSearchRates.get(sid);
+                if (previousSearchRate != null) {
+                    putMax(newShardSearchRates, sid, previousSearchRate);
+                }
+                continue;
+            }
+            final double seconds = (nowInNanos - previous.timestampInNanos) / (double) TimeUnit.SECONDS.toNanos(1);
+            putMax(newShardIndexingRates, sid, (counts.indexCount - previous.indexCount) / seconds);
+            putMax(newShardSearchRates, sid, (counts.queryCount - previous.queryCount) / seconds);
+        }
+        // only keep the copies that still exist
+        previousCounts.clear();
+        previousCounts.putAll(currentCounts);
+    }
+
+    private static void putMax(ImmutableOpenMap.Builder<String, Double> rates, String sid, double rate) {
+        Double existing = rates.get(sid);
+        if (existing == null || existing < rate) {
+            rates.put(sid, rate);
+        }
+    }
+
+    static final class ShardOperationCounts {
+        final long indexCount;
+        final long queryCount;
+        final long timestampInNanos;
+
+        ShardOperationCounts(long indexCount, long queryCount, long timestampInNanos) {
+            this.indexCount = indexCount;
+            this.queryCount = queryCount;
+            this.timestampInNanos = timestampInNanos;
+        }
+    }
+
     static void fillDiskUsagePerNode(ESLogger logger, List<NodeStats> nodeStatsArray,
             ImmutableOpenMap.Builder<String, DiskUsage> newLeastAvaiableUsages,
             ImmutableOpenMap.Builder<String, DiskUsage> newMostAvaiableUsages) {
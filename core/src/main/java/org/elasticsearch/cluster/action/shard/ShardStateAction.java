@@ -68,6 +68,7 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
 
 public class ShardStateAction extends AbstractComponent {
@@ -87,7 +88,7 @@ public class ShardStateAction extends AbstractComponent {
         this.clusterService = clusterService;
         this.threadPool = threadPool;
 
-        transportService.registerRequestHandler(SHARD_STARTED_ACTION_NAME, ShardRoutingEntry::new, ThreadPool.Names.SAME, new ShardStartedTransportHandler(clusterService, new ShardStartedClusterStateTaskExecutor(allocationService, logger), logger));
+        transportService.registerRequestHandler(SHARD_STARTED_ACTION_NAME, ShardRoutingEntry::new, ThreadPool.Names.SAME, new ShardStartedTransportHandler(clusterService, new ShardStartedClusterStateTaskExecutor(allocationService, routingService, logger), logger));
         transportService.registerRequestHandler(SHARD_FAILED_ACTION_NAME, ShardRoutingEntry::new, ThreadPool.Names.SAME, new ShardFailedTransportHandler(clusterService, new ShardFailedClusterStateTaskExecutor(allocationService, routingService, logger), logger));
     }
 
@@ -355,12 +356,21 @@ public class ShardStateAction extends AbstractComponent {
         }
     }
 
-    private static class ShardStartedClusterStateTaskExecutor implements ClusterStateTaskExecutor<ShardRoutingEntry>, ClusterStateTaskListener {
+    /**
+     * Marks the started shards as active. With the default reroute window of {@code 0ms} the reroute runs as part of the same
+     * cluster state update. With a positive window the reroute is instead requested once the resulting cluster state has been
+     * published, so that the reroutes of successive batches of started shards are coalesced by the {@link RoutingService}
+     * instead of each batch running a full reroute on its own.
+     */
+    static class ShardStartedClusterStateTaskExecutor implements ClusterStateTaskExecutor<ShardRoutingEntry>, ClusterStateTaskListener {
         private final AllocationService allocationService;
+        private final RoutingService routingService;
         private final ESLogger logger;
+        private final AtomicBoolean deferredReroute = new AtomicBoolean();
 
-        public ShardStartedClusterStateTaskExecutor(AllocationService allocationService, ESLogger logger) {
+        ShardStartedClusterStateTaskExecutor(AllocationService allocationService, RoutingService routingService, ESLogger logger) {
             this.allocationService = allocationService;
+            this.routingService = routingService;
             this.logger = logger;
         }
 
@@ -373,11 +383,15 @@ public class ShardStateAction extends AbstractComponent {
             }
             ClusterState maybeUpdatedState = currentState;
             try {
+                final boolean deferReroute = routingService.getRerouteWindow().millis() > 0;
                 RoutingAllocation.Result result =
-                    allocationService.applyStartedShards(currentState, shardRoutingsToBeApplied, true);
+                    allocationService.applyStartedShards(currentState, shardRoutingsToBeApplied, deferReroute == false);
                 if (result.changed()) {
                     maybeUpdatedState = ClusterState.builder(currentState).routingResult(result).build();
                 }
+                if (deferReroute) {
+                    deferredReroute.set(true);
+                }
                 builder.successes(tasks);
             } catch (Throwable t) {
                 builder.failures(tasks, t);
@@ -386,6 +400,13 @@ public class ShardStateAction extends AbstractComponent {
             return builder.build(maybeUpdatedState);
         }
 
+        @Override
+        public void clusterStatePublished(ClusterChangedEvent clusterChangedEvent) {
+            if (deferredReroute.compareAndSet(true, false)) {
+                routingService.reroute("shards started");
+            }
+        }
+
         @Override
         public void onFailure(String source, Throwable t) {
             logger.error("unexpected failure during [{}]", t, source);
@@ -19,9 +19,11 @@
 
 package org.elasticsearch.cluster.routing;
 
+import com.carrotsearch.hppc.ObjectIntHashMap;
 import org.apache.lucene.util.CollectionUtil;
 import org.elasticsearch.cluster.node.DiscoveryNode;
 import org.elasticsearch.common.Nullable;
+import org.elasticsearch.index.Index;
 import org.elasticsearch.index.shard.ShardId;
 
 import java.util.ArrayList;
@@ -44,6 +46,14 @@ public class RoutingNode implements Iterable<ShardRouting> {
 
     private final LinkedHashMap<ShardId, ShardRouting> shards; // LinkedHashMap to preserve order
 
+    /*
+     * Aggregates over the shards above that the allocation deciders ask for over and over again during an allocation. They are
+     * maintained incrementally as shards are added, updated and removed instead of iterating over all shards of the node.
+     */
+    private final LinkedHashMap<ShardId, ShardRouting> recoveringShards = new LinkedHashMap<>(); // initializing or relocating
+    private final ObjectIntHashMap<Index> owningShardsPerIndex = new ObjectIntHashMap<>();
+    private int owningShards;
+
     public RoutingNode(String nodeId, DiscoveryNode node, ShardRouting... shards) {
         this(nodeId, node, buildShardRoutingMap(shards));
     }
@@ -52,6 +62,9 @@ public class RoutingNode implements Iterable<ShardRouting> {
         this.nodeId = nodeId;
         this.node = node;
         this.shards = shards;
+        for (ShardRouting shard : shards.values()) {
+            addToAggregates(shard);
+        }
     }
 
     private static LinkedHashMap<ShardId, ShardRouting> buildShardRoutingMap(ShardRouting... shardRoutings) {
@@ -106,6 +119,7 @@ public class RoutingNode implements Iterable<ShardRouting> {
             throw new IllegalStateException("Trying to add a shard " + shard.shardId() + " to a node [" + nodeId + "] where it already exists");
         }
         shards.put(shard.shardId(), shard);
+        addToAggregates(shard);
     }
 
     void update(ShardRouting oldShard, ShardRouting newShard) {
@@ -116,11 +130,49 @@ public class RoutingNode implements Iterable<ShardRouting> {
         }
         ShardRouting previousValue = shards.put(newShard.shardId(), newShard);
         assert previousValue == oldShard : "expected shard " + previousValue + " but was " + oldShard;
+        removeFromAggregates(previousValue);
+        addToAggregates(newShard);
     }
 
     void remove(ShardRouting shard) {
         ShardRouting previousValue = shards.remove(shard.shardId());
         assert previousValue == shard : "expected shard " + previousValue + " but was " + shard;
+        removeFromAggregates(previousValue);
+    }
+
+    private void addToAggregates(ShardRouting shard) {
+        if (shard.initializing() || shard.relocating()) {
+            recoveringShards.put(shard.shardId(), shard);
+        }
+        if (shard.relocating() == false) {
+            owningShards++;
+            owningShardsPerIndex.addTo(shard.index(), 1);
+        }
+    }
+
+    private void removeFromAggregates(ShardRouting shard) {
+        if (shard.initializing() || shard.relocating()) {
+            recoveringShards.remove(shard.shardId());
+        }
+        if (shard.relocating() == false) {
+            owningShards--;
+            if (owningShardsPerIndex.addTo(shard.index(), -1) == 0) {
+                owningShardsPerIndex.remove(shard.index());
+            }
+        }
+    }
+
+    /**
+     * Returns the shards to look at for the given states, which are only the initializing and relocating ones if the states
+     * are a subset of those.
+     */
+    private Iterable<ShardRouting> shardsToScan(ShardRoutingState... states) {
+        for (ShardRoutingState state : states) {
+            if (state != ShardRoutingState.INITIALIZING && state != ShardRoutingState.RELOCATING) {
+                return this;
+            }
+        }
+        return recoveringShards.values();
     }
 
     /**
@@ -130,7 +182,7 @@ public class RoutingNode implements Iterable<ShardRouting> {
      */
     public int numberOfShardsWithState(ShardRoutingState... states) {
         int count = 0;
-        for (ShardRouting shardEntry : this) {
+        for (ShardRouting shardEntry : shardsToScan(states)) {
             for (ShardRoutingState state : states) {
                 if (shardEntry.state() == state) {
                     count++;
@@ -147,7 +199,7 @@ public class RoutingNode implements Iterable<ShardRouting> {
      */
     public List<ShardRouting> shardsWithState(ShardRoutingState... states) {
         List<ShardRouting> shards = new ArrayList<>();
-        for (ShardRouting shardEntry : this) {
+        for (ShardRouting shardEntry : shardsToScan(states)) {
             for (ShardRoutingState state : states) {
                 if (shardEntry.state() == state) {
                     shards.add(shardEntry);
@@ -166,7 +218,7 @@ public class RoutingNode implements Iterable<ShardRouting> {
     public List<ShardRouting> shardsWithState(String index, ShardRoutingState... states) {
         List<ShardRouting> shards = new ArrayList<>();
 
-        for (ShardRouting shardEntry : this) {
+        for (ShardRouting shardEntry : shardsToScan(states)) {
             if (!shardEntry.getIndexName().equals(index)) {
                 continue;
             }
@@ -183,13 +235,28 @@ public class RoutingNode implements Iterable<ShardRouting> {
      * The number of shards on this node that will not be eventually relocated.
      */
     public int numberOfOwningShards() {
+        assert owningShards == countOwningShards(null) : "owning shards [" + owningShards + "] but counted ["
+            + countOwningShards(null) + "]";
+        return owningShards;
+    }
+
+    /**
+     * The number of shards of the given index on this node that will not be eventually relocated.
+     */
+    public int numberOfOwningShardsForIndex(Index index) {
+        final int count = owningShardsPerIndex.getOrDefault(index, 0);
+        assert count == countOwningShards(index) : "owning shards of " + index + " [" + count + "] but counted ["
+            + countOwningShards(index) + "]";
+        return count;
+    }
+
+    private int countOwningShards(@Nullable Index index) {
         int count = 0;
         for (ShardRouting shardEntry : this) {
-            if (shardEntry.state() != ShardRoutingState.RELOCATING) {
+            if (shardEntry.state() != ShardRoutingState.RELOCATING && (index == null || shardEntry.index().equals(index))) {
                 count++;
             }
         }
-
         return count;
     }
 
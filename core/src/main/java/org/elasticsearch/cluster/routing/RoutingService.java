@@ -28,7 +28,12 @@ import org.elasticsearch.cluster.service.ClusterService;
 import org.elasticsearch.common.Priority;
 import org.elasticsearch.common.component.AbstractLifecycleComponent;
 import org.elasticsearch.common.inject.Inject;
+import org.elasticsearch.common.settings.ClusterSettings;
+import org.elasticsearch.common.settings.Setting;
+import org.elasticsearch.common.settings.Setting.Property;
 import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.threadpool.ThreadPool;
 
 import java.util.concurrent.atomic.AtomicBoolean;
 
@@ -43,21 +48,42 @@ import java.util.concurrent.atomic.AtomicBoolean;
  * is running on is the clusters master node this service will not perform any
  * actions.
  * </p>
+ * <p>
+ * Reroutes requested while one is already pending are coalesced into the pending one. Setting
+ * {@link #CLUSTER_ROUTING_REROUTE_WINDOW_SETTING} to a positive value additionally holds back the submission
+ * of a reroute for that window, so that the reroutes requested by successive batches of cluster state updates
+ * (e.g. shards being started during a full cluster restart) are merged into a single one.
+ * </p>
  */
 public class RoutingService extends AbstractLifecycleComponent {
 
     private static final String CLUSTER_UPDATE_TASK_SOURCE = "cluster_reroute";
 
+    public static final Setting<TimeValue> CLUSTER_ROUTING_REROUTE_WINDOW_SETTING =
+        Setting.positiveTimeSetting("cluster.routing.allocation.reroute_window", TimeValue.timeValueMillis(0),
+            Property.Dynamic, Property.NodeScope);
+
     private final ClusterService clusterService;
     private final AllocationService allocationService;
+    private final ThreadPool threadPool;
 
     private AtomicBoolean rerouting = new AtomicBoolean();
 
+    private volatile TimeValue rerouteWindow;
+
     @Inject
-    public RoutingService(Settings settings, ClusterService clusterService, AllocationService allocationService) {
+    public RoutingService(Settings settings, ClusterSettings clusterSettings, ThreadPool threadPool, ClusterService clusterService,
+                          AllocationService allocationService) {
         super(settings);
         this.clusterService = clusterService;
         this.allocationService = allocationService;
+        this.threadPool = threadPool;
+        this.rerouteWindow = CLUSTER_ROUTING_REROUTE_WINDOW_SETTING.get(settings);
+        clusterSettings.addSettingsUpdateConsumer(CLUSTER_ROUTING_REROUTE_WINDOW_SETTING, this::setRerouteWindow);
+    }
+
+    private void setRerouteWindow(TimeValue rerouteWindow) {
+        this.rerouteWindow = rerouteWindow;
     }
 
     @Override
@@ -76,6 +102,13 @@ public class RoutingService extends AbstractLifecycleComponent {
         return this.allocationService;
     }
 
+    /**
+     * Returns how long a requested reroute is held back before it is submitted.
+     */
+    public TimeValue getRerouteWindow() {
+        return rerouteWindow;
+    }
+
     /**
      * Initiates a reroute.
      */
@@ -93,6 +126,26 @@ public class RoutingService extends AbstractLifecycleComponent {
                 logger.trace("already has pending reroute, ignoring {}", reason);
                 return;
             }
+            final TimeValue window = rerouteWindow;
+            if (window.millis() > 0) {
+                logger.trace("delaying reroute {} by [{}] to coalesce it with subsequent reroutes", reason, window);
+                threadPool.schedule(window, ThreadPool.Names.SAME, () -> submitReroute(reason));
+            } else {
+                submitReroute(reason);
+            }
+        } catch (Throwable e) {
+            rerouting.set(false);
+            ClusterState state = clusterService.state();
+            logger.warn("failed to reroute routing table, current state:\n{}", e, state.prettyPrint());
+        }
+    }
+
+    private void submitReroute(String reason) {
+        try {
+            if (lifecycle.stopped()) {
+                rerouting.set(false);
+                return;
+            }
             logger.trace("rerouting {}", reason);
             clusterService.submitStateUpdateTask(CLUSTER_UPDATE_TASK_SOURCE + "(" + reason + ")", new ClusterStateUpdateTask(Priority.HIGH) {
                 @Override
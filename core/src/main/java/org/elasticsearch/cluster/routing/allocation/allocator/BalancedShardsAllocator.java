@@ -21,6 +21,7 @@ package org.elasticsearch.cluster.routing.allocation.allocator;
 
 import org.apache.lucene.util.ArrayUtil;
 import org.apache.lucene.util.IntroSorter;
+import org.elasticsearch.cluster.ClusterInfo;
 import org.elasticsearch.cluster.metadata.IndexMetaData;
 import org.elasticsearch.cluster.metadata.MetaData;
 import org.elasticsearch.cluster.node.DiscoveryNode;
@@ -75,12 +76,15 @@ public class BalancedShardsAllocator extends AbstractComponent implements Shards
         Setting.floatSetting("cluster.routing.allocation.balance.index", 0.55f, Property.Dynamic, Property.NodeScope);
     public static final Setting<Float> SHARD_BALANCE_FACTOR_SETTING =
         Setting.floatSetting("cluster.routing.allocation.balance.shard", 0.45f, Property.Dynamic, Property.NodeScope);
+    public static final Setting<Float> LOAD_BALANCE_FACTOR_SETTING =
+        Setting.floatSetting("cluster.routing.allocation.balance.load", 0.0f, 0.0f, Property.Dynamic, Property.NodeScope);
     public static final Setting<Float> THRESHOLD_SETTING =
         Setting.floatSetting("cluster.routing.allocation.balance.threshold", 1.0f, 0.0f,
             Property.Dynamic, Property.NodeScope);
 
     private volatile WeightFunction weightFunction;
     private volatile float threshold;
+    private boolean skipBalancedIndices = true;
 
     public BalancedShardsAllocator(Settings settings) {
         this(settings, new ClusterSettings(settings, ClusterSettings.BUILT_IN_CLUSTER_SETTINGS));
@@ -89,14 +93,20 @@ public class BalancedShardsAllocator extends AbstractComponent implements Shards
     @Inject
     public BalancedShardsAllocator(Settings settings, ClusterSettings clusterSettings) {
         super(settings);
-        setWeightFunction(INDEX_BALANCE_FACTOR_SETTING.get(settings), SHARD_BALANCE_FACTOR_SETTING.get(settings));
+        weightFunction = new WeightFunction(INDEX_BALANCE_FACTOR_SETTING.get(settings), SHARD_BALANCE_FACTOR_SETTING.get(settings),
+            LOAD_BALANCE_FACTOR_SETTING.get(settings));
         setThreshold(THRESHOLD_SETTING.get(settings));
         clusterSettings.addSettingsUpdateConsumer(INDEX_BALANCE_FACTOR_SETTING, SHARD_BALANCE_FACTOR_SETTING, this::setWeightFunction);
+        clusterSettings.addSettingsUpdateConsumer(LOAD_BALANCE_FACTOR_SETTING, this::setLoadBalance);
         clusterSettings.addSettingsUpdateConsumer(THRESHOLD_SETTING, this::setThreshold);
     }
 
     private void setWeightFunction(float indexBalance, float shardBalanceFactor) {
-        weightFunction = new WeightFunction(indexBalance, shardBalanceFactor);
+        weightFunction = new WeightFunction(indexBalance, shardBalanceFactor, weightFunction.loadBalance);
+    }
+
+    private void setLoadBalance(float loadBalance) {
+        weightFunction = new WeightFunction(weightFunction.indexBalance, weightFunction.shardBalance, loadBalance);
     }
 
     private void setThreshold(float threshold) {
@@ -115,13 +125,21 @@ public class BalancedShardsAllocator extends AbstractComponent implements Shards
             /* with no nodes this is pointless */
             return false;
         }
-        final Balancer balancer = new Balancer(logger, allocation, weightFunction, threshold);
+        final Balancer balancer = new Balancer(logger, allocation, weightFunction, threshold, skipBalancedIndices);
         boolean changed = balancer.allocateUnassigned();
         changed |= balancer.moveShards();
         changed |= balancer.balance();
         return changed;
     }
 
+    /**
+     * Sets whether indices that are balanced across all nodes are skipped when rebalancing. Only tests turn this off, to compare
+     * the outcome with balancing every index.
+     */
+    void setSkipBalancedIndices(boolean skipBalancedIndices) {
+        this.skipBalancedIndices = skipBalancedIndices;
+    }
+
     /**
      * Returns the currently configured delta threshold
      */
@@ -143,6 +161,13 @@ public class BalancedShardsAllocator extends AbstractComponent implements Shards
         return weightFunction.shardBalance;
     }
 
+    /**
+     * Returns the load related weight factor.
+     */
+    public float getLoadBalance() {
+        return weightFunction.loadBalance;
+    }
+
 
     /**
      * This class is the primary weight function used to create balanced over nodes and shards in the cluster.
@@ -150,6 +175,7 @@ public class BalancedShardsAllocator extends AbstractComponent implements Shards
      * <ul>
      * <li><code>index balance</code> - balance property over shards per index</li>
      * <li><code>shard balance</code> - balance property over shards per cluster</li>
+     * <li><code>load balance</code> - balance property over the indexing and search load of the shards per cluster</li>
      * </ul>
      * <p>
      * Each of these properties are expressed as factor such that the properties factor defines the relative importance of the property for the
@@ -164,44 +190,76 @@ public class BalancedShardsAllocator extends AbstractComponent implements Shards
      * <li>
      * <code>weight<sub>node</sub>(node, index) = shardBalance * (node.numShards() - avgShardsPerNode)</code>
      * </li>
+     * <li>
+     * <code>weight<sub>load</sub>(node, index) = loadBalance * (node.load() - avgLoadPerNode)</code>
+     * </li>
      * </ul>
-     * <code>weight(node, index) = weight<sub>index</sub>(node, index) + weight<sub>node</sub>(node, index)</code>
+     * <code>weight(node, index) = weight<sub>index</sub>(node, index) + weight<sub>node</sub>(node, index) + weight<sub>load</sub>(node, index)</code>
+     * <p>
+     * The load of a node is the sum of the loads of its shards, see {@link ShardLoadModel}. When a shard is added to or removed
+     * from a node its own load is added or removed, so that the hot and the cold shards of an index are told apart. Only the
+     * index and shard balance factors are normalized, so that the load balance doesn't change the weights of clusters that
+     * don't report any load.
+     * </p>
      */
     public static class WeightFunction {
 
         private final float indexBalance;
         private final float shardBalance;
+        private final float loadBalance;
         private final float theta0;
         private final float theta1;
+        private final float theta2;
 
 
         public WeightFunction(float indexBalance, float shardBalance) {
+            this(indexBalance, shardBalance, 0.0f);
+        }
+
+        public WeightFunction(float indexBalance, float shardBalance, float loadBalance) {
             float sum = indexBalance + shardBalance;
             if (sum <= 0.0f) {
                 throw new IllegalArgumentException("Balance factors must sum to a value > 0 but was: " + sum);
             }
             theta0 = shardBalance / sum;
             theta1 = indexBalance / sum;
+            theta2 = loadBalance / sum;
             this.indexBalance = indexBalance;
             this.shardBalance = shardBalance;
+            this.loadBalance = loadBalance;
         }
 
         public float weight(Balancer balancer, ModelNode node, String index) {
-            return weight(balancer, node, index, 0);
+            return weight(balancer, node, index, 0, 0);
         }
 
-        public float weightShardAdded(Balancer balancer, ModelNode node, String index) {
-            return weight(balancer, node, index, 1);
+        public float weightShardAdded(Balancer balancer, ModelNode node, ShardRouting shard) {
+            return weight(balancer, node, shard.getIndexName(), 1, balancer.shardLoad(shard));
         }
 
-        public float weightShardRemoved(Balancer balancer, ModelNode node, String index) {
-            return weight(balancer, node, index, -1);
+        public float weightShardRemoved(Balancer balancer, ModelNode node, ShardRouting shard) {
+            return weight(balancer, node, shard.getIndexName(), -1, -balancer.shardLoad(shard));
         }
 
-        private float weight(Balancer balancer, ModelNode node, String index, int numAdditionalShards) {
-            final float weightShard = node.numShards() + numAdditionalShards - balancer.avgShardsPerNode();
-            final float weightIndex = node.numShards(index) + numAdditionalShards - balancer.avgShardsPerNode(index);
-            return theta0 * weightShard + theta1 * weightIndex;
+        private float weight(Balancer balancer, ModelNode node, String index, int numAdditionalShards, float additionalLoad) {
+            return weight(node, index, numAdditionalShards, additionalLoad, balancer.avgShardsPerNode(), balancer.avgShardsPerNode(index),
+                balancer.avgLoadPerNode());
+        }
+
+        /**
+         * Same as {@link #weight(Balancer, ModelNode, String)} but with the averages looked up once by the caller, which
+         * weighs all nodes for the same index.
+         */
+        float weight(ModelNode node, String index, int numAdditionalShards, float additionalLoad, float avgShardsPerNode,
+                     float avgShardsPerNodeForIndex, float avgLoadPerNode) {
+            final float weightShard = node.numShards() + numAdditionalShards - avgShardsPerNode;
+            final float weightIndex = node.numShards(index) + numAdditionalShards - avgShardsPerNodeForIndex;
+            final float weightLoad = node.load() + additionalLoad - avgLoadPerNode;
+            return theta0 * weightShard + theta1 * weightIndex + theta2 * weightLoad;
+        }
+
+        boolean usesLoad() {
+            return theta2 > 0.0f;
         }
     }
 
@@ -216,18 +274,45 @@ public class BalancedShardsAllocator extends AbstractComponent implements Shards
         private final WeightFunction weight;
 
         private final float threshold;
+        private final boolean skipBalancedIndices;
         private final MetaData metaData;
         private final float avgShardsPerNode;
+        private final ShardLoadModel loadModel;
+        private float avgLoadPerNode;
 
         public Balancer(ESLogger logger, RoutingAllocation allocation, WeightFunction weight, float threshold) {
+            this(logger, allocation, weight, threshold, true);
+        }
+
+        Balancer(ESLogger logger, RoutingAllocation allocation, WeightFunction weight, float threshold, boolean skipBalancedIndices) {
             this.logger = logger;
             this.allocation = allocation;
             this.weight = weight;
             this.threshold = threshold;
+            this.skipBalancedIndices = skipBalancedIndices;
             this.routingNodes = allocation.routingNodes();
             this.metaData = allocation.metaData();
             avgShardsPerNode = ((float) metaData.getTotalNumberOfShards()) / routingNodes.size();
+            loadModel = weight.usesLoad() ? ShardLoadModel.of(allocation.clusterInfo()) : ShardLoadModel.NONE;
             buildModelFromAssigned();
+            if (loadModel != ShardLoadModel.NONE) {
+                buildAvgLoadPerNode();
+            }
+        }
+
+        /**
+         * Computes the average load per node from the loads of the assigned and the unassigned shards. Moving or allocating
+         * shards doesn't change this average, so it is computed once.
+         */
+        private void buildAvgLoadPerNode() {
+            float totalLoad = 0;
+            for (ModelNode node : nodes.values()) {
+                totalLoad += node.load();
+            }
+            for (ShardRouting shard : routingNodes.unassigned()) {
+                totalLoad += loadModel.load(shard);
+            }
+            avgLoadPerNode = nodes.isEmpty() ? 0 : totalLoad / nodes.size();
         }
 
         /**
@@ -251,6 +336,20 @@ public class BalancedShardsAllocator extends AbstractComponent implements Shards
             return avgShardsPerNode;
         }
 
+        /**
+         * Returns the global average of the load per node
+         */
+        public float avgLoadPerNode() {
+            return avgLoadPerNode;
+        }
+
+        /**
+         * Returns the load of the given shard
+         */
+        public float shardLoad(ShardRouting shard) {
+            return loadModel.load(shard);
+        }
+
         /**
          * Returns a new {@link NodeSorter} that sorts the nodes based on their
          * current weight with respect to the index passed to the sorter. The
@@ -350,6 +449,12 @@ public class BalancedShardsAllocator extends AbstractComponent implements Shards
             final ModelNode[] modelNodes = sorter.modelNodes;
             final float[] weights = sorter.weights;
             for (String index : buildWeightOrderedIndices(sorter)) {
+                if (skipBalancedIndices && lessThan(sorter.delta(index), threshold)) {
+                    /* the weights of all nodes are within the threshold for this index, hence the weights of any subset of the
+                     * nodes are as well and the loop below can't relocate anything. Skip it rather than asking the deciders about
+                     * every node. The weights are re-calculated here as the relocations of previous indices change them. */
+                    continue;
+                }
                 IndexMetaData indexMetaData = metaData.index(index);
 
                 // find nodes that have a shard of this index or where shards of this index are allowed to stay
@@ -460,8 +565,7 @@ public class BalancedShardsAllocator extends AbstractComponent implements Shards
             final String[] indices = allocation.routingTable().indicesRouting().keys().toArray(String.class);
             final float[] deltas = new float[indices.length];
             for (int i = 0; i < deltas.length; i++) {
-                sorter.reset(indices[i]);
-                deltas[i] = sorter.delta();
+                deltas[i] = sorter.delta(indices[i]);
             }
             new IntroSorter() {
 
@@ -576,7 +680,7 @@ public class BalancedShardsAllocator extends AbstractComponent implements Shards
          */
         private void buildModelFromAssigned() {
             for (RoutingNode rn : routingNodes) {
-                ModelNode node = new ModelNode(rn);
+                ModelNode node = new ModelNode(rn, loadModel);
                 nodes.put(rn.nodeId(), node);
                 for (ShardRouting shard : rn) {
                     assert rn.nodeId().equals(shard.currentNodeId());
@@ -674,7 +778,7 @@ public class BalancedShardsAllocator extends AbstractComponent implements Shards
                             }
                             if (!node.containsShard(shard)) {
                                 // simulate weight if we would add shard to node
-                                float currentWeight = weight.weightShardAdded(this, node, shard.getIndexName());
+                                float currentWeight = weight.weightShardAdded(this, node, shard);
                                 /*
                                  * Unless the operation is not providing any gains we
                                  * don't check deciders
@@ -788,8 +892,10 @@ public class BalancedShardsAllocator extends AbstractComponent implements Shards
                         if (((allocationDecision.type() == Type.YES) || (allocationDecision.type() == Type.THROTTLE))
                                 && ((rebalanceDecision.type() == Type.YES) || (rebalanceDecision.type() == Type.THROTTLE))) {
                             if (maxNode.containsShard(shard)) {
-                                // simulate moving shard from maxNode to minNode
-                                final float delta = weight.weightShardAdded(this, minNode, idx) - weight.weightShardRemoved(this, maxNode, idx);
+                                // simulate moving shard from maxNode to minNode, shards with a different load leave a different
+                                // difference between the two nodes behind, so pick the one that brings them closest
+                                final float delta = Math.abs(weight.weightShardAdded(this, minNode, shard)
+                                    - weight.weightShardRemoved(this, maxNode, shard));
                                 if (delta < minCost ||
                                         (candidate != null && delta == minCost && candidate.id() > shard.id())) {
                                     /* this last line is a tie-breaker to make the shard allocation alg deterministic
@@ -834,10 +940,17 @@ public class BalancedShardsAllocator extends AbstractComponent implements Shards
     static class ModelNode implements Iterable<ModelIndex> {
         private final Map<String, ModelIndex> indices = new HashMap<>();
         private int numShards = 0;
+        private float load = 0;
         private final RoutingNode routingNode;
+        private final ShardLoadModel loadModel;
 
         public ModelNode(RoutingNode routingNode) {
+            this(routingNode, ShardLoadModel.NONE);
+        }
+
+        public ModelNode(RoutingNode routingNode, ShardLoadModel loadModel) {
             this.routingNode = routingNode;
+            this.loadModel = loadModel;
         }
 
         public ModelIndex getIndex(String indexId) {
@@ -861,6 +974,13 @@ public class BalancedShardsAllocator extends AbstractComponent implements Shards
             return index == null ? 0 : index.numShards();
         }
 
+        /**
+         * Returns the sum of the loads of the shards on this node
+         */
+        public float load() {
+            return load;
+        }
+
         public int highestPrimary(String index) {
             ModelIndex idx = indices.get(index);
             if (idx != null) {
@@ -877,6 +997,7 @@ public class BalancedShardsAllocator extends AbstractComponent implements Shards
             }
             index.addShard(shard);
             numShards++;
+            load += loadModel.load(shard);
         }
 
         public void removeShard(ShardRouting shard) {
@@ -888,6 +1009,7 @@ public class BalancedShardsAllocator extends AbstractComponent implements Shards
                 }
             }
             numShards--;
+            load -= loadModel.load(shard);
         }
 
         @Override
@@ -961,6 +1083,48 @@ public class BalancedShardsAllocator extends AbstractComponent implements Shards
         }
     }
 
+    /**
+     * The load of the shards derived from the indexing and search rates in the {@link ClusterInfo}. Each rate is normalized
+     * by the average rate of the shards that report it, and the load of a shard is the mean of its normalized rates, so
+     * that a shard with average indexing and search rates has a load of <tt>1.0</tt>. Shards without rates have no load.
+     */
+    static final class ShardLoadModel {
+
+        static final ShardLoadModel NONE = new ShardLoadModel(ClusterInfo.EMPTY, 0, 0);
+
+        private final ClusterInfo clusterInfo;
+        private final double avgIndexingRate;
+        private final double avgSearchRate;
+        private final int numRates;
+
+        private ShardLoadModel(ClusterInfo clusterInfo, double avgIndexingRate, double avgSearchRate) {
+            this.clusterInfo = clusterInfo;
+            this.avgIndexingRate = avgIndexingRate;
+            this.avgSearchRate = avgSearchRate;
+            this.numRates = (avgIndexingRate > 0 ? 1 : 0) + (avgSearchRate > 0 ? 1 : 0);
+        }
+
+        static ShardLoadModel of(ClusterInfo clusterInfo) {
+            final ShardLoadModel model = new ShardLoadModel(clusterInfo, clusterInfo.getAverageShardIndexingRate(),
+                clusterInfo.getAverageShardSearchRate());
+            return model.numRates == 0 ? NONE : model;
+        }
+
+        float load(ShardRouting shard) {
+            if (numRates == 0) {
+                return 0;
+            }
+            double load = 0;
+            if (avgIndexingRate > 0) {
+                load += clusterInfo.getShardIndexingRate(shard, 0) / avgIndexingRate;
+            }
+            if (avgSearchRate > 0) {
+                load += clusterInfo.getShardSearchRate(shard, 0) / avgSearchRate;
+            }
+            return (float) (load / numRates);
+        }
+    }
+
     static final class NodeSorter extends IntroSorter {
 
         final ModelNode[] modelNodes;
@@ -968,8 +1132,10 @@ public class BalancedShardsAllocator extends AbstractComponent implements Shards
         final float[] weights;
         private final WeightFunction function;
         private String index;
+        private float avgShardsPerNodeForIndex;
         private final Balancer balancer;
         private float pivotWeight;
+        private String pivotNodeId;
 
         public NodeSorter(ModelNode[] modelNodes, WeightFunction function, Balancer balancer) {
             this.function = function;
@@ -983,7 +1149,7 @@ public class BalancedShardsAllocator extends AbstractComponent implements Shards
          * nodes by weight, with minimal weight first.
          */
         public void reset(String index, int from, int to) {
-            this.index = index;
+            setIndex(index);
             for (int i = from; i < to; i++) {
                 weights[i] = weight(modelNodes[i]);
             }
@@ -994,8 +1160,35 @@ public class BalancedShardsAllocator extends AbstractComponent implements Shards
             reset(index, 0, modelNodes.length);
         }
 
+        /**
+         * Recalculates the weights of all nodes with respect to the given index and returns the delta between the maximum
+         * and the minimum weight. Unlike {@link #reset(String)} followed by {@link #delta()} this does not sort the nodes.
+         */
+        public float delta(String index) {
+            setIndex(index);
+            if (modelNodes.length == 0) {
+                return 0;
+            }
+            float min = Float.POSITIVE_INFINITY;
+            float max = Float.NEGATIVE_INFINITY;
+            for (int i = 0; i < modelNodes.length; i++) {
+                final float weight = weight(modelNodes[i]);
+                weights[i] = weight;
+                min = Math.min(min, weight);
+                max = Math.max(max, weight);
+            }
+            return max - min;
+        }
+
+        private void setIndex(String index) {
+            if (index.equals(this.index) == false) {
+                this.index = index;
+                this.avgShardsPerNodeForIndex = balancer.avgShardsPerNode(index);
+            }
+        }
+
         public float weight(ModelNode node) {
-            return function.weight(balancer, node, index);
+            return function.weight(node, index, 0, 0, balancer.avgShardsPerNode(), avgShardsPerNodeForIndex, balancer.avgLoadPerNode());
         }
 
         @Override
@@ -1008,19 +1201,24 @@ public class BalancedShardsAllocator extends AbstractComponent implements Shards
             weights[j] = tmpWeight;
         }
 
+        /* nodes of equal weight are ordered by their id, so that which of them the balancer picks doesn't depend on the order
+         * the nodes were left in by the indices that were balanced (or skipped) before */
         @Override
         protected int compare(int i, int j) {
-            return Float.compare(weights[i], weights[j]);
+            final int cmp = Float.compare(weights[i], weights[j]);
+            return cmp != 0 ? cmp : modelNodes[i].getNodeId().compareTo(modelNodes[j].getNodeId());
         }
 
         @Override
         protected void setPivot(int i) {
             pivotWeight = weights[i];
+            pivotNodeId = modelNodes[i].getNodeId();
         }
 
         @Override
         protected int comparePivot(int j) {
-            return Float.compare(pivotWeight, weights[j]);
+            final int cmp = Float.compare(pivotWeight, weights[j]);
+            return cmp != 0 ? cmp : pivotNodeId.compareTo(modelNodes[j].getNodeId());
         }
 
         public float delta() {
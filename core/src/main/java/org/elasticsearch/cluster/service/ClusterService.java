@@ -115,6 +115,8 @@ public class ClusterService extends AbstractLifecycleComponent {
     private final Collection<ClusterStateListener> clusterStateListeners = new CopyOnWriteArrayList<>();
     private final Collection<ClusterStateListener> lastClusterStateListeners = new CopyOnWriteArrayList<>();
     private final Map<ClusterStateTaskExecutor, List<UpdateTask>> updateTasksPerExecutor = new HashMap<>();
+    // the size and execution time of the last batch per kind of executor, exposed through the pending tasks
+    private final Map<Class<?>, LastBatch> lastBatchPerExecutorType = ConcurrentCollections.newConcurrentMap();
     // TODO this is rather frequently changing I guess a Synced Set would be better here and a dedicated remove API
     private final Collection<ClusterStateListener> postAppliedListeners = new CopyOnWriteArrayList<>();
     private final Iterable<ClusterStateListener> preAppliedListeners = Iterables.concat(priorityClusterStateListeners,
@@ -450,6 +452,8 @@ public class ClusterService extends AbstractLifecycleComponent {
         for (PrioritizedEsThreadPoolExecutor.Pending pending : pendings) {
             final String source;
             final long timeInQueue;
+            int batchSize = 1;
+            LastBatch lastBatch = null;
             // we have to capture the task as it will be nulled after execution and we don't want to change while we check things here.
             final Object task = pending.task;
             if (task == null) {
@@ -458,14 +462,25 @@ public class ClusterService extends AbstractLifecycleComponent {
                 SourcePrioritizedRunnable runnable = (SourcePrioritizedRunnable) task;
                 source = runnable.source();
                 timeInQueue = runnable.getAgeInMillis();
+                if (runnable instanceof UpdateTask) {
+                    ClusterStateTaskExecutor<?> executor = ((UpdateTask<?>) runnable).executor;
+                    synchronized (updateTasksPerExecutor) {
+                        List<UpdateTask> batch = updateTasksPerExecutor.get(executor);
+                        if (batch != null) {
+                            batchSize = batch.size();
+                        }
+                    }
+                    lastBatch = lastBatchPerExecutorType.get(executor.getClass());
+                }
             } else {
                 assert false : "expected SourcePrioritizedRunnable got " + task.getClass();
                 source = "unknown [" + task.getClass() + "]";
                 timeInQueue = 0;
             }
 
-            pendingClusterTasks.add(
-                    new PendingClusterTask(pending.insertionOrder, pending.priority, new Text(source), timeInQueue, pending.executing));
+            pendingClusterTasks.add(new PendingClusterTask(pending.insertionOrder, pending.priority, new Text(source), timeInQueue,
+                    pending.executing, batchSize, lastBatch == null ? 0 : lastBatch.size,
+                    lastBatch == null ? 0 : lastBatch.timeInMillis));
         }
         return pendingClusterTasks;
     }
@@ -559,6 +574,8 @@ public class ClusterService extends AbstractLifecycleComponent {
                     .failures(toExecute.stream().map(updateTask -> updateTask.task)::iterator, e)
                     .build(previousClusterState);
         }
+        lastBatchPerExecutorType.put(executor.getClass(),
+                new LastBatch(toExecute.size(), Math.max(0, TimeValue.nsecToMSec(currentTimeInNanos() - startTimeNS))));
 
         assert batchResult.executionResults != null;
         assert batchResult.executionResults.size() == toExecute.size()
@@ -851,6 +868,16 @@ public class ClusterService extends AbstractLifecycleComponent {
         }
     }
 
+    private static class LastBatch {
+        final int size;
+        final long timeInMillis;
+
+        LastBatch(int size, long timeInMillis) {
+            this.size = size;
+            this.timeInMillis = timeInMillis;
+        }
+    }
+
     private void warnAboutSlowTaskIfNeeded(TimeValue executionTime, String source) {
         if (executionTime.getMillis() > slowTaskLoggingThreshold.getMillis()) {
             logger.warn("cluster state update task [{}] took [{}] above the warn threshold of {}", source, executionTime,
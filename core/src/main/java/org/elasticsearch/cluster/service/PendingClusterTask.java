@@ -37,11 +37,15 @@ public class PendingClusterTask implements Streamable {
     private Text source;
     private long timeInQueue;
     private boolean executing;
+    private int batchSize;
+    private int lastBatchSize;
+    private long lastBatchTimeInMillis;
 
     public PendingClusterTask() {
     }
 
-    public PendingClusterTask(long insertOrder, Priority priority, Text source, long timeInQueue, boolean executing) {
+    public PendingClusterTask(long insertOrder, Priority priority, Text source, long timeInQueue, boolean executing,
+                              int batchSize, int lastBatchSize, long lastBatchTimeInMillis) {
         assert timeInQueue >= 0 : "got a negative timeInQueue [" + timeInQueue + "]";
         assert insertOrder >= 0 : "got a negative insertOrder [" + insertOrder + "]";
         this.insertOrder = insertOrder;
@@ -49,6 +53,9 @@ public class PendingClusterTask implements Streamable {
         this.source = source;
         this.timeInQueue = timeInQueue;
         this.executing = executing;
+        this.batchSize = batchSize;
+        this.lastBatchSize = lastBatchSize;
+        this.lastBatchTimeInMillis = lastBatchTimeInMillis;
     }
 
     public long getInsertOrder() {
@@ -75,6 +82,32 @@ public class PendingClusterTask implements Streamable {
         return executing;
     }
 
+    /**
+     * The number of tasks that are queued for the same executor as this task and will be executed together with it
+     */
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * The number of tasks in the last batch that was executed by the same kind of executor as this task
+     */
+    public int getLastBatchSize() {
+        return lastBatchSize;
+    }
+
+    /**
+     * The time it took to compute the new cluster state for the last batch that was executed by the same kind of
+     * executor as this task. For reroute tasks, this is the time the last reroute took.
+     */
+    public long getLastBatchTimeInMillis() {
+        return lastBatchTimeInMillis;
+    }
+
+    public TimeValue getLastBatchTime() {
+        return new TimeValue(getLastBatchTimeInMillis());
+    }
+
     @Override
     public void readFrom(StreamInput in) throws IOException {
         insertOrder = in.readVLong();
@@ -82,6 +115,9 @@ public class PendingClusterTask implements Streamable {
         source = in.readText();
         timeInQueue = in.readLong();
         executing = in.readBoolean();
+        batchSize = in.readVInt();
+        lastBatchSize = in.readVInt();
+        lastBatchTimeInMillis = in.readVLong();
     }
 
     @Override
@@ -91,5 +127,8 @@ public class PendingClusterTask implements Streamable {
         out.writeText(source);
         out.writeLong(timeInQueue);
         out.writeBoolean(executing);
+        out.writeVInt(batchSize);
+        out.writeVInt(lastBatchSize);
+        out.writeVLong(lastBatchTimeInMillis);
     }
 }
\ No newline at end of file
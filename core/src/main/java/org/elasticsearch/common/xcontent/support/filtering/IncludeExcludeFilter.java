@@ -0,0 +1,229 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.elasticsearch.common.xcontent.support.filtering;
+
+import org.elasticsearch.common.Strings;
+import org.elasticsearch.common.regex.Regex;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.common.xcontent.XContentParser;
+import org.elasticsearch.common.xcontent.support.XContentMapValues;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Filters an object with include and exclude patterns while copying it token by token from a parser to a builder, so
+ * that it never needs to be parsed into a map. The patterns have the same semantics as in
+ * {@link XContentMapValues#filter(java.util.Map, String[], String[])}, and the result holds the same content, though
+ * keys keep the order they have in the original object.
+ */
+public final class IncludeExcludeFilter {
+
+    private final XContentParser parser;
+    private final XContentBuilder builder;
+    private final String[] excludes;
+    private final StringBuilder path = new StringBuilder();
+
+    /**
+     * The objects and arrays that were opened in the source but not written to the builder yet, because their content
+     * may turn out to be filtered out entirely.
+     */
+    private final List<String> pendingFields = new ArrayList<>();
+    private final List<Boolean> pendingArrays = new ArrayList<>();
+
+    private IncludeExcludeFilter(XContentParser parser, XContentBuilder builder, String[] excludes) {
+        this.parser = parser;
+        this.builder = builder;
+        this.excludes = excludes;
+    }
+
+    /**
+     * Copies the object the parser is positioned on, or that starts with the next token, to the builder, leaving out
+     * whatever doesn't match the includes or matches the excludes.
+     */
+    public static void copy(XContentParser parser, XContentBuilder builder, String[] includes, String[] excludes) throws IOException {
+        XContentParser.Token token = parser.currentToken();
+        if (token == null) {
+            token = parser.nextToken();
+        }
+        if (token != XContentParser.Token.START_OBJECT) {
+            throw new IllegalArgumentException("expected an object but got [" + token + "]");
+        }
+        includes = includes == null ? Strings.EMPTY_ARRAY : includes;
+        excludes = excludes == null ? Strings.EMPTY_ARRAY : excludes;
+        IncludeExcludeFilter filter = new IncludeExcludeFilter(parser, builder, excludes);
+        builder.startObject();
+        filter.copyObject(includes);
+        builder.endObject();
+    }
+
+    private void copyObject(String[] includes) throws IOException {
+        if (includes.length == 0 && excludes.length == 0) {
+            while (parser.nextToken() != XContentParser.Token.END_OBJECT) {
+                writePending();
+                builder.field(parser.currentName());
+                parser.nextToken();
+                builder.copyCurrentStructure(parser);
+            }
+            return;
+        }
+        XContentParser.Token token;
+        while ((token = parser.nextToken()) != XContentParser.Token.END_OBJECT) {
+            assert token == XContentParser.Token.FIELD_NAME;
+            String key = parser.currentName();
+            token = parser.nextToken();
+            int mark = path.length();
+            if (path.length() > 0) {
+                path.append('.');
+            }
+            path.append(key);
+            String currentPath = path.toString();
+
+            if (Regex.simpleMatch(excludes, currentPath)) {
+                parser.skipChildren();
+                path.setLength(mark);
+                continue;
+            }
+
+            boolean exactIncludeMatch = false; // true if the current position was specifically mentioned
+            boolean pathIsPrefixOfAnInclude = false; // true if potentially a sub scope can be included
+            if (includes.length == 0) {
+                // implied match anything
+                exactIncludeMatch = true;
+            } else {
+                for (String include : includes) {
+                    // check for prefix matches as well to see if we need to zero in, something like: obj1.arr1.* or *.field
+                    if (include.charAt(0) == '*') {
+                        if (Regex.simpleMatch(include, currentPath)) {
+                            exactIncludeMatch = true;
+                            break;
+                        }
+                        pathIsPrefixOfAnInclude = true;
+                        continue;
+                    }
+                    if (include.startsWith(currentPath)) {
+                        if (include.length() == currentPath.length()) {
+                            exactIncludeMatch = true;
+                            break;
+                        } else if (include.length() > currentPath.length() && include.charAt(currentPath.length()) == '.') {
+                            pathIsPrefixOfAnInclude = true;
+                            continue;
+                        }
+                    }
+                    if (Regex.simpleMatch(include, currentPath)) {
+                        exactIncludeMatch = true;
+                        break;
+                    }
+                }
+            }
+
+            if (pathIsPrefixOfAnInclude == false && exactIncludeMatch == false) {
+                parser.skipChildren();
+                path.setLength(mark);
+                continue;
+            }
+
+            // if we had an exact match, we want give deeper excludes their chance
+            String[] innerIncludes = exactIncludeMatch ? Strings.EMPTY_ARRAY : includes;
+            if (token == XContentParser.Token.START_OBJECT) {
+                open(key, false);
+                copyObject(innerIncludes);
+                close(exactIncludeMatch);
+            } else if (token == XContentParser.Token.START_ARRAY) {
+                open(key, true);
+                copyArray(innerIncludes);
+                close(true);
+            } else if (exactIncludeMatch) {
+                writePending();
+                builder.field(key);
+                builder.copyCurrentStructure(parser);
+            }
+            path.setLength(mark);
+        }
+    }
+
+    private void copyArray(String[] includes) throws IOException {
+        XContentParser.Token token;
+        while ((token = parser.nextToken()) != XContentParser.Token.END_ARRAY) {
+            if (includes.length == 0 && excludes.length == 0) {
+                writePending();
+                builder.copyCurrentStructure(parser);
+            } else if (token == XContentParser.Token.START_OBJECT) {
+                open(null, false);
+                copyObject(includes);
+                close(false);
+            } else if (token == XContentParser.Token.START_ARRAY) {
+                open(null, true);
+                copyArray(includes);
+                close(false);
+            } else {
+                writePending();
+                builder.copyCurrentStructure(parser);
+            }
+        }
+    }
+
+    private void open(String field, boolean array) {
+        pendingFields.add(field);
+        pendingArrays.add(array);
+    }
+
+    /**
+     * Closes the innermost open object or array, which is left out entirely if nothing was written to it unless
+     * {@code keepIfEmpty} is set.
+     */
+    private void close(boolean keepIfEmpty) throws IOException {
+        int last = pendingFields.size() - 1;
+        boolean array;
+        if (last >= 0) {
+            // nothing was written to it
+            if (keepIfEmpty == false) {
+                pendingFields.remove(last);
+                pendingArrays.remove(last);
+                return;
+            }
+            array = pendingArrays.get(last);
+            writePending();
+        } else {
+            array = parser.currentToken() == XContentParser.Token.END_ARRAY;
+        }
+        if (array) {
+            builder.endArray();
+        } else {
+            builder.endObject();
+        }
+    }
+
+    private void writePending() throws IOException {
+        for (int i = 0; i < pendingFields.size(); i++) {
+            String field = pendingFields.get(i);
+            if (field != null) {
+                builder.field(field);
+            }
+            if (pendingArrays.get(i)) {
+                builder.startArray();
+            } else {
+                builder.startObject();
+            }
+        }
+        pendingFields.clear();
+        pendingArrays.clear();
+    }
+}
@@ -26,6 +26,7 @@ import org.elasticsearch.common.io.stream.Streamable;
 import org.elasticsearch.common.xcontent.ToXContent;
 import org.elasticsearch.common.xcontent.XContentBuilder;
 import org.elasticsearch.discovery.zen.publish.PendingClusterStateStats;
+import org.elasticsearch.discovery.zen.publish.PublishClusterStateStats;
 
 import java.io.IOException;
 
@@ -34,8 +35,16 @@ public class DiscoveryStats implements Streamable, ToXContent {
     @Nullable
     private PendingClusterStateStats queueStats;
 
+    @Nullable
+    private PublishClusterStateStats publishStats;
+
     public DiscoveryStats(PendingClusterStateStats queueStats) {
+        this(queueStats, null);
+    }
+
+    public DiscoveryStats(PendingClusterStateStats queueStats, PublishClusterStateStats publishStats) {
         this.queueStats = queueStats;
+        this.publishStats = publishStats;
     }
 
     @Override
@@ -45,6 +54,9 @@ public class DiscoveryStats implements Streamable, ToXContent {
         if (queueStats != null ){
             queueStats.toXContent(builder, params);
         }
+        if (publishStats != null) {
+            publishStats.toXContent(builder, params);
+        }
         builder.endObject();
         return builder;
     }
@@ -55,6 +67,10 @@ public class DiscoveryStats implements Streamable, ToXContent {
             queueStats = new PendingClusterStateStats();
             queueStats.readFrom(in);
         }
+        if (in.readBoolean()) {
+            publishStats = new PublishClusterStateStats();
+            publishStats.readFrom(in);
+        }
     }
 
     @Override
@@ -65,6 +81,12 @@ public class DiscoveryStats implements Streamable, ToXContent {
         }else{
             out.writeBoolean(false);
         }
+        if (publishStats != null) {
+            out.writeBoolean(true);
+            publishStats.writeTo(out);
+        } else {
+            out.writeBoolean(false);
+        }
     }
 
     static final class Fields {
@@ -74,4 +96,8 @@ public class DiscoveryStats implements Streamable, ToXContent {
     public PendingClusterStateStats getQueueStats() {
         return queueStats;
     }
+
+    public PublishClusterStateStats getPublishStats() {
+        return publishStats;
+    }
 }
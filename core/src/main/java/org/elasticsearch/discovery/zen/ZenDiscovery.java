@@ -192,6 +192,7 @@ public class ZenDiscovery extends AbstractLifecycleComponent implements Discover
                 new PublishClusterStateAction(
                         settings,
                         transportService,
+                        threadPool,
                         clusterService::state,
                         new NewPendingClusterStateListener(),
                         discoverySettings,
@@ -338,7 +339,7 @@ public class ZenDiscovery extends AbstractLifecycleComponent implements Discover
     @Override
     public DiscoveryStats stats() {
         PendingClusterStateStats queueStats = publishClusterState.pendingStatesQueue().stats();
-        return new DiscoveryStats(queueStats);
+        return new DiscoveryStats(queueStats, publishClusterState.stats());
     }
 
     @Override
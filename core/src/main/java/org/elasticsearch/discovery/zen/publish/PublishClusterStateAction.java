@@ -35,6 +35,7 @@ import org.elasticsearch.common.compress.CompressorFactory;
 import org.elasticsearch.common.io.stream.BytesStreamOutput;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.metrics.CounterMetric;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.discovery.AckClusterStatePublishResponseHandler;
@@ -57,10 +58,14 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Supplier;
@@ -82,21 +87,35 @@ public class PublishClusterStateAction extends AbstractComponent {
     }
 
     private final TransportService transportService;
+    private final ThreadPool threadPool;
     private final Supplier<ClusterState> clusterStateSupplier;
     private final NewPendingClusterStateListener newPendingClusterStatelistener;
     private final DiscoverySettings discoverySettings;
     private final ClusterName clusterName;
     private final PendingClusterStatesQueue pendingStatesQueue;
 
+    private final CounterMetric published = new CounterMetric();
+    private final CounterMetric computeTimeInNanos = new CounterMetric();
+    private final CounterMetric serializeTimeInNanos = new CounterMetric();
+    private final CounterMetric sendTimeInNanos = new CounterMetric();
+    private final CounterMetric fullStatesSent = new CounterMetric();
+    private final CounterMetric diffsSent = new CounterMetric();
+    private final CounterMetric incompatibleDiffs = new CounterMetric();
+    private final CounterMetric fullStatesReceived = new CounterMetric();
+    private final CounterMetric diffsReceived = new CounterMetric();
+    private final CounterMetric applyTimeInNanos = new CounterMetric();
+
     public PublishClusterStateAction(
             Settings settings,
             TransportService transportService,
+            ThreadPool threadPool,
             Supplier<ClusterState> clusterStateSupplier,
             NewPendingClusterStateListener listener,
             DiscoverySettings discoverySettings,
             ClusterName clusterName) {
         super(settings);
         this.transportService = transportService;
+        this.threadPool = threadPool;
         this.clusterStateSupplier = clusterStateSupplier;
         this.newPendingClusterStatelistener = listener;
         this.discoverySettings = discoverySettings;
@@ -115,6 +134,16 @@ public class PublishClusterStateAction extends AbstractComponent {
         return pendingStatesQueue;
     }
 
+    public PublishClusterStateStats stats() {
+        return new PublishClusterStateStats(published.count(),
+            TimeUnit.NANOSECONDS.toMillis(computeTimeInNanos.count()),
+            TimeUnit.NANOSECONDS.toMillis(serializeTimeInNanos.count()),
+            TimeUnit.NANOSECONDS.toMillis(sendTimeInNanos.count()),
+            fullStatesSent.count(), diffsSent.count(), incompatibleDiffs.count(),
+            fullStatesReceived.count(), diffsReceived.count(),
+            TimeUnit.NANOSECONDS.toMillis(applyTimeInNanos.count()));
+    }
+
     /**
      * publishes a cluster change event to other nodes. if at least minMasterNodes acknowledge the change it is committed and will
      * be processed by the master and the other nodes.
@@ -156,6 +185,7 @@ public class PublishClusterStateAction extends AbstractComponent {
             throw new Discovery.FailedToCommitClusterStateException("unexpected error while preparing to publish", t);
         }
 
+        published.inc();
         try {
             innerPublish(clusterChangedEvent, nodesToPublishTo, sendingController, sendFullVersion, serializedStates, serializedDiffs);
         } catch (Discovery.FailedToCommitClusterStateException t) {
@@ -208,30 +238,80 @@ public class PublishClusterStateAction extends AbstractComponent {
         } catch (InterruptedException e) {
             // ignore & restore interrupt
             Thread.currentThread().interrupt();
+        } finally {
+            sendTimeInNanos.inc(System.nanoTime() - publishingStartInNanos);
         }
     }
 
     private void buildDiffAndSerializeStates(ClusterState clusterState, ClusterState previousState, Set<DiscoveryNode> nodesToPublishTo,
                                              boolean sendFullVersion, Map<Version, BytesReference> serializedStates, Map<Version, BytesReference> serializedDiffs) {
-        Diff<ClusterState> diff = null;
+        final Set<Version> fullVersions = new HashSet<>();
+        final Set<Version> diffVersions = new HashSet<>();
         for (final DiscoveryNode node : nodesToPublishTo) {
+            if (sendFullVersion || !previousState.nodes().nodeExists(node.getId())) {
+                fullVersions.add(node.getVersion());
+            } else {
+                diffVersions.add(node.getVersion());
+            }
+        }
+        final Diff<ClusterState> diff;
+        if (diffVersions.isEmpty()) {
+            diff = null;
+        } else {
+            final long computeStartInNanos = System.nanoTime();
+            diff = clusterState.diff(previousState);
+            computeTimeInNanos.inc(System.nanoTime() - computeStartInNanos);
+        }
+
+        // serialize and compress once per node version; when nodes of different versions (or both full states and diffs) are
+        // needed they are serialized concurrently on the generic pool, so publishing only waits for the largest one
+        final long serializeStartInNanos = System.nanoTime();
+        final List<SerializationTask> tasks = new ArrayList<>(fullVersions.size() + diffVersions.size());
+        for (Version version : fullVersions) {
+            tasks.add(new SerializationTask(version, true, () -> serializeFullClusterState(clusterState, version)));
+        }
+        for (Version version : diffVersions) {
+            tasks.add(new SerializationTask(version, false, () -> serializeDiffClusterState(diff, version)));
+        }
+        for (int i = 1; i < tasks.size(); i++) {
+            threadPool.generic().execute(tasks.get(i));
+        }
+        for (int i = 0; i < tasks.size(); i++) {
+            final SerializationTask task = tasks.get(i);
+            if (i == 0) {
+                task.run();
+            }
+            final BytesReference bytes = task.bytes();
+            if (task.full) {
+                serializedStates.put(task.version, bytes);
+            } else {
+                serializedDiffs.put(task.version, bytes);
+            }
+        }
+        serializeTimeInNanos.inc(System.nanoTime() - serializeStartInNanos);
+    }
+
+    private static class SerializationTask extends FutureTask<BytesReference> {
+
+        private final Version version;
+        private final boolean full;
+
+        SerializationTask(Version version, boolean full, Callable<BytesReference> serializer) {
+            super(serializer);
+            this.version = version;
+            this.full = full;
+        }
+
+        BytesReference bytes() {
             try {
-                if (sendFullVersion || !previousState.nodes().nodeExists(node.getId())) {
-                    // will send a full reference
-                    if (serializedStates.containsKey(node.getVersion()) == false) {
-                        serializedStates.put(node.getVersion(), serializeFullClusterState(clusterState, node.getVersion()));
-                    }
-                } else {
-                    // will send a diff
-                    if (diff == null) {
-                        diff = clusterState.diff(previousState);
-                    }
-                    if (serializedDiffs.containsKey(node.getVersion()) == false) {
-                        serializedDiffs.put(node.getVersion(), serializeDiffClusterState(diff, node.getVersion()));
-                    }
-                }
-            } catch (IOException e) {
-                throw new ElasticsearchException("failed to serialize cluster_state for publishing to node {}", e, node);
+                return get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ElasticsearchException("interrupted while serializing cluster_state for publishing to nodes of version [{}]",
+                    e, version);
+            } catch (ExecutionException e) {
+                throw new ElasticsearchException("failed to serialize cluster_state for publishing to nodes of version [{}]",
+                    e.getCause(), version);
             }
         }
     }
@@ -241,7 +321,9 @@ public class PublishClusterStateAction extends AbstractComponent {
         BytesReference bytes = serializedStates.get(node.getVersion());
         if (bytes == null) {
             try {
+                final long serializeStartInNanos = System.nanoTime();
                 bytes = serializeFullClusterState(clusterState, node.getVersion());
+                serializeTimeInNanos.inc(System.nanoTime() - serializeStartInNanos);
                 serializedStates.put(node.getVersion(), bytes);
             } catch (Throwable e) {
                 logger.warn("failed to serialize cluster_state before publishing it to node {}", e, node);
@@ -249,6 +331,7 @@ public class PublishClusterStateAction extends AbstractComponent {
                 return;
             }
         }
+        fullStatesSent.inc();
         sendClusterStateToNode(clusterState, bytes, node, publishTimeout, sendingController, false, serializedStates);
     }
 
@@ -257,6 +340,7 @@ public class PublishClusterStateAction extends AbstractComponent {
                                       DiscoveryNode node, TimeValue publishTimeout, SendingController sendingController) {
         BytesReference bytes = serializedDiffs.get(node.getVersion());
         assert bytes != null : "failed to find serialized diff for node " + node + " of version [" + node.getVersion() + "]";
+        diffsSent.inc();
         sendClusterStateToNode(clusterState, bytes, node, publishTimeout, sendingController, true, serializedStates);
     }
 
@@ -288,6 +372,7 @@ public class PublishClusterStateAction extends AbstractComponent {
                         public void handleException(TransportException exp) {
                             if (sendDiffs && exp.unwrapCause() instanceof IncompatibleClusterStateVersionException) {
                                 logger.debug("resending full cluster state to node {} reason {}", node, exp.getDetailedMessage());
+                                incompatibleDiffs.inc();
                                 sendFullClusterState(clusterState, serializedStates, node, publishTimeout, sendingController);
                             } else {
                                 logger.debug("failed to send cluster state to {}", exp, node);
@@ -365,16 +450,19 @@ public class PublishClusterStateAction extends AbstractComponent {
             in = request.bytes().streamInput();
         }
         in.setVersion(request.version());
+        final long applyStartInNanos = System.nanoTime();
         synchronized (lastSeenClusterStateMutex) {
             final ClusterState incomingState;
             // If true we received full cluster state - otherwise diffs
             if (in.readBoolean()) {
                 incomingState = ClusterState.Builder.readFrom(in, clusterStateSupplier.get().nodes().getLocalNode());
                 logger.debug("received full cluster state version [{}] with size [{}]", incomingState.version(), request.bytes().length());
+                fullStatesReceived.inc();
             } else if (lastSeenClusterState != null) {
                 Diff<ClusterState> diff = lastSeenClusterState.readDiffFrom(in);
                 incomingState = diff.apply(lastSeenClusterState);
                 logger.debug("received diff cluster state version [{}] with uuid [{}], diff size [{}]", incomingState.version(), incomingState.stateUUID(), request.bytes().length());
+                diffsReceived.inc();
             } else {
                 logger.debug("received diff for but don't have any local cluster state - requesting full state");
                 throw new IncompatibleClusterStateVersionException("have no local cluster state");
@@ -386,6 +474,7 @@ public class PublishClusterStateAction extends AbstractComponent {
             lastSeenClusterState = incomingState;
             lastSeenClusterState.status(ClusterState.ClusterStateStatus.RECEIVED);
         }
+        applyTimeInNanos.inc(System.nanoTime() - applyStartInNanos);
         channel.sendResponse(TransportResponse.Empty.INSTANCE);
     }
 
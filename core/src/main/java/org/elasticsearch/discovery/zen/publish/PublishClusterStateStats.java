@@ -0,0 +1,185 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.discovery.zen.publish;
+
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.io.stream.Streamable;
+import org.elasticsearch.common.xcontent.ToXContent;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+
+import java.io.IOException;
+
+/**
+ * Class encapsulating stats about cluster state publishing: the time the master spends computing diffs, serializing and
+ * sending the published states, and the time this node spends applying the states it received.
+ */
+public class PublishClusterStateStats implements Streamable, ToXContent {
+
+    private long published;
+    private long computeTimeInMillis;
+    private long serializeTimeInMillis;
+    private long sendTimeInMillis;
+    private long fullStatesSent;
+    private long diffsSent;
+    private long incompatibleDiffs;
+    private long fullStatesReceived;
+    private long diffsReceived;
+    private long applyTimeInMillis;
+
+    public PublishClusterStateStats() {
+
+    }
+
+    public PublishClusterStateStats(long published, long computeTimeInMillis, long serializeTimeInMillis, long sendTimeInMillis,
+                                    long fullStatesSent, long diffsSent, long incompatibleDiffs,
+                                    long fullStatesReceived, long diffsReceived, long applyTimeInMillis) {
+        this.published = published;
+        this.computeTimeInMillis = computeTimeInMillis;
+        this.serializeTimeInMillis = serializeTimeInMillis;
+        this.sendTimeInMillis = sendTimeInMillis;
+        this.fullStatesSent = fullStatesSent;
+        this.diffsSent = diffsSent;
+        this.incompatibleDiffs = incompatibleDiffs;
+        this.fullStatesReceived = fullStatesReceived;
+        this.diffsReceived = diffsReceived;
+        this.applyTimeInMillis = applyTimeInMillis;
+    }
+
+    /** the number of cluster states this node published as master */
+    public long getPublished() {
+        return published;
+    }
+
+    /** the total time spent computing the diff between the published and the previous cluster state */
+    public long getComputeTimeInMillis() {
+        return computeTimeInMillis;
+    }
+
+    /** the total time spent serializing and compressing the published cluster states and diffs */
+    public long getSerializeTimeInMillis() {
+        return serializeTimeInMillis;
+    }
+
+    /** the total time spent waiting for the other nodes to receive and commit the published cluster states */
+    public long getSendTimeInMillis() {
+        return sendTimeInMillis;
+    }
+
+    public long getFullStatesSent() {
+        return fullStatesSent;
+    }
+
+    public long getDiffsSent() {
+        return diffsSent;
+    }
+
+    /** the number of diffs that were rejected by the receiving node and had to be resent as a full cluster state */
+    public long getIncompatibleDiffs() {
+        return incompatibleDiffs;
+    }
+
+    public long getFullStatesReceived() {
+        return fullStatesReceived;
+    }
+
+    public long getDiffsReceived() {
+        return diffsReceived;
+    }
+
+    /** the total time spent reading and applying the cluster states and diffs this node received */
+    public long getApplyTimeInMillis() {
+        return applyTimeInMillis;
+    }
+
+    @Override
+    public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
+        builder.startObject(Fields.PUBLISH);
+        builder.field(Fields.PUBLISHED, published);
+        builder.timeValueField(Fields.COMPUTE_TIME_IN_MILLIS, Fields.COMPUTE_TIME, computeTimeInMillis);
+        builder.timeValueField(Fields.SERIALIZE_TIME_IN_MILLIS, Fields.SERIALIZE_TIME, serializeTimeInMillis);
+        builder.timeValueField(Fields.SEND_TIME_IN_MILLIS, Fields.SEND_TIME, sendTimeInMillis);
+        builder.startObject(Fields.SENT);
+        builder.field(Fields.FULL_STATES, fullStatesSent);
+        builder.field(Fields.DIFFS, diffsSent);
+        builder.field(Fields.INCOMPATIBLE_DIFFS, incompatibleDiffs);
+        builder.endObject();
+        builder.startObject(Fields.RECEIVED);
+        builder.field(Fields.FULL_STATES, fullStatesReceived);
+        builder.field(Fields.DIFFS, diffsReceived);
+        builder.timeValueField(Fields.APPLY_TIME_IN_MILLIS, Fields.APPLY_TIME, applyTimeInMillis);
+        builder.endObject();
+        builder.endObject();
+        return builder;
+    }
+
+    @Override
+    public void readFrom(StreamInput in) throws IOException {
+        published = in.readVLong();
+        computeTimeInMillis = in.readVLong();
+        serializeTimeInMillis = in.readVLong();
+        sendTimeInMillis = in.readVLong();
+        fullStatesSent = in.readVLong();
+        diffsSent = in.readVLong();
+        incompatibleDiffs = in.readVLong();
+        fullStatesReceived = in.readVLong();
+        diffsReceived = in.readVLong();
+        applyTimeInMillis = in.readVLong();
+    }
+
+    @Override
+    public void writeTo(StreamOutput out) throws IOException {
+        out.writeVLong(published);
+        out.writeVLong(computeTimeInMillis);
+        out.writeVLong(serializeTimeInMillis);
+        out.writeVLong(sendTimeInMillis);
+        out.writeVLong(fullStatesSent);
+        out.writeVLong(diffsSent);
+        out.writeVLong(incompatibleDiffs);
+        out.writeVLong(fullStatesReceived);
+        out.writeVLong(diffsReceived);
+        out.writeVLong(applyTimeInMillis);
+    }
+
+    static final class Fields {
+        static final String PUBLISH = "cluster_state_publishing";
+        static final String PUBLISHED = "published";
+        static final String COMPUTE_TIME = "compute_time";
+        static final String COMPUTE_TIME_IN_MILLIS = "compute_time_in_millis";
+        static final String SERIALIZE_TIME = "serialize_time";
+        static final String SERIALIZE_TIME_IN_MILLIS = "serialize_time_in_millis";
+        static final String SEND_TIME = "send_time";
+        static final String SEND_TIME_IN_MILLIS = "send_time_in_millis";
+        static final String SENT = "sent";
+        static final String RECEIVED = "received";
+        static final String FULL_STATES = "full_states";
+        static final String DIFFS = "diffs";
+        static final String INCOMPATIBLE_DIFFS = "incompatible_diffs";
+        static final String APPLY_TIME = "apply_time";
+        static final String APPLY_TIME_IN_MILLIS = "apply_time_in_millis";
+    }
+
+    @Override
+    public String toString() {
+        return "PublishClusterStateStats(published=" + published + ", compute=" + computeTimeInMillis + "ms, serialize="
+            + serializeTimeInMillis + "ms, send=" + sendTimeInMillis + "ms, received=" + (fullStatesReceived + diffsReceived)
+            + ", apply=" + applyTimeInMillis + "ms)";
+    }
+}
@@ -49,6 +49,9 @@ public class GatewayAllocator extends AbstractComponent {
 
     private RoutingService routingService;
 
+    private final TransportNodesListGatewayStartedShards startedAction;
+    private final TransportNodesListShardStoreMetaData storeAction;
+
     private final PrimaryShardAllocator primaryShardAllocator;
     private final ReplicaShardAllocator replicaShardAllocator;
 
@@ -58,6 +61,8 @@ public class GatewayAllocator extends AbstractComponent {
     @Inject
     public GatewayAllocator(Settings settings, final TransportNodesListGatewayStartedShards startedAction, final TransportNodesListShardStoreMetaData storeAction) {
         super(settings);
+        this.startedAction = startedAction;
+        this.storeAction = storeAction;
         this.primaryShardAllocator = new InternalPrimaryShardAllocator(settings, startedAction);
         this.replicaShardAllocator = new InternalReplicaShardAllocator(settings, storeAction);
     }
@@ -135,9 +140,15 @@ public class GatewayAllocator extends AbstractComponent {
         RoutingNodes.UnassignedShards unassigned = allocation.routingNodes().unassigned();
         unassigned.sort(PriorityComparator.getAllocationComparator(allocation)); // sort for priority ordering
 
-        changed |= primaryShardAllocator.allocateUnassigned(allocation);
-        changed |= replicaShardAllocator.processExistingRecoveries(allocation);
-        changed |= replicaShardAllocator.allocateUnassigned(allocation);
+        try {
+            changed |= primaryShardAllocator.allocateUnassigned(allocation);
+            changed |= replicaShardAllocator.processExistingRecoveries(allocation);
+            changed |= replicaShardAllocator.allocateUnassigned(allocation);
+        } finally {
+            // send the fetches started by this round, one request per node
+            startedAction.batcher().flush();
+            storeAction.batcher().flush();
+        }
         return changed;
     }
 
@@ -167,7 +178,7 @@ public class GatewayAllocator extends AbstractComponent {
         protected AsyncShardFetch.FetchResult<TransportNodesListGatewayStartedShards.NodeGatewayStartedShards> fetchData(ShardRouting shard, RoutingAllocation allocation) {
             AsyncShardFetch<TransportNodesListGatewayStartedShards.NodeGatewayStartedShards> fetch = asyncFetchStarted.get(shard.shardId());
             if (fetch == null) {
-                fetch = new InternalAsyncFetch<>(logger, "shard_started", shard.shardId(), startedAction);
+                fetch = new InternalAsyncFetch<>(logger, "shard_started", shard.shardId(), startedAction.batcher());
                 asyncFetchStarted.put(shard.shardId(), fetch);
             }
             AsyncShardFetch.FetchResult<TransportNodesListGatewayStartedShards.NodeGatewayStartedShards> shardState =
@@ -193,7 +204,7 @@ public class GatewayAllocator extends AbstractComponent {
         protected AsyncShardFetch.FetchResult<TransportNodesListShardStoreMetaData.NodeStoreFilesMetaData> fetchData(ShardRouting shard, RoutingAllocation allocation) {
             AsyncShardFetch<TransportNodesListShardStoreMetaData.NodeStoreFilesMetaData> fetch = asyncFetchStore.get(shard.shardId());
             if (fetch == null) {
-                fetch = new InternalAsyncFetch<>(logger, "shard_store", shard.shardId(), storeAction);
+                fetch = new InternalAsyncFetch<>(logger, "shard_store", shard.shardId(), storeAction.batcher());
                 asyncFetchStore.put(shard.shardId(), fetch);
             }
             AsyncShardFetch.FetchResult<TransportNodesListShardStoreMetaData.NodeStoreFilesMetaData> shardStores =
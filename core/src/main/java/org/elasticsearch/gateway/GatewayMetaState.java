@@ -87,10 +87,11 @@ public class GatewayMetaState extends AbstractComponent implements ClusterStateL
             try {
                 ensureNoPre019State();
                 IndexFolderUpgrader.upgradeIndicesIfNeeded(settings, nodeEnv);
-                upgradeMetaData();
                 long startNS = System.nanoTime();
-                metaStateService.loadFullState();
-                logger.debug("took {} to load state", TimeValue.timeValueMillis(TimeValue.nsecToMSec(System.nanoTime() - startNS)));
+                MetaData metaData = metaStateService.loadFullState();
+                logger.info("loaded state of [{}] indices in [{}]", metaData.indices().size(),
+                    TimeValue.timeValueMillis(TimeValue.nsecToMSec(System.nanoTime() - startNS)));
+                upgradeMetaData(metaData);
             } catch (Exception e) {
                 logger.error("failed to read local state, exiting...", e);
                 throw e;
@@ -222,8 +223,7 @@ public class GatewayMetaState extends AbstractComponent implements ClusterStateL
      * MetaDataIndexUpgradeService might also update obsolete settings if needed. When this happens we rewrite
      * index metadata with new settings.
      */
-    private void upgradeMetaData() throws Exception {
-        MetaData metaData = loadMetaState();
+    private void upgradeMetaData(MetaData metaData) throws Exception {
         List<IndexMetaData> updateIndexMetaData = new ArrayList<>();
         for (IndexMetaData indexMetaData : metaData) {
             IndexMetaData newMetaData = metaDataIndexUpgradeService.upgradeIndexMetaData(indexMetaData);
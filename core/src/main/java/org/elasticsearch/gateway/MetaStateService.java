@@ -19,18 +19,28 @@
 
 package org.elasticsearch.gateway;
 
+import org.elasticsearch.ExceptionsHelper;
 import org.elasticsearch.cluster.metadata.IndexMetaData;
 import org.elasticsearch.cluster.metadata.MetaData;
 import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.component.AbstractComponent;
 import org.elasticsearch.common.inject.Inject;
+import org.elasticsearch.common.settings.Setting;
+import org.elasticsearch.common.settings.Setting.Property;
 import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.common.util.concurrent.EsExecutors;
+import org.elasticsearch.common.util.concurrent.ThreadContext;
 import org.elasticsearch.env.NodeEnvironment;
 import org.elasticsearch.index.Index;
 
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.function.Predicate;
 
 /**
@@ -38,12 +48,21 @@ import java.util.function.Predicate;
  */
 public class MetaStateService extends AbstractComponent {
 
+    /**
+     * The number of index state files that are read concurrently when loading the state of all indices
+     */
+    public static final Setting<Integer> LOAD_CONCURRENCY_SETTING = new Setting<>("gateway.load_state_concurrency",
+        (s) -> Integer.toString(Math.min(8, EsExecutors.boundedNumberOfProcessors(s))),
+        (s) -> Setting.parseInt(s, 1, "gateway.load_state_concurrency"), Property.NodeScope);
+
     private final NodeEnvironment nodeEnv;
+    private final int loadConcurrency;
 
     @Inject
     public MetaStateService(Settings settings, NodeEnvironment nodeEnv) {
         super(settings);
         this.nodeEnv = nodeEnv;
+        this.loadConcurrency = LOAD_CONCURRENCY_SETTING.get(settings);
     }
 
     /**
@@ -58,12 +77,14 @@ public class MetaStateService extends AbstractComponent {
         } else {
             metaDataBuilder = MetaData.builder();
         }
-        for (String indexFolderName : nodeEnv.availableIndexFolders()) {
-            IndexMetaData indexMetaData = IndexMetaData.FORMAT.loadLatestState(logger, nodeEnv.resolveIndexFolder(indexFolderName));
+        final List<String> indexFolderNames = new ArrayList<>(nodeEnv.availableIndexFolders());
+        final List<IndexMetaData> indexMetaDataList = loadIndexStates(indexFolderNames);
+        for (int i = 0; i < indexFolderNames.size(); i++) {
+            IndexMetaData indexMetaData = indexMetaDataList.get(i);
             if (indexMetaData != null) {
                 metaDataBuilder.put(indexMetaData, false);
             } else {
-                logger.debug("[{}] failed to find metadata for existing index location", indexFolderName);
+                logger.debug("[{}] failed to find metadata for existing index location", indexFolderNames.get(i));
             }
         }
         return metaDataBuilder.build();
@@ -81,13 +102,17 @@ public class MetaStateService extends AbstractComponent {
      * Loads all indices states available on disk
      */
     List<IndexMetaData> loadIndicesStates(Predicate<String> excludeIndexPathIdsPredicate) throws IOException {
-        List<IndexMetaData> indexMetaDataList = new ArrayList<>();
+        final List<String> indexFolderNames = new ArrayList<>();
         for (String indexFolderName : nodeEnv.availableIndexFolders()) {
-            if (excludeIndexPathIdsPredicate.test(indexFolderName)) {
-                continue;
+            if (excludeIndexPathIdsPredicate.test(indexFolderName) == false) {
+                indexFolderNames.add(indexFolderName);
             }
-            IndexMetaData indexMetaData = IndexMetaData.FORMAT.loadLatestState(logger,
-                nodeEnv.resolveIndexFolder(indexFolderName));
+        }
+        final List<IndexMetaData> loaded = loadIndexStates(indexFolderNames);
+        List<IndexMetaData> indexMetaDataList = new ArrayList<>();
+        for (int i = 0; i < indexFolderNames.size(); i++) {
+            final String indexFolderName = indexFolderNames.get(i);
+            final IndexMetaData indexMetaData = loaded.get(i);
             if (indexMetaData != null) {
                 final String indexPathId = indexMetaData.getIndex().getUUID();
                 if (indexFolderName.equals(indexPathId)) {
@@ -102,6 +127,48 @@ public class MetaStateService extends AbstractComponent {
         return indexMetaDataList;
     }
 
+    /**
+     * Loads the latest index state of each of the given index folders, returning a list in the same order that holds
+     * <code>null</code> for folders without state. The state files are read on up to {@link #LOAD_CONCURRENCY_SETTING}
+     * threads since they are independent of each other and startup of nodes with many indices is dominated by them.
+     */
+    private List<IndexMetaData> loadIndexStates(List<String> indexFolderNames) throws IOException {
+        final long startNS = System.nanoTime();
+        final int concurrency = Math.min(loadConcurrency, indexFolderNames.size());
+        final List<IndexMetaData> indexMetaDataList = new ArrayList<>(indexFolderNames.size());
+        if (concurrency <= 1) {
+            for (String indexFolderName : indexFolderNames) {
+                indexMetaDataList.add(IndexMetaData.FORMAT.loadLatestState(logger, nodeEnv.resolveIndexFolder(indexFolderName)));
+            }
+        } else {
+            final List<Callable<IndexMetaData>> loads = new ArrayList<>(indexFolderNames.size());
+            for (String indexFolderName : indexFolderNames) {
+                loads.add(() -> IndexMetaData.FORMAT.loadLatestState(logger, nodeEnv.resolveIndexFolder(indexFolderName)));
+            }
+            final ExecutorService executor = EsExecutors.newFixed("load_state", concurrency, -1,
+                EsExecutors.daemonThreadFactory(settings, "load_state"), new ThreadContext(settings));
+            try {
+                for (Future<IndexMetaData> future : executor.invokeAll(loads)) {
+                    indexMetaDataList.add(future.get());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("interrupted while loading index states", e);
+            } catch (ExecutionException e) {
+                final Throwable cause = e.getCause();
+                if (cause instanceof IOException) {
+                    throw (IOException) cause;
+                }
+                throw ExceptionsHelper.convertToRuntime(cause);
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+        logger.debug("loaded [{}] index states on [{}] threads in [{}]", indexFolderNames.size(), Math.max(1, concurrency),
+            TimeValue.timeValueNanos(System.nanoTime() - startNS));
+        return indexMetaDataList;
+    }
+
     /**
      * Loads the global state, *without* index state, see {@link #loadFullState()} for that.
      */
@@ -0,0 +1,462 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.gateway;
+
+import org.elasticsearch.Version;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.FailedNodeException;
+import org.elasticsearch.action.support.nodes.BaseNodeResponse;
+import org.elasticsearch.action.support.nodes.BaseNodesResponse;
+import org.elasticsearch.cluster.node.DiscoveryNode;
+import org.elasticsearch.common.component.AbstractComponent;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.settings.Setting;
+import org.elasticsearch.common.settings.Setting.Property;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.util.concurrent.AbstractRunnable;
+import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.threadpool.ThreadPool;
+import org.elasticsearch.transport.BaseTransportResponseHandler;
+import org.elasticsearch.transport.TransportChannel;
+import org.elasticsearch.transport.TransportException;
+import org.elasticsearch.transport.TransportRequest;
+import org.elasticsearch.transport.TransportRequestHandler;
+import org.elasticsearch.transport.TransportRequestOptions;
+import org.elasticsearch.transport.TransportResponse;
+import org.elasticsearch.transport.TransportService;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Supplier;
+
+/**
+ * An {@link AsyncShardFetch.Lister} that coalesces the per shard fetches started during an allocation round into
+ * a single request per node. Fetches are queued until {@link #flush()} is called, at which point every node receives
+ * the shard ids it is asked about in batches of at most {@link #BATCH_SIZE_SETTING} shards. The receiving node runs
+ * the per shard operation for each of them on the fetch thread pool and responds once all of them completed. The node
+ * responses are then split up again, and the listener of each fetch is notified once all of its nodes responded.
+ * Nodes that don't know the batched action yet are sent the per shard request of the wrapped {@link AsyncShardFetch.Lister}.
+ */
+public class ShardFetchBatcher<NodesResponse extends BaseNodesResponse<NodeResponse>, NodeResponse extends BaseNodeResponse>
+    extends AbstractComponent implements AsyncShardFetch.Lister<NodesResponse, NodeResponse> {
+
+    public static final Setting<Integer> BATCH_SIZE_SETTING =
+        Setting.intSetting("gateway.fetch_shards_batch_size", 1000, 1, Property.NodeScope);
+
+    /**
+     * Loads the data of a single shard on the node that received the batch
+     */
+    @FunctionalInterface
+    public interface ShardOperation<NodeResponse> {
+        NodeResponse execute(ShardId shardId) throws Exception;
+    }
+
+    /**
+     * Assembles the response of a single fetch out of the responses and failures of its nodes
+     */
+    @FunctionalInterface
+    public interface ResponseFactory<NodesResponse, NodeResponse> {
+        NodesResponse newResponse(List<NodeResponse> responses, List<FailedNodeException> failures);
+    }
+
+    /**
+     * Nodes before this version don't register the batched action
+     */
+    static final Version BATCHED_FETCH_VERSION = Version.V_5_0_0_alpha4;
+
+    // a batch covers many shards, its responses can become big
+    private static final TransportRequestOptions BATCH_REQUEST_OPTIONS = TransportRequestOptions.builder().withCompress(true).build();
+
+    private final String actionName;
+    private final ThreadPool threadPool;
+    private final TransportService transportService;
+    private final String executor;
+    private final int batchSize;
+    private final Supplier<NodeResponse> nodeResponseSupplier;
+    private final ShardOperation<NodeResponse> shardOperation;
+    private final ResponseFactory<NodesResponse, NodeResponse> responseFactory;
+    private final AsyncShardFetch.Lister<NodesResponse, NodeResponse> perShardLister;
+
+    private List<PendingFetch> pendingFetches = new ArrayList<>();
+
+    public ShardFetchBatcher(Settings settings, String actionName, ThreadPool threadPool, TransportService transportService,
+                             String executor, Supplier<NodeResponse> nodeResponseSupplier, ShardOperation<NodeResponse> shardOperation,
+                             ResponseFactory<NodesResponse, NodeResponse> responseFactory,
+                             AsyncShardFetch.Lister<NodesResponse, NodeResponse> perShardLister) {
+        super(settings);
+        this.actionName = actionName + "[batch]";
+        this.threadPool = threadPool;
+        this.transportService = transportService;
+        this.executor = executor;
+        this.batchSize = BATCH_SIZE_SETTING.get(settings);
+        this.nodeResponseSupplier = nodeResponseSupplier;
+        this.shardOperation = shardOperation;
+        this.responseFactory = responseFactory;
+        this.perShardLister = perShardLister;
+        // the batch is split up across the fetch thread pool on arrival, no need to fork before that
+        transportService.registerRequestHandler(this.actionName, NodeBatchRequest::new, ThreadPool.Names.SAME,
+            new NodeBatchTransportHandler());
+    }
+
+    @Override
+    public synchronized void list(ShardId shardId, DiscoveryNode[] nodes, ActionListener<NodesResponse> listener) {
+        pendingFetches.add(new PendingFetch(shardId, nodes, listener));
+    }
+
+    /**
+     * Sends out the fetches that were queued since the last flush, grouped by node.
+     */
+    public void flush() {
+        final List<PendingFetch> fetches;
+        synchronized (this) {
+            if (pendingFetches.isEmpty()) {
+                return;
+            }
+            fetches = pendingFetches;
+            pendingFetches = new ArrayList<>();
+        }
+        final Map<DiscoveryNode, List<FetchSlot>> slotsPerNode = new HashMap<>();
+        for (PendingFetch fetch : fetches) {
+            if (fetch.nodes.length == 0) {
+                threadPool.generic().execute(fetch::finish);
+                continue;
+            }
+            final List<FetchSlot> perShardSlots = new ArrayList<>();
+            for (int i = 0; i < fetch.nodes.length; i++) {
+                final FetchSlot slot = new FetchSlot(fetch, i);
+                if (slot.node().getVersion().onOrAfter(BATCHED_FETCH_VERSION)) {
+                    slotsPerNode.computeIfAbsent(slot.node(), k -> new ArrayList<>()).add(slot);
+                } else {
+                    perShardSlots.add(slot);
+                }
+            }
+            if (perShardSlots.isEmpty() == false) {
+                sendPerShard(fetch.shardId, perShardSlots);
+            }
+        }
+        logger.trace("sending [{}] shard fetches to [{}] nodes", fetches.size(), slotsPerNode.size());
+        for (Map.Entry<DiscoveryNode, List<FetchSlot>> entry : slotsPerNode.entrySet()) {
+            final List<FetchSlot> slots = entry.getValue();
+            for (int from = 0; from < slots.size(); from += batchSize) {
+                sendBatch(entry.getKey(), slots.subList(from, Math.min(slots.size(), from + batchSize)));
+            }
+        }
+    }
+
+    private void sendBatch(final DiscoveryNode node, final List<FetchSlot> slots) {
+        final List<ShardId> shardIds = new ArrayList<>(slots.size());
+        for (FetchSlot slot : slots) {
+            shardIds.add(slot.fetch.shardId);
+        }
+        try {
+            transportService.sendRequest(node, actionName, new NodeBatchRequest(shardIds), BATCH_REQUEST_OPTIONS,
+                new BaseTransportResponseHandler<NodeBatchResponse>() {
+                    @Override
+                    public NodeBatchResponse newInstance() {
+                        return new NodeBatchResponse();
+                    }
+
+                    @Override
+                    public void handleResponse(NodeBatchResponse response) {
+                        if (response.results.size() != slots.size()) {
+                            onNodeFailure(node, slots, new IllegalStateException("expected [" + slots.size()
+                                + "] shard results but got [" + response.results.size() + "]"));
+                            return;
+                        }
+                        for (int i = 0; i < slots.size(); i++) {
+                            final Object result = response.results.get(i);
+                            if (result instanceof Throwable) {
+                                slots.get(i).onResult(new FailedNodeException(node.getId(), "Failed node [" + node.getId() + "]",
+                                    (Throwable) result));
+                            } else {
+                                slots.get(i).onResult(result);
+                            }
+                        }
+                    }
+
+                    @Override
+                    public void handleException(TransportException exp) {
+                        onNodeFailure(node, slots, exp);
+                    }
+
+                    @Override
+                    public String executor() {
+                        return ThreadPool.Names.SAME;
+                    }
+                });
+        } catch (Throwable t) {
+            onNodeFailure(node, slots, t);
+        }
+    }
+
+    /**
+     * Fetches a single shard from nodes that don't support the batched action, using the per shard action
+     */
+    private void sendPerShard(final ShardId shardId, final List<FetchSlot> slots) {
+        final DiscoveryNode[] nodes = new DiscoveryNode[slots.size()];
+        for (int i = 0; i < slots.size(); i++) {
+            nodes[i] = slots.get(i).node();
+        }
+        try {
+            perShardLister.list(shardId, nodes, new ActionListener<NodesResponse>() {
+                @Override
+                public void onResponse(NodesResponse response) {
+                    final Map<String, Object> results = new HashMap<>();
+                    for (NodeResponse nodeResponse : response.getNodes()) {
+                        results.put(nodeResponse.getNode().getId(), nodeResponse);
+                    }
+                    for (FailedNodeException failure : response.failures()) {
+                        results.put(failure.nodeId(), failure);
+                    }
+                    for (FetchSlot slot : slots) {
+                        final Object result = results.get(slot.node().getId());
+                        if (result == null) {
+                            onSlotFailure(slot, new IllegalStateException("no shard fetch response from node"));
+                        } else {
+                            slot.onResult(result);
+                        }
+                    }
+                }
+
+                @Override
+                public void onFailure(Throwable t) {
+                    for (FetchSlot slot : slots) {
+                        onSlotFailure(slot, t);
+                    }
+                }
+            });
+        } catch (Throwable t) {
+            for (FetchSlot slot : slots) {
+                onSlotFailure(slot, t);
+            }
+        }
+    }
+
+    private void onSlotFailure(FetchSlot slot, Throwable t) {
+        final DiscoveryNode node = slot.node();
+        logger.debug("{} failed to fetch shard from node [{}]", t, slot.fetch.shardId, node.getId());
+        slot.onResult(new FailedNodeException(node.getId(), "Failed node [" + node.getId() + "]", t));
+    }
+
+    private void onNodeFailure(DiscoveryNode node, List<FetchSlot> slots, Throwable t) {
+        logger.debug("failed to fetch [{}] shards from node [{}]", t, slots.size(), node.getId());
+        final FailedNodeException failure = new FailedNodeException(node.getId(), "Failed node [" + node.getId() + "]", t);
+        for (FetchSlot slot : slots) {
+            slot.onResult(failure);
+        }
+    }
+
+    /**
+     * A single call to {@link #list(ShardId, DiscoveryNode[], ActionListener)}, collecting the results of its nodes
+     */
+    private class PendingFetch {
+        private final ShardId shardId;
+        private final DiscoveryNode[] nodes;
+        private final ActionListener<NodesResponse> listener;
+        private final AtomicReferenceArray<Object> results;
+        private final AtomicInteger counter = new AtomicInteger();
+
+        PendingFetch(ShardId shardId, DiscoveryNode[] nodes, ActionListener<NodesResponse> listener) {
+            this.shardId = shardId;
+            this.nodes = nodes;
+            this.listener = listener;
+            this.results = new AtomicReferenceArray<>(nodes.length);
+        }
+
+        void onResult(int index, Object result) {
+            results.set(index, result);
+            if (counter.incrementAndGet() == results.length()) {
+                finish();
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        void finish() {
+            final List<NodeResponse> responses = new ArrayList<>();
+            final List<FailedNodeException> failures = new ArrayList<>();
+            for (int i = 0; i < results.length(); i++) {
+                Object result = results.get(i);
+                if (result instanceof FailedNodeException) {
+                    failures.add((FailedNodeException) result);
+                } else {
+                    responses.add((NodeResponse) result);
+                }
+            }
+            final NodesResponse response;
+            try {
+                response = responseFactory.newResponse(responses, failures);
+            } catch (Throwable t) {
+                logger.debug("{} failed to combine shard fetch responses from nodes", t, shardId);
+                listener.onFailure(t);
+                return;
+            }
+            listener.onResponse(response);
+        }
+    }
+
+    /**
+     * The position of a node within a {@link PendingFetch}
+     */
+    private class FetchSlot {
+        private final PendingFetch fetch;
+        private final int index;
+
+        FetchSlot(PendingFetch fetch, int index) {
+            this.fetch = fetch;
+            this.index = index;
+        }
+
+        DiscoveryNode node() {
+            return fetch.nodes[index];
+        }
+
+        void onResult(Object result) {
+            fetch.onResult(index, result);
+        }
+    }
+
+    class NodeBatchTransportHandler implements TransportRequestHandler<NodeBatchRequest> {
+
+        @Override
+        public void messageReceived(final NodeBatchRequest request, final TransportChannel channel) throws Exception {
+            final List<ShardId> shardIds = request.shardIds;
+            final AtomicReferenceArray<Object> results = new AtomicReferenceArray<>(shardIds.size());
+            final AtomicInteger counter = new AtomicInteger(shardIds.size());
+            if (shardIds.isEmpty()) {
+                channel.sendResponse(new NodeBatchResponse(results));
+                return;
+            }
+            for (int i = 0; i < shardIds.size(); i++) {
+                final int index = i;
+                final ShardId shardId = shardIds.get(i);
+                threadPool.executor(executor).execute(new AbstractRunnable() {
+                    @Override
+                    protected void doRun() throws Exception {
+                        results.set(index, shardOperation.execute(shardId));
+                    }
+
+                    @Override
+                    public void onFailure(Throwable t) {
+                        logger.debug("{} failed to execute shard fetch", t, shardId);
+                        results.set(index, t);
+                    }
+
+                    @Override
+                    public void onAfter() {
+                        if (counter.decrementAndGet() == 0) {
+                            try {
+                                channel.sendResponse(new NodeBatchResponse(results));
+                            } catch (Throwable t) {
+                                logger.warn("failed to send shard fetch batch response", t);
+                            }
+                        }
+                    }
+                });
+            }
+        }
+    }
+
+    static class NodeBatchRequest extends TransportRequest {
+
+        private List<ShardId> shardIds;
+
+        NodeBatchRequest() {
+        }
+
+        NodeBatchRequest(List<ShardId> shardIds) {
+            this.shardIds = shardIds;
+        }
+
+        public List<ShardId> getShardIds() {
+            return shardIds;
+        }
+
+        @Override
+        public void readFrom(StreamInput in) throws IOException {
+            super.readFrom(in);
+            shardIds = in.readList(ShardId::readShardId);
+        }
+
+        @Override
+        public void writeTo(StreamOutput out) throws IOException {
+            super.writeTo(out);
+            out.writeStreamableList(shardIds);
+        }
+    }
+
+    /**
+     * Holds, in the order of the request, either the response of each shard or the exception it failed with
+     */
+    class NodeBatchResponse extends TransportResponse {
+
+        private List<Object> results;
+
+        NodeBatchResponse() {
+        }
+
+        NodeBatchResponse(AtomicReferenceArray<Object> results) {
+            this.results = new ArrayList<>(results.length());
+            for (int i = 0; i < results.length(); i++) {
+                this.results.add(results.get(i));
+            }
+        }
+
+        List<Object> getResults() {
+            return results;
+        }
+
+        @Override
+        public void readFrom(StreamInput in) throws IOException {
+            super.readFrom(in);
+            int size = in.readVInt();
+            results = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                if (in.readBoolean()) {
+                    NodeResponse response = nodeResponseSupplier.get();
+                    response.readFrom(in);
+                    results.add(response);
+                } else {
+                    results.add(in.readThrowable());
+                }
+            }
+        }
+
+        @Override
+        public void writeTo(StreamOutput out) throws IOException {
+            super.writeTo(out);
+            out.writeVInt(results.size());
+            for (Object result : results) {
+                if (result instanceof Throwable) {
+                    out.writeBoolean(false);
+                    out.writeThrowable((Throwable) result);
+                } else {
+                    out.writeBoolean(true);
+                    ((NodeResponse) result).writeTo(out);
+                }
+            }
+        }
+    }
+}
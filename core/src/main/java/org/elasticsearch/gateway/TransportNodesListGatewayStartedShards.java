@@ -65,7 +65,7 @@ public class TransportNodesListGatewayStartedShards extends
 
     public static final String ACTION_NAME = "internal:gateway/local/started_shards";
     private final NodeEnvironment nodeEnv;
-
+    private final ShardFetchBatcher<NodesGatewayStartedShards, NodeGatewayStartedShards> batcher;
 
     @Inject
     public TransportNodesListGatewayStartedShards(Settings settings, ThreadPool threadPool,
@@ -77,6 +77,18 @@ public class TransportNodesListGatewayStartedShards extends
               indexNameExpressionResolver, Request::new, NodeRequest::new, ThreadPool.Names.FETCH_SHARD_STARTED,
               NodeGatewayStartedShards.class);
         this.nodeEnv = env;
+        this.batcher = new ShardFetchBatcher<>(settings, ACTION_NAME, threadPool, transportService, ThreadPool.Names.FETCH_SHARD_STARTED,
+            NodeGatewayStartedShards::new, this::listStartedShard,
+            (responses, failures) -> new NodesGatewayStartedShards(clusterService.getClusterName(), responses, failures),
+            this);
+    }
+
+    /**
+     * Returns a lister that fetches the started shards of all shards listed during an allocation round in a single
+     * request per node, see {@link ShardFetchBatcher}.
+     */
+    public ShardFetchBatcher<NodesGatewayStartedShards, NodeGatewayStartedShards> batcher() {
+        return batcher;
     }
 
     @Override
@@ -108,11 +120,14 @@ public class TransportNodesListGatewayStartedShards extends
 
     @Override
     protected NodeGatewayStartedShards nodeOperation(NodeRequest request) {
+        return listStartedShard(request.getShardId());
+    }
+
+    private NodeGatewayStartedShards listStartedShard(final ShardId shardId) {
         try {
-            final ShardId shardId = request.getShardId();
             logger.trace("{} loading local shard state info", shardId);
             ShardStateMetaData shardStateMetaData = ShardStateMetaData.FORMAT.loadLatestState(logger,
-                nodeEnv.availableShardPaths(request.shardId));
+                nodeEnv.availableShardPaths(shardId));
             if (shardStateMetaData != null) {
                 IndexMetaData metaData = clusterService.state().metaData().index(shardId.getIndex());
                 if (metaData == null) {
@@ -123,7 +138,7 @@ public class TransportNodesListGatewayStartedShards extends
                 }
                 if (metaData == null) {
                     ElasticsearchException e = new ElasticsearchException("failed to find local IndexMetaData");
-                    e.setShard(request.shardId);
+                    e.setShard(shardId);
                     throw e;
                 }
 
@@ -22,6 +22,7 @@ package org.elasticsearch.http;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.elasticsearch.client.node.NodeClient;
@@ -44,6 +45,7 @@ import org.elasticsearch.rest.RestController;
 import org.elasticsearch.rest.RestRequest;
 import org.elasticsearch.rest.RestResponse;
 import org.elasticsearch.rest.RestStatus;
+import org.elasticsearch.rest.StreamingRestHandler;
 
 import static org.elasticsearch.rest.RestStatus.FORBIDDEN;
 import static org.elasticsearch.rest.RestStatus.INTERNAL_SERVER_ERROR;
@@ -95,7 +97,8 @@ public class HttpServer extends AbstractLifecycleComponent implements HttpServer
     }
 
     public HttpStats stats() {
-        return transport.stats();
+        HttpStats transportStats = transport.stats();
+        return transportStats == null ? null : new HttpStats(transportStats, restController.handlerStats());
     }
 
     public void dispatchRequest(RestRequest request, RestChannel channel, ThreadContext threadContext) {
@@ -119,6 +122,25 @@ public class HttpServer extends AbstractLifecycleComponent implements HttpServer
         }
     }
 
+    @Override
+    public boolean canStreamContent(RestRequest request) {
+        return restController.canStreamContent(request);
+    }
+
+    @Override
+    public StreamingRestHandler.ContentConsumer dispatchStreamingRequest(RestRequest request, RestChannel channel,
+                                                                         ThreadContext threadContext,
+                                                                         StreamingRestHandler.FlowControl flowControl) {
+        // the content isn't there yet, it is up to the handler to bound how much of it is held at once
+        RestChannel responseChannel = new ResourceHandlingHttpChannel(channel, circuitBreakerService, 0);
+        try {
+            return restController.dispatchStreamingRequest(request, responseChannel, client, threadContext, flowControl);
+        } catch (Throwable t) {
+            restController.sendErrorResponse(request, responseChannel, t);
+            return null;
+        }
+    }
+
     void handleFavicon(RestRequest request, RestChannel channel) {
         if (request.method() == RestRequest.Method.GET) {
             try {
@@ -163,6 +185,11 @@ public class HttpServer extends AbstractLifecycleComponent implements HttpServer
             return delegate.newBuilder(autoDetectSource, useFiltering);
         }
 
+        @Override
+        public XContentBuilder newBuilder(OutputStream out) throws IOException {
+            return delegate.newBuilder(out);
+        }
+
         @Override
         public BytesStreamOutput bytesOutput() {
             return delegate.bytesOutput();
@@ -19,9 +19,11 @@
 
 package org.elasticsearch.http;
 
+import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.util.concurrent.ThreadContext;
 import org.elasticsearch.rest.RestChannel;
 import org.elasticsearch.rest.RestRequest;
+import org.elasticsearch.rest.StreamingRestHandler;
 
 /**
  *
@@ -29,4 +31,18 @@ import org.elasticsearch.rest.RestRequest;
 public interface HttpServerAdapter {
 
     void dispatchRequest(RestRequest request, RestChannel channel, ThreadContext context);
+
+    /**
+     * Returns true if the content of the given request, which hasn't been received yet, can be streamed to its handler
+     * through {@link #dispatchStreamingRequest}. Otherwise the content has to be aggregated before the request is dispatched.
+     */
+    boolean canStreamContent(RestRequest request);
+
+    /**
+     * Dispatches a request whose content is going to be streamed, and returns the consumer to pass the content to. Returns
+     * null if the request has already been responded to, in which case its content should be discarded.
+     */
+    @Nullable
+    StreamingRestHandler.ContentConsumer dispatchStreamingRequest(RestRequest request, RestChannel channel, ThreadContext context,
+                                                                  StreamingRestHandler.FlowControl flowControl);
 }
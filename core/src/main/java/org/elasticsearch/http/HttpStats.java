@@ -24,21 +24,46 @@ import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.io.stream.Streamable;
 import org.elasticsearch.common.xcontent.ToXContent;
 import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.rest.RestHandlerStats;
 
 import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static java.util.Collections.emptyMap;
 
 public class HttpStats implements Streamable, ToXContent {
 
     private long serverOpen;
     private long totalOpen;
+    private long pendingRequests;
+    private long maxPipeliningDepth;
+    private Map<String, Long> clientOpen = emptyMap();
+    private Map<String, RestHandlerStats> handlers = emptyMap();
 
     HttpStats() {
 
     }
 
     public HttpStats(long serverOpen, long totalOpen) {
+        this(serverOpen, totalOpen, 0, 0, emptyMap());
+    }
+
+    public HttpStats(long serverOpen, long totalOpen, long pendingRequests, long maxPipeliningDepth, Map<String, Long> clientOpen) {
         this.serverOpen = serverOpen;
         this.totalOpen = totalOpen;
+        this.pendingRequests = pendingRequests;
+        this.maxPipeliningDepth = maxPipeliningDepth;
+        this.clientOpen = clientOpen;
+    }
+
+    /**
+     * Adds the stats of the REST handlers to the stats of the transport.
+     */
+    public HttpStats(HttpStats transportStats, Map<String, RestHandlerStats> handlers) {
+        this(transportStats.serverOpen, transportStats.totalOpen, transportStats.pendingRequests, transportStats.maxPipeliningDepth,
+            transportStats.clientOpen);
+        this.handlers = handlers;
     }
 
     public long getServerOpen() {
@@ -49,6 +74,34 @@ public class HttpStats implements Streamable, ToXContent {
         return this.totalOpen;
     }
 
+    /**
+     * The number of requests that were received but whose response wasn't sent yet. Only tracked with HTTP pipelining enabled.
+     */
+    public long getPendingRequests() {
+        return pendingRequests;
+    }
+
+    /**
+     * The largest number of requests pending on a single connection so far. Only tracked with HTTP pipelining enabled.
+     */
+    public long getMaxPipeliningDepth() {
+        return maxPipeliningDepth;
+    }
+
+    /**
+     * The number of open connections of the clients with the most connections, by client address.
+     */
+    public Map<String, Long> getClientOpen() {
+        return clientOpen;
+    }
+
+    /**
+     * The stats of the requests handled so far, by REST handler.
+     */
+    public Map<String, RestHandlerStats> getHandlers() {
+        return handlers;
+    }
+
     public static HttpStats readHttpStats(StreamInput in) throws IOException {
         HttpStats stats = new HttpStats();
         stats.readFrom(in);
@@ -59,18 +112,47 @@ public class HttpStats implements Streamable, ToXContent {
     public void readFrom(StreamInput in) throws IOException {
         serverOpen = in.readVLong();
         totalOpen = in.readVLong();
+        pendingRequests = in.readVLong();
+        maxPipeliningDepth = in.readVLong();
+        int size = in.readVInt();
+        clientOpen = new LinkedHashMap<>(size);
+        for (int i = 0; i < size; i++) {
+            clientOpen.put(in.readString(), in.readVLong());
+        }
+        size = in.readVInt();
+        handlers = new LinkedHashMap<>(size);
+        for (int i = 0; i < size; i++) {
+            handlers.put(in.readString(), RestHandlerStats.readRestHandlerStats(in));
+        }
     }
 
     @Override
     public void writeTo(StreamOutput out) throws IOException {
         out.writeVLong(serverOpen);
         out.writeVLong(totalOpen);
+        out.writeVLong(pendingRequests);
+        out.writeVLong(maxPipeliningDepth);
+        out.writeVInt(clientOpen.size());
+        for (Map.Entry<String, Long> entry : clientOpen.entrySet()) {
+            out.writeString(entry.getKey());
+            out.writeVLong(entry.getValue());
+        }
+        out.writeVInt(handlers.size());
+        for (Map.Entry<String, RestHandlerStats> entry : handlers.entrySet()) {
+            out.writeString(entry.getKey());
+            entry.getValue().writeTo(out);
+        }
     }
 
     static final class Fields {
         static final String HTTP = "http";
         static final String CURRENT_OPEN = "current_open";
         static final String TOTAL_OPENED = "total_opened";
+        static final String PIPELINING = "pipelining";
+        static final String CURRENT_PENDING = "current_pending";
+        static final String MAX_DEPTH = "max_depth";
+        static final String CLIENTS = "clients";
+        static final String HANDLERS = "handlers";
     }
 
     @Override
@@ -78,6 +160,24 @@ public class HttpStats implements Streamable, ToXContent {
         builder.startObject(Fields.HTTP);
         builder.field(Fields.CURRENT_OPEN, serverOpen);
         builder.field(Fields.TOTAL_OPENED, totalOpen);
+        builder.startObject(Fields.PIPELINING);
+        builder.field(Fields.CURRENT_PENDING, pendingRequests);
+        builder.field(Fields.MAX_DEPTH, maxPipeliningDepth);
+        builder.endObject();
+        builder.startObject(Fields.CLIENTS);
+        for (Map.Entry<String, Long> entry : clientOpen.entrySet()) {
+            builder.startObject(entry.getKey());
+            builder.field(Fields.CURRENT_OPEN, entry.getValue());
+            builder.endObject();
+        }
+        builder.endObject();
+        builder.startObject(Fields.HANDLERS);
+        for (Map.Entry<String, RestHandlerStats> entry : handlers.entrySet()) {
+            builder.startObject(entry.getKey());
+            entry.getValue().toXContent(builder, params);
+            builder.endObject();
+        }
+        builder.endObject();
         builder.endObject();
         return builder;
     }
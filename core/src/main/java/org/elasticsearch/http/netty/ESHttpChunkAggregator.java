@@ -0,0 +1,74 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.elasticsearch.http.netty;
+
+import org.jboss.netty.buffer.ChannelBuffer;
+import org.jboss.netty.buffer.ChannelBuffers;
+import org.jboss.netty.channel.ChannelHandlerContext;
+import org.jboss.netty.channel.Channels;
+import org.jboss.netty.channel.MessageEvent;
+import org.jboss.netty.handler.codec.http.HttpChunk;
+import org.jboss.netty.handler.codec.http.HttpChunkAggregator;
+import org.jboss.netty.handler.codec.http.HttpHeaders;
+import org.jboss.netty.handler.codec.http.HttpRequest;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A netty {@link HttpChunkAggregator} that lets requests whose content can be streamed to their handler (see
+ * {@link NettyHttpServerTransport#canStreamContent(org.elasticsearch.rest.RestRequest)}) through without aggregating them. Such requests
+ * are passed on as a chunked {@link HttpRequest} followed by its {@link HttpChunk}s, and are not subject to the maximum
+ * content length.
+ */
+public class ESHttpChunkAggregator extends HttpChunkAggregator {
+
+    private static final ChannelBuffer CONTINUE = ChannelBuffers.copiedBuffer("HTTP/1.1 100 Continue\r\n\r\n", StandardCharsets.US_ASCII);
+
+    private final NettyHttpServerTransport transport;
+
+    private boolean streaming;
+
+    public ESHttpChunkAggregator(NettyHttpServerTransport transport, int maxContentLength) {
+        super(maxContentLength);
+        this.transport = transport;
+    }
+
+    @Override
+    public void messageReceived(ChannelHandlerContext ctx, MessageEvent e) throws Exception {
+        Object msg = e.getMessage();
+        if (msg instanceof HttpRequest) {
+            HttpRequest request = (HttpRequest) msg;
+            streaming = request.isChunked() && transport.canStreamContent(new NettyHttpRequest(request, ctx.getChannel()));
+            if (streaming) {
+                if (HttpHeaders.is100ContinueExpected(request)) {
+                    Channels.write(ctx, Channels.succeededFuture(ctx.getChannel()), CONTINUE.duplicate());
+                }
+                ctx.sendUpstream(e);
+                return;
+            }
+        } else if (streaming && msg instanceof HttpChunk) {
+            if (((HttpChunk) msg).isLast()) {
+                streaming = false;
+            }
+            ctx.sendUpstream(e);
+            return;
+        }
+        super.messageReceived(ctx, e);
+    }
+}
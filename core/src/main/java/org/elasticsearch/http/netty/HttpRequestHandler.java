@@ -21,13 +21,19 @@ package org.elasticsearch.http.netty;
 
 import org.elasticsearch.common.util.concurrent.ThreadContext;
 import org.elasticsearch.http.netty.pipelining.OrderedUpstreamMessageEvent;
+import org.elasticsearch.rest.StreamingRestHandler;
+import org.elasticsearch.transport.netty.NettyUtils;
 import org.jboss.netty.channel.ChannelHandler;
 import org.jboss.netty.channel.ChannelHandlerContext;
+import org.jboss.netty.channel.ChannelStateEvent;
 import org.jboss.netty.channel.ExceptionEvent;
 import org.jboss.netty.channel.MessageEvent;
 import org.jboss.netty.channel.SimpleChannelUpstreamHandler;
+import org.jboss.netty.handler.codec.http.HttpChunk;
 import org.jboss.netty.handler.codec.http.HttpRequest;
 
+import java.nio.channels.ClosedChannelException;
+
 /**
  *
  */
@@ -48,6 +54,22 @@ public class HttpRequestHandler extends SimpleChannelUpstreamHandler {
 
     @Override
     public void messageReceived(ChannelHandlerContext ctx, MessageEvent e) throws Exception {
+        if (e.getMessage() instanceof HttpChunk) {
+            // a piece of the content of a request that is streamed to its handler, see ESHttpChunkAggregator
+            HttpChunk chunk = (HttpChunk) e.getMessage();
+            StreamingRestHandler.ContentConsumer consumer = (StreamingRestHandler.ContentConsumer) ctx.getAttachment();
+            if (consumer != null) {
+                if (chunk.getContent().readable()) {
+                    consumer.accept(NettyUtils.toBytesReference(chunk.getContent()));
+                }
+                if (chunk.isLast()) {
+                    ctx.setAttachment(null);
+                    consumer.finish();
+                }
+            }
+            return;
+        }
+
         HttpRequest request;
         OrderedUpstreamMessageEvent oue = null;
         if (this.httpPipeliningEnabled && e instanceof OrderedUpstreamMessageEvent) {
@@ -62,10 +84,25 @@ public class HttpRequestHandler extends SimpleChannelUpstreamHandler {
         // when reading, or using a cumalation buffer
         NettyHttpRequest httpRequest = new NettyHttpRequest(request, e.getChannel());
         NettyHttpChannel channel = new NettyHttpChannel(serverTransport, httpRequest, oue, detailedErrorsEnabled);
-        serverTransport.dispatchRequest(httpRequest, channel);
+        if (request.isChunked()) {
+            // only requests whose content can be streamed make it here without having been aggregated
+            ctx.setAttachment(serverTransport.dispatchStreamingRequest(httpRequest, channel, e.getChannel()));
+        } else {
+            serverTransport.dispatchRequest(httpRequest, channel);
+        }
         super.messageReceived(ctx, e);
     }
 
+    @Override
+    public void channelClosed(ChannelHandlerContext ctx, ChannelStateEvent e) throws Exception {
+        StreamingRestHandler.ContentConsumer consumer = (StreamingRestHandler.ContentConsumer) ctx.getAttachment();
+        if (consumer != null) {
+            ctx.setAttachment(null);
+            consumer.abort(new ClosedChannelException());
+        }
+        super.channelClosed(ctx, e);
+    }
+
     @Override
     public void exceptionCaught(ChannelHandlerContext ctx, ExceptionEvent e) throws Exception {
         serverTransport.exceptionCaught(ctx, e);
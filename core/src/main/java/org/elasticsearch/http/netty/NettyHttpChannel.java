@@ -21,6 +21,7 @@ package org.elasticsearch.http.netty;
 
 import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.bytes.ReleasablePagedBytesReference;
 import org.elasticsearch.common.io.stream.BytesStreamOutput;
 import org.elasticsearch.common.io.stream.ReleasableBytesStreamOutput;
 import org.elasticsearch.common.lease.Releasable;
@@ -29,8 +30,10 @@ import org.elasticsearch.http.netty.cors.CorsHandler;
 import org.elasticsearch.http.netty.pipelining.OrderedDownstreamChannelEvent;
 import org.elasticsearch.http.netty.pipelining.OrderedUpstreamMessageEvent;
 import org.elasticsearch.rest.AbstractRestChannel;
+import org.elasticsearch.rest.BytesRestResponse;
 import org.elasticsearch.rest.RestResponse;
 import org.elasticsearch.rest.RestStatus;
+import org.elasticsearch.rest.StreamingRestResponse;
 import org.jboss.netty.buffer.ChannelBuffer;
 import org.jboss.netty.channel.Channel;
 import org.jboss.netty.channel.ChannelFuture;
@@ -38,12 +41,17 @@ import org.jboss.netty.channel.ChannelFutureListener;
 import org.jboss.netty.handler.codec.http.Cookie;
 import org.jboss.netty.handler.codec.http.CookieDecoder;
 import org.jboss.netty.handler.codec.http.CookieEncoder;
+import org.jboss.netty.handler.codec.http.DefaultHttpChunk;
 import org.jboss.netty.handler.codec.http.DefaultHttpResponse;
+import org.jboss.netty.handler.codec.http.HttpChunk;
 import org.jboss.netty.handler.codec.http.HttpHeaders;
 import org.jboss.netty.handler.codec.http.HttpResponse;
 import org.jboss.netty.handler.codec.http.HttpResponseStatus;
 import org.jboss.netty.handler.codec.http.HttpVersion;
+import org.jboss.netty.util.internal.DeadLockProofWorker;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.Collections;
 import java.util.EnumMap;
 import java.util.List;
@@ -86,45 +94,25 @@ public final class NettyHttpChannel extends AbstractRestChannel {
 
     @Override
     public void sendResponse(RestResponse response) {
-        // if the response object was created upstream, then use it;
-        // otherwise, create a new one
-        HttpResponse resp = newResponse();
-        resp.setStatus(getStatus(response.status()));
-
-        CorsHandler.setCorsResponseHeaders(nettyRequest, resp, transport.getCorsConfig());
-
-        String opaque = nettyRequest.headers().get("X-Opaque-Id");
-        if (opaque != null) {
-            setHeaderField(resp, "X-Opaque-Id", opaque);
+        if (response instanceof StreamingRestResponse) {
+            sendStreamingResponse((StreamingRestResponse) response);
+        } else {
+            sendResponse(response, response.content());
         }
+    }
 
-        // Add all custom headers
-        addCustomHeaders(response, resp);
-
-        BytesReference content = response.content();
+    private void sendResponse(RestResponse response, BytesReference content) {
         ChannelBuffer buffer;
         boolean addedReleaseListener = false;
         try {
+            HttpResponse resp = prepareResponse(response);
             buffer = NettyUtils.toChannelBuffer(content);
             resp.setContent(buffer);
 
-            // If our response doesn't specify a content-type header, set one
-            setHeaderField(resp, HttpHeaders.Names.CONTENT_TYPE, response.contentType(), false);
             // If our response has no content-length, calculate and set one
             setHeaderField(resp, HttpHeaders.Names.CONTENT_LENGTH, String.valueOf(buffer.readableBytes()), false);
 
-            addCookies(resp);
-
-            ChannelFuture future;
-
-            if (orderedUpstreamMessageEvent != null) {
-                OrderedDownstreamChannelEvent downstreamChannelEvent =
-                    new OrderedDownstreamChannelEvent(orderedUpstreamMessageEvent, 0, true, resp);
-                future = downstreamChannelEvent.getFuture();
-                channel.getPipeline().sendDownstream(downstreamChannelEvent);
-            } else {
-                future = channel.write(resp);
-            }
+            ChannelFuture future = writeMessage(resp, 0, true);
 
             if (content instanceof Releasable) {
                 future.addListener((x) -> ((Releasable)content).close());
@@ -142,6 +130,62 @@ public final class NettyHttpChannel extends AbstractRestChannel {
         }
     }
 
+    private void sendStreamingResponse(StreamingRestResponse response) {
+        ChunkedResponseOutputStream out = new ChunkedResponseOutputStream(response);
+        try {
+            response.writeTo(out);
+            out.close();
+        } catch (Exception e) {
+            out.release();
+            if (out.headersSent) {
+                // part of the response is already on the wire, all we can do is to cut it short
+                channel.close();
+            } else {
+                try {
+                    sendResponse(new BytesRestResponse(this, e));
+                } catch (IOException inner) {
+                    channel.close();
+                }
+            }
+        }
+    }
+
+    // Create the {@link HttpResponse} carrying the status and headers of the given response.
+    private HttpResponse prepareResponse(RestResponse response) {
+        // if the response object was created upstream, then use it;
+        // otherwise, create a new one
+        HttpResponse resp = newResponse();
+        resp.setStatus(getStatus(response.status()));
+
+        CorsHandler.setCorsResponseHeaders(nettyRequest, resp, transport.getCorsConfig());
+
+        String opaque = nettyRequest.headers().get("X-Opaque-Id");
+        if (opaque != null) {
+            setHeaderField(resp, "X-Opaque-Id", opaque);
+        }
+
+        // Add all custom headers
+        addCustomHeaders(response, resp);
+
+        // If our response doesn't specify a content-type header, set one
+        setHeaderField(resp, HttpHeaders.Names.CONTENT_TYPE, response.contentType(), false);
+
+        addCookies(resp);
+        return resp;
+    }
+
+    // Write a message, honoring the response order if HTTP pipelining is enabled.
+    private ChannelFuture writeMessage(Object message, int subsequence, boolean last) {
+        if (orderedUpstreamMessageEvent != null) {
+            OrderedDownstreamChannelEvent downstreamChannelEvent =
+                new OrderedDownstreamChannelEvent(orderedUpstreamMessageEvent, subsequence, last, message);
+            channel.getPipeline().sendDownstream(downstreamChannelEvent);
+            return downstreamChannelEvent.getFuture();
+        } else {
+            return channel.write(message);
+        }
+    }
+
     private void setHeaderField(HttpResponse resp, String headerField, String value) {
         setHeaderField(resp, headerField, value, true);
     }
@@ -211,6 +255,129 @@ public final class NettyHttpChannel extends AbstractRestChannel {
         return resp;
     }
 
+    /**
+     * Collects the content of a {@link StreamingRestResponse} and sends it using HTTP chunked transfer encoding, one chunk
+     * of {@code http.response.chunk_size} at a time, while it is being produced. Content that fits into a single chunk is
+     * sent as a regular response instead. At most two chunks are in flight at any time and nothing more is produced while
+     * the channel is not writable, so slow clients push back on the thread rendering the response.
+     */
+    private final class ChunkedResponseOutputStream extends OutputStream {
+
+        private final StreamingRestResponse response;
+        private final int chunkSize;
+
+        private ReleasableBytesStreamOutput buffer;
+        private ChannelFuture previousWrite;
+        private ChannelFuture lastWrite;
+        private int subsequence;
+        private boolean headersSent;
+        private boolean closed;
+
+        ChunkedResponseOutputStream(StreamingRestResponse response) {
+            this.response = response;
+            this.chunkSize = (int) Math.min(Integer.MAX_VALUE, transport.responseChunkSize.bytes());
+            this.buffer = new ReleasableBytesStreamOutput(transport.bigArrays);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            ensureOpen();
+            buffer.writeByte((byte) b);
+            maybeSendChunk();
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            ensureOpen();
+            buffer.writeBytes(b, off, len);
+            maybeSendChunk();
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            if (headersSent == false) {
+                // everything fit into the first chunk
+                ReleasableBytesStreamOutput content = buffer;
+                buffer = null;
+                sendResponse(response, content.bytes());
+                return;
+            }
+            if (buffer.size() > 0) {
+                sendChunk();
+            }
+            buffer.bytes().close();
+            buffer = null;
+            ChannelFuture future = writeMessage(HttpChunk.LAST_CHUNK, subsequence++, true);
+            if (isCloseConnection()) {
+                future.addListener(ChannelFutureListener.CLOSE);
+            }
+        }
+
+        void release() {
+            closed = true;
+            if (buffer != null) {
+                buffer.bytes().close();
+                buffer = null;
+            }
+        }
+
+        private void ensureOpen() throws IOException {
+            if (closed) {
+                throw new IOException("response stream is already closed");
+            }
+        }
+
+        private void maybeSendChunk() throws IOException {
+            if (buffer.size() < chunkSize) {
+                return;
+            }
+            if (headersSent == false) {
+                HttpResponse resp = prepareResponse(response);
+                resp.setChunked(true);
+                HttpHeaders.setTransferEncodingChunked(resp);
+                lastWrite = writeMessage(resp, subsequence++, false);
+                headersSent = true;
+            }
+            awaitWritable();
+            sendChunk();
+        }
+
+        private void sendChunk() {
+            ReleasablePagedBytesReference content = buffer.bytes();
+            buffer = new ReleasableBytesStreamOutput(transport.bigArrays);
+            boolean addedReleaseListener = false;
+            try {
+                ChannelFuture future = writeMessage(new DefaultHttpChunk(NettyUtils.toChannelBuffer(content)), subsequence++, false);
+                future.addListener((x) -> content.close());
+                addedReleaseListener = true;
+                previousWrite = lastWrite;
+                lastWrite = future;
+            } finally {
+                if (addedReleaseListener == false) {
+                    content.close();
+                }
+            }
+        }
+
+        private void awaitWritable() throws IOException {
+            // never block a network thread, it is the one that would have to drain the channel
+            if (DeadLockProofWorker.PARENT.get() == null) {
+                if (channel.isWritable() == false) {
+                    lastWrite.awaitUninterruptibly();
+                } else if (previousWrite != null) {
+                    previousWrite.awaitUninterruptibly();
+                }
+            }
+            if (lastWrite.isDone() && lastWrite.isSuccess() == false) {
+                throw new IOException("failed to send response chunk", lastWrite.getCause());
+            }
+        }
+    }
+
     private static final HttpResponseStatus TOO_MANY_REQUESTS = new HttpResponseStatus(429, "Too Many Requests");
 
     static Map<RestStatus, HttpResponseStatus> MAP;
@@ -53,6 +53,7 @@ import org.elasticsearch.http.netty.pipelining.HttpPipeliningHandler;
 import org.elasticsearch.monitor.jvm.JvmInfo;
 import org.elasticsearch.rest.RestChannel;
 import org.elasticsearch.rest.RestRequest;
+import org.elasticsearch.rest.StreamingRestHandler;
 import org.elasticsearch.rest.support.RestUtils;
 import org.elasticsearch.threadpool.ThreadPool;
 import org.elasticsearch.transport.BindTransportException;
@@ -106,6 +107,7 @@ import static org.elasticsearch.http.HttpTransportSettings.SETTING_HTTP_PORT;
 import static org.elasticsearch.http.HttpTransportSettings.SETTING_HTTP_PUBLISH_HOST;
 import static org.elasticsearch.http.HttpTransportSettings.SETTING_HTTP_PUBLISH_PORT;
 import static org.elasticsearch.http.HttpTransportSettings.SETTING_HTTP_RESET_COOKIES;
+import static org.elasticsearch.http.HttpTransportSettings.SETTING_HTTP_RESPONSE_CHUNK_SIZE;
 import static org.elasticsearch.http.HttpTransportSettings.SETTING_PIPELINING;
 import static org.elasticsearch.http.HttpTransportSettings.SETTING_PIPELINING_MAX_EVENTS;
 import static org.elasticsearch.http.netty.cors.CorsHandler.ANY_ORIGIN;
@@ -162,6 +164,9 @@ public class NettyHttpServerTransport extends AbstractLifecycleComponent impleme
         byteSizeSetting("http.netty.receive_predictor_max", SETTING_HTTP_NETTY_RECEIVE_PREDICTOR_SIZE, Property.NodeScope);
 
 
+    // the number of clients whose open connections are reported in the stats
+    private static final int MAX_REPORTED_CLIENTS = 10;
+
     protected final NetworkService networkService;
     protected final BigArrays bigArrays;
 
@@ -169,6 +174,7 @@ public class NettyHttpServerTransport extends AbstractLifecycleComponent impleme
     protected final ByteSizeValue maxInitialLineLength;
     protected final ByteSizeValue maxHeaderSize;
     protected final ByteSizeValue maxChunkSize;
+    protected final ByteSizeValue responseChunkSize;
 
     protected final int workerCount;
 
@@ -178,6 +184,8 @@ public class NettyHttpServerTransport extends AbstractLifecycleComponent impleme
 
     protected final int pipeliningMaxEvents;
 
+    protected final HttpPipeliningHandler.DepthTracker pipeliningDepth = new HttpPipeliningHandler.DepthTracker();
+
     protected final boolean compression;
 
     protected final int compressionLevel;
@@ -226,6 +234,7 @@ public class NettyHttpServerTransport extends AbstractLifecycleComponent impleme
 
         ByteSizeValue maxContentLength = SETTING_HTTP_MAX_CONTENT_LENGTH.get(settings);
         this.maxChunkSize = SETTING_HTTP_MAX_CHUNK_SIZE.get(settings);
+        this.responseChunkSize = SETTING_HTTP_RESPONSE_CHUNK_SIZE.get(settings);
         this.maxHeaderSize = SETTING_HTTP_MAX_HEADER_SIZE.get(settings);
         this.maxInitialLineLength = SETTING_HTTP_MAX_INITIAL_LINE_LENGTH.get(settings);
         this.resetCookies = SETTING_HTTP_RESET_COOKIES.get(settings);
@@ -268,8 +277,9 @@ public class NettyHttpServerTransport extends AbstractLifecycleComponent impleme
         this.maxContentLength = maxContentLength;
 
         logger.debug("using max_chunk_size[{}], max_header_size[{}], max_initial_line_length[{}], max_content_length[{}], " +
-            "receive_predictor[{}->{}], pipelining[{}], pipelining_max_events[{}]", maxChunkSize, maxHeaderSize, maxInitialLineLength,
-            this.maxContentLength, receivePredictorMin, receivePredictorMax, pipelining, pipeliningMaxEvents);
+            "response_chunk_size[{}], receive_predictor[{}->{}], pipelining[{}], pipelining_max_events[{}]", maxChunkSize, maxHeaderSize,
+            maxInitialLineLength, this.maxContentLength, responseChunkSize, receivePredictorMin, receivePredictorMax, pipelining,
+            pipeliningMaxEvents);
     }
 
     public Settings settings() {
@@ -479,7 +489,11 @@ public class NettyHttpServerTransport extends AbstractLifecycleComponent impleme
     @Override
     public HttpStats stats() {
         OpenChannelsHandler channels = serverOpenChannels;
-        return new HttpStats(channels == null ? 0 : channels.numberOfOpenChannels(), channels == null ? 0 : channels.totalChannels());
+        if (channels == null) {
+            return new HttpStats(0, 0);
+        }
+        return new HttpStats(channels.numberOfOpenChannels(), channels.totalChannels(), pipeliningDepth.pending(),
+            pipeliningDepth.maxDepth(), channels.openChannelsPerAddress(MAX_REPORTED_CLIENTS));
     }
 
     public CorsConfig getCorsConfig() {
@@ -490,6 +504,26 @@ public class NettyHttpServerTransport extends AbstractLifecycleComponent impleme
         httpServerAdapter.dispatchRequest(request, channel, threadPool.getThreadContext());
     }
 
+    protected boolean canStreamContent(RestRequest request) {
+        return httpServerAdapter.canStreamContent(request);
+    }
+
+    protected StreamingRestHandler.ContentConsumer dispatchStreamingRequest(RestRequest request, RestChannel channel,
+                                                                            final Channel nettyChannel) {
+        return httpServerAdapter.dispatchStreamingRequest(request, channel, threadPool.getThreadContext(),
+            new StreamingRestHandler.FlowControl() {
+                @Override
+                public void pause() {
+                    nettyChannel.setReadable(false);
+                }
+
+                @Override
+                public void resume() {
+                    nettyChannel.setReadable(true);
+                }
+            });
+    }
+
     protected void exceptionCaught(ChannelHandlerContext ctx, ExceptionEvent e) throws Exception {
         if (e.getCause() instanceof ReadTimeoutException) {
             if (logger.isTraceEnabled()) {
@@ -546,7 +580,7 @@ public class NettyHttpServerTransport extends AbstractLifecycleComponent impleme
             }
             pipeline.addLast("decoder", requestDecoder);
             pipeline.addLast("decoder_compress", new HttpContentDecompressor());
-            HttpChunkAggregator httpChunkAggregator = new HttpChunkAggregator((int) transport.maxContentLength.bytes());
+            HttpChunkAggregator httpChunkAggregator = new ESHttpChunkAggregator(transport, (int) transport.maxContentLength.bytes());
             if (transport.maxCompositeBufferComponents != -1) {
                 httpChunkAggregator.setMaxCumulationBufferComponents(transport.maxCompositeBufferComponents);
             }
@@ -559,7 +593,7 @@ public class NettyHttpServerTransport extends AbstractLifecycleComponent impleme
                 pipeline.addLast("cors", new CorsHandler(transport.getCorsConfig()));
             }
             if (transport.pipelining) {
-                pipeline.addLast("pipelining", new HttpPipeliningHandler(transport.pipeliningMaxEvents));
+                pipeline.addLast("pipelining", new HttpPipeliningHandler(transport.pipeliningMaxEvents, transport.pipeliningDepth));
             }
             pipeline.addLast("handler", requestHandler);
             return pipeline;
@@ -22,8 +22,10 @@ package org.elasticsearch.http.netty.pipelining;
 // this file is from netty-http-pipelining, under apache 2.0 license
 // see github.com/typesafehub/netty-http-pipelining
 
+import org.elasticsearch.common.metrics.CounterMetric;
 import org.jboss.netty.channel.ChannelEvent;
 import org.jboss.netty.channel.ChannelHandlerContext;
+import org.jboss.netty.channel.ChannelStateEvent;
 import org.jboss.netty.channel.Channels;
 import org.jboss.netty.channel.MessageEvent;
 import org.jboss.netty.channel.SimpleChannelHandler;
@@ -32,6 +34,7 @@ import org.jboss.netty.handler.codec.http.HttpRequest;
 import java.util.Comparator;
 import java.util.PriorityQueue;
 import java.util.Queue;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Implements HTTP pipelining ordering, ensuring that responses are completely served in the same order as their
@@ -46,10 +49,12 @@ public class HttpPipeliningHandler extends SimpleChannelHandler {
     public static final int INITIAL_EVENTS_HELD = 3;
 
     private final int maxEventsHeld;
+    private final DepthTracker depthTracker;
 
     private int sequence;
     private int nextRequiredSequence;
     private int nextRequiredSubsequence;
+    private boolean closed;
 
     private final Queue<OrderedDownstreamChannelEvent> holdingQueue;
 
@@ -59,7 +64,16 @@ public class HttpPipeliningHandler extends SimpleChannelHandler {
      *                      memory if this was the case.
      */
     public HttpPipeliningHandler(final int maxEventsHeld) {
+        this(maxEventsHeld, new DepthTracker());
+    }
+
+    /**
+     * @param maxEventsHeld see {@link #HttpPipeliningHandler(int)}
+     * @param depthTracker  tracks the requests waiting for a response, usually shared by the handlers of all connections
+     */
+    public HttpPipeliningHandler(final int maxEventsHeld, final DepthTracker depthTracker) {
         this.maxEventsHeld = maxEventsHeld;
+        this.depthTracker = depthTracker;
 
         holdingQueue = new PriorityQueue<>(INITIAL_EVENTS_HELD, new Comparator<OrderedDownstreamChannelEvent>() {
             @Override
@@ -82,7 +96,12 @@ public class HttpPipeliningHandler extends SimpleChannelHandler {
     public void messageReceived(final ChannelHandlerContext ctx, final MessageEvent e) {
         final Object msg = e.getMessage();
         if (msg instanceof HttpRequest) {
-            ctx.sendUpstream(new OrderedUpstreamMessageEvent(sequence++, e.getChannel(), msg, e.getRemoteAddress()));
+            final int requestSequence;
+            synchronized (holdingQueue) {
+                requestSequence = sequence++;
+                depthTracker.onRequest(sequence - nextRequiredSequence);
+            }
+            ctx.sendUpstream(new OrderedUpstreamMessageEvent(requestSequence, e.getChannel(), msg, e.getRemoteAddress()));
         } else {
             ctx.sendUpstream(e);
         }
@@ -112,6 +131,9 @@ public class HttpPipeliningHandler extends SimpleChannelHandler {
                         ctx.sendDownstream(nextEvent.getChannelEvent());
                         if (nextEvent.isLast()) {
                             ++nextRequiredSequence;
+                            if (closed == false) {
+                                depthTracker.onResponse(1);
+                            }
                             nextRequiredSubsequence = 0;
                         } else {
                             ++nextRequiredSubsequence;
@@ -131,4 +153,48 @@ public class HttpPipeliningHandler extends SimpleChannelHandler {
         }
     }
 
+    @Override
+    public void channelClosed(ChannelHandlerContext ctx, ChannelStateEvent e) throws Exception {
+        synchronized (holdingQueue) {
+            if (closed == false) {
+                closed = true;
+                // the requests that are still waiting won't get a response anymore
+                depthTracker.onResponse(sequence - nextRequiredSequence);
+            }
+        }
+        super.channelClosed(ctx, e);
+    }
+
+    /**
+     * Tracks the depth of the pipelines of the connections whose handlers share it, that is the number of requests that
+     * were received on a connection but whose response hasn't been sent yet.
+     */
+    public static final class DepthTracker {
+
+        private final CounterMetric pending = new CounterMetric();
+        private final AtomicLong maxDepth = new AtomicLong();
+
+        void onRequest(int depth) {
+            pending.inc();
+            maxDepth.accumulateAndGet(depth, Math::max);
+        }
+
+        void onResponse(int count) {
+            pending.dec(count);
+        }
+
+        /**
+         * The number of requests waiting for their response, across all connections.
+         */
+        public long pending() {
+            return pending.count();
+        }
+
+        /**
+         * The deepest pipeline seen on a single connection.
+         */
+        public long maxDepth() {
+            return maxDepth.get();
+        }
+    }
 }
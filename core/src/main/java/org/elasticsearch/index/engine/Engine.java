@@ -376,6 +376,14 @@ public abstract class Engine implements Closeable {
     /** returns the translog for this engine */
     public abstract Translog getTranslog();
 
+    /**
+     * Returns a view of the translog holding all operations since the synced commit with the given sync id and number of
+     * documents, or <code>null</code> if this engine did not retain the translog since that commit.
+     */
+    public Translog.View acquireTranslogViewSinceSyncedCommit(String syncId, long numDocs) {
+        return null;
+    }
+
     protected void ensureOpen() {
         if (isClosed.get()) {
             throw new EngineClosedException(shardId, failedEngine);
@@ -116,6 +116,10 @@ public class InternalEngine extends Engine {
     private final EngineConfig.OpenMode openMode;
     private final AtomicBoolean allowCommits = new AtomicBoolean(true);
 
+    // the translog since the last synced commit we flushed past, see #acquireTranslogViewSinceSyncedCommit
+    private final Object retainedSyncedCommitMutex = new Object();
+    private RetainedSyncedCommit retainedSyncedCommit;
+
     public InternalEngine(EngineConfig engineConfig) throws EngineException {
         super(engineConfig);
         openMode = engineConfig.getOpenMode();
@@ -695,6 +699,7 @@ public class InternalEngine extends Engine {
                 if (indexWriter.hasUncommittedChanges() || force) {
                     ensureCanFlush();
                     try {
+                        retainTranslogOfSyncedCommit();
                         translog.prepareCommit();
                         logger.trace("starting commit for flush; commitTranslog=true");
                         commitIndexWriter(indexWriter, translog, null);
@@ -703,6 +708,7 @@ public class InternalEngine extends Engine {
                         refresh("version_table_flush");
                         // after refresh documents can be retrieved from the index so we can now commit the translog
                         translog.commit();
+                        trimRetainedTranslog();
                     } catch (Throwable e) {
                         throw new FlushFailedEngineException(shardId, e);
                     }
@@ -743,6 +749,81 @@ public class InternalEngine extends Engine {
         return new CommitId(newCommitId);
     }
 
+    /**
+     * If the last commit is a synced commit that we are about to flush past, keeps the translog written since that commit so
+     * a copy of the shard holding the synced commit can later be recovered by replaying operations only.
+     */
+    private void retainTranslogOfSyncedCommit() {
+        final Map<String, String> commitData = lastCommittedSegmentInfos.getUserData();
+        final String syncId = commitData.get(SYNC_COMMIT_ID);
+        if (syncId == null || engineConfig.getIndexSettings().getTranslogRetentionSize().bytes() <= 0) {
+            return;
+        }
+        final long generation = Long.parseLong(commitData.get(Translog.TRANSLOG_GENERATION_KEY));
+        final RetainedSyncedCommit retained;
+        try {
+            retained = new RetainedSyncedCommit(syncId, Lucene.getNumDocs(lastCommittedSegmentInfos), translog.newView(generation));
+        } catch (IllegalArgumentException e) {
+            logger.debug("can't retain translog for sync id [{}]", e, syncId);
+            return;
+        }
+        final RetainedSyncedCommit previous;
+        synchronized (retainedSyncedCommitMutex) {
+            previous = retainedSyncedCommit;
+            retainedSyncedCommit = retained;
+        }
+        logger.trace("retaining translog from generation [{}] for sync id [{}]", generation, syncId);
+        if (previous != null) {
+            IOUtils.closeWhileHandlingException(previous.view);
+        }
+    }
+
+    /**
+     * Releases the retained translog once it grows past the retention size.
+     */
+    private void trimRetainedTranslog() {
+        final long retentionSizeInBytes = engineConfig.getIndexSettings().getTranslogRetentionSize().bytes();
+        synchronized (retainedSyncedCommitMutex) {
+            if (retainedSyncedCommit != null && retainedSyncedCommit.view.sizeInBytes() > retentionSizeInBytes) {
+                logger.trace("releasing translog retained for sync id [{}], exceeds [{}]", retainedSyncedCommit.syncId,
+                    engineConfig.getIndexSettings().getTranslogRetentionSize());
+                releaseRetainedTranslog();
+            }
+        }
+    }
+
+    private void releaseRetainedTranslog() {
+        synchronized (retainedSyncedCommitMutex) {
+            if (retainedSyncedCommit != null) {
+                IOUtils.closeWhileHandlingException(retainedSyncedCommit.view);
+                retainedSyncedCommit = null;
+            }
+        }
+    }
+
+    @Override
+    public Translog.View acquireTranslogViewSinceSyncedCommit(String syncId, long numDocs) {
+        ensureOpen();
+        synchronized (retainedSyncedCommitMutex) {
+            if (retainedSyncedCommit != null && retainedSyncedCommit.syncId.equals(syncId) && retainedSyncedCommit.numDocs == numDocs) {
+                return translog.newView(retainedSyncedCommit.view.minTranslogGeneration());
+            }
+        }
+        return null;
+    }
+
+    private static final class RetainedSyncedCommit {
+        private final String syncId;
+        private final long numDocs;
+        private final Translog.View view;
+
+        RetainedSyncedCommit(String syncId, long numDocs, Translog.View view) {
+            this.syncId = syncId;
+            this.numDocs = numDocs;
+            this.view = view;
+        }
+    }
+
     private void pruneDeletedTombstones() {
         long timeMSec = engineConfig.getThreadPool().estimatedTimeInMillis();
 
@@ -924,6 +1005,7 @@ public class InternalEngine extends Engine {
                     logger.warn("Failed to close SearcherManager", t);
                 }
                 try {
+                    releaseRetainedTranslog();
                     IOUtils.close(translog);
                 } catch (Throwable t) {
                     logger.warn("Failed to close translog", t);
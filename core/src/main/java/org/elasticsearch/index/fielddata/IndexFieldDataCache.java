@@ -43,6 +43,12 @@ public interface IndexFieldDataCache {
      */
     void clear(String fieldName);
 
+    /**
+     * Clears the field data that was cached through this instance only, leaving the field data that other instances
+     * cached for the same field alone.
+     */
+    void clearOwnEntries();
+
     interface Listener {
 
         /**
@@ -76,5 +82,9 @@ public interface IndexFieldDataCache {
         @Override
         public void clear(String fieldName) {
         }
+
+        @Override
+        public void clearOwnEntries() {
+        }
     }
 }
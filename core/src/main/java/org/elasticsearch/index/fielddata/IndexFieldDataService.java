@@ -21,6 +21,9 @@ package org.elasticsearch.index.fielddata;
 
 import org.apache.lucene.util.Accountable;
 import org.elasticsearch.ExceptionsHelper;
+import org.elasticsearch.common.cache.Cache;
+import org.elasticsearch.common.cache.CacheBuilder;
+import org.elasticsearch.common.cache.RemovalNotification;
 import org.elasticsearch.common.collect.MapBuilder;
 import org.elasticsearch.common.collect.Tuple;
 import org.elasticsearch.common.settings.Setting;
@@ -34,6 +37,7 @@ import org.elasticsearch.index.fielddata.plain.GeoPointArrayIndexFieldData;
 import org.elasticsearch.index.fielddata.plain.IndexIndexFieldData;
 import org.elasticsearch.index.fielddata.plain.PagedBytesIndexFieldData;
 import org.elasticsearch.index.fielddata.plain.ParentChildIndexFieldData;
+import org.elasticsearch.index.fielddata.plain.ScriptResultsIndexFieldData;
 import org.elasticsearch.index.mapper.MappedFieldType;
 import org.elasticsearch.index.mapper.MapperService;
 import org.elasticsearch.index.mapper.core.BooleanFieldMapper;
@@ -44,12 +48,15 @@ import org.elasticsearch.index.mapper.internal.ParentFieldMapper;
 import org.elasticsearch.index.shard.ShardId;
 import org.elasticsearch.indices.breaker.CircuitBreakerService;
 import org.elasticsearch.indices.fielddata.cache.IndicesFieldDataCache;
+import org.elasticsearch.script.Script;
+import org.elasticsearch.script.SearchScript;
 
 import java.io.Closeable;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
@@ -69,12 +76,23 @@ public class IndexFieldDataService extends AbstractIndexComponent implements Clo
                 throw new IllegalArgumentException("failed to parse [" + s + "] must be one of [node,node]");
         }
     }, Property.IndexScope);
+    /**
+     * The field name under which cached script results are reported.
+     */
+    public static final String SCRIPT_RESULTS_FIELD_NAME = "_script";
+    /**
+     * The maximum number of scripts whose results are cached for an index. The results of the least recently used script are
+     * dropped to make room for another one.
+     */
+    public static final Setting<Integer> INDEX_FIELDDATA_MAX_CACHED_SCRIPTS_SETTING =
+        Setting.intSetting("index.fielddata.max_cached_scripts", 100, 1, Property.IndexScope);
 
     private final CircuitBreakerService circuitBreakerService;
 
     private final IndicesFieldDataCache indicesFieldDataCache;
     // the below map needs to be modified under a lock
     private final Map<String, IndexFieldDataCache> fieldDataCaches = new HashMap<>();
+    private final Cache<Script, IndexFieldDataCache> scriptResultsCaches;
     private final MapperService mapperService;
     private static final IndexFieldDataCache.Listener DEFAULT_NOOP_LISTENER = new IndexFieldDataCache.Listener() {
         @Override
@@ -94,6 +112,15 @@ public class IndexFieldDataService extends AbstractIndexComponent implements Clo
         this.indicesFieldDataCache = indicesFieldDataCache;
         this.circuitBreakerService = circuitBreakerService;
         this.mapperService = mapperService;
+        this.scriptResultsCaches = CacheBuilder.<Script, IndexFieldDataCache>builder()
+            .setMaximumWeight(indexSettings.getValue(INDEX_FIELDDATA_MAX_CACHED_SCRIPTS_SETTING))
+            .removalListener(notification -> {
+                if (notification.getRemovalReason() == RemovalNotification.RemovalReason.EVICTED) {
+                    // nothing can look up the results of the script anymore
+                    notification.getValue().clearOwnEntries();
+                }
+            })
+            .build();
     }
 
     public synchronized void clear() {
@@ -107,6 +134,7 @@ public class IndexFieldDataService extends AbstractIndexComponent implements Clo
             }
         }
         fieldDataCacheValues.clear();
+        clearScriptResults(exceptions);
         ExceptionsHelper.maybeThrowRuntimeAndSuppress(exceptions);
     }
 
@@ -120,9 +148,26 @@ public class IndexFieldDataService extends AbstractIndexComponent implements Clo
                 exceptions.add(t);
             }
         }
+        if (SCRIPT_RESULTS_FIELD_NAME.equals(fieldName)) {
+            clearScriptResults(exceptions);
+        }
         ExceptionsHelper.maybeThrowRuntimeAndSuppress(exceptions);
     }
 
+    private void clearScriptResults(List<Throwable> exceptions) {
+        assert Thread.holdsLock(this);
+        Iterator<IndexFieldDataCache> caches = scriptResultsCaches.values().iterator();
+        if (caches.hasNext()) {
+            try {
+                // the results of all scripts are cached under the same field name, clearing it once clears them all
+                caches.next().clear(SCRIPT_RESULTS_FIELD_NAME);
+            } catch (Throwable t) {
+                exceptions.add(t);
+            }
+            scriptResultsCaches.invalidateAll();
+        }
+    }
+
     @SuppressWarnings("unchecked")
     public <IFD extends IndexFieldData<?>> IFD getForField(MappedFieldType fieldType) {
         final String fieldName = fieldType.name();
@@ -147,6 +192,27 @@ public class IndexFieldDataService extends AbstractIndexComponent implements Clo
         return (IFD) builder.build(indexSettings, fieldType, cache, circuitBreakerService, mapperService);
     }
 
+    /**
+     * Returns field data that caches the per document results of the given script, or {@code null} if field data isn't
+     * cached for this index. The results of a segment are computed with {@code searchScript} the first time the segment is
+     * loaded and shared with all later searches running the same script, so this must only be used for scripts whose
+     * results solely depend on the doc values of the document and on the script parameters.
+     */
+    public ScriptResultsIndexFieldData getForScript(Script script, SearchScript searchScript) {
+        IndexFieldDataCache cache;
+        synchronized (this) {
+            cache = scriptResultsCaches.get(script);
+            if (cache == null) {
+                if (FIELDDATA_CACHE_VALUE_NODE.equals(indexSettings.getValue(INDEX_FIELDDATA_CACHE_KEY)) == false) {
+                    return null;
+                }
+                cache = indicesFieldDataCache.buildIndexFieldDataCache(listener, index(), SCRIPT_RESULTS_FIELD_NAME);
+                scriptResultsCaches.put(script, cache);
+            }
+        }
+        return new ScriptResultsIndexFieldData(indexSettings, SCRIPT_RESULTS_FIELD_NAME, cache, searchScript, circuitBreakerService);
+    }
+
     /**
      * Sets a {@link org.elasticsearch.index.fielddata.IndexFieldDataCache.Listener} passed to each {@link IndexFieldData}
      * creation to capture onCache and onRemoval events. Setting a listener on this method will override any previously
@@ -0,0 +1,248 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index.fielddata.plain;
+
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.util.Accountable;
+import org.apache.lucene.util.Bits;
+import org.apache.lucene.util.RamUsageEstimator;
+import org.elasticsearch.ElasticsearchException;
+import org.elasticsearch.common.Nullable;
+import org.elasticsearch.common.breaker.CircuitBreaker;
+import org.elasticsearch.index.IndexSettings;
+import org.elasticsearch.index.fielddata.AtomicFieldData;
+import org.elasticsearch.index.fielddata.IndexFieldData.XFieldComparatorSource.Nested;
+import org.elasticsearch.index.fielddata.IndexFieldDataCache;
+import org.elasticsearch.index.fielddata.IndexFieldData;
+import org.elasticsearch.index.fielddata.ScriptDocValues;
+import org.elasticsearch.index.fielddata.SortedBinaryDocValues;
+import org.elasticsearch.indices.breaker.CircuitBreakerService;
+import org.elasticsearch.script.LeafSearchScript;
+import org.elasticsearch.script.SearchScript;
+import org.elasticsearch.search.MultiValueMode;
+
+import java.util.Collection;
+import java.util.Collections;
+
+/**
+ * Field data holding the result of a script for every document of a segment. The results are computed when the segment
+ * is first loaded and then cached like any other field data, so they are accounted for in the field data circuit breaker
+ * and evicted with the segment.
+ * <p>
+ * Only {@code null}, numbers and booleans are cached. A segment for which the script returns anything else, or fails, is
+ * marked as not cacheable and its results have to be computed by the script itself.
+ */
+public class ScriptResultsIndexFieldData extends AbstractIndexFieldData<ScriptResultsIndexFieldData.AtomicScriptResults> {
+
+    private final SearchScript script;
+    private final CircuitBreakerService breakerService;
+
+    public ScriptResultsIndexFieldData(IndexSettings indexSettings, String fieldName, IndexFieldDataCache cache,
+                                       SearchScript script, CircuitBreakerService breakerService) {
+        super(indexSettings, fieldName, cache);
+        this.script = script;
+        this.breakerService = breakerService;
+    }
+
+    @Override
+    public AtomicScriptResults load(LeafReaderContext context) {
+        // unlike regular field data, the results don't depend on a field being present in the segment
+        try {
+            return cache.load(context, this);
+        } catch (Throwable e) {
+            if (e instanceof ElasticsearchException) {
+                throw (ElasticsearchException) e;
+            } else {
+                throw new ElasticsearchException(e);
+            }
+        }
+    }
+
+    @Override
+    public AtomicScriptResults loadDirect(LeafReaderContext context) throws Exception {
+        final int maxDoc = context.reader().maxDoc();
+        final long size = AtomicScriptResults.ramBytesUsed(maxDoc);
+        final CircuitBreaker breaker = breakerService.getBreaker(CircuitBreaker.FIELDDATA);
+        breaker.addEstimateBytesAndMaybeBreak(size, getFieldName());
+        boolean success = false;
+        try {
+            final LeafSearchScript leafScript = script.getLeafSearchScript(context);
+            final Bits liveDocs = context.reader().getLiveDocs();
+            final long[] values = new long[maxDoc];
+            final byte[] types = new byte[maxDoc];
+            for (int doc = 0; doc < maxDoc; doc++) {
+                if (liveDocs != null && liveDocs.get(doc) == false) {
+                    continue;
+                }
+                final Object value;
+                try {
+                    leafScript.setDocument(doc);
+                    value = leafScript.run();
+                } catch (RuntimeException e) {
+                    // the document may never be matched, so leave it to the script to fail if it is
+                    return notCacheable();
+                }
+                if (value == null) {
+                    types[doc] = AtomicScriptResults.NULL;
+                } else if (value instanceof Double || value instanceof Float) {
+                    types[doc] = AtomicScriptResults.DOUBLE;
+                    values[doc] = Double.doubleToRawLongBits(((Number) value).doubleValue());
+                } else if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+                    types[doc] = AtomicScriptResults.LONG;
+                    values[doc] = ((Number) value).longValue();
+                } else if (value instanceof Boolean) {
+                    types[doc] = AtomicScriptResults.BOOLEAN;
+                    values[doc] = (Boolean) value ? 1 : 0;
+                } else {
+                    return notCacheable();
+                }
+            }
+            success = true;
+            return new AtomicScriptResults(getFieldName(), values, types);
+        } finally {
+            if (success == false) {
+                breaker.addWithoutBreaking(-size);
+            }
+        }
+    }
+
+    @Override
+    protected AtomicScriptResults empty(int maxDoc) {
+        return notCacheable();
+    }
+
+    private AtomicScriptResults notCacheable() {
+        return new AtomicScriptResults(getFieldName(), null, null);
+    }
+
+    @Override
+    public IndexFieldData.XFieldComparatorSource comparatorSource(@Nullable Object missingValue, MultiValueMode sortMode,
+                                                                  Nested nested) {
+        throw unsupported(getFieldName());
+    }
+
+    private static IllegalArgumentException unsupported(String fieldName) {
+        return new IllegalArgumentException("Fielddata is not supported on field [" + fieldName
+                + "], script results can only be accessed through the script");
+    }
+
+    /**
+     * The results of a script for every document of a segment.
+     */
+    public static final class AtomicScriptResults implements AtomicFieldData {
+
+        static final byte NULL = 0;
+        static final byte LONG = 1;
+        static final byte DOUBLE = 2;
+        static final byte BOOLEAN = 3;
+
+        private final String fieldName;
+        private final long[] values;
+        private final byte[] types;
+
+        AtomicScriptResults(String fieldName, long[] values, byte[] types) {
+            this.fieldName = fieldName;
+            this.values = values;
+            this.types = types;
+        }
+
+        static long ramBytesUsed(int maxDoc) {
+            return RamUsageEstimator.NUM_BYTES_OBJECT_HEADER + 3 * RamUsageEstimator.NUM_BYTES_OBJECT_REF
+                + RamUsageEstimator.sizeOf(new long[0]) + (long) maxDoc * Long.BYTES
+                + RamUsageEstimator.sizeOf(new byte[0]) + maxDoc;
+        }
+
+        /**
+         * Returns whether the results of the segment were cached. If not the script has to be run instead.
+         */
+        public boolean isCacheable() {
+            return values != null;
+        }
+
+        /**
+         * Returns the result of the script for the given document, boxed like the script would have returned it,
+         * except that integral numbers are always returned as {@link Long} and floating point numbers as {@link Double}.
+         */
+        public Object get(int doc) {
+            switch (types[doc]) {
+                case LONG:
+                    return values[doc];
+                case DOUBLE:
+                    return Double.longBitsToDouble(values[doc]);
+                case BOOLEAN:
+                    return values[doc] == 1;
+                default:
+                    return null;
+            }
+        }
+
+        /**
+         * Returns the result of the script for the given document as a long.
+         */
+        public long getLong(int doc) {
+            switch (types[doc]) {
+                case LONG:
+                    return values[doc];
+                case DOUBLE:
+                    return (long) Double.longBitsToDouble(values[doc]);
+                default:
+                    return ((Number) get(doc)).longValue();
+            }
+        }
+
+        /**
+         * Returns the result of the script for the given document as a double.
+         */
+        public double getDouble(int doc) {
+            switch (types[doc]) {
+                case LONG:
+                    return values[doc];
+                case DOUBLE:
+                    return Double.longBitsToDouble(values[doc]);
+                default:
+                    return ((Number) get(doc)).doubleValue();
+            }
+        }
+
+        @Override
+        public ScriptDocValues getScriptValues() {
+            throw unsupported(fieldName);
+        }
+
+        @Override
+        public SortedBinaryDocValues getBytesValues() {
+            throw unsupported(fieldName);
+        }
+
+        @Override
+        public long ramBytesUsed() {
+            return isCacheable() ? ramBytesUsed(values.length) : 0;
+        }
+
+        @Override
+        public Collection<Accountable> getChildResources() {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
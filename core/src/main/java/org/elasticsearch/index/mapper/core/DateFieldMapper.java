@@ -172,7 +172,10 @@ public class DateFieldMapper extends FieldMapper implements AllFieldMapper.Inclu
 
     public static final class DateFieldType extends MappedFieldType {
 
-        final class LateParsingQuery extends Query {
+        /**
+         * A range query whose bounds are only parsed when it is rewritten, so that they can be relative to the time of the search.
+         */
+        public final class LateParsingQuery extends Query {
 
             final Object lowerTerm;
             final Object upperTerm;
@@ -197,9 +200,24 @@ public class DateFieldMapper extends FieldMapper implements AllFieldMapper.Inclu
                 if (rewritten != this) {
                     return rewritten;
                 }
+                return parse();
+            }
+
+            /**
+             * Parses the bounds relative to the current time and returns the resulting range query.
+             */
+            public Query parse() {
                 return innerRangeQuery(lowerTerm, upperTerm, includeLower, includeUpper, timeZone, forcedDateParser);
             }
 
+            /**
+             * Returns whether a bound is relative to the current time, in which case the range moves with the time of the search.
+             */
+            public boolean isRelativeToNow() {
+                return (lowerTerm != null && DateFieldType.this.isRelativeToNow(lowerTerm, timeZone, forcedDateParser))
+                    || (upperTerm != null && DateFieldType.this.isRelativeToNow(upperTerm, timeZone, forcedDateParser));
+            }
+
             // Even though we only cache rewritten queries it is good to let all queries implement hashCode() and equals():
             @Override
             public boolean equals(Object o) {
@@ -309,7 +327,20 @@ public class DateFieldMapper extends FieldMapper implements AllFieldMapper.Inclu
 
         @Override
         public Query termQuery(Object value, @Nullable QueryShardContext context) {
-            Query query = innerRangeQuery(value, value, true, true, null, null);
+            failIfNotIndexed();
+            Callable<Long> now = now();
+            boolean[] usesNow = new boolean[1];
+            long lower = parseToMilliseconds(value, false, null, null, () -> {
+                usesNow[0] = true;
+                return now.call();
+            });
+            Query query;
+            if (usesNow[0]) {
+                // like ranges, resolve the date relative to the time of the search rather than to the time the query is parsed
+                query = new LateParsingQuery(value, value, true, true, null, null);
+            } else {
+                query = LongPoint.newRangeQuery(name(), lower, parseToMilliseconds(value, true, null, null, now));
+            }
             if (boost() != 1f) {
                 query = new BoostQuery(query, boost());
             }
@@ -356,6 +387,23 @@ public class DateFieldMapper extends FieldMapper implements AllFieldMapper.Inclu
 
         public long parseToMilliseconds(Object value, boolean roundUp,
                 @Nullable DateTimeZone zone, @Nullable DateMathParser forcedDateParser) {
+            return parseToMilliseconds(value, roundUp, zone, forcedDateParser, now());
+        }
+
+        /**
+         * Returns whether the given date is relative to the current time, like {@code now-1d}.
+         */
+        boolean isRelativeToNow(Object value, @Nullable DateTimeZone zone, @Nullable DateMathParser forcedDateParser) {
+            boolean[] usesNow = new boolean[1];
+            parseToMilliseconds(value, false, zone, forcedDateParser, () -> {
+                usesNow[0] = true;
+                return 0L;
+            });
+            return usesNow[0];
+        }
+
+        private long parseToMilliseconds(Object value, boolean roundUp,
+                @Nullable DateTimeZone zone, @Nullable DateMathParser forcedDateParser, Callable<Long> now) {
             DateMathParser dateParser = dateMathParser();
             if (forcedDateParser != null) {
                 dateParser = forcedDateParser;
@@ -367,7 +415,7 @@ public class DateFieldMapper extends FieldMapper implements AllFieldMapper.Inclu
             } else {
                 strValue = value.toString();
             }
-            return dateParser.parse(strValue, now(), roundUp, zone);
+            return dateParser.parse(strValue, now, roundUp, zone);
         }
 
         private static Callable<Long> now() {
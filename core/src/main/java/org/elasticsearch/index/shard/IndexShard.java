@@ -1197,6 +1197,14 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
         return engine.getTranslog().newView();
     }
 
+    /**
+     * Returns a view of the translog holding all operations since the synced commit with the given sync id and number of
+     * documents if the engine retained it after flushing past that commit, or <code>null</code> otherwise.
+     */
+    public Translog.View acquireTranslogViewSinceSyncedCommit(String syncId, long numDocs) {
+        return getEngine().acquireTranslogViewSinceSyncedCommit(syncId, numDocs);
+    }
+
     public List<Segment> segments(boolean verbose) {
         return getEngine().segments(verbose);
     }
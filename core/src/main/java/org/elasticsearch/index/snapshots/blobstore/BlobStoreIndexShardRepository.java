@@ -45,9 +45,12 @@ import org.elasticsearch.common.blobstore.BlobStore;
 import org.elasticsearch.common.bytes.BytesArray;
 import org.elasticsearch.common.collect.Tuple;
 import org.elasticsearch.common.component.AbstractComponent;
+import org.elasticsearch.common.hash.MessageDigests;
 import org.elasticsearch.common.inject.Inject;
 import org.elasticsearch.common.lucene.Lucene;
 import org.elasticsearch.common.lucene.store.InputStreamIndexInput;
+import org.elasticsearch.common.metrics.CounterMetric;
+import org.elasticsearch.common.metrics.MeanMetric;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.unit.ByteSizeValue;
 import org.elasticsearch.common.util.iterable.Iterables;
@@ -62,22 +65,31 @@ import org.elasticsearch.index.store.Store;
 import org.elasticsearch.index.store.StoreFileMetaData;
 import org.elasticsearch.indices.IndicesService;
 import org.elasticsearch.indices.recovery.RecoveryState;
+import org.elasticsearch.repositories.RepositoriesStats;
 import org.elasticsearch.repositories.RepositoryName;
 import org.elasticsearch.repositories.RepositoryVerificationException;
 import org.elasticsearch.repositories.blobstore.BlobStoreFormat;
 import org.elasticsearch.repositories.blobstore.BlobStoreRepository;
 import org.elasticsearch.repositories.blobstore.ChecksumBlobStoreFormat;
 import org.elasticsearch.repositories.blobstore.LegacyBlobStoreFormat;
+import org.elasticsearch.threadpool.ThreadPool;
 
 import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.security.MessageDigest;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static java.util.Collections.emptyMap;
 import static java.util.Collections.unmodifiableMap;
@@ -101,6 +113,8 @@ public class BlobStoreIndexShardRepository extends AbstractComponent implements
 
     private final ClusterService clusterService;
 
+    private final ThreadPool threadPool;
+
     private RateLimiter snapshotRateLimiter;
 
     private RateLimiter restoreRateLimiter;
@@ -111,6 +125,22 @@ public class BlobStoreIndexShardRepository extends AbstractComponent implements
 
     private boolean compress;
 
+    private boolean dedup;
+
+    private int concurrentStreams;
+
+    private final MeanMetric snapshotTime = new MeanMetric();
+
+    private final CounterMetric snapshotSize = new CounterMetric();
+
+    private final CounterMetric snapshotCurrent = new CounterMetric();
+
+    private final MeanMetric restoreTime = new MeanMetric();
+
+    private final CounterMetric restoreSize = new CounterMetric();
+
+    private final CounterMetric restoreCurrent = new CounterMetric();
+
     private final ParseFieldMatcher parseFieldMatcher;
 
     protected static final String LEGACY_SNAPSHOT_PREFIX = "snapshot-";
@@ -131,6 +161,13 @@ public class BlobStoreIndexShardRepository extends AbstractComponent implements
 
     protected static final String DATA_BLOB_PREFIX = "__";
 
+    protected static final String SHARED_DATA_BLOB_PREFIX = "__shared-";
+
+    protected static final String SHARED_DATA_BLOB_REFERENCE = ".ref.";
+
+    // the number of bytes at the start of a file that the name of its shared data file is derived from, see #sharedBlobName
+    private static final int SHARED_DATA_BLOB_DIGEST_SIZE = 1024;
+
     private ChecksumBlobStoreFormat<BlobStoreIndexShardSnapshot> indexShardSnapshotFormat;
 
     private LegacyBlobStoreFormat<BlobStoreIndexShardSnapshot> indexShardSnapshotLegacyFormat;
@@ -138,12 +175,14 @@ public class BlobStoreIndexShardRepository extends AbstractComponent implements
     private ChecksumBlobStoreFormat<BlobStoreIndexShardSnapshots> indexShardSnapshotsFormat;
 
     @Inject
-    public BlobStoreIndexShardRepository(Settings settings, RepositoryName repositoryName, IndicesService indicesService, ClusterService clusterService) {
+    public BlobStoreIndexShardRepository(Settings settings, RepositoryName repositoryName, IndicesService indicesService, ClusterService clusterService,
+                                         ThreadPool threadPool) {
         super(settings);
         this.parseFieldMatcher = new ParseFieldMatcher(settings);
         this.repositoryName = repositoryName.name();
         this.indicesService = indicesService;
         this.clusterService = clusterService;
+        this.threadPool = threadPool;
     }
 
     /**
@@ -152,10 +191,12 @@ public class BlobStoreIndexShardRepository extends AbstractComponent implements
      * @param blobStore blob store
      * @param basePath  base path to blob store
      * @param chunkSize chunk size
+     * @param dedup     true if new data files should be stored once per repository, keyed by their content
+     * @param concurrentStreams the maximum number of files of a shard that are copied concurrently
      */
     public void initialize(BlobStore blobStore, BlobPath basePath, ByteSizeValue chunkSize,
                            RateLimiter snapshotRateLimiter, RateLimiter restoreRateLimiter,
-                           final RateLimiterListener rateLimiterListener, boolean compress) {
+                           final RateLimiterListener rateLimiterListener, boolean compress, boolean dedup, int concurrentStreams) {
         this.blobStore = blobStore;
         this.basePath = basePath;
         this.chunkSize = chunkSize;
@@ -164,6 +205,8 @@ public class BlobStoreIndexShardRepository extends AbstractComponent implements
         this.snapshotThrottleListener = nanos -> rateLimiterListener.onSnapshotPause(nanos);
         this.restoreThrottleListener = nanos -> rateLimiterListener.onRestorePause(nanos);
         this.compress = compress;
+        this.dedup = dedup;
+        this.concurrentStreams = concurrentStreams;
         indexShardSnapshotFormat = new ChecksumBlobStoreFormat<>(SNAPSHOT_CODEC, SNAPSHOT_NAME_FORMAT, BlobStoreIndexShardSnapshot.PROTO, parseFieldMatcher, isCompress());
         indexShardSnapshotLegacyFormat = new LegacyBlobStoreFormat<>(LEGACY_SNAPSHOT_NAME_FORMAT, BlobStoreIndexShardSnapshot.PROTO, parseFieldMatcher);
         indexShardSnapshotsFormat = new ChecksumBlobStoreFormat<>(SNAPSHOT_INDEX_CODEC, SNAPSHOT_INDEX_NAME_FORMAT, BlobStoreIndexShardSnapshots.PROTO, parseFieldMatcher, isCompress());
@@ -251,6 +294,118 @@ public class BlobStoreIndexShardRepository extends AbstractComponent implements
         context.delete();
     }
 
+    /**
+     * Deletes all shared data files that are no longer referenced by any shard snapshot.
+     * <p>
+     * Every shard that uses a shared data file keeps a reference blob next to it, and deleting a shard snapshot only
+     * removes the references of the files that the remaining snapshots of the shard don't need anymore. This method
+     * removes the data files without any reference left. It must not run concurrently with a snapshot of the repository,
+     * which could start using a data file after it was found to be unreferenced, so the snapshot service doesn't start any
+     * snapshot while a snapshot of the same repository is being deleted.
+     */
+    public void deleteUnreferencedSharedBlobs() {
+        final BlobContainer sharedBlobContainer = sharedBlobContainer();
+        final Map<String, BlobMetaData> blobs;
+        try {
+            blobs = sharedBlobContainer.listBlobs();
+        } catch (IOException e) {
+            logger.warn("[{}] failed to list shared data files", e, repositoryName);
+            return;
+        }
+        final Set<String> referenced = new HashSet<>();
+        for (String blobName : blobs.keySet()) {
+            final int index = blobName.indexOf(SHARED_DATA_BLOB_REFERENCE);
+            if (index > 0) {
+                referenced.add(blobName.substring(0, index));
+            }
+        }
+        final List<String> blobsToDelete = new ArrayList<>();
+        for (String blobName : blobs.keySet()) {
+            if (blobName.contains(SHARED_DATA_BLOB_REFERENCE) == false && referenced.contains(FileInfo.canonicalName(blobName)) == false) {
+                blobsToDelete.add(blobName);
+            }
+        }
+        try {
+            sharedBlobContainer.deleteBlobs(blobsToDelete);
+        } catch (IOException e) {
+            logger.warn("[{}] failed to delete some of the unreferenced shared data files [{}]", e, repositoryName, blobsToDelete);
+        }
+    }
+
+    /**
+     * Returns the transfer statistics of the snapshots and restores of this node
+     *
+     * @param snapshotThrottleTimeInNanos time the snapshots were paused by the rate limiter
+     * @param restoreThrottleTimeInNanos  time the restores were paused by the rate limiter
+     */
+    public RepositoriesStats.Stats stats(long snapshotThrottleTimeInNanos, long restoreThrottleTimeInNanos) {
+        return new RepositoriesStats.Stats(
+            new RepositoriesStats.TransferStats(snapshotTime.count(), snapshotSize.count(), TimeUnit.NANOSECONDS.toMillis(snapshotTime.sum()),
+                TimeUnit.NANOSECONDS.toMillis(snapshotThrottleTimeInNanos), snapshotCurrent.count()),
+            new RepositoriesStats.TransferStats(restoreTime.count(), restoreSize.count(), TimeUnit.NANOSECONDS.toMillis(restoreTime.sum()),
+                TimeUnit.NANOSECONDS.toMillis(restoreThrottleTimeInNanos), restoreCurrent.count()));
+    }
+
+    /**
+     * Copies the given files with up to {@code concurrentStreams} of them in flight. The calling thread copies files as
+     * well, the other streams run on the generic thread pool. No new copy is started after the first failure, which is
+     * rethrown once the running copies are done.
+     */
+    private void copyConcurrently(List<FileInfo> files, FileCopier copier) throws IOException {
+        final AtomicInteger nextFile = new AtomicInteger();
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+        final Runnable stream = () -> {
+            for (int i = nextFile.getAndIncrement(); i < files.size() && failure.get() == null; i = nextFile.getAndIncrement()) {
+                try {
+                    copier.copy(files.get(i));
+                } catch (Throwable t) {
+                    if (failure.compareAndSet(null, t) == false) {
+                        failure.get().addSuppressed(t);
+                    }
+                }
+            }
+        };
+        final int forkedStreams = Math.min(concurrentStreams, files.size()) - 1;
+        final CountDownLatch latch = new CountDownLatch(Math.max(forkedStreams, 0));
+        for (int i = 0; i < forkedStreams; i++) {
+            try {
+                threadPool.generic().execute(() -> {
+                    try {
+                        stream.run();
+                    } finally {
+                        latch.countDown();
+                    }
+                });
+            } catch (Throwable t) {
+                // the remaining files are copied by the other streams
+                latch.countDown();
+            }
+        }
+        stream.run();
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("interrupted while waiting for file copies to complete", e);
+        }
+        final Throwable t = failure.get();
+        if (t != null) {
+            if (t instanceof IOException) {
+                throw (IOException) t;
+            } else if (t instanceof RuntimeException) {
+                throw (RuntimeException) t;
+            } else if (t instanceof Error) {
+                throw (Error) t;
+            }
+            throw new IOException("failed to copy files", t);
+        }
+    }
+
+    @FunctionalInterface
+    private interface FileCopier {
+        void copy(FileInfo fileInfo) throws IOException;
+    }
+
     @Override
     public String toString() {
         return "BlobStoreIndexShardRepository[" +
@@ -268,6 +423,20 @@ public class BlobStoreIndexShardRepository extends AbstractComponent implements
         return compress;
     }
 
+    /**
+     * Returns the container of the data files that are shared by all shards of the repository
+     */
+    protected BlobContainer sharedBlobContainer() {
+        return blobStore.blobContainer(basePath.add("shared"));
+    }
+
+    /**
+     * Returns true if the blob with the given name is a data file in the shared container
+     */
+    static boolean isSharedDataBlob(String name) {
+        return name.startsWith(SHARED_DATA_BLOB_PREFIX);
+    }
+
     BlobStoreFormat<BlobStoreIndexShardSnapshot> indexShardSnapshotFormat(Version version) {
         if (BlobStoreRepository.legacyMetaData(version)) {
             return indexShardSnapshotLegacyFormat;
@@ -289,6 +458,8 @@ public class BlobStoreIndexShardRepository extends AbstractComponent implements
 
         protected final Version version;
 
+        protected final String sharedBlobReferenceSuffix;
+
         public Context(SnapshotId snapshotId, Version version, ShardId shardId) {
             this(snapshotId, version, shardId, shardId);
         }
@@ -298,6 +469,35 @@ public class BlobStoreIndexShardRepository extends AbstractComponent implements
             this.version = version;
             this.shardId = shardId;
             blobContainer = blobStore.blobContainer(basePath.add("indices").add(snapshotShardId.getIndexName()).add(Integer.toString(snapshotShardId.getId())));
+            sharedBlobReferenceSuffix = SHARED_DATA_BLOB_REFERENCE + snapshotShardId.getIndexName() + "." + snapshotShardId.getId();
+        }
+
+        /**
+         * Returns the container holding the data of the given file
+         */
+        protected BlobContainer dataBlobContainer(FileInfo fileInfo) {
+            return isSharedDataBlob(fileInfo.name()) ? sharedBlobContainer() : blobContainer;
+        }
+
+        /**
+         * Returns the name of the blob that records that this shard references the given shared data file
+         */
+        protected String sharedBlobReference(String name) {
+            return name + sharedBlobReferenceSuffix;
+        }
+
+        /**
+         * Deletes the given references of this shard to shared data files, the data files themselves are removed by
+         * {@link #deleteUnreferencedSharedBlobs()}
+         */
+        protected void deleteSharedBlobReferences(Collection<String> references) {
+            if (references.isEmpty() == false) {
+                try {
+                    sharedBlobContainer().deleteBlobs(references);
+                } catch (IOException e) {
+                    logger.debug("[{}] [{}] error deleting some of the shared data file references [{}]", e, snapshotId, shardId, references);
+                }
+            }
         }
 
         /**
@@ -330,6 +530,18 @@ public class BlobStoreIndexShardRepository extends AbstractComponent implements
             }
             // finalize the snapshot and rewrite the snapshot index with the next sequential snapshot index
             finalize(newSnapshotsList, fileListGeneration + 1, blobs);
+
+            // the new snapshot index doesn't point to the shared data files that only the deleted snapshot used anymore
+            BlobStoreIndexShardSnapshots newSnapshots = new BlobStoreIndexShardSnapshots(newSnapshotsList);
+            Set<String> referencesToDelete = new HashSet<>();
+            for (SnapshotFiles point : snapshots) {
+                for (FileInfo fileInfo : point.indexFiles()) {
+                    if (isSharedDataBlob(fileInfo.name()) && newSnapshots.findNameFile(fileInfo.name()) == null) {
+                        referencesToDelete.add(sharedBlobReference(fileInfo.name()));
+                    }
+                }
+            }
+            deleteSharedBlobReferences(referencesToDelete);
         }
 
         /**
@@ -514,6 +726,8 @@ public class BlobStoreIndexShardRepository extends AbstractComponent implements
          */
         public void snapshot(IndexCommit snapshotIndexCommit) {
             logger.debug("[{}] [{}] snapshot to [{}] ...", shardId, snapshotId, repositoryName);
+            // references to shared data files that the previous snapshots of this shard didn't use
+            final List<String> newSharedBlobReferences = new ArrayList<>();
             store.incRef();
             try {
                 final Map<String, BlobMetaData> blobs;
@@ -558,25 +772,32 @@ public class BlobStoreIndexShardRepository extends AbstractComponent implements
                                 // to ensure we don't double the space in the repo since old snapshots
                                 // don't have this hash we try to read that hash from the blob store
                                 // in a bwc compatible way.
-                                maybeRecalculateMetadataHash(blobContainer, fileInfo, metadata);
+                                maybeRecalculateMetadataHash(dataBlobContainer(fileInfo), fileInfo, metadata);
                             } catch (Throwable e) {
                                 logger.warn("{} Can't calculate hash from blob for file [{}] [{}]", e, shardId, fileInfo.physicalName(), fileInfo.metadata());
                             }
-                            if (fileInfo.isSame(md) && snapshotFileExistsInBlobs(fileInfo, blobs)) {
+                            if (fileInfo.isSame(md) && (isSharedDataBlob(fileInfo.name()) || snapshotFileExistsInBlobs(fileInfo, blobs))) {
                                 // a commit point file with the same name, size and checksum was already copied to repository
-                                // we will reuse it for this snapshot
+                                // we will reuse it for this snapshot, shared data files are kept alive by the reference of this shard
                                 existingFileInfo = fileInfo;
                                 break;
                             }
                         }
                     }
                     if (existingFileInfo == null) {
-                        indexNumberOfFiles++;
-                        indexTotalFilesSize += md.length();
-                        // create a new FileInfo
-                        BlobStoreIndexShardSnapshot.FileInfo snapshotFileInfo = new BlobStoreIndexShardSnapshot.FileInfo(fileNameFromGeneration(++generation), md, chunkSize);
-                        indexCommitPointFiles.add(snapshotFileInfo);
-                        filesToSnapshot.add(snapshotFileInfo);
+                        final Tuple<FileInfo, Boolean> sharedFileInfo = dedup ? sharedFileInfo(md, snapshots, newSharedBlobReferences) : null;
+                        if (sharedFileInfo != null && sharedFileInfo.v2()) {
+                            // a file with the same content was already copied to the repository by another shard or snapshot
+                            indexCommitPointFiles.add(sharedFileInfo.v1());
+                        } else {
+                            indexNumberOfFiles++;
+                            indexTotalFilesSize += md.length();
+                            // create a new FileInfo
+                            BlobStoreIndexShardSnapshot.FileInfo snapshotFileInfo = sharedFileInfo != null ? sharedFileInfo.v1() :
+                                new BlobStoreIndexShardSnapshot.FileInfo(fileNameFromGeneration(++generation), md, chunkSize);
+                            indexCommitPointFiles.add(snapshotFileInfo);
+                            filesToSnapshot.add(snapshotFileInfo);
+                        }
                     } else {
                         indexCommitPointFiles.add(existingFileInfo);
                     }
@@ -591,12 +812,10 @@ public class BlobStoreIndexShardRepository extends AbstractComponent implements
 
                 snapshotStatus.updateStage(IndexShardSnapshotStatus.Stage.STARTED);
 
-                for (FileInfo snapshotFileInfo : filesToSnapshot) {
-                    try {
-                        snapshotFile(snapshotFileInfo);
-                    } catch (IOException e) {
-                        throw new IndexShardSnapshotFailedException(shardId, "Failed to perform snapshot (index files)", e);
-                    }
+                try {
+                    copyConcurrently(filesToSnapshot, this::snapshotFile);
+                } catch (IOException e) {
+                    throw new IndexShardSnapshotFailedException(shardId, "Failed to perform snapshot (index files)", e);
                 }
 
                 snapshotStatus.indexVersion(snapshotIndexCommit.getGeneration());
@@ -625,11 +844,77 @@ public class BlobStoreIndexShardRepository extends AbstractComponent implements
                 // finalize the snapshot and rewrite the snapshot index with the next sequential snapshot index
                 finalize(newSnapshotsList, fileListGeneration + 1, blobs);
                 snapshotStatus.updateStage(IndexShardSnapshotStatus.Stage.DONE);
+            } catch (Throwable t) {
+                // the snapshot index wasn't updated, so it doesn't point to the newly referenced shared data files
+                deleteSharedBlobReferences(newSharedBlobReferences);
+                throw t;
             } finally {
                 store.decRef();
             }
         }
 
+        /**
+         * Looks up the shared data file holding the content of the given store file and makes sure that this shard
+         * references it. Shared data files are named after the checksum, the length and the SHA-256 digest of their content.
+         *
+         * @param md         the store file to snapshot
+         * @param snapshots  the previous snapshots of this shard
+         * @param references the references to shared data files created by this snapshot so far
+         * @return the file info pointing to the shared data file and whether the shared data file already exists in the
+         * repository, or {@code null} if the store file has to be copied to the data files of this shard instead
+         */
+        private Tuple<FileInfo, Boolean> sharedFileInfo(StoreFileMetaData md, BlobStoreIndexShardSnapshots snapshots, List<String> references) {
+            try {
+                final FileInfo fileInfo = new FileInfo(sharedBlobName(md), md, chunkSize);
+                if (fileInfo.hasUnknownChecksum()) {
+                    return null;
+                }
+                final BlobContainer sharedBlobContainer = sharedBlobContainer();
+                final String reference = sharedBlobReference(fileInfo.name());
+                boolean newReference = false;
+                if (snapshots.findNameFile(fileInfo.name()) == null && references.contains(reference) == false) {
+                    // reference the file before looking it up so that deleting other snapshots afterwards keeps it
+                    sharedBlobContainer.writeBlob(reference, BytesArray.EMPTY);
+                    references.add(reference);
+                    newReference = true;
+                }
+                final Map<String, BlobMetaData> blobs = sharedBlobContainer.listBlobsByPrefix(fileInfo.name());
+                if (snapshotFileExistsInBlobs(fileInfo, blobs)) {
+                    return new Tuple<>(fileInfo, true);
+                }
+                for (String blobName : blobs.keySet()) {
+                    if (fileInfo.name().equals(FileInfo.canonicalName(blobName))) {
+                        // the shared data file was written with a different chunk size, we can't overwrite it
+                        if (newReference) {
+                            references.remove(reference);
+                            deleteSharedBlobReferences(Collections.singletonList(reference));
+                        }
+                        return null;
+                    }
+                }
+                return new Tuple<>(fileInfo, false);
+            } catch (IOException e) {
+                throw new IndexShardSnapshotFailedException(shardId, "Failed to look up shared data file for [" + md.name() + "]", e);
+            }
+        }
+
+        /**
+         * Computes the name of the shared data file holding the content of the given store file. Besides the checksum and
+         * the length, which Lucene already stores in the footer of the file, the name holds the digest of the head of the
+         * file. The head contains the Lucene index header with the unique id of the segment, so files that only share
+         * checksum and length by chance get different names without having to read the whole file once more.
+         */
+        private String sharedBlobName(StoreFileMetaData md) throws IOException {
+            final MessageDigest digest = MessageDigests.sha256();
+            try (IndexInput indexInput = store.directory().openInput(md.name(), IOContext.READONCE)) {
+                final byte[] buffer = new byte[(int) Math.min(SHARED_DATA_BLOB_DIGEST_SIZE, indexInput.length())];
+                indexInput.readBytes(buffer, 0, buffer.length);
+                digest.update(buffer);
+            }
+            return SHARED_DATA_BLOB_PREFIX + md.checksum() + "-" + Long.toString(md.length(), Character.MAX_RADIX) + "-" +
+                MessageDigests.toHexString(digest.digest());
+        }
+
         /**
          * Snapshot individual file
          * <p>
@@ -640,6 +925,8 @@ public class BlobStoreIndexShardRepository extends AbstractComponent implements
          */
         private void snapshotFile(final BlobStoreIndexShardSnapshot.FileInfo fileInfo) throws IOException {
             final String file = fileInfo.physicalName();
+            final long startTime = System.nanoTime();
+            snapshotCurrent.inc();
             try (IndexInput indexInput = store.openVerifyingInput(file, IOContext.READONCE, fileInfo.metadata())) {
                 for (int i = 0; i < fileInfo.numberOfParts(); i++) {
                     final long partBytes = fileInfo.partBytes(i);
@@ -647,14 +934,18 @@ public class BlobStoreIndexShardRepository extends AbstractComponent implements
                     final InputStreamIndexInput inputStreamIndexInput = new InputStreamIndexInput(indexInput, partBytes);
                     InputStream inputStream = snapshotRateLimiter == null ? inputStreamIndexInput : new RateLimitingInputStream(inputStreamIndexInput, snapshotRateLimiter, snapshotThrottleListener);
                     inputStream = new AbortableInputStream(inputStream, fileInfo.physicalName());
-                    blobContainer.writeBlob(fileInfo.partName(i), inputStream, partBytes);
+                    dataBlobContainer(fileInfo).writeBlob(fileInfo.partName(i), inputStream, partBytes);
                 }
                 Store.verify(indexInput);
                 snapshotStatus.addProcessedFile(fileInfo.length());
+                snapshotTime.inc(System.nanoTime() - startTime);
+                snapshotSize.inc(fileInfo.length());
             } catch (Throwable t) {
                 failStoreIfCorrupted(t);
                 snapshotStatus.addProcessedFile(0);
                 throw t;
+            } finally {
+                snapshotCurrent.dec();
             }
         }
 
@@ -835,7 +1126,7 @@ public class BlobStoreIndexShardRepository extends AbstractComponent implements
                         // to ensure we don't double the space in the repo since old snapshots
                         // don't have this hash we try to read that hash from the blob store
                         // in a bwc compatible way.
-                        maybeRecalculateMetadataHash(blobContainer, fileInfo, recoveryTargetMetadata);
+                        maybeRecalculateMetadataHash(dataBlobContainer(fileInfo), fileInfo, recoveryTargetMetadata);
                     } catch (Throwable e) {
                         // if the index is broken we might not be able to read it
                         logger.warn("{} Can't calculate hash from blog for file [{}] [{}]", e, shardId, fileInfo.physicalName(), fileInfo.metadata());
@@ -875,10 +1166,10 @@ public class BlobStoreIndexShardRepository extends AbstractComponent implements
                             index.totalRecoverFiles(), new ByteSizeValue(index.totalRecoverBytes()), index.reusedFileCount(), new ByteSizeValue(index.reusedFileCount()));
                 }
                 try {
-                    for (final FileInfo fileToRecover : filesToRecover) {
+                    copyConcurrently(filesToRecover, fileToRecover -> {
                         logger.trace("[{}] [{}] restoring file [{}]", shardId, snapshotId, fileToRecover.name());
                         restoreFile(fileToRecover);
-                    }
+                    });
                 } catch (IOException ex) {
                     throw new IndexShardRestoreFailedException(shardId, "Failed to recover index", ex);
                 }
@@ -926,8 +1217,10 @@ public class BlobStoreIndexShardRepository extends AbstractComponent implements
          */
         private void restoreFile(final FileInfo fileInfo) throws IOException {
             boolean success = false;
+            final long startTime = System.nanoTime();
+            restoreCurrent.inc();
 
-            try (InputStream partSliceStream = new PartSliceStream(blobContainer, fileInfo)) {
+            try (InputStream partSliceStream = new PartSliceStream(dataBlobContainer(fileInfo), fileInfo)) {
                 final InputStream stream;
                 if (restoreRateLimiter == null) {
                     stream = partSliceStream;
@@ -944,6 +1237,8 @@ public class BlobStoreIndexShardRepository extends AbstractComponent implements
                     Store.verify(indexOutput);
                     indexOutput.close();
                     store.directory().sync(Collections.singleton(fileInfo.physicalName()));
+                    restoreTime.inc(System.nanoTime() - startTime);
+                    restoreSize.inc(fileInfo.length());
                     success = true;
                 } catch (CorruptIndexException | IndexFormatTooOldException | IndexFormatTooNewException ex) {
                     try {
@@ -957,6 +1252,8 @@ public class BlobStoreIndexShardRepository extends AbstractComponent implements
                         store.deleteQuiet(fileInfo.physicalName());
                     }
                 }
+            } finally {
+                restoreCurrent.dec();
             }
         }
 
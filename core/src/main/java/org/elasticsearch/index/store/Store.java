@@ -44,9 +44,11 @@ import org.apache.lucene.util.ArrayUtil;
 import org.apache.lucene.util.BytesRef;
 import org.apache.lucene.util.BytesRefBuilder;
 import org.apache.lucene.util.IOUtils;
+import org.apache.lucene.util.StringHelper;
 import org.apache.lucene.util.Version;
 import org.elasticsearch.ElasticsearchException;
 import org.elasticsearch.ExceptionsHelper;
+import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.UUIDs;
 import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.io.Streams;
@@ -443,6 +445,22 @@ public class Store extends AbstractIndexShardComponent implements Closeable, Ref
         }
     }
 
+    /**
+     * Returns an identifier of the last commit in the given location, or <code>null</code> if the location doesn't
+     * contain an index. Only the segments file is read, which makes this much cheaper than
+     * {@link #readMetadataSnapshot(Path, ShardId, ESLogger)}.
+     */
+    @Nullable
+    public static String readLastCommitId(Path indexLocation, ShardId shardId) throws IOException {
+        try (Directory dir = new SimpleFSDirectory(indexLocation)) {
+            failIfCorrupted(dir, shardId);
+            SegmentInfos segmentInfos = Lucene.readSegmentInfos(dir);
+            return segmentInfos.getSegmentsFileName() + "/" + StringHelper.idToString(segmentInfos.getId());
+        } catch (FileNotFoundException | NoSuchFileException ex) {
+            return null;
+        }
+    }
+
     /**
      * The returned IndexOutput validates the files checksum.
      * <p>
@@ -500,6 +500,24 @@ public class Translog extends AbstractIndexShardComponent implements IndexShardC
         }
     }
 
+    /**
+     * Returns a view into the translog that retains all operations from the given generation on. The generation must still
+     * be held by the last commit or by another outstanding view.
+     */
+    public Translog.View newView(long minGeneration) {
+        try (ReleasableLock lock = readLock.acquire()) {
+            ensureOpen();
+            final long minRetainedGeneration = readers.isEmpty() ? current.getGeneration() : readers.get(0).getGeneration();
+            if (minGeneration < minRetainedGeneration) {
+                throw new IllegalArgumentException("translog generation [" + minGeneration
+                    + "] is not retained, oldest retained generation is [" + minRetainedGeneration + "]");
+            }
+            View view = new View(minGeneration);
+            outstandingViews.add(view);
+            return view;
+        }
+    }
+
     /**
      * Sync's the translog.
      */
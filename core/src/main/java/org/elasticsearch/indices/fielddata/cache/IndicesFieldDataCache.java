@@ -209,6 +209,17 @@ public class IndicesFieldDataCache extends AbstractComponent implements RemovalL
             // soon as possible
             cache.refresh();
         }
+
+        @Override
+        public void clearOwnEntries() {
+            for (Key key : cache.keys()) {
+                if (key.indexCache == this) {
+                    cache.invalidate(key);
+                }
+            }
+            // force eviction
+            cache.refresh();
+        }
     }
 
     public static class Key {
@@ -59,15 +59,18 @@ public class RecoverySource extends AbstractComponent implements IndexEventListe
     private final IndicesService indicesService;
     private final RecoverySettings recoverySettings;
 
+    private final ThreadPool threadPool;
+
     private final ClusterService clusterService;
 
     private final OngoingRecoveries ongoingRecoveries = new OngoingRecoveries();
 
     @Inject
     public RecoverySource(Settings settings, TransportService transportService, IndicesService indicesService,
-                          RecoverySettings recoverySettings, ClusterService clusterService) {
+                          RecoverySettings recoverySettings, ClusterService clusterService, ThreadPool threadPool) {
         super(settings);
         this.transportService = transportService;
+        this.threadPool = threadPool;
         this.indicesService = indicesService;
         this.clusterService = clusterService;
         this.recoverySettings = recoverySettings;
@@ -126,7 +129,8 @@ public class RecoverySource extends AbstractComponent implements IndexEventListe
         if (shard.indexSettings().isOnSharedFilesystem()) {
             handler = new SharedFSRecoverySourceHandler(shard, recoveryTarget, request, logger);
         } else {
-            handler = new RecoverySourceHandler(shard, recoveryTarget, request, recoverySettings.getChunkSize().bytesAsInt(), logger);
+            handler = new RecoverySourceHandler(shard, recoveryTarget, request, recoverySettings.getChunkSize().bytesAsInt(),
+                    recoverySettings.getMaxConcurrentFileChunks(), threadPool.generic(), logger);
         }
         ongoingRecoveries.add(shard, handler);
         try {
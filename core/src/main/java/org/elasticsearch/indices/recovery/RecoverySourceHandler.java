@@ -32,12 +32,14 @@ import org.elasticsearch.ElasticsearchException;
 import org.elasticsearch.ExceptionsHelper;
 import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.StopWatch;
+import org.elasticsearch.common.collect.Tuple;
 import org.elasticsearch.common.bytes.BytesArray;
 import org.elasticsearch.common.io.Streams;
 import org.elasticsearch.common.logging.ESLogger;
 import org.elasticsearch.common.lucene.store.InputStreamIndexInput;
 import org.elasticsearch.common.unit.ByteSizeValue;
 import org.elasticsearch.common.util.CancellableThreads;
+import org.elasticsearch.common.util.concurrent.AbstractRunnable;
 import org.elasticsearch.index.engine.RecoveryEngineException;
 import org.elasticsearch.index.shard.IndexShard;
 import org.elasticsearch.index.shard.IndexShardClosedException;
@@ -52,6 +54,9 @@ import java.io.IOException;
 import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Function;
 import java.util.stream.StreamSupport;
 
@@ -77,6 +82,12 @@ public class RecoverySourceHandler {
     private final StartRecoveryRequest request;
     private final int chunkSizeInBytes;
     private final RecoveryTargetHandler recoveryTarget;
+    // file chunks are sent on this executor when more than one chunk may be in flight at a time
+    private final Executor fileChunkExecutor;
+    private final int maxConcurrentFileChunks;
+    private final Semaphore fileChunkPermits;
+    // the first file chunk that failed to be sent concurrently, with the file it belongs to
+    private final AtomicReference<Tuple<StoreFileMetaData, Throwable>> fileChunkFailure = new AtomicReference<>();
 
     protected final RecoveryResponse response;
 
@@ -100,6 +111,18 @@ public class RecoverySourceHandler {
                                  final StartRecoveryRequest request,
                                  final int fileChunkSizeInBytes,
                                  final ESLogger logger) {
+        this(shard, recoveryTarget, request, fileChunkSizeInBytes, 1, null, logger);
+    }
+
+    public RecoverySourceHandler(final IndexShard shard, RecoveryTargetHandler recoveryTarget,
+                                 final StartRecoveryRequest request,
+                                 final int fileChunkSizeInBytes,
+                                 final int maxConcurrentFileChunks,
+                                 @Nullable final Executor fileChunkExecutor,
+                                 final ESLogger logger) {
+        if (maxConcurrentFileChunks > 1 && fileChunkExecutor == null) {
+            throw new IllegalArgumentException("an executor is required to send [" + maxConcurrentFileChunks + "] file chunks concurrently");
+        }
         this.shard = shard;
         this.recoveryTarget = recoveryTarget;
         this.request = request;
@@ -107,6 +130,9 @@ public class RecoverySourceHandler {
         this.indexName = this.request.shardId().getIndex().getName();
         this.shardId = this.request.shardId().id();
         this.chunkSizeInBytes = fileChunkSizeInBytes;
+        this.maxConcurrentFileChunks = maxConcurrentFileChunks;
+        this.fileChunkExecutor = fileChunkExecutor;
+        this.fileChunkPermits = new Semaphore(maxConcurrentFileChunks);
         this.response = new RecoveryResponse();
     }
 
@@ -114,7 +140,8 @@ public class RecoverySourceHandler {
      * performs the recovery from the local engine to the target
      */
     public RecoveryResponse recoverToTarget() throws IOException {
-        try (Translog.View translogView = shard.acquireTranslogView()) {
+        final Translog.View retainedTranslogView = acquireTranslogViewSinceTargetCommit();
+        try (Translog.View translogView = retainedTranslogView != null ? retainedTranslogView : shard.acquireTranslogView()) {
             logger.trace("captured translog id [{}] for recovery", translogView.minTranslogGeneration());
             final IndexCommit phase1Snapshot;
             try {
@@ -125,7 +152,11 @@ public class RecoverySourceHandler {
             }
 
             try {
-                phase1(phase1Snapshot, translogView);
+                if (retainedTranslogView != null) {
+                    skipPhase1(translogView);
+                } else {
+                    phase1(phase1Snapshot, translogView);
+                }
             } catch (Throwable e) {
                 throw new RecoveryEngineException(shard.shardId(), 1, "phase1 failed", e);
             } finally {
@@ -148,6 +179,32 @@ public class RecoverySourceHandler {
         return response;
     }
 
+    /**
+     * Returns a view of the translog since the synced commit the target holds, if this shard has flushed past that commit
+     * but retained its translog, or <code>null</code> if the target has to be recovered from files.
+     */
+    private Translog.View acquireTranslogViewSinceTargetCommit() {
+        final String targetSyncId = request.metadataSnapshot().getSyncId();
+        if (targetSyncId == null) {
+            return null;
+        }
+        return shard.acquireTranslogViewSinceSyncedCommit(targetSyncId, request.metadataSnapshot().getNumDocs());
+    }
+
+    /**
+     * Replaces phase1 when the target holds a synced commit this shard retained the translog for. The target's files
+     * are reused as they are and all operations since the synced commit are replayed in phase2.
+     */
+    void skipPhase1(final Translog.View translogView) throws IOException {
+        cancellableThreads.checkForCancel();
+        StopWatch stopWatch = new StopWatch().start();
+        logger.trace("[{}][{}] skipping [phase1] to {} - target has sync id [{}], replaying [{}] operations from translog [{}]",
+                indexName, shardId, request.targetNode(), request.metadataSnapshot().getSyncId(), translogView.totalOperations(),
+                translogView.minTranslogGeneration());
+        prepareTargetForTranslog(translogView.totalOperations());
+        response.phase1Time = stopWatch.totalTime().millis();
+    }
+
     /**
      * Perform phase1 of the recovery operations. Once this {@link IndexCommit}
      * snapshot has been performed no commit operations (files being fsync'd)
@@ -498,14 +555,46 @@ public class RecoverySourceHandler {
         }
 
         private void sendNextChunk(long position, BytesArray content, boolean lastChunk) throws IOException {
-            // Actually send the file chunk to the target node, waiting for it to complete
-            cancellableThreads.executeIO(() ->
-                    recoveryTarget.writeFileChunk(md, position, content, lastChunk, translogView.totalOperations())
-            );
+            if (maxConcurrentFileChunks > 1) {
+                sendNextChunkConcurrently(position, content, lastChunk);
+            } else {
+                // Actually send the file chunk to the target node, waiting for it to complete
+                cancellableThreads.executeIO(() ->
+                        recoveryTarget.writeFileChunk(md, position, content, lastChunk, translogView.totalOperations())
+                );
+            }
             if (shard.state() == IndexShardState.CLOSED) { // check if the shard got closed on us
                 throw new IndexShardClosedException(request.shardId());
             }
         }
+
+        private void sendNextChunkConcurrently(long position, BytesArray content, boolean lastChunk) throws IOException {
+            // the buffered stream reuses its buffer for the next chunk, so this one needs its own copy while in flight
+            final BytesArray chunk = new BytesArray(content.toBytesRef(), true);
+            cancellableThreads.execute(fileChunkPermits::acquire);
+            if (fileChunkFailure.get() != null) {
+                fileChunkPermits.release();
+                throw new IOException("failed to send a previous file chunk"); // sendFiles reports the original failure
+            }
+            fileChunkExecutor.execute(new AbstractRunnable() {
+                @Override
+                protected void doRun() throws Exception {
+                    cancellableThreads.executeIO(() ->
+                            recoveryTarget.writeFileChunk(md, position, chunk, lastChunk, translogView.totalOperations())
+                    );
+                }
+
+                @Override
+                public void onFailure(Throwable t) {
+                    fileChunkFailure.compareAndSet(null, new Tuple<>(md, t));
+                }
+
+                @Override
+                public void onAfter() {
+                    fileChunkPermits.release();
+                }
+            });
+        }
     }
 
     void sendFiles(Store store, StoreFileMetaData[] files, Function<StoreFileMetaData, OutputStream> outputStreamFactory) throws Throwable {
@@ -519,30 +608,45 @@ public class RecoverySourceHandler {
                     // exceptions during close correctly and doesn't hide the original exception.
                     Streams.copy(new InputStreamIndexInput(indexInput, md.length()), outputStreamFactory.apply(md));
                 } catch (Throwable t) {
-                    final IOException corruptIndexException;
-                    if ((corruptIndexException = ExceptionsHelper.unwrapCorruption(t)) != null) {
-                        if (store.checkIntegrityNoException(md) == false) { // we are corrupted on the primary -- fail!
-                            logger.warn("{} Corrupted file detected {} checksum mismatch", shardId, md);
-                            failEngine(corruptIndexException);
-                            throw corruptIndexException;
-                        } else { // corruption has happened on the way to replica
-                            RemoteTransportException exception = new RemoteTransportException("File corruption occurred on recovery but " +
-                                    "checksums are ok", null);
-                            exception.addSuppressed(t);
-                            logger.warn("{} Remote file corruption on node {}, recovering {}. local checksum OK",
-                                    corruptIndexException, shardId, request.targetNode(), md);
-                            throw exception;
-                        }
-                    } else {
-                        throw t;
+                    final Tuple<StoreFileMetaData, Throwable> failure = fileChunkFailure.get();
+                    if (failure != null) {
+                        handleErrorOnSendFiles(store, failure.v2(), failure.v1());
                     }
+                    handleErrorOnSendFiles(store, t, md);
                 }
             }
+            // wait for the chunks still in flight
+            cancellableThreads.execute(() -> fileChunkPermits.acquire(maxConcurrentFileChunks));
+            fileChunkPermits.release(maxConcurrentFileChunks);
+            final Tuple<StoreFileMetaData, Throwable> failure = fileChunkFailure.get();
+            if (failure != null) {
+                handleErrorOnSendFiles(store, failure.v2(), failure.v1());
+            }
         } finally {
             store.decRef();
         }
     }
 
+    private void handleErrorOnSendFiles(Store store, Throwable t, StoreFileMetaData md) throws Throwable {
+        final IOException corruptIndexException;
+        if ((corruptIndexException = ExceptionsHelper.unwrapCorruption(t)) != null) {
+            if (store.checkIntegrityNoException(md) == false) { // we are corrupted on the primary -- fail!
+                logger.warn("{} Corrupted file detected {} checksum mismatch", shardId, md);
+                failEngine(corruptIndexException);
+                throw corruptIndexException;
+            } else { // corruption has happened on the way to replica
+                RemoteTransportException exception = new RemoteTransportException("File corruption occurred on recovery but " +
+                        "checksums are ok", null);
+                exception.addSuppressed(t);
+                logger.warn("{} Remote file corruption on node {}, recovering {}. local checksum OK",
+                        corruptIndexException, shardId, request.targetNode(), md);
+                throw exception;
+            }
+        } else {
+            throw t;
+        }
+    }
+
     protected void failEngine(IOException cause) {
         shard.failShard("recovery", cause);
     }
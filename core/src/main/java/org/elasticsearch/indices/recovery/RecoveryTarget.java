@@ -29,6 +29,7 @@ import org.apache.lucene.util.BytesRefIterator;
 import org.elasticsearch.ElasticsearchException;
 import org.elasticsearch.ExceptionsHelper;
 import org.elasticsearch.cluster.node.DiscoveryNode;
+import org.elasticsearch.common.bytes.BytesArray;
 import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.logging.ESLogger;
 import org.elasticsearch.common.logging.Loggers;
@@ -50,6 +51,7 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.TreeMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
@@ -85,6 +87,9 @@ public class RecoveryTarget extends AbstractRefCounted implements RecoveryTarget
 
     private final Map<String, String> tempFileNames = ConcurrentCollections.newConcurrentMap();
 
+    // the source sends several file chunks concurrently, these put the chunks of each file back in order
+    private final ConcurrentMap<String, FileChunkWriter> fileChunkWriters = ConcurrentCollections.newConcurrentMap();
+
     public RecoveryTarget(IndexShard indexShard, DiscoveryNode sourceNode, RecoveryTargetService.RecoveryListener listener) {
 
         super("recovery_status");
@@ -260,6 +265,7 @@ public class RecoveryTarget extends AbstractRefCounted implements RecoveryTarget
     }
 
     protected void cleanOpenFiles() {
+        fileChunkWriters.clear();
         // clean open index outputs
         Iterator<Entry<String, IndexOutput>> iterator = openIndexOutputs.entrySet().iterator();
         while (iterator.hasNext()) {
@@ -370,9 +376,16 @@ public class RecoveryTarget extends AbstractRefCounted implements RecoveryTarget
     @Override
     public void writeFileChunk(StoreFileMetaData fileMetaData, long position, BytesReference content,
                                boolean lastChunk, int totalTranslogOps) throws IOException {
+        state().getTranslog().totalOperations(totalTranslogOps);
+        final FileChunkWriter writer =
+            fileChunkWriters.computeIfAbsent(fileMetaData.name(), name -> new FileChunkWriter(this::innerWriteFileChunk));
+        writer.writeChunk(fileMetaData, position, content, lastChunk);
+    }
+
+    private void innerWriteFileChunk(StoreFileMetaData fileMetaData, long position, BytesReference content,
+                                     boolean lastChunk) throws IOException {
         final Store store = store();
         final String name = fileMetaData.name();
-        state().getTranslog().totalOperations(totalTranslogOps);
         final RecoveryState.Index indexState = state().getIndex();
         IndexOutput indexOutput;
         if (position == 0) {
@@ -398,6 +411,79 @@ public class RecoveryTarget extends AbstractRefCounted implements RecoveryTarget
             store.directory().sync(Collections.singleton(temporaryFileName));
             IndexOutput remove = removeOpenIndexOutputs(name);
             assert remove == null || remove == indexOutput; // remove maybe null if we got finished
+            fileChunkWriters.remove(name);
+        }
+    }
+
+    /**
+     * Writes the chunks of a single file in order of their position, holding on to chunks that arrive before the chunks
+     * preceding them. Chunks that were received before are ignored. Once a chunk fails to be written the file can't be
+     * completed, so the chunks held on to are released and all further chunks are rejected.
+     */
+    static final class FileChunkWriter {
+
+        /**
+         * Writes a chunk at the position the previous chunk ended at.
+         */
+        @FunctionalInterface
+        interface ChunkOutput {
+            void write(StoreFileMetaData fileMetaData, long position, BytesReference content, boolean lastChunk) throws IOException;
+        }
+
+        private final ChunkOutput output;
+        private final TreeMap<Long, FileChunk> pendingChunks = new TreeMap<>();
+        private long nextPosition = 0;
+        private Exception failure;
+
+        FileChunkWriter(ChunkOutput output) {
+            this.output = output;
+        }
+
+        synchronized void writeChunk(StoreFileMetaData fileMetaData, long position, BytesReference content,
+                                     boolean lastChunk) throws IOException {
+            if (failure != null) {
+                throw new IllegalStateException("failed to write an earlier chunk of [" + fileMetaData.name() + "]", failure);
+            }
+            if (position < nextPosition) {
+                // already written, e.g. a request that was sent again
+                return;
+            }
+            if (position > nextPosition) {
+                if (pendingChunks.containsKey(position) == false) {
+                    // the transport may reuse the request's buffer once we return
+                    pendingChunks.put(position, new FileChunk(position, new BytesArray(content.toBytesRef(), true), lastChunk));
+                }
+                return;
+            }
+            try {
+                output.write(fileMetaData, position, content, lastChunk);
+                nextPosition += content.length();
+                FileChunk chunk;
+                while ((chunk = pendingChunks.remove(nextPosition)) != null) {
+                    output.write(fileMetaData, chunk.position, chunk.content, chunk.lastChunk);
+                    nextPosition += chunk.content.length();
+                }
+            } catch (Exception e) {
+                failure = e;
+                pendingChunks.clear();
+                throw e;
+            }
+        }
+
+        synchronized int pendingChunks() {
+            return pendingChunks.size();
+        }
+    }
+
+    private static final class FileChunk {
+        private final long position;
+        private final BytesReference content;
+        private final boolean lastChunk;
+
+        FileChunk(long position, BytesReference content, boolean lastChunk) {
+            this.position = position;
+            this.content = content;
+            this.lastChunk = lastChunk;
         }
     }
 }
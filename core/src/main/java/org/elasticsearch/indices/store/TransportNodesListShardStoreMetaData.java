@@ -37,10 +37,13 @@ import org.elasticsearch.common.inject.Inject;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.io.stream.Streamable;
+import org.elasticsearch.common.settings.Setting;
+import org.elasticsearch.common.settings.Setting.Property;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.env.NodeEnvironment;
 import org.elasticsearch.gateway.AsyncShardFetch;
+import org.elasticsearch.gateway.ShardFetchBatcher;
 import org.elasticsearch.index.IndexService;
 import org.elasticsearch.index.IndexSettings;
 import org.elasticsearch.index.shard.IndexShard;
@@ -69,10 +72,20 @@ public class TransportNodesListShardStoreMetaData extends TransportNodesAction<T
 
     public static final String ACTION_NAME = "internal:cluster/nodes/indices/shard/store";
 
+    /**
+     * The maximum number of files the store meta data of unallocated shards may hold in the cache of this node
+     */
+    public static final Setting<Integer> METADATA_CACHE_SIZE_SETTING =
+        Setting.intSetting("indices.store.unallocated_metadata_cache.size", 100000, 0, Property.NodeScope);
+
     private final IndicesService indicesService;
 
     private final NodeEnvironment nodeEnv;
 
+    private final ShardFetchBatcher<NodesStoreFilesMetaData, NodeStoreFilesMetaData> batcher;
+
+    private final UnallocatedMetaDataCache unallocatedMetaDataCache;
+
     @Inject
     public TransportNodesListShardStoreMetaData(Settings settings, ThreadPool threadPool,
                                                 ClusterService clusterService, TransportService transportService,
@@ -82,6 +95,19 @@ public class TransportNodesListShardStoreMetaData extends TransportNodesAction<T
             Request::new, NodeRequest::new, ThreadPool.Names.FETCH_SHARD_STORE, NodeStoreFilesMetaData.class);
         this.indicesService = indicesService;
         this.nodeEnv = nodeEnv;
+        this.batcher = new ShardFetchBatcher<>(settings, ACTION_NAME, threadPool, transportService, ThreadPool.Names.FETCH_SHARD_STORE,
+            NodeStoreFilesMetaData::new, shardId -> new NodeStoreFilesMetaData(clusterService.localNode(), listStoreMetaDataOrFail(shardId)),
+            (responses, failures) -> new NodesStoreFilesMetaData(clusterService.getClusterName(), responses, failures),
+            this);
+        this.unallocatedMetaDataCache = new UnallocatedMetaDataCache(logger, METADATA_CACHE_SIZE_SETTING.get(settings));
+    }
+
+    /**
+     * Returns a lister that fetches the store meta data of all shards listed during an allocation round in a single
+     * request per node, see {@link ShardFetchBatcher}.
+     */
+    public ShardFetchBatcher<NodesStoreFilesMetaData, NodeStoreFilesMetaData> batcher() {
+        return batcher;
     }
 
     @Override
@@ -107,10 +133,14 @@ public class TransportNodesListShardStoreMetaData extends TransportNodesAction<T
 
     @Override
     protected NodeStoreFilesMetaData nodeOperation(NodeRequest request) {
+        return new NodeStoreFilesMetaData(clusterService.localNode(), listStoreMetaDataOrFail(request.shardId));
+    }
+
+    private StoreFilesMetaData listStoreMetaDataOrFail(ShardId shardId) {
         try {
-            return new NodeStoreFilesMetaData(clusterService.localNode(), listStoreMetaData(request.shardId));
+            return listStoreMetaData(shardId);
         } catch (IOException e) {
-            throw new ElasticsearchException("Failed to list store metadata for shard [" + request.shardId + "]", e);
+            throw new ElasticsearchException("Failed to list store metadata for shard [" + shardId + "]", e);
         }
     }
 
@@ -123,6 +153,8 @@ public class TransportNodesListShardStoreMetaData extends TransportNodesAction<T
             if (indexService != null) {
                 IndexShard indexShard = indexService.getShardOrNull(shardId.id());
                 if (indexShard != null) {
+                    // the shard is allocated here and its files may change from now on
+                    unallocatedMetaDataCache.invalidate(shardId);
                     final Store store = indexShard.store();
                     store.incRef();
                     try {
@@ -150,7 +182,7 @@ public class TransportNodesListShardStoreMetaData extends TransportNodesAction<T
             if (shardPath == null) {
                 return new StoreFilesMetaData(shardId, Store.MetadataSnapshot.EMPTY);
             }
-            return new StoreFilesMetaData(shardId, Store.readMetadataSnapshot(shardPath.resolveIndex(), shardId, logger));
+            return new StoreFilesMetaData(shardId, unallocatedMetaDataCache.getOrRead(shardId, shardPath.resolveIndex()));
         } finally {
             TimeValue took = new TimeValue(System.nanoTime() - startTimeNS, TimeUnit.NANOSECONDS);
             if (exists) {
@@ -0,0 +1,95 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.indices.store;
+
+import org.elasticsearch.common.cache.Cache;
+import org.elasticsearch.common.cache.CacheBuilder;
+import org.elasticsearch.common.logging.ESLogger;
+import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.index.store.Store;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Caches the store meta data of shards that are not allocated on this node, keyed by the id of the commit they were read from.
+ * The files of a commit never change, which allows to answer repeated fetches by only reading the segments file.
+ */
+final class UnallocatedMetaDataCache {
+
+    private final ESLogger logger;
+    private final Cache<ShardId, CachedMetadataSnapshot> cache;
+
+    /**
+     * @param maxFiles the maximum number of files the cached meta data may hold
+     */
+    UnallocatedMetaDataCache(ESLogger logger, int maxFiles) {
+        this.logger = logger;
+        this.cache = CacheBuilder.<ShardId, CachedMetadataSnapshot>builder()
+            .setMaximumWeight(maxFiles)
+            .weigher((shardId, cached) -> cached.metadataSnapshot.size() + 1)
+            .build();
+    }
+
+    /**
+     * Returns the meta data of the last commit in the given location, reading all of its files only if the commit isn't cached yet.
+     */
+    Store.MetadataSnapshot getOrRead(ShardId shardId, Path indexLocation) throws IOException {
+        final String commitId = Store.readLastCommitId(indexLocation, shardId);
+        if (commitId == null) {
+            cache.invalidate(shardId);
+            return Store.MetadataSnapshot.EMPTY;
+        }
+        CachedMetadataSnapshot cached = cache.get(shardId);
+        if (cached != null && cached.commitId.equals(commitId) && cached.indexLocation.equals(indexLocation)) {
+            logger.trace("{} using cached store meta data of commit [{}]", shardId, commitId);
+            return cached.metadataSnapshot;
+        }
+        Store.MetadataSnapshot metadataSnapshot = Store.readMetadataSnapshot(indexLocation, shardId, logger);
+        if (commitId.equals(Store.readLastCommitId(indexLocation, shardId))) {
+            // only cache if nothing was committed in the meantime, otherwise the snapshot may belong to another commit
+            cache.put(shardId, new CachedMetadataSnapshot(indexLocation, commitId, metadataSnapshot));
+        }
+        return metadataSnapshot;
+    }
+
+    /**
+     * Drops the cached meta data of the given shard, e.g. because it got allocated on this node and its files may change.
+     */
+    void invalidate(ShardId shardId) {
+        cache.invalidate(shardId);
+    }
+
+    int count() {
+        return cache.count();
+    }
+
+    private static final class CachedMetadataSnapshot {
+        final Path indexLocation;
+        final String commitId;
+        final Store.MetadataSnapshot metadataSnapshot;
+
+        CachedMetadataSnapshot(Path indexLocation, String commitId, Store.MetadataSnapshot metadataSnapshot) {
+            this.indexLocation = indexLocation;
+            this.commitId = commitId;
+            this.metadataSnapshot = metadataSnapshot;
+        }
+    }
+}
@@ -95,21 +95,36 @@ public class CompoundProcessor implements Processor {
 
     @Override
     public void execute(IngestDocument ingestDocument) throws Exception {
-        for (Processor processor : processors) {
+        execute(ingestDocument, null);
+    }
+
+    /**
+     * Executes the processors like {@link #execute(IngestDocument)} and reports how long each of them took to the listener if there
+     * is one.
+     */
+    void execute(IngestDocument ingestDocument, ProcessorListener listener) throws Exception {
+        for (int i = 0; i < processors.size(); i++) {
+            Processor processor = processors.get(i);
+            long startTimeInNanos = listener == null ? 0 : System.nanoTime();
+            Exception failure = null;
             try {
                 processor.execute(ingestDocument);
             } catch (Exception e) {
-                if (ignoreFailure) {
-                    continue;
-                }
+                failure = e;
+            }
+            if (listener != null) {
+                listener.processorExecuted(i, System.nanoTime() - startTimeInNanos, failure != null);
+            }
+            if (failure == null || ignoreFailure) {
+                continue;
+            }
 
-                ElasticsearchException compoundProcessorException =
-                        newCompoundProcessorException(e, processor.getType(), processor.getTag());
-                if (onFailureProcessors.isEmpty()) {
-                    throw compoundProcessorException;
-                } else {
-                    executeOnFailure(ingestDocument, compoundProcessorException);
-                }
+            ElasticsearchException compoundProcessorException =
+                    newCompoundProcessorException(failure, processor.getType(), processor.getTag());
+            if (onFailureProcessors.isEmpty()) {
+                throw compoundProcessorException;
+            } else {
+                executeOnFailure(ingestDocument, compoundProcessorException);
             }
         }
     }
@@ -147,6 +162,18 @@ public class CompoundProcessor implements Processor {
         ingestMetadata.remove(ON_FAILURE_PROCESSOR_TAG_FIELD);
     }
 
+    /**
+     * Notified each time one of the processors of a {@link CompoundProcessor} has been executed.
+     */
+    interface ProcessorListener {
+        /**
+         * @param processorIndex the position of the processor in {@link CompoundProcessor#getProcessors()}
+         * @param tookInNanos how long the processor took
+         * @param failed whether the processor threw an exception
+         */
+        void processorExecuted(int processorIndex, long tookInNanos, boolean failed);
+    }
+
     private ElasticsearchException newCompoundProcessorException(Exception e, String processorType, String processorTag) {
         if (e instanceof ElasticsearchException && ((ElasticsearchException)e).getHeader("processor_type") != null) {
             return (ElasticsearchException) e;
@@ -0,0 +1,88 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.ingest;
+
+import org.elasticsearch.common.Strings;
+
+/**
+ * A path to a field within an {@link IngestDocument} in dot-notation. Parsing a path splits it into its elements once so processors
+ * that always work on the same field can parse it when they are created rather than for every document they process.
+ */
+public final class FieldPath {
+
+    private final String path;
+    private final String[] pathElements;
+    private final boolean ingestMetadata;
+
+    /**
+     * Parses a path in dot-notation. Paths starting with <code>_ingest.</code> point into the ingest metadata, all other paths point
+     * into the source and metadata of the document, optionally prefixed with <code>_source.</code>.
+     * @throws IllegalArgumentException if the path is null, empty or invalid
+     */
+    public FieldPath(String path) {
+        if (Strings.isEmpty(path)) {
+            throw new IllegalArgumentException("path cannot be null nor empty");
+        }
+        String newPath;
+        if (path.startsWith(IngestDocument.INGEST_KEY_PREFIX)) {
+            ingestMetadata = true;
+            newPath = path.substring(IngestDocument.INGEST_KEY_PREFIX.length(), path.length());
+        } else {
+            ingestMetadata = false;
+            if (path.startsWith(IngestDocument.SOURCE_PREFIX)) {
+                newPath = path.substring(IngestDocument.SOURCE_PREFIX.length(), path.length());
+            } else {
+                newPath = path;
+            }
+        }
+        this.pathElements = newPath.split("\\.");
+        if (pathElements.length == 1 && pathElements[0].isEmpty()) {
+            throw new IllegalArgumentException("path [" + path + "] is not valid");
+        }
+        this.path = path;
+    }
+
+    /**
+     * The path as it was provided.
+     */
+    public String getPath() {
+        return path;
+    }
+
+    String[] getPathElements() {
+        return pathElements;
+    }
+
+    String getLeafKey() {
+        return pathElements[pathElements.length - 1];
+    }
+
+    /**
+     * Does this path point into the ingest metadata rather than the source and metadata of the document?
+     */
+    boolean isIngestMetadata() {
+        return ingestMetadata;
+    }
+
+    @Override
+    public String toString() {
+        return path;
+    }
+}
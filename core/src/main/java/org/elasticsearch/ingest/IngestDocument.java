@@ -19,7 +19,6 @@
 
 package org.elasticsearch.ingest;
 
-import org.elasticsearch.common.Strings;
 import org.elasticsearch.index.mapper.internal.IdFieldMapper;
 import org.elasticsearch.index.mapper.internal.IndexFieldMapper;
 import org.elasticsearch.index.mapper.internal.ParentFieldMapper;
@@ -34,6 +33,7 @@ import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Base64;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
@@ -48,8 +48,8 @@ import java.util.TimeZone;
 public final class IngestDocument {
 
     public static final String INGEST_KEY = "_ingest";
-    private static final String INGEST_KEY_PREFIX = INGEST_KEY + ".";
-    private static final String SOURCE_PREFIX = SourceFieldMapper.NAME + ".";
+    static final String INGEST_KEY_PREFIX = INGEST_KEY + ".";
+    static final String SOURCE_PREFIX = SourceFieldMapper.NAME + ".";
 
     static final String TIMESTAMP = "timestamp";
 
@@ -108,9 +108,21 @@ public final class IngestDocument {
      * or if the field that is found at the provided path is not of the expected type.
      */
     public <T> T getFieldValue(String path, Class<T> clazz) {
-        FieldPath fieldPath = new FieldPath(path);
-        Object context = fieldPath.initialContext;
-        for (String pathElement : fieldPath.pathElements) {
+        return getFieldValue(new FieldPath(path), clazz);
+    }
+
+    /**
+     * Returns the value contained in the document for the provided pre-parsed path
+     * @param fieldPath The path within the document
+     * @param clazz The expected class of the field value
+     * @return the value for the provided path if existing, null otherwise
+     * @throws IllegalArgumentException if the field doesn't exist or if the field that is found at the provided path is not of the
+     * expected type.
+     */
+    public <T> T getFieldValue(FieldPath fieldPath, Class<T> clazz) {
+        String path = fieldPath.getPath();
+        Object context = initialContext(fieldPath);
+        for (String pathElement : fieldPath.getPathElements()) {
             context = resolve(pathElement, path, context);
         }
         return cast(path, context, clazz);
@@ -166,10 +178,19 @@ public final class IngestDocument {
      * @throws IllegalArgumentException if the path is null, empty or invalid.
      */
     public boolean hasField(String path) {
-        FieldPath fieldPath = new FieldPath(path);
-        Object context = fieldPath.initialContext;
-        for (int i = 0; i < fieldPath.pathElements.length - 1; i++) {
-            String pathElement = fieldPath.pathElements[i];
+        return hasField(new FieldPath(path));
+    }
+
+    /**
+     * Checks whether the document contains a value for the provided pre-parsed path
+     * @param fieldPath The path within the document
+     * @return true if the document contains a value for the field, false otherwise
+     */
+    public boolean hasField(FieldPath fieldPath) {
+        String[] pathElements = fieldPath.getPathElements();
+        Object context = initialContext(fieldPath);
+        for (int i = 0; i < pathElements.length - 1; i++) {
+            String pathElement = pathElements[i];
             if (context == null) {
                 return false;
             }
@@ -195,7 +216,7 @@ public final class IngestDocument {
             }
         }
 
-        String leafKey = fieldPath.pathElements[fieldPath.pathElements.length - 1];
+        String leafKey = fieldPath.getLeafKey();
         if (context instanceof Map) {
             @SuppressWarnings("unchecked")
             Map<String, Object> map = (Map<String, Object>) context;
@@ -229,13 +250,23 @@ public final class IngestDocument {
      * @throws IllegalArgumentException if the path is null, empty, invalid or if the field doesn't exist.
      */
     public void removeField(String path) {
-        FieldPath fieldPath = new FieldPath(path);
-        Object context = fieldPath.initialContext;
-        for (int i = 0; i < fieldPath.pathElements.length - 1; i++) {
-            context = resolve(fieldPath.pathElements[i], path, context);
+        removeField(new FieldPath(path));
+    }
+
+    /**
+     * Removes the field identified by the provided pre-parsed path.
+     * @param fieldPath the path of the field to be removed
+     * @throws IllegalArgumentException if the field doesn't exist.
+     */
+    public void removeField(FieldPath fieldPath) {
+        String path = fieldPath.getPath();
+        String[] pathElements = fieldPath.getPathElements();
+        Object context = initialContext(fieldPath);
+        for (int i = 0; i < pathElements.length - 1; i++) {
+            context = resolve(pathElements[i], path, context);
         }
 
-        String leafKey = fieldPath.pathElements[fieldPath.pathElements.length - 1];
+        String leafKey = fieldPath.getLeafKey();
         if (context instanceof Map) {
             @SuppressWarnings("unchecked")
             Map<String, Object> map = (Map<String, Object>) context;
@@ -315,7 +346,17 @@ public final class IngestDocument {
      * @throws IllegalArgumentException if the path is null, empty or invalid.
      */
     public void appendFieldValue(String path, Object value) {
-        setFieldValue(path, value, true);
+        setFieldValue(new FieldPath(path), value, true);
+    }
+
+    /**
+     * Appends the provided value to the provided pre-parsed path in the document.
+     * Behaves exactly like {@link #appendFieldValue(String, Object)}.
+     * @param fieldPath The path within the document
+     * @param value The value or values to append to the existing ones
+     */
+    public void appendFieldValue(FieldPath fieldPath, Object value) {
+        setFieldValue(fieldPath, value, true);
     }
 
     /**
@@ -331,7 +372,7 @@ public final class IngestDocument {
      * @throws IllegalArgumentException if the path is null, empty or invalid.
      */
     public void appendFieldValue(TemplateService.Template fieldPathTemplate, ValueSource valueSource) {
-        Map<String, Object> model = createTemplateModel();
+        Map<String, Object> model = createTemplateModel(fieldPathTemplate, valueSource);
         appendFieldValue(fieldPathTemplate.execute(model), valueSource.copyAndResolve(model));
     }
 
@@ -346,7 +387,18 @@ public final class IngestDocument {
      * item identified by the provided path.
      */
     public void setFieldValue(String path, Object value) {
-        setFieldValue(path, value, false);
+        setFieldValue(new FieldPath(path), value, false);
+    }
+
+    /**
+     * Sets the provided value to the provided pre-parsed path in the document.
+     * Behaves exactly like {@link #setFieldValue(String, Object)}.
+     * @param fieldPath The path within the document
+     * @param value The value to put in for the path key
+     * @throws IllegalArgumentException if the value cannot be set to the item identified by the provided path.
+     */
+    public void setFieldValue(FieldPath fieldPath, Object value) {
+        setFieldValue(fieldPath, value, false);
     }
 
     /**
@@ -359,15 +411,16 @@ public final class IngestDocument {
      * item identified by the provided path.
      */
     public void setFieldValue(TemplateService.Template fieldPathTemplate, ValueSource valueSource) {
-        Map<String, Object> model = createTemplateModel();
-        setFieldValue(fieldPathTemplate.execute(model), valueSource.copyAndResolve(model), false);
+        Map<String, Object> model = createTemplateModel(fieldPathTemplate, valueSource);
+        setFieldValue(new FieldPath(fieldPathTemplate.execute(model)), valueSource.copyAndResolve(model), false);
     }
 
-    private void setFieldValue(String path, Object value, boolean append) {
-        FieldPath fieldPath = new FieldPath(path);
-        Object context = fieldPath.initialContext;
-        for (int i = 0; i < fieldPath.pathElements.length - 1; i++) {
-            String pathElement = fieldPath.pathElements[i];
+    private void setFieldValue(FieldPath fieldPath, Object value, boolean append) {
+        String path = fieldPath.getPath();
+        String[] pathElements = fieldPath.getPathElements();
+        Object context = initialContext(fieldPath);
+        for (int i = 0; i < pathElements.length - 1; i++) {
+            String pathElement = pathElements[i];
             if (context == null) {
                 throw new IllegalArgumentException("cannot resolve [" + pathElement + "] from null as part of path [" + path + "]");
             }
@@ -402,7 +455,7 @@ public final class IngestDocument {
             }
         }
 
-        String leafKey = fieldPath.pathElements[fieldPath.pathElements.length - 1];
+        String leafKey = fieldPath.getLeafKey();
         if (context == null) {
             throw new IllegalArgumentException("cannot set [" + leafKey + "] with null parent as part of path [" + path + "]");
         }
@@ -489,9 +542,27 @@ public final class IngestDocument {
     }
 
     public String renderTemplate(TemplateService.Template template) {
+        if (template.isConstant()) {
+            return template.execute(Collections.emptyMap());
+        }
         return template.execute(createTemplateModel());
     }
 
+    private Object initialContext(FieldPath fieldPath) {
+        return fieldPath.isIngestMetadata() ? ingestMetadata : sourceAndMetadata;
+    }
+
+    /**
+     * Creates the model to resolve the provided template and value source against. Creating the model copies the top level of the
+     * document so it is skipped if neither of them refer to the document.
+     */
+    private Map<String, Object> createTemplateModel(TemplateService.Template template, ValueSource valueSource) {
+        if (template.isConstant() && valueSource.isConstant()) {
+            return Collections.emptyMap();
+        }
+        return createTemplateModel();
+    }
+
     private Map<String, Object> createTemplateModel() {
         Map<String, Object> model = new HashMap<>(sourceAndMetadata);
         model.put(SourceFieldMapper.NAME, sourceAndMetadata);
@@ -606,33 +677,4 @@ public final class IngestDocument {
             return fieldName;
         }
     }
-
-    private class FieldPath {
-
-        private final String[] pathElements;
-        private final Object initialContext;
-
-        private FieldPath(String path) {
-            if (Strings.isEmpty(path)) {
-                throw new IllegalArgumentException("path cannot be null nor empty");
-            }
-            String newPath;
-            if (path.startsWith(INGEST_KEY_PREFIX)) {
-                initialContext = ingestMetadata;
-                newPath = path.substring(INGEST_KEY_PREFIX.length(), path.length());
-            } else {
-                initialContext = sourceAndMetadata;
-                if (path.startsWith(SOURCE_PREFIX)) {
-                    newPath = path.substring(SOURCE_PREFIX.length(), path.length());
-                } else {
-                    newPath = path;
-                }
-            }
-            this.pathElements = newPath.split("\\.");
-            if (pathElements.length == 1 && pathElements[0].isEmpty()) {
-                throw new IllegalArgumentException("path [" + path + "] is not valid");
-            }
-        }
-
-    }
 }
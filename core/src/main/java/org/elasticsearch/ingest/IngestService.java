@@ -38,9 +38,11 @@ public class IngestService {
     private final PipelineStore pipelineStore;
     private final PipelineExecutionService pipelineExecutionService;
     private final ProcessorsRegistry.Builder processorsRegistryBuilder;
+    private final ThreadPool threadPool;
 
     public IngestService(Settings settings, ThreadPool threadPool, ProcessorsRegistry.Builder processorsRegistryBuilder) {
         this.processorsRegistryBuilder = processorsRegistryBuilder;
+        this.threadPool = threadPool;
         this.pipelineStore = new PipelineStore(settings);
         this.pipelineExecutionService = new PipelineExecutionService(pipelineStore, threadPool);
     }
@@ -54,7 +56,7 @@ public class IngestService {
     }
 
     public void buildProcessorsFactoryRegistry(ScriptService scriptService, ClusterService clusterService) {
-        pipelineStore.buildProcessorFactoryRegistry(processorsRegistryBuilder, scriptService, clusterService);
+        pipelineStore.buildProcessorFactoryRegistry(processorsRegistryBuilder, scriptService, clusterService, threadPool);
     }
 
     public IngestInfo info() {
@@ -19,6 +19,7 @@
 
 package org.elasticsearch.ingest;
 
+import org.elasticsearch.Version;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.io.stream.Writeable;
@@ -26,17 +27,26 @@ import org.elasticsearch.common.xcontent.ToXContent;
 import org.elasticsearch.common.xcontent.XContentBuilder;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
 public class IngestStats implements Writeable, ToXContent {
     private final Stats totalStats;
     private final Map<String, Stats> statsPerPipeline;
+    private final Map<String, List<ProcessorStats>> processorStatsPerPipeline;
 
     public IngestStats(Stats totalStats, Map<String, Stats> statsPerPipeline) {
+        this(totalStats, statsPerPipeline, Collections.emptyMap());
+    }
+
+    public IngestStats(Stats totalStats, Map<String, Stats> statsPerPipeline, Map<String, List<ProcessorStats>> processorStatsPerPipeline) {
         this.totalStats = totalStats;
         this.statsPerPipeline = statsPerPipeline;
+        this.processorStatsPerPipeline = processorStatsPerPipeline;
     }
 
     /**
@@ -49,6 +59,21 @@ public class IngestStats implements Writeable, ToXContent {
         for (int i = 0; i < size; i++) {
             statsPerPipeline.put(in.readString(), new Stats(in));
         }
+        if (in.getVersion().onOrAfter(Version.V_5_0_0_alpha4)) {
+            size = in.readVInt();
+            this.processorStatsPerPipeline = new HashMap<>(size);
+            for (int i = 0; i < size; i++) {
+                String pipeline = in.readString();
+                int processors = in.readVInt();
+                List<ProcessorStats> processorStats = new ArrayList<>(processors);
+                for (int p = 0; p < processors; p++) {
+                    processorStats.add(new ProcessorStats(in));
+                }
+                processorStatsPerPipeline.put(pipeline, processorStats);
+            }
+        } else {
+            this.processorStatsPerPipeline = Collections.emptyMap();
+        }
     }
 
     @Override
@@ -59,6 +84,16 @@ public class IngestStats implements Writeable, ToXContent {
             out.writeString(entry.getKey());
             entry.getValue().writeTo(out);
         }
+        if (out.getVersion().onOrAfter(Version.V_5_0_0_alpha4)) {
+            out.writeVInt(processorStatsPerPipeline.size());
+            for (Map.Entry<String, List<ProcessorStats>> entry : processorStatsPerPipeline.entrySet()) {
+                out.writeString(entry.getKey());
+                out.writeVInt(entry.getValue().size());
+                for (ProcessorStats processorStats : entry.getValue()) {
+                    processorStats.writeTo(out);
+                }
+            }
+        }
     }
 
 
@@ -76,6 +111,13 @@ public class IngestStats implements Writeable, ToXContent {
         return statsPerPipeline;
     }
 
+    /**
+     * @return The stats of each of the top level processors of a pipeline, in the order the processors are executed in
+     */
+    public Map<String, List<ProcessorStats>> getProcessorStatsPerPipeline() {
+        return processorStatsPerPipeline;
+    }
+
     @Override
     public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
         builder.startObject("ingest");
@@ -86,6 +128,14 @@ public class IngestStats implements Writeable, ToXContent {
         for (Map.Entry<String, Stats> entry : statsPerPipeline.entrySet()) {
             builder.startObject(entry.getKey());
             entry.getValue().toXContent(builder, params);
+            List<ProcessorStats> processorStats = processorStatsPerPipeline.get(entry.getKey());
+            if (processorStats != null && processorStats.isEmpty() == false) {
+                builder.startArray("processors");
+                for (ProcessorStats processor : processorStats) {
+                    processor.toXContent(builder, params);
+                }
+                builder.endArray();
+            }
             builder.endObject();
         }
         builder.endObject();
@@ -163,4 +213,90 @@ public class IngestStats implements Writeable, ToXContent {
             return builder;
         }
     }
+
+    public static class ProcessorStats implements Writeable, ToXContent {
+
+        private final String type;
+        private final String tag;
+        private final long count;
+        private final long timeInMillis;
+        private final long failedCount;
+
+        public ProcessorStats(String type, String tag, long count, long timeInMillis, long failedCount) {
+            this.type = type;
+            this.tag = tag;
+            this.count = count;
+            this.timeInMillis = timeInMillis;
+            this.failedCount = failedCount;
+        }
+
+        /**
+         * Read from a stream.
+         */
+        public ProcessorStats(StreamInput in) throws IOException {
+            type = in.readString();
+            tag = in.readOptionalString();
+            count = in.readVLong();
+            timeInMillis = in.readVLong();
+            failedCount = in.readVLong();
+        }
+
+        @Override
+        public void writeTo(StreamOutput out) throws IOException {
+            out.writeString(type);
+            out.writeOptionalString(tag);
+            out.writeVLong(count);
+            out.writeVLong(timeInMillis);
+            out.writeVLong(failedCount);
+        }
+
+        /**
+         * @return The type of the processor.
+         */
+        public String getType() {
+            return type;
+        }
+
+        /**
+         * @return The tag of the processor, null if it doesn't have one.
+         */
+        public String getTag() {
+            return tag;
+        }
+
+        /**
+         * @return The number of times the processor was executed.
+         */
+        public long getCount() {
+            return count;
+        }
+
+        /**
+         * @return The total time spent in the processor in millis.
+         */
+        public long getTimeInMillis() {
+            return timeInMillis;
+        }
+
+        /**
+         * @return The number of times the processor failed.
+         */
+        public long getFailedCount() {
+            return failedCount;
+        }
+
+        @Override
+        public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
+            builder.startObject();
+            builder.field("type", type);
+            if (tag != null) {
+                builder.field("tag", tag);
+            }
+            builder.field("count", count);
+            builder.timeValueField("time_in_millis", "time", timeInMillis, TimeUnit.MILLISECONDS);
+            builder.field("failed", failedCount);
+            builder.endObject();
+            return builder;
+        }
+    }
 }
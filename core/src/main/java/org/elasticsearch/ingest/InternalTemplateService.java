@@ -85,5 +85,10 @@ public class InternalTemplateService implements TemplateService {
         public String getKey() {
             return value;
         }
+
+        @Override
+        public boolean isConstant() {
+            return true;
+        }
     }
 }
@@ -52,6 +52,18 @@ public final class Pipeline {
         compoundProcessor.execute(ingestDocument);
     }
 
+    /**
+     * Modifies the data of a document like {@link #execute(IngestDocument)} and reports how long each of the processors took to the
+     * listener if there is one.
+     */
+    void execute(IngestDocument ingestDocument, CompoundProcessor.ProcessorListener listener) throws Exception {
+        if (listener == null) {
+            compoundProcessor.execute(ingestDocument);
+        } else {
+            compoundProcessor.execute(ingestDocument, listener);
+        }
+    }
+
     /**
      * The unique id of this pipeline
      */
@@ -27,14 +27,20 @@ import org.elasticsearch.common.Strings;
 import org.elasticsearch.common.metrics.CounterMetric;
 import org.elasticsearch.common.metrics.MeanMetric;
 import org.elasticsearch.common.util.concurrent.AbstractRunnable;
+import org.elasticsearch.common.util.concurrent.EsRejectedExecutionException;
 import org.elasticsearch.threadpool.ThreadPool;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 
@@ -53,7 +59,7 @@ public class PipelineExecutionService implements ClusterStateListener {
 
     public void executeIndexRequest(IndexRequest request, Consumer<Throwable> failureHandler, Consumer<Boolean> completionHandler) {
         Pipeline pipeline = getPipeline(request.getPipeline());
-        threadPool.executor(ThreadPool.Names.INDEX).execute(new AbstractRunnable() {
+        threadPool.executor(ThreadPool.Names.INGEST).execute(new AbstractRunnable() {
 
             @Override
             public void onFailure(Throwable t) {
@@ -68,47 +74,148 @@ public class PipelineExecutionService implements ClusterStateListener {
         });
     }
 
+    /**
+     * Runs the pipelines of all index requests that have one. A single task per bulk request is queued on the ingest thread pool, so
+     * that a bulk request takes up one slot of its queue regardless of its size. Once it runs, that task hands the requests out to the
+     * threads of the pool that are idle at that moment, each taking the next unprocessed request until there are none left. Once all
+     * requests have been processed the item failure handler is called for each failed request, in the order of the requests, followed
+     * by the completion handler, from the thread that processed the last request. If the task is rejected, only the completion handler
+     * is called, with the rejection.
+     */
     public void executeBulkRequest(Iterable<ActionRequest<?>> actionRequests,
                                    BiConsumer<IndexRequest, Throwable> itemFailureHandler,
                                    Consumer<Throwable> completionHandler) {
-        threadPool.executor(ThreadPool.Names.BULK).execute(new AbstractRunnable() {
+        List<BulkItem> items = new ArrayList<>();
+        for (ActionRequest actionRequest : actionRequests) {
+            if ((actionRequest instanceof IndexRequest)) {
+                IndexRequest indexRequest = (IndexRequest) actionRequest;
+                if (Strings.hasText(indexRequest.getPipeline())) {
+                    items.add(new BulkItem(indexRequest));
+                    //this shouldn't be needed here but we do it for consistency with index api
+                    // which requires it to prevent double execution
+                    indexRequest.setPipeline(null);
+                }
+            }
+        }
+        if (items.isEmpty()) {
+            completionHandler.accept(null);
+            return;
+        }
+
+        final Executor executor = threadPool.executor(ThreadPool.Names.INGEST);
+        final BulkExecution execution = new BulkExecution(items, itemFailureHandler, completionHandler);
+        executor.execute(new AbstractRunnable() {
 
             @Override
             public void onFailure(Throwable t) {
+                // none of the requests were processed
                 completionHandler.accept(t);
             }
 
             @Override
             protected void doRun() throws Exception {
-                for (ActionRequest actionRequest : actionRequests) {
-                    if ((actionRequest instanceof IndexRequest)) {
-                        IndexRequest indexRequest = (IndexRequest) actionRequest;
-                        if (Strings.hasText(indexRequest.getPipeline())) {
-                            try {
-                                innerExecute(indexRequest, getPipeline(indexRequest.getPipeline()));
-                                //this shouldn't be needed here but we do it for consistency with index api
-                                // which requires it to prevent double execution
-                                indexRequest.setPipeline(null);
-                            } catch (Throwable e) {
-                                itemFailureHandler.accept(indexRequest, e);
-                            }
-                        }
+                int helpers = Math.min(items.size() - 1, idleThreads(executor));
+                for (int i = 0; i < helpers; i++) {
+                    try {
+                        executor.execute(execution::processItems);
+                    } catch (EsRejectedExecutionException e) {
+                        // this task processes the requests the helper would have taken
+                        break;
                     }
                 }
-                completionHandler.accept(null);
+                execution.processItems();
             }
         });
     }
 
+    /**
+     * Returns how many threads of the ingest thread pool can pick up work right away, so that helping out with a bulk request never
+     * queues behind, or ahead of, the tasks of other requests.
+     */
+    private int idleThreads(Executor executor) {
+        if (executor instanceof ThreadPoolExecutor) {
+            ThreadPoolExecutor threadPoolExecutor = (ThreadPoolExecutor) executor;
+            if (threadPoolExecutor.getQueue().isEmpty() == false) {
+                return 0;
+            }
+            // the calling thread is one of the active ones
+            return Math.max(0, threadPoolExecutor.getMaximumPoolSize() - threadPoolExecutor.getActiveCount());
+        }
+        return threadPool.info(ThreadPool.Names.INGEST).getMax() - 1;
+    }
+
+    /**
+     * The index requests of a bulk request that are processed by the threads working on it, and the handlers to notify once the
+     * last one is done.
+     */
+    private static class BulkExecution {
+        private final List<BulkItem> items;
+        private final BiConsumer<IndexRequest, Throwable> itemFailureHandler;
+        private final Consumer<Throwable> completionHandler;
+        private final AtomicInteger nextItem = new AtomicInteger();
+        private final AtomicInteger processedItems = new AtomicInteger();
+
+        BulkExecution(List<BulkItem> items, BiConsumer<IndexRequest, Throwable> itemFailureHandler,
+                      Consumer<Throwable> completionHandler) {
+            this.items = items;
+            this.itemFailureHandler = itemFailureHandler;
+            this.completionHandler = completionHandler;
+        }
+
+        void processItems() {
+            for (int i = nextItem.getAndIncrement(); i < items.size(); i = nextItem.getAndIncrement()) {
+                items.get(i).execute();
+                if (processedItems.incrementAndGet() == items.size()) {
+                    onFinished();
+                }
+            }
+        }
+
+        private void onFinished() {
+            for (BulkItem item : items) {
+                if (item.failure != null) {
+                    itemFailureHandler.accept(item.request, item.failure);
+                }
+            }
+            completionHandler.accept(null);
+        }
+    }
+
+    /**
+     * An index request from a bulk request and the outcome of running its pipeline.
+     */
+    private class BulkItem {
+        private final IndexRequest request;
+        private final String pipelineId;
+        private Throwable failure;
+
+        BulkItem(IndexRequest request) {
+            this.request = request;
+            this.pipelineId = request.getPipeline();
+        }
+
+        void execute() {
+            try {
+                innerExecute(request, getPipeline(pipelineId));
+            } catch (Throwable e) {
+                // put the pipeline back so the failure can be attributed to it
+                request.setPipeline(pipelineId);
+                failure = e;
+            }
+        }
+    }
+
     public IngestStats stats() {
         Map<String, StatsHolder> statsHolderPerPipeline = this.statsHolderPerPipeline;
 
         Map<String, IngestStats.Stats> statsPerPipeline = new HashMap<>(statsHolderPerPipeline.size());
+        Map<String, List<IngestStats.ProcessorStats>> processorStatsPerPipeline = new HashMap<>(statsHolderPerPipeline.size());
         for (Map.Entry<String, StatsHolder> entry : statsHolderPerPipeline.entrySet()) {
             statsPerPipeline.put(entry.getKey(), entry.getValue().createStats());
+            processorStatsPerPipeline.put(entry.getKey(), entry.getValue().createProcessorStats());
         }
 
-        return new IngestStats(totalStats.createStats(), statsPerPipeline);
+        return new IngestStats(totalStats.createStats(), statsPerPipeline, processorStatsPerPipeline);
     }
 
     @Override
@@ -163,7 +270,7 @@ public class PipelineExecutionService implements ClusterStateListener {
             String ttl = indexRequest.ttl() == null ? null : indexRequest.ttl().toString();
             Map<String, Object> sourceAsMap = indexRequest.sourceAsMap();
             IngestDocument ingestDocument = new IngestDocument(index, type, id, routing, parent, timestamp, ttl, sourceAsMap);
-            pipeline.execute(ingestDocument);
+            pipeline.execute(ingestDocument, pipelineStats.map(statsHolder -> statsHolder.processorStats(pipeline)).orElse(null));
 
             Map<IngestDocument.MetaData, String> metadataMap = ingestDocument.extractMetadata();
             //it's fine to set all metadata fields all the time, as ingest document holds their starting values
@@ -181,9 +288,9 @@ public class PipelineExecutionService implements ClusterStateListener {
             pipelineStats.ifPresent(StatsHolder::ingestFailed);
             throw e;
         } finally {
-            long ingestTimeInMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTimeInNanos);
-            totalStats.postIngest(ingestTimeInMillis);
-            pipelineStats.ifPresent(statsHolder -> statsHolder.postIngest(ingestTimeInMillis));
+            long ingestTimeInNanos = System.nanoTime() - startTimeInNanos;
+            totalStats.postIngest(ingestTimeInNanos);
+            pipelineStats.ifPresent(statsHolder -> statsHolder.postIngest(ingestTimeInNanos));
         }
     }
 
@@ -200,24 +307,84 @@ public class PipelineExecutionService implements ClusterStateListener {
         private final MeanMetric ingestMetric = new MeanMetric();
         private final CounterMetric ingestCurrent = new CounterMetric();
         private final CounterMetric ingestFailed = new CounterMetric();
+        private volatile ProcessorStatsHolder processorStats;
 
         void preIngest() {
             ingestCurrent.inc();
         }
 
-        void postIngest(long ingestTimeInMillis) {
+        void postIngest(long ingestTimeInNanos) {
             ingestCurrent.dec();
-            ingestMetric.inc(ingestTimeInMillis);
+            ingestMetric.inc(ingestTimeInNanos);
         }
 
         void ingestFailed() {
             ingestFailed.inc();
         }
 
+        /**
+         * The stats holder for the processors of the provided pipeline. The processor stats start over when the pipeline is replaced
+         * because the new pipeline may have different processors.
+         */
+        ProcessorStatsHolder processorStats(Pipeline pipeline) {
+            ProcessorStatsHolder current = processorStats;
+            if (current != null && current.pipeline == pipeline) {
+                return current;
+            }
+            synchronized (this) {
+                if (processorStats == null || processorStats.pipeline != pipeline) {
+                    processorStats = new ProcessorStatsHolder(pipeline);
+                }
+                return processorStats;
+            }
+        }
+
         IngestStats.Stats createStats() {
-            return new IngestStats.Stats(ingestMetric.count(), ingestMetric.sum(), ingestCurrent.count(), ingestFailed.count());
+            return new IngestStats.Stats(ingestMetric.count(), TimeUnit.NANOSECONDS.toMillis(ingestMetric.sum()), ingestCurrent.count(),
+                    ingestFailed.count());
         }
 
+        List<IngestStats.ProcessorStats> createProcessorStats() {
+            ProcessorStatsHolder current = processorStats;
+            return current == null ? Collections.emptyList() : current.createStats();
+        }
+    }
+
+    static class ProcessorStatsHolder implements CompoundProcessor.ProcessorListener {
+
+        private final Pipeline pipeline;
+        private final MeanMetric[] processorMetrics;
+        private final CounterMetric[] processorFailed;
+
+        ProcessorStatsHolder(Pipeline pipeline) {
+            this.pipeline = pipeline;
+            int processors = pipeline.getProcessors().size();
+            processorMetrics = new MeanMetric[processors];
+            processorFailed = new CounterMetric[processors];
+            for (int i = 0; i < processors; i++) {
+                processorMetrics[i] = new MeanMetric();
+                processorFailed[i] = new CounterMetric();
+            }
+        }
+
+        @Override
+        public void processorExecuted(int processorIndex, long tookInNanos, boolean failed) {
+            processorMetrics[processorIndex].inc(tookInNanos);
+            if (failed) {
+                processorFailed[processorIndex].inc();
+            }
+        }
+
+        List<IngestStats.ProcessorStats> createStats() {
+            List<Processor> processors = pipeline.getProcessors();
+            List<IngestStats.ProcessorStats> stats = new ArrayList<>(processors.size());
+            for (int i = 0; i < processors.size(); i++) {
+                Processor processor = processors.get(i);
+                stats.add(new IngestStats.ProcessorStats(processor.getType(), processor.getTag(), processorMetrics[i].count(),
+                        TimeUnit.NANOSECONDS.toMillis(processorMetrics[i].sum()), processorFailed[i].count()));
+            }
+            return stats;
+        }
     }
 
 }
@@ -38,6 +38,7 @@ import org.elasticsearch.common.regex.Regex;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.xcontent.XContentHelper;
 import org.elasticsearch.script.ScriptService;
+import org.elasticsearch.threadpool.ThreadPool;
 
 import java.io.Closeable;
 import java.io.IOException;
@@ -63,8 +64,8 @@ public class PipelineStore extends AbstractComponent implements ClusterStateList
     }
 
     public void buildProcessorFactoryRegistry(ProcessorsRegistry.Builder processorsRegistryBuilder, ScriptService scriptService,
-                                              ClusterService clusterService) {
-        this.processorRegistry = processorsRegistryBuilder.build(scriptService, clusterService);
+                                              ClusterService clusterService, ThreadPool threadPool) {
+        this.processorRegistry = processorsRegistryBuilder.build(scriptService, clusterService, threadPool);
     }
 
     @Override
@@ -28,6 +28,7 @@ import java.util.function.Function;
 
 import org.elasticsearch.cluster.service.ClusterService;
 import org.elasticsearch.script.ScriptService;
+import org.elasticsearch.threadpool.ThreadPool;
 
 public final class ProcessorsRegistry {
 
@@ -35,12 +36,14 @@ public final class ProcessorsRegistry {
     private final TemplateService templateService;
     private final ScriptService scriptService;
     private final ClusterService clusterService;
+    private final ThreadPool threadPool;
 
-    private ProcessorsRegistry(ScriptService scriptService, ClusterService clusterService,
+    private ProcessorsRegistry(ScriptService scriptService, ClusterService clusterService, ThreadPool threadPool,
                                Map<String, Function<ProcessorsRegistry, Processor.Factory>> providers) {
         this.templateService = new InternalTemplateService(scriptService);
         this.scriptService = scriptService;
         this.clusterService = clusterService;
+        this.threadPool = threadPool;
         Map<String, Processor.Factory> processorFactories = new HashMap<>();
         for (Map.Entry<String, Function<ProcessorsRegistry, Processor.Factory>> entry : providers.entrySet()) {
             processorFactories.put(entry.getKey(), entry.getValue().apply(this));
@@ -60,6 +63,10 @@ public final class ProcessorsRegistry {
         return clusterService;
     }
 
+    public ThreadPool getThreadPool() {
+        return threadPool;
+    }
+
     public Processor.Factory getProcessorFactory(String name) {
         return processorFactories.get(name);
     }
@@ -83,8 +90,8 @@ public final class ProcessorsRegistry {
             }
         }
 
-        public ProcessorsRegistry build(ScriptService scriptService, ClusterService clusterService) {
-            return new ProcessorsRegistry(scriptService, clusterService, providers);
+        public ProcessorsRegistry build(ScriptService scriptService, ClusterService clusterService, ThreadPool threadPool) {
+            return new ProcessorsRegistry(scriptService, clusterService, threadPool, providers);
         }
 
     }
@@ -34,5 +34,13 @@ public interface TemplateService {
         String execute(Map<String, Object> model);
 
         String getKey();
+
+        /**
+         * Does this template always render to the same value regardless of the model? Constant templates are rendered without building
+         * a model from the document.
+         */
+        default boolean isConstant() {
+            return false;
+        }
     }
 }
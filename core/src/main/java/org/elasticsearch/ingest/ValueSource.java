@@ -41,6 +41,14 @@ public interface ValueSource {
      */
     Object copyAndResolve(Map<String, Object> model);
 
+    /**
+     * Does {@link #copyAndResolve(Map)} return the same value regardless of the model? If so the value can be resolved without
+     * building a model from the document.
+     */
+    default boolean isConstant() {
+        return false;
+    }
+
     static ValueSource wrap(Object value, TemplateService templateService) {
         if (value instanceof Map) {
             @SuppressWarnings("unchecked")
@@ -72,9 +80,20 @@ public interface ValueSource {
     final class MapValue implements ValueSource {
 
         private final Map<ValueSource, ValueSource> map;
+        private final boolean constant;
 
         MapValue(Map<ValueSource, ValueSource> map) {
             this.map = map;
+            boolean constant = true;
+            for (Map.Entry<ValueSource, ValueSource> entry : map.entrySet()) {
+                constant &= entry.getKey().isConstant() && entry.getValue().isConstant();
+            }
+            this.constant = constant;
+        }
+
+        @Override
+        public boolean isConstant() {
+            return constant;
         }
 
         @Override
@@ -105,9 +124,20 @@ public interface ValueSource {
     final class ListValue implements ValueSource {
 
         private final List<ValueSource> values;
+        private final boolean constant;
 
         ListValue(List<ValueSource> values) {
             this.values = values;
+            boolean constant = true;
+            for (ValueSource value : values) {
+                constant &= value.isConstant();
+            }
+            this.constant = constant;
+        }
+
+        @Override
+        public boolean isConstant() {
+            return constant;
         }
 
         @Override
@@ -143,6 +173,11 @@ public interface ValueSource {
             this.value = value;
         }
 
+        @Override
+        public boolean isConstant() {
+            return true;
+        }
+
         @Override
         public Object copyAndResolve(Map<String, Object> model) {
             return value;
@@ -171,6 +206,11 @@ public interface ValueSource {
             this.value = value;
         }
 
+        @Override
+        public boolean isConstant() {
+            return true;
+        }
+
         @Override
         public Object copyAndResolve(Map<String, Object> model) {
             return value;
@@ -200,6 +240,11 @@ public interface ValueSource {
             this.template = template;
         }
 
+        @Override
+        public boolean isConstant() {
+            return template.isConstant();
+        }
+
         @Override
         public Object copyAndResolve(Map<String, Object> model) {
             return template.execute(model);
@@ -41,6 +41,7 @@ import org.elasticsearch.ingest.IngestService;
 import org.elasticsearch.ingest.ProcessorsRegistry;
 import org.elasticsearch.monitor.MonitorService;
 import org.elasticsearch.plugins.PluginsService;
+import org.elasticsearch.repositories.RepositoriesService;
 import org.elasticsearch.script.ScriptService;
 import org.elasticsearch.threadpool.ThreadPool;
 import org.elasticsearch.transport.TransportService;
@@ -65,11 +66,14 @@ public class NodeService extends AbstractComponent implements Closeable {
 
     private final Discovery discovery;
 
+    private final RepositoriesService repositoriesService;
+
     @Inject
     public NodeService(Settings settings, ThreadPool threadPool, MonitorService monitorService,
                        Discovery discovery, TransportService transportService, IndicesService indicesService,
                        PluginsService pluginService, CircuitBreakerService circuitBreakerService, @Nullable HttpServer httpServer,
-                       ProcessorsRegistry.Builder processorsRegistryBuilder, ClusterService clusterService, SettingsFilter settingsFilter) {
+                       ProcessorsRegistry.Builder processorsRegistryBuilder, ClusterService clusterService, SettingsFilter settingsFilter,
+                       RepositoriesService repositoriesService) {
         super(settings);
         this.threadPool = threadPool;
         this.monitorService = monitorService;
@@ -82,6 +86,7 @@ public class NodeService extends AbstractComponent implements Closeable {
         this.clusterService = clusterService;
         this.ingestService = new IngestService(settings, threadPool, processorsRegistryBuilder);
         this.settingsFilter = settingsFilter;
+        this.repositoriesService = repositoriesService;
         clusterService.add(ingestService.getPipelineStore());
         clusterService.add(ingestService.getPipelineExecutionService());
     }
@@ -139,13 +144,14 @@ public class NodeService extends AbstractComponent implements Closeable {
                 circuitBreakerService.stats(),
                 scriptService.stats(),
                 discovery.stats(),
-                ingestService.getPipelineExecutionService().stats()
+                ingestService.getPipelineExecutionService().stats(),
+                repositoriesService.stats()
         );
     }
 
     public NodeStats stats(CommonStatsFlags indices, boolean os, boolean process, boolean jvm, boolean threadPool,
                            boolean fs, boolean transport, boolean http, boolean circuitBreaker,
-                           boolean script, boolean discoveryStats, boolean ingest) {
+                           boolean script, boolean discoveryStats, boolean ingest, boolean repositories) {
         // for indices stats we want to include previous allocated shards stats as well (it will
         // only be applied to the sensible ones to use, like refresh/merge/flush/indexing stats)
         return new NodeStats(discovery.localNode(), System.currentTimeMillis(),
@@ -160,7 +166,8 @@ public class NodeService extends AbstractComponent implements Closeable {
                 circuitBreaker ? circuitBreakerService.stats() : null,
                 script ? scriptService.stats() : null,
                 discoveryStats ? discovery.stats() : null,
-                ingest ? ingestService.getPipelineExecutionService().stats() : null
+                ingest ? ingestService.getPipelineExecutionService().stats() : null,
+                repositories ? repositoriesService.stats() : null
         );
     }
 
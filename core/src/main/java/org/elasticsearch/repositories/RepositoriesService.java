@@ -352,6 +352,17 @@ public class RepositoriesService extends AbstractComponent implements ClusterSta
         throw new RepositoryMissingException(repository);
     }
 
+    /**
+     * Returns the snapshot and restore transfer statistics of all repositories registered on this node
+     */
+    public RepositoriesStats stats() {
+        Map<String, RepositoriesStats.Stats> statsPerRepository = new HashMap<>();
+        for (Map.Entry<String, RepositoryHolder> entry : repositories.entrySet()) {
+            statsPerRepository.put(entry.getKey(), entry.getValue().repository.stats());
+        }
+        return new RepositoriesStats(statsPerRepository);
+    }
+
     /**
      * Creates a new repository and adds it to the list of registered repositories.
      * <p>
@@ -0,0 +1,213 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.repositories;
+
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.io.stream.Writeable;
+import org.elasticsearch.common.xcontent.ToXContent;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The snapshot and restore transfer statistics of the repositories registered on a node
+ */
+public class RepositoriesStats implements Writeable, ToXContent {
+    private final Map<String, Stats> statsPerRepository;
+
+    public RepositoriesStats(Map<String, Stats> statsPerRepository) {
+        this.statsPerRepository = statsPerRepository;
+    }
+
+    /**
+     * Read from a stream.
+     */
+    public RepositoriesStats(StreamInput in) throws IOException {
+        int size = in.readVInt();
+        this.statsPerRepository = new HashMap<>(size);
+        for (int i = 0; i < size; i++) {
+            statsPerRepository.put(in.readString(), new Stats(in));
+        }
+    }
+
+    @Override
+    public void writeTo(StreamOutput out) throws IOException {
+        out.writeVInt(statsPerRepository.size());
+        for (Map.Entry<String, Stats> entry : statsPerRepository.entrySet()) {
+            out.writeString(entry.getKey());
+            entry.getValue().writeTo(out);
+        }
+    }
+
+    /**
+     * @return The stats on a per repository basis
+     */
+    public Map<String, Stats> getStatsPerRepository() {
+        return statsPerRepository;
+    }
+
+    @Override
+    public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
+        builder.startObject("repositories");
+        for (Map.Entry<String, Stats> entry : statsPerRepository.entrySet()) {
+            builder.startObject(entry.getKey());
+            entry.getValue().toXContent(builder, params);
+            builder.endObject();
+        }
+        builder.endObject();
+        return builder;
+    }
+
+    public static class Stats implements Writeable, ToXContent {
+
+        private final TransferStats snapshot;
+        private final TransferStats restore;
+
+        public Stats(TransferStats snapshot, TransferStats restore) {
+            this.snapshot = snapshot;
+            this.restore = restore;
+        }
+
+        /**
+         * Read from a stream.
+         */
+        public Stats(StreamInput in) throws IOException {
+            snapshot = new TransferStats(in);
+            restore = new TransferStats(in);
+        }
+
+        @Override
+        public void writeTo(StreamOutput out) throws IOException {
+            snapshot.writeTo(out);
+            restore.writeTo(out);
+        }
+
+        /**
+         * @return The stats of the files this node copied to the repository
+         */
+        public TransferStats getSnapshot() {
+            return snapshot;
+        }
+
+        /**
+         * @return The stats of the files this node copied from the repository
+         */
+        public TransferStats getRestore() {
+            return restore;
+        }
+
+        @Override
+        public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
+            builder.startObject("snapshot");
+            snapshot.toXContent(builder, params);
+            builder.endObject();
+            builder.startObject("restore");
+            restore.toXContent(builder, params);
+            builder.endObject();
+            return builder;
+        }
+    }
+
+    public static class TransferStats implements Writeable, ToXContent {
+
+        private final long files;
+        private final long sizeInBytes;
+        private final long timeInMillis;
+        private final long throttleTimeInMillis;
+        private final long current;
+
+        public TransferStats(long files, long sizeInBytes, long timeInMillis, long throttleTimeInMillis, long current) {
+            this.files = files;
+            this.sizeInBytes = sizeInBytes;
+            this.timeInMillis = timeInMillis;
+            this.throttleTimeInMillis = throttleTimeInMillis;
+            this.current = current;
+        }
+
+        /**
+         * Read from a stream.
+         */
+        public TransferStats(StreamInput in) throws IOException {
+            files = in.readVLong();
+            sizeInBytes = in.readVLong();
+            timeInMillis = in.readVLong();
+            throttleTimeInMillis = in.readVLong();
+            current = in.readVLong();
+        }
+
+        @Override
+        public void writeTo(StreamOutput out) throws IOException {
+            out.writeVLong(files);
+            out.writeVLong(sizeInBytes);
+            out.writeVLong(timeInMillis);
+            out.writeVLong(throttleTimeInMillis);
+            out.writeVLong(current);
+        }
+
+        /**
+         * @return The total number of files transferred
+         */
+        public long getFiles() {
+            return files;
+        }
+
+        /**
+         * @return The total size of the transferred files in bytes
+         */
+        public long getSizeInBytes() {
+            return sizeInBytes;
+        }
+
+        /**
+         * @return The total time spent transferring files in millis, concurrent transfers are added up
+         */
+        public long getTimeInMillis() {
+            return timeInMillis;
+        }
+
+        /**
+         * @return The total time transfers were paused by the rate limiter in millis
+         */
+        public long getThrottleTimeInMillis() {
+            return throttleTimeInMillis;
+        }
+
+        /**
+         * @return The number of files currently being transferred
+         */
+        public long getCurrent() {
+            return current;
+        }
+
+        @Override
+        public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
+            builder.field("files", files);
+            builder.byteSizeField("size_in_bytes", "size", sizeInBytes);
+            builder.timeValueField("time_in_millis", "time", timeInMillis, TimeUnit.MILLISECONDS);
+            builder.timeValueField("throttle_time_in_millis", "throttle_time", throttleTimeInMillis, TimeUnit.MILLISECONDS);
+            builder.field("current", current);
+            return builder;
+        }
+    }
+}
@@ -115,6 +115,11 @@ public interface Repository extends LifecycleComponent {
      */
     long restoreThrottleTimeInNanos();
 
+    /**
+     * Returns the snapshot and restore transfer statistics of this node
+     */
+    RepositoriesStats.Stats stats();
+
 
     /**
      * Verifies repository on the master node and returns the verification token.
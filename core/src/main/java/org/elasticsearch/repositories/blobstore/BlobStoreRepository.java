@@ -53,6 +53,7 @@ import org.elasticsearch.index.shard.ShardId;
 import org.elasticsearch.index.snapshots.IndexShardRepository;
 import org.elasticsearch.index.snapshots.blobstore.BlobStoreIndexShardRepository;
 import org.elasticsearch.index.snapshots.blobstore.BlobStoreIndexShardRepository.RateLimiterListener;
+import org.elasticsearch.repositories.RepositoriesStats;
 import org.elasticsearch.repositories.Repository;
 import org.elasticsearch.repositories.RepositoryException;
 import org.elasticsearch.repositories.RepositorySettings;
@@ -113,6 +114,10 @@ import java.util.stream.Collectors;
  *      |
  *      |- bar/ - data for index bar
  *      ......
+ *   |- shared/ - data files shared by all shards, only used if the "dedup" repository setting is enabled
+ *      |- __shared-C-L-H      - data of a file with checksum C, length L and SHA-256 digest H
+ *      |- __shared-C-L-H.ref.foo.0 - marks that shard "0" of index "foo" references the file
+ *      ......
  * }
  * </pre>
  */
@@ -174,6 +179,10 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
 
     private final boolean readOnly;
 
+    private final boolean dedup;
+
+    private final int concurrentStreams;
+
     /**
      * Constructs new BlobStoreRepository
      *
@@ -188,6 +197,11 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
         snapshotRateLimiter = getRateLimiter(repositorySettings, "max_snapshot_bytes_per_sec", new ByteSizeValue(40, ByteSizeUnit.MB));
         restoreRateLimiter = getRateLimiter(repositorySettings, "max_restore_bytes_per_sec", new ByteSizeValue(40, ByteSizeUnit.MB));
         readOnly = repositorySettings.settings().getAsBoolean("readonly", false);
+        dedup = repositorySettings.settings().getAsBoolean("dedup", false);
+        concurrentStreams = repositorySettings.settings().getAsInt("concurrent_streams", 2);
+        if (concurrentStreams < 1) {
+            throw new RepositoryException(repositoryName, "[concurrent_streams] must be at least 1 but was [" + concurrentStreams + "]");
+        }
     }
 
     /**
@@ -196,7 +210,8 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
     @Override
     protected void doStart() {
         this.snapshotsBlobContainer = blobStore().blobContainer(basePath());
-        indexShardRepository.initialize(blobStore(), basePath(), chunkSize(), snapshotRateLimiter, restoreRateLimiter, this, isCompress());
+        indexShardRepository.initialize(blobStore(), basePath(), chunkSize(), snapshotRateLimiter, restoreRateLimiter, this,
+            isCompress(), dedup, concurrentStreams);
 
         ParseFieldMatcher parseFieldMatcher = new ParseFieldMatcher(settings);
         globalMetaDataFormat = new ChecksumBlobStoreFormat<>(METADATA_CODEC, METADATA_NAME_FORMAT, MetaData.PROTO, parseFieldMatcher, isCompress());
@@ -360,6 +375,8 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
                     }
                 }
             }
+            // Finally delete the shared data files that were only referenced by the deleted shard snapshots
+            indexShardRepository.deleteUnreferencedSharedBlobs();
         } catch (IOException ex) {
             throw new RepositoryException(this.repositoryName, "failed to update snapshot in repository", ex);
         }
@@ -559,6 +576,11 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
         return restoreRateLimitingTimeInNanos.count();
     }
 
+    @Override
+    public RepositoriesStats.Stats stats() {
+        return indexShardRepository.stats(snapshotThrottleTimeInNanos(), restoreThrottleTimeInNanos());
+    }
+
     @Override
     public String startVerification() {
         try {
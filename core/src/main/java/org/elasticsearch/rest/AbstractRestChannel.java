@@ -26,6 +26,7 @@ import org.elasticsearch.common.xcontent.XContentFactory;
 import org.elasticsearch.common.xcontent.XContentType;
 
 import java.io.IOException;
+import java.io.OutputStream;
 
 public abstract class AbstractRestChannel implements RestChannel {
 
@@ -52,6 +53,16 @@ public abstract class AbstractRestChannel implements RestChannel {
 
     @Override
     public XContentBuilder newBuilder(@Nullable BytesReference autoDetectSource, boolean useFiltering) throws IOException {
+        return newBuilder(autoDetectSource, useFiltering, bytesOutput());
+    }
+
+    @Override
+    public XContentBuilder newBuilder(OutputStream out) throws IOException {
+        return newBuilder(request.hasContent() ? request.content() : null, request.hasParam("filter_path"), out);
+    }
+
+    private XContentBuilder newBuilder(@Nullable BytesReference autoDetectSource, boolean useFiltering, OutputStream out)
+            throws IOException {
         XContentType contentType = XContentType.fromMediaTypeOrFormat(request.param("format", request.header("Accept")));
         if (contentType == null) {
             // try and guess it from the auto detect source
@@ -65,7 +76,7 @@ public abstract class AbstractRestChannel implements RestChannel {
         }
 
         String[] filters = useFiltering ? request.paramAsStringArrayOrEmptyIfAll("filter_path") :  null;
-        XContentBuilder builder = new XContentBuilder(XContentFactory.xContent(contentType), bytesOutput(), filters);
+        XContentBuilder builder = new XContentBuilder(XContentFactory.xContent(contentType), out, filters);
         if (request.paramAsBoolean("pretty", false)) {
             builder.prettyPrint().lfAtEnd();
         }
@@ -25,6 +25,7 @@ import org.elasticsearch.common.io.stream.BytesStreamOutput;
 import org.elasticsearch.common.xcontent.XContentBuilder;
 
 import java.io.IOException;
+import java.io.OutputStream;
 
 /**
  * A channel used to construct bytes / builder based outputs, and send responses.
@@ -36,6 +37,11 @@ public interface RestChannel {
 
     XContentBuilder newBuilder(@Nullable BytesReference autoDetectSource, boolean useFiltering) throws IOException;
 
+    /**
+     * Creates a builder like {@link #newBuilder()} that writes to the given stream instead of {@link #bytesOutput()}.
+     */
+    XContentBuilder newBuilder(OutputStream out) throws IOException;
+
     BytesStreamOutput bytesOutput();
 
     RestRequest request();
@@ -22,9 +22,11 @@ package org.elasticsearch.rest;
 import org.elasticsearch.client.node.NodeClient;
 import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.component.AbstractLifecycleComponent;
 import org.elasticsearch.common.path.PathTrie;
 import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
 import org.elasticsearch.common.util.concurrent.ThreadContext;
 import org.elasticsearch.common.xcontent.XContentBuilder;
 import org.elasticsearch.rest.support.RestUtils;
@@ -33,7 +35,10 @@ import java.io.IOException;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import static java.util.Collections.emptySet;
@@ -54,6 +59,8 @@ public class RestController extends AbstractLifecycleComponent {
 
     private final RestHandlerFilter handlerFilter = new RestHandlerFilter();
 
+    private final ConcurrentMap<String, RestHandlerStatsTracker> handlerStats = ConcurrentCollections.newConcurrentMap();
+
     private Set<String> relevantHeaders = emptySet();
 
     // non volatile since the assumption is that pre processors are registered on startup
@@ -118,11 +125,34 @@ public class RestController extends AbstractLifecycleComponent {
         PathTrie<RestHandler> handlers = getHandlersForMethod(method);
         if (handlers != null) {
             handlers.insert(path, handler);
+            handlerStats.putIfAbsent(statsName(handler), new RestHandlerStatsTracker());
         } else {
             throw new IllegalArgumentException("Can't handle [" + method + "] for path [" + path + "]");
         }
     }
 
+    /**
+     * Returns the stats of the requests handled so far, by the fully qualified class name of the handler.
+     */
+    public Map<String, RestHandlerStats> handlerStats() {
+        Map<String, RestHandlerStats> stats = new TreeMap<>();
+        for (Map.Entry<String, RestHandlerStatsTracker> entry : handlerStats.entrySet()) {
+            stats.put(entry.getKey(), entry.getValue().stats());
+        }
+        return stats;
+    }
+
+    private RestHandlerStatsTracker statsTracker(RestHandler handler) {
+        RestHandlerStatsTracker tracker = handlerStats.get(statsName(handler));
+        assert tracker != null : "handler [" + handler + "] was not registered";
+        return tracker;
+    }
+
+    private static String statsName(RestHandler handler) {
+        // the fully qualified name, so that handlers of plugins don't share the stats of handlers with the same simple name
+        return handler.getClass().getName();
+    }
+
     /**
      * Returns a filter chain (if needed) to execute. If this method returns null, simply execute
      * as usual.
@@ -151,6 +181,52 @@ public class RestController extends AbstractLifecycleComponent {
         return (handler != null) ? handler.canTripCircuitBreaker() : true;
     }
 
+    /**
+     * @param request The current request, without its content. Must not be null.
+     * @return true iff the content of this request can be passed to its handler while it is being received, see
+     *         {@link StreamingRestHandler}. Filters expect to see the full request, so nothing is streamed if any are registered.
+     */
+    public boolean canStreamContent(RestRequest request) {
+        return filters.length == 0 && getHandler(request) instanceof StreamingRestHandler;
+    }
+
+    /**
+     * Dispatches a request whose content is going to be streamed to its handler, see {@link #canStreamContent(RestRequest)}.
+     * The returned consumer runs with the thread context the handler was called with.
+     */
+    public StreamingRestHandler.ContentConsumer dispatchStreamingRequest(final RestRequest request, final RestChannel channel,
+                                                                         final NodeClient client, ThreadContext threadContext,
+                                                                         StreamingRestHandler.FlowControl flowControl) throws Exception {
+        if (!checkRequestParameters(request, channel)) {
+            return null;
+        }
+        final StreamingRestHandler handler = (StreamingRestHandler) getHandler(request);
+        try (ThreadContext.StoredContext t = threadContext.stashContext()) {
+            for (String key : relevantHeaders) {
+                String httpHeader = request.header(key);
+                if (httpHeader != null) {
+                    threadContext.putHeader(key, httpHeader);
+                }
+            }
+            final RestHandlerStatsTracker.TrackingChannel trackingChannel = statsTracker(handler).track(channel, 0);
+            final StreamingRestHandler.ContentConsumer consumer;
+            long startTime = System.nanoTime();
+            try {
+                consumer = handler.handleStreamingRequest(request, trackingChannel, client, flowControl);
+            } catch (Throwable e) {
+                // the caller responds with the failure
+                trackingChannel.complete(0);
+                throw e;
+            } finally {
+                trackingChannel.handled(System.nanoTime() - startTime);
+            }
+            if (consumer == null) {
+                return null;
+            }
+            return new ContextPreservingContentConsumer(consumer, request, trackingChannel, threadContext);
+        }
+    }
+
     public void dispatchRequest(final RestRequest request, final RestChannel channel, final NodeClient client, ThreadContext threadContext) throws Exception {
         if (!checkRequestParameters(request, channel)) {
             return;
@@ -204,7 +280,18 @@ public class RestController extends AbstractLifecycleComponent {
     void executeHandler(RestRequest request, RestChannel channel, NodeClient client) throws Exception {
         final RestHandler handler = getHandler(request);
         if (handler != null) {
-            handler.handleRequest(request, channel, client);
+            final RestHandlerStatsTracker.TrackingChannel trackingChannel = statsTracker(handler).track(channel,
+                request.hasContent() ? request.content().length() : 0);
+            long startTime = System.nanoTime();
+            try {
+                handler.handleRequest(request, trackingChannel, client);
+            } catch (Throwable t) {
+                // the caller responds with the failure
+                trackingChannel.complete(0);
+                throw t;
+            } finally {
+                trackingChannel.handled(System.nanoTime() - startTime);
+            }
         } else {
             if (request.method() == RestRequest.Method.OPTIONS) {
                 // when we have OPTIONS request, simply send OK by default (with the Access Control Origin header which gets automatically added)
@@ -290,4 +377,81 @@ public class RestController extends AbstractLifecycleComponent {
             executeHandler(request, channel, client);
         }
     }
+
+    /**
+     * Runs a {@link StreamingRestHandler.ContentConsumer} with the thread context its handler was called with, and sends
+     * back whatever it throws as the response of the request.
+     */
+    private final class ContextPreservingContentConsumer implements StreamingRestHandler.ContentConsumer {
+
+        private final StreamingRestHandler.ContentConsumer delegate;
+        private final RestRequest request;
+        private final RestHandlerStatsTracker.TrackingChannel channel;
+        private final ThreadContext threadContext;
+        private final ThreadContext.StoredContext handlerContext;
+        private boolean failed;
+
+        ContextPreservingContentConsumer(StreamingRestHandler.ContentConsumer delegate, RestRequest request,
+                                         RestHandlerStatsTracker.TrackingChannel channel, ThreadContext threadContext) {
+            this.delegate = delegate;
+            this.request = request;
+            this.channel = channel;
+            this.threadContext = threadContext;
+            this.handlerContext = threadContext.newStoredContext();
+        }
+
+        @Override
+        public void accept(BytesReference content) {
+            if (failed) {
+                return;
+            }
+            channel.received(content.length());
+            long startTime = System.nanoTime();
+            try (ThreadContext.StoredContext ignore = threadContext.stashContext()) {
+                handlerContext.restore();
+                delegate.accept(content);
+            } catch (Throwable t) {
+                fail(t);
+            } finally {
+                channel.handled(System.nanoTime() - startTime);
+            }
+        }
+
+        @Override
+        public void finish() {
+            if (failed) {
+                return;
+            }
+            long startTime = System.nanoTime();
+            try (ThreadContext.StoredContext ignore = threadContext.stashContext()) {
+                handlerContext.restore();
+                delegate.finish();
+            } catch (Throwable t) {
+                fail(t);
+            } finally {
+                channel.handled(System.nanoTime() - startTime);
+            }
+        }
+
+        @Override
+        public void abort(Throwable cause) {
+            if (failed) {
+                return;
+            }
+            failed = true;
+            try (ThreadContext.StoredContext ignore = threadContext.stashContext()) {
+                handlerContext.restore();
+                delegate.abort(cause);
+            } finally {
+                // nobody is waiting for a response anymore
+                channel.complete(0);
+            }
+        }
+
+        private void fail(Throwable t) {
+            failed = true;
+            delegate.abort(t);
+            sendErrorResponse(request, channel, t);
+        }
+    }
 }
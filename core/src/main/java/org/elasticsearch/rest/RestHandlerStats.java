@@ -0,0 +1,171 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.elasticsearch.rest;
+
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.io.stream.Streamable;
+import org.elasticsearch.common.xcontent.ToXContent;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+
+import java.io.IOException;
+
+/**
+ * Statistics about the requests handled by a single {@link RestHandler}. The time it takes to send a response is split
+ * into the time spent in the handler itself, which is mostly parsing the request and dispatching it, and the total
+ * time until the response is sent, which also includes executing the request.
+ */
+public class RestHandlerStats implements Streamable, ToXContent {
+
+    /**
+     * The upper bounds (inclusive, in milliseconds) of the buckets of the latency histogram. A last bucket counts the
+     * requests that took longer than the last bound.
+     */
+    public static final long[] LATENCY_BUCKETS_MILLIS = new long[] {1, 5, 10, 50, 100, 500, 1000, 5000};
+
+    private long count;
+    private long current;
+    private long requestBytes;
+    private long responseBytes;
+    private long handlingTimeInMillis;
+    private long timeInMillis;
+    private long[] latencyHistogram;
+
+    RestHandlerStats() {
+    }
+
+    public RestHandlerStats(long count, long current, long requestBytes, long responseBytes, long handlingTimeInMillis,
+                            long timeInMillis, long[] latencyHistogram) {
+        assert latencyHistogram.length == LATENCY_BUCKETS_MILLIS.length + 1;
+        this.count = count;
+        this.current = current;
+        this.requestBytes = requestBytes;
+        this.responseBytes = responseBytes;
+        this.handlingTimeInMillis = handlingTimeInMillis;
+        this.timeInMillis = timeInMillis;
+        this.latencyHistogram = latencyHistogram;
+    }
+
+    /**
+     * The number of requests that have been responded to.
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * The number of requests that are currently being handled.
+     */
+    public long getCurrent() {
+        return current;
+    }
+
+    public long getRequestBytes() {
+        return requestBytes;
+    }
+
+    public long getResponseBytes() {
+        return responseBytes;
+    }
+
+    /**
+     * The total time spent in the handler itself, which usually parses the request and dispatches it for execution.
+     */
+    public long getHandlingTimeInMillis() {
+        return handlingTimeInMillis;
+    }
+
+    /**
+     * The total time from receiving requests until their response was sent.
+     */
+    public long getTimeInMillis() {
+        return timeInMillis;
+    }
+
+    /**
+     * The number of requests per latency bucket, see {@link #LATENCY_BUCKETS_MILLIS}.
+     */
+    public long[] getLatencyHistogram() {
+        return latencyHistogram;
+    }
+
+    public static RestHandlerStats readRestHandlerStats(StreamInput in) throws IOException {
+        RestHandlerStats stats = new RestHandlerStats();
+        stats.readFrom(in);
+        return stats;
+    }
+
+    @Override
+    public void readFrom(StreamInput in) throws IOException {
+        count = in.readVLong();
+        current = in.readVLong();
+        requestBytes = in.readVLong();
+        responseBytes = in.readVLong();
+        handlingTimeInMillis = in.readVLong();
+        timeInMillis = in.readVLong();
+        latencyHistogram = in.readVLongArray();
+    }
+
+    @Override
+    public void writeTo(StreamOutput out) throws IOException {
+        out.writeVLong(count);
+        out.writeVLong(current);
+        out.writeVLong(requestBytes);
+        out.writeVLong(responseBytes);
+        out.writeVLong(handlingTimeInMillis);
+        out.writeVLong(timeInMillis);
+        out.writeVLongArray(latencyHistogram);
+    }
+
+    static final class Fields {
+        static final String COUNT = "count";
+        static final String CURRENT = "current";
+        static final String REQUEST_SIZE = "request_size";
+        static final String REQUEST_SIZE_IN_BYTES = "request_size_in_bytes";
+        static final String RESPONSE_SIZE = "response_size";
+        static final String RESPONSE_SIZE_IN_BYTES = "response_size_in_bytes";
+        static final String HANDLING_TIME = "handling_time";
+        static final String HANDLING_TIME_IN_MILLIS = "handling_time_in_millis";
+        static final String TIME = "time";
+        static final String TIME_IN_MILLIS = "time_in_millis";
+        static final String LATENCY_HISTOGRAM = "latency_histogram";
+        static final String LE_MILLIS = "le_millis";
+    }
+
+    @Override
+    public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
+        builder.field(Fields.COUNT, count);
+        builder.field(Fields.CURRENT, current);
+        builder.byteSizeField(Fields.REQUEST_SIZE_IN_BYTES, Fields.REQUEST_SIZE, requestBytes);
+        builder.byteSizeField(Fields.RESPONSE_SIZE_IN_BYTES, Fields.RESPONSE_SIZE, responseBytes);
+        builder.timeValueField(Fields.HANDLING_TIME_IN_MILLIS, Fields.HANDLING_TIME, handlingTimeInMillis);
+        builder.timeValueField(Fields.TIME_IN_MILLIS, Fields.TIME, timeInMillis);
+        builder.startArray(Fields.LATENCY_HISTOGRAM);
+        for (int i = 0; i < latencyHistogram.length; i++) {
+            builder.startObject();
+            if (i < LATENCY_BUCKETS_MILLIS.length) {
+                builder.field(Fields.LE_MILLIS, LATENCY_BUCKETS_MILLIS[i]);
+            }
+            builder.field(Fields.COUNT, latencyHistogram[i]);
+            builder.endObject();
+        }
+        builder.endArray();
+        return builder;
+    }
+}
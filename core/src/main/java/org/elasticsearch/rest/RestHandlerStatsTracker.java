@@ -0,0 +1,164 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.elasticsearch.rest;
+
+import org.elasticsearch.common.Nullable;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.metrics.CounterMetric;
+import org.elasticsearch.common.metrics.MeanMetric;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Collects the {@link RestHandlerStats} of a single handler.
+ */
+final class RestHandlerStatsTracker {
+
+    private final CounterMetric current = new CounterMetric();
+    private final MeanMetric time = new MeanMetric();
+    private final CounterMetric handlingTime = new CounterMetric();
+    private final CounterMetric requestBytes = new CounterMetric();
+    private final CounterMetric responseBytes = new CounterMetric();
+    private final CounterMetric[] latencyHistogram = new CounterMetric[RestHandlerStats.LATENCY_BUCKETS_MILLIS.length + 1];
+
+    RestHandlerStatsTracker() {
+        for (int i = 0; i < latencyHistogram.length; i++) {
+            latencyHistogram[i] = new CounterMetric();
+        }
+    }
+
+    /**
+     * Starts tracking a request. The request is complete once a response is sent through the returned channel, or
+     * {@link TrackingChannel#complete(long)} is called.
+     */
+    TrackingChannel track(RestChannel channel, long requestBytes) {
+        current.inc();
+        this.requestBytes.inc(requestBytes);
+        return new TrackingChannel(channel);
+    }
+
+    RestHandlerStats stats() {
+        long[] histogram = new long[latencyHistogram.length];
+        for (int i = 0; i < histogram.length; i++) {
+            histogram[i] = latencyHistogram[i].count();
+        }
+        return new RestHandlerStats(time.count(), current.count(), requestBytes.count(), responseBytes.count(),
+            TimeUnit.NANOSECONDS.toMillis(handlingTime.count()), TimeUnit.NANOSECONDS.toMillis(time.sum()), histogram);
+    }
+
+    private void onCompleted(long tookInNanos, long responseBytes) {
+        current.dec();
+        time.inc(tookInNanos);
+        this.responseBytes.inc(responseBytes);
+        long tookInMillis = TimeUnit.NANOSECONDS.toMillis(tookInNanos);
+        int bucket = 0;
+        while (bucket < RestHandlerStats.LATENCY_BUCKETS_MILLIS.length && tookInMillis > RestHandlerStats.LATENCY_BUCKETS_MILLIS[bucket]) {
+            bucket++;
+        }
+        latencyHistogram[bucket].inc();
+    }
+
+    final class TrackingChannel implements RestChannel {
+
+        private final RestChannel delegate;
+        private final long startTime = System.nanoTime();
+        private final AtomicBoolean completed = new AtomicBoolean();
+
+        private TrackingChannel(RestChannel delegate) {
+            this.delegate = delegate;
+        }
+
+        /**
+         * Records time spent in the handler itself.
+         */
+        void handled(long tookInNanos) {
+            handlingTime.inc(tookInNanos);
+        }
+
+        /**
+         * Records content of the request that was received after tracking started.
+         */
+        void received(long bytes) {
+            requestBytes.inc(bytes);
+        }
+
+        /**
+         * Completes the request, unless a response was sent already.
+         */
+        void complete(long responseBytes) {
+            if (completed.compareAndSet(false, true)) {
+                onCompleted(System.nanoTime() - startTime, responseBytes);
+            }
+        }
+
+        @Override
+        public XContentBuilder newBuilder() throws IOException {
+            return delegate.newBuilder();
+        }
+
+        @Override
+        public XContentBuilder newErrorBuilder() throws IOException {
+            return delegate.newErrorBuilder();
+        }
+
+        @Override
+        public XContentBuilder newBuilder(@Nullable BytesReference autoDetectSource, boolean useFiltering) throws IOException {
+            return delegate.newBuilder(autoDetectSource, useFiltering);
+        }
+
+        @Override
+        public XContentBuilder newBuilder(OutputStream out) throws IOException {
+            return delegate.newBuilder(out);
+        }
+
+        @Override
+        public BytesStreamOutput bytesOutput() {
+            return delegate.bytesOutput();
+        }
+
+        @Override
+        public RestRequest request() {
+            return delegate.request();
+        }
+
+        @Override
+        public boolean detailedErrorsEnabled() {
+            return delegate.detailedErrorsEnabled();
+        }
+
+        @Override
+        public void sendResponse(RestResponse response) {
+            // the content of streaming responses is only known once it has been sent
+            long contentLength = response instanceof StreamingRestResponse ? 0 : response.content().length();
+            try {
+                delegate.sendResponse(response);
+            } finally {
+                if (response instanceof StreamingRestResponse) {
+                    contentLength = Math.max(((StreamingRestResponse) response).contentLength(), 0);
+                }
+                complete(contentLength);
+            }
+        }
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.rest;
+
+import org.elasticsearch.client.node.NodeClient;
+import org.elasticsearch.common.bytes.BytesReference;
+
+/**
+ * A {@link RestHandler} that can consume the content of a request while it is being received, rather than only once it
+ * has been read in full. The HTTP layer only streams the content of requests that are too large to arrive in one piece,
+ * and only when no {@link RestFilter} is registered; all other requests still go through
+ * {@link #handleRequest(RestRequest, RestChannel, NodeClient)}.
+ */
+public interface StreamingRestHandler extends RestHandler {
+
+    /**
+     * Handles a request whose content is passed to the returned consumer as it is received.
+     *
+     * @param request The request to handle, without its content
+     * @param channel The channel to write the request response to
+     * @param client A client to use to make internal requests on behalf of the original request
+     * @param flowControl Allows to stop receiving content while the handler can't keep up with it
+     */
+    ContentConsumer handleStreamingRequest(RestRequest request, RestChannel channel, NodeClient client,
+                                           FlowControl flowControl) throws Exception;
+
+    /**
+     * Receives the content of a streamed request, one piece at a time and in order. Exceptions thrown from
+     * {@link #accept(BytesReference)} or {@link #finish()} are sent back as the response of the request and abort the
+     * consumer, any content received after that is discarded.
+     */
+    interface ContentConsumer {
+
+        /**
+         * Consumes the next piece of content. The reference is only valid for the duration of the call.
+         */
+        void accept(BytesReference content) throws Exception;
+
+        /**
+         * Called once all the content has been received.
+         */
+        void finish() throws Exception;
+
+        /**
+         * Called if the request is aborted before all the content has been received, e.g. because the client went away.
+         */
+        void abort(Throwable cause);
+    }
+
+    /**
+     * Controls whether content is read from the client.
+     */
+    interface FlowControl {
+
+        /**
+         * Stops reading content until {@link #resume()} is called, pushing back on the client.
+         */
+        void pause();
+
+        /**
+         * Resumes reading content after {@link #pause()}.
+         */
+        void resume();
+    }
+}
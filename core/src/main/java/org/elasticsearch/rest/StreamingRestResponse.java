@@ -0,0 +1,107 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.rest;
+
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * A response whose content is rendered while it is being sent, rather than up front. Channels that support it write
+ * the content to the client in chunks as it is produced (see {@link #writeTo(OutputStream)}), so large responses never
+ * have to be held in memory in full. Other channels fall back to materializing the content through {@link #content()}.
+ */
+public abstract class StreamingRestResponse extends RestResponse {
+
+    private final RestStatus status;
+
+    private BytesReference content;
+    private long contentLength = -1;
+
+    protected StreamingRestResponse(RestStatus status) {
+        this.status = status;
+    }
+
+    /**
+     * Writes the response content to the given stream.
+     */
+    public final void writeTo(OutputStream out) throws IOException {
+        CountingOutputStream counting = new CountingOutputStream(out);
+        writeContent(counting);
+        contentLength = counting.count;
+    }
+
+    /**
+     * Writes the response content to the given stream. The stream may be closed once all content is written, and will
+     * be closed by the channel if it is not.
+     */
+    protected abstract void writeContent(OutputStream out) throws IOException;
+
+    /**
+     * The number of bytes of content written by the last successful {@link #writeTo(OutputStream)}, or -1 if the
+     * content hasn't been written yet.
+     */
+    public long contentLength() {
+        return contentLength;
+    }
+
+    @Override
+    public BytesReference content() {
+        if (content == null) {
+            BytesStreamOutput out = new BytesStreamOutput();
+            try {
+                writeTo(out);
+            } catch (IOException e) {
+                throw new IllegalStateException("failed to render the response", e);
+            }
+            content = out.bytes();
+        }
+        return content;
+    }
+
+    @Override
+    public RestStatus status() {
+        return status;
+    }
+
+    private static final class CountingOutputStream extends FilterOutputStream {
+
+        private long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.rest;
+
+import org.elasticsearch.common.xcontent.XContentBuilder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * A {@link StreamingRestResponse} rendered through an {@link XContentBuilder} obtained from the channel, so the usual
+ * request parameters ({@code format}, {@code pretty}, {@code filter_path} ...) apply.
+ */
+public abstract class XContentStreamingRestResponse extends StreamingRestResponse {
+
+    private final TargetOutputStream target = new TargetOutputStream();
+    private final XContentBuilder builder;
+
+    protected XContentStreamingRestResponse(RestChannel channel, RestStatus status) throws IOException {
+        super(status);
+        // the builder only writes to the stream once it is flushed, so it can be created before the stream is known
+        this.builder = channel.newBuilder(target);
+    }
+
+    /**
+     * Writes the response content to the given builder.
+     */
+    protected abstract void buildContent(XContentBuilder builder) throws IOException;
+
+    @Override
+    protected void writeContent(OutputStream out) throws IOException {
+        target.out = out;
+        buildContent(builder);
+        builder.close();
+    }
+
+    @Override
+    public String contentType() {
+        return builder.contentType().mediaType();
+    }
+
+    private static final class TargetOutputStream extends OutputStream {
+
+        private OutputStream out;
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+    }
+}
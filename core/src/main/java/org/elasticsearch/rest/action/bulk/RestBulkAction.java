@@ -19,25 +19,46 @@
 
 package org.elasticsearch.rest.action.bulk;
 
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.ActionRequest;
+import org.elasticsearch.action.DocWriteResponse;
 import org.elasticsearch.action.WriteConsistencyLevel;
 import org.elasticsearch.action.bulk.BulkItemResponse;
 import org.elasticsearch.action.bulk.BulkRequest;
 import org.elasticsearch.action.bulk.BulkResponse;
 import org.elasticsearch.action.bulk.BulkShardRequest;
+import org.elasticsearch.action.delete.DeleteRequest;
+import org.elasticsearch.action.index.IndexRequest;
+import org.elasticsearch.action.update.UpdateRequest;
 import org.elasticsearch.client.node.NodeClient;
 import org.elasticsearch.client.Requests;
 import org.elasticsearch.common.Strings;
+import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.inject.Inject;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.settings.Setting;
+import org.elasticsearch.common.settings.Setting.Property;
 import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.ByteSizeUnit;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.common.xcontent.XContent;
 import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.common.xcontent.XContentFactory;
+import org.elasticsearch.common.xcontent.XContentType;
+import org.elasticsearch.http.HttpTransportSettings;
 import org.elasticsearch.rest.BaseRestHandler;
 import org.elasticsearch.rest.BytesRestResponse;
 import org.elasticsearch.rest.RestChannel;
 import org.elasticsearch.rest.RestController;
 import org.elasticsearch.rest.RestRequest;
 import org.elasticsearch.rest.RestResponse;
+import org.elasticsearch.rest.StreamingRestHandler;
 import org.elasticsearch.rest.action.support.RestBuilderListener;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
 import static org.elasticsearch.rest.RestRequest.Method.POST;
 import static org.elasticsearch.rest.RestRequest.Method.PUT;
 import static org.elasticsearch.rest.RestStatus.OK;
@@ -51,9 +72,17 @@ import static org.elasticsearch.rest.RestStatus.OK;
  * { "type1" : { "field1" : "value1" } }
  * </pre>
  */
-public class RestBulkAction extends BaseRestHandler {
+public class RestBulkAction extends BaseRestHandler implements StreamingRestHandler {
+
+    /**
+     * The amount of content a bulk request that is streamed from the client is parsed and sent off in.
+     */
+    public static final Setting<ByteSizeValue> STREAMING_BATCH_SIZE =
+        Setting.byteSizeSetting("rest.action.bulk.batch_size", new ByteSizeValue(5, ByteSizeUnit.MB), Property.NodeScope);
 
     private final boolean allowExplicitIndex;
+    private final ByteSizeValue batchSize;
+    private final ByteSizeValue maxEntrySize;
 
     @Inject
     public RestBulkAction(Settings settings, RestController controller) {
@@ -67,47 +96,296 @@ public class RestBulkAction extends BaseRestHandler {
         controller.registerHandler(PUT, "/{index}/{type}/_bulk", this);
 
         this.allowExplicitIndex = MULTI_ALLOW_EXPLICIT_INDEX.get(settings);
+        this.batchSize = STREAMING_BATCH_SIZE.get(settings);
+        this.maxEntrySize = HttpTransportSettings.SETTING_HTTP_MAX_CONTENT_LENGTH.get(settings);
     }
 
     @Override
     public void handleRequest(final RestRequest request, final RestChannel channel, final NodeClient client) throws Exception {
-        BulkRequest bulkRequest = Requests.bulkRequest();
-        String defaultIndex = request.param("index");
-        String defaultType = request.param("type");
-        String defaultRouting = request.param("routing");
+        BulkRequest bulkRequest = newBulkRequest(request);
         String fieldsParam = request.param("fields");
-        String defaultPipeline = request.param("pipeline");
         String[] defaultFields = fieldsParam != null ? Strings.commaDelimitedListToStringArray(fieldsParam) : null;
+        bulkRequest.add(request.content(), request.param("index"), request.param("type"), request.param("routing"), defaultFields,
+            request.param("pipeline"), null, allowExplicitIndex);
+
+        client.bulk(bulkRequest, new BulkResponseListener(channel, request));
+    }
 
+    @Override
+    public ContentConsumer handleStreamingRequest(RestRequest request, RestChannel channel, NodeClient client,
+                                                  FlowControl flowControl) throws Exception {
+        return new StreamingBulk(request, channel, client, flowControl);
+    }
+
+    private static BulkRequest newBulkRequest(RestRequest request) {
+        BulkRequest bulkRequest = Requests.bulkRequest();
         String consistencyLevel = request.param("consistency");
         if (consistencyLevel != null) {
             bulkRequest.consistencyLevel(WriteConsistencyLevel.fromString(consistencyLevel));
         }
         bulkRequest.timeout(request.paramAsTime("timeout", BulkShardRequest.DEFAULT_TIMEOUT));
         bulkRequest.setRefreshPolicy(request.param("refresh"));
-        bulkRequest.add(request.content(), defaultIndex, defaultType, defaultRouting, defaultFields, defaultPipeline, null, allowExplicitIndex);
+        return bulkRequest;
+    }
 
-        client.bulk(bulkRequest, new RestBuilderListener<BulkResponse>(channel) {
-            @Override
-            public RestResponse buildResponse(BulkResponse response, XContentBuilder builder) throws Exception {
-                builder.startObject();
-                builder.field(Fields.TOOK, response.getTookInMillis());
-                if (response.getIngestTookInMillis() != BulkResponse.NO_INGEST_TOOK) {
-                    builder.field(Fields.INGEST_TOOK, response.getIngestTookInMillis());
+    /**
+     * Parses the content of a bulk request while it is being received and executes it in batches of
+     * {@link #STREAMING_BATCH_SIZE}, one batch at a time. Reading from the client is paused while the next batch waits
+     * for the previous one to complete, so that at most two batches are held at once. The responses of all batches are
+     * sent back as a single bulk response.
+     * <p>
+     * A line of the bulk that is still being received can't be parsed yet, so it is rejected once it grows larger than
+     * <tt>http.max_content_length</tt>, the limit that applies to requests that aren't streamed.
+     */
+    private final class StreamingBulk implements ContentConsumer {
+
+        private final RestRequest request;
+        private final RestChannel channel;
+        private final NodeClient client;
+        private final FlowControl flowControl;
+        private final String[] defaultFields;
+        private final long startTime = System.nanoTime();
+
+        private final List<BulkItemResponse> items = new ArrayList<>();
+        private long ingestTookInMillis = BulkResponse.NO_INGEST_TOOK;
+
+        private XContent xContent;
+        private BytesStreamOutput pending = new BytesStreamOutput();
+        // the number of bytes received since the last line separator
+        private long partialLineLength;
+        private BulkRequest queued;
+        private boolean inFlight;
+        private boolean paused;
+        private boolean finished;
+        private boolean closed;
+
+        StreamingBulk(RestRequest request, RestChannel channel, NodeClient client, FlowControl flowControl) {
+            this.request = request;
+            this.channel = channel;
+            this.client = client;
+            this.flowControl = flowControl;
+            String fieldsParam = request.param("fields");
+            this.defaultFields = fieldsParam != null ? Strings.commaDelimitedListToStringArray(fieldsParam) : null;
+        }
+
+        @Override
+        public void accept(BytesReference content) throws Exception {
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                content.writeTo(pending);
+                if (xContent != null) {
+                    partialLineLength = partialLineLength(content, xContent.streamSeparator(), partialLineLength);
+                } else {
+                    XContentType type = XContentFactory.xContentType(pending.bytes());
+                    if (type != null) {
+                        xContent = XContentFactory.xContent(type);
+                        partialLineLength = partialLineLength(pending.bytes(), xContent.streamSeparator(), 0);
+                    } else {
+                        partialLineLength = pending.size();
+                    }
                 }
-                builder.field(Fields.ERRORS, response.hasFailures());
-                builder.startArray(Fields.ITEMS);
-                for (BulkItemResponse itemResponse : response) {
-                    builder.startObject();
-                    itemResponse.toXContent(builder, request);
-                    builder.endObject();
+                if (partialLineLength > maxEntrySize.bytes()) {
+                    throw new IllegalArgumentException("bulk request line exceeds the maximum content length of ["
+                        + maxEntrySize + "]");
                 }
-                builder.endArray();
+            }
+            process();
+        }
+
+        @Override
+        public void finish() throws Exception {
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                finished = true;
+            }
+            process();
+        }
+
+        @Override
+        public synchronized void abort(Throwable cause) {
+            closed = true;
+            pending = null;
+            queued = null;
+            if (paused) {
+                paused = false;
+                flowControl.resume();
+            }
+        }
+
+        private void process() throws Exception {
+            BulkRequest batch = null;
+            boolean done = false;
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                if (queued == null && (finished || pending.size() >= batchSize.bytes())) {
+                    queued = nextBatch();
+                }
+                if (queued != null && inFlight == false) {
+                    batch = queued;
+                    queued = null;
+                    inFlight = true;
+                } else if (finished && inFlight == false) {
+                    closed = true;
+                    done = true;
+                }
+                boolean pause = queued != null && finished == false;
+                if (pause != paused) {
+                    paused = pause;
+                    if (pause) {
+                        flowControl.pause();
+                    } else {
+                        flowControl.resume();
+                    }
+                }
+            }
+            if (batch != null) {
+                execute(batch);
+            } else if (done) {
+                BulkResponse response = new BulkResponse(items.toArray(new BulkItemResponse[items.size()]),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime), ingestTookInMillis);
+                new BulkResponseListener(channel, request).onResponse(response);
+            }
+        }
 
+        /**
+         * Parses the complete entries received so far into a new batch, or returns null if there are none.
+         */
+        private BulkRequest nextBatch() throws Exception {
+            BytesReference data = pending.bytes();
+            if (data.length() == 0) {
+                return null;
+            }
+            if (xContent == null) {
+                xContent = XContentFactory.xContent(data);
+            }
+            BulkRequest batch = newBulkRequest(request);
+            int consumed = batch.addCompleteEntries(data, xContent, request.param("index"), request.param("type"),
+                request.param("routing"), defaultFields, request.param("pipeline"), null, allowExplicitIndex);
+            if (consumed > 0) {
+                BytesStreamOutput remainder = new BytesStreamOutput(Math.max(data.length() - consumed, 0));
+                data.slice(consumed, data.length() - consumed).writeTo(remainder);
+                pending = remainder;
+            }
+            return batch.numberOfActions() > 0 ? batch : null;
+        }
+
+        private void execute(final BulkRequest batch) {
+            client.bulk(batch, new ActionListener<BulkResponse>() {
+                @Override
+                public void onResponse(BulkResponse response) {
+                    synchronized (StreamingBulk.this) {
+                        int offset = items.size();
+                        for (BulkItemResponse item : response) {
+                            items.add(renumber(item, offset));
+                        }
+                        if (response.getIngestTookInMillis() != BulkResponse.NO_INGEST_TOOK) {
+                            ingestTookInMillis = Math.max(ingestTookInMillis, 0) + response.getIngestTookInMillis();
+                        }
+                    }
+                    onBatchCompleted();
+                }
+
+                @Override
+                public void onFailure(Throwable e) {
+                    synchronized (StreamingBulk.this) {
+                        // the batch failed as a whole, which doesn't fail the batches around it, so report it per item
+                        List<ActionRequest<?>> requests = batch.requests();
+                        for (int i = 0; i < requests.size(); i++) {
+                            items.add(failedItem(items.size(), requests.get(i), e));
+                        }
+                    }
+                    onBatchCompleted();
+                }
+            });
+        }
+
+        private void onBatchCompleted() {
+            synchronized (this) {
+                inFlight = false;
+            }
+            try {
+                process();
+            } catch (Throwable t) {
+                abort(t);
+                try {
+                    channel.sendResponse(new BytesRestResponse(channel, t));
+                } catch (Throwable e) {
+                    logger.error("failed to send failure response for bulk request [{}]", e, request.uri());
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the length of the line that is still incomplete once the given content is appended to a line of the given
+     * length.
+     */
+    static long partialLineLength(BytesReference content, byte separator, long partialLineLength) {
+        for (int i = content.length() - 1; i >= 0; i--) {
+            if (content.get(i) == separator) {
+                return content.length() - i - 1;
+            }
+        }
+        return partialLineLength + content.length();
+    }
+
+    private static BulkItemResponse renumber(BulkItemResponse item, int offset) {
+        if (item.isFailed()) {
+            return new BulkItemResponse(offset + item.getItemId(), item.getOpType(), item.getFailure());
+        }
+        return new BulkItemResponse(offset + item.getItemId(), item.getOpType(), (DocWriteResponse) item.getResponse());
+    }
+
+    private static BulkItemResponse failedItem(int id, ActionRequest<?> request, Throwable e) {
+        if (request instanceof IndexRequest) {
+            IndexRequest indexRequest = (IndexRequest) request;
+            return new BulkItemResponse(id, "index",
+                new BulkItemResponse.Failure(indexRequest.index(), indexRequest.type(), indexRequest.id(), e));
+        } else if (request instanceof DeleteRequest) {
+            DeleteRequest deleteRequest = (DeleteRequest) request;
+            return new BulkItemResponse(id, "delete",
+                new BulkItemResponse.Failure(deleteRequest.index(), deleteRequest.type(), deleteRequest.id(), e));
+        } else {
+            UpdateRequest updateRequest = (UpdateRequest) request;
+            return new BulkItemResponse(id, "update",
+                new BulkItemResponse.Failure(updateRequest.index(), updateRequest.type(), updateRequest.id(), e));
+        }
+    }
+
+    private static final class BulkResponseListener extends RestBuilderListener<BulkResponse> {
+
+        private final RestRequest request;
+
+        BulkResponseListener(RestChannel channel, RestRequest request) {
+            super(channel);
+            this.request = request;
+        }
+
+        @Override
+        public RestResponse buildResponse(BulkResponse response, XContentBuilder builder) throws Exception {
+            builder.startObject();
+            builder.field(Fields.TOOK, response.getTookInMillis());
+            if (response.getIngestTookInMillis() != BulkResponse.NO_INGEST_TOOK) {
+                builder.field(Fields.INGEST_TOOK, response.getIngestTookInMillis());
+            }
+            builder.field(Fields.ERRORS, response.hasFailures());
+            builder.startArray(Fields.ITEMS);
+            for (BulkItemResponse itemResponse : response) {
+                builder.startObject();
+                itemResponse.toXContent(builder, request);
                 builder.endObject();
-                return new BytesRestResponse(OK, builder);
             }
-        });
+            builder.endArray();
+
+            builder.endObject();
+            return new BytesRestResponse(OK, builder);
+        }
     }
 
     static final class Fields {
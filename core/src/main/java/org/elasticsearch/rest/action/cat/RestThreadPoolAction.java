@@ -61,6 +61,7 @@ public class RestThreadPoolAction extends AbstractCatAction {
             ThreadPool.Names.GENERIC,
             ThreadPool.Names.GET,
             ThreadPool.Names.INDEX,
+            ThreadPool.Names.INGEST,
             ThreadPool.Names.MANAGEMENT,
             ThreadPool.Names.FORCE_MERGE,
             ThreadPool.Names.REFRESH,
@@ -75,6 +76,7 @@ public class RestThreadPoolAction extends AbstractCatAction {
             "ge",
             "g",
             "i",
+            "in",
             "ma",
             "fm",
             "r",
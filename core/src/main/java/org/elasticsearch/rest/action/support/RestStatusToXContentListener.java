@@ -23,9 +23,12 @@ import org.elasticsearch.common.xcontent.XContentBuilder;
 import org.elasticsearch.rest.BytesRestResponse;
 import org.elasticsearch.rest.RestChannel;
 import org.elasticsearch.rest.RestResponse;
+import org.elasticsearch.rest.XContentStreamingRestResponse;
+
+import java.io.IOException;
 
 /**
- *
+ * Renders the response as it is sent to the client, see {@link XContentStreamingRestResponse}.
  */
 public class RestStatusToXContentListener<Response extends StatusToXContent> extends RestResponseListener<Response> {
 
@@ -35,7 +38,14 @@ public class RestStatusToXContentListener<Response extends StatusToXContent> ext
 
     @Override
     public final RestResponse buildResponse(Response response) throws Exception {
-        return buildResponse(response, channel.newBuilder());
+        return new XContentStreamingRestResponse(channel, response.status()) {
+            @Override
+            protected void buildContent(XContentBuilder builder) throws IOException {
+                builder.startObject();
+                response.toXContent(builder, channel.request());
+                builder.endObject();
+            }
+        };
     }
 
     public final RestResponse buildResponse(Response response, XContentBuilder builder) throws Exception {
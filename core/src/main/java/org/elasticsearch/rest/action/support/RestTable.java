@@ -23,7 +23,6 @@ import org.elasticsearch.common.Booleans;
 import org.elasticsearch.common.Strings;
 import org.elasticsearch.common.Table;
 import org.elasticsearch.common.io.UTF8StreamWriter;
-import org.elasticsearch.common.io.stream.BytesStreamOutput;
 import org.elasticsearch.common.regex.Regex;
 import org.elasticsearch.common.unit.ByteSizeValue;
 import org.elasticsearch.common.unit.SizeValue;
@@ -35,8 +34,11 @@ import org.elasticsearch.rest.RestChannel;
 import org.elasticsearch.rest.RestRequest;
 import org.elasticsearch.rest.RestResponse;
 import org.elasticsearch.rest.RestStatus;
+import org.elasticsearch.rest.StreamingRestResponse;
+import org.elasticsearch.rest.XContentStreamingRestResponse;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.LinkedHashSet;
 import java.util.List;
@@ -57,20 +59,23 @@ public class RestTable {
 
     public static RestResponse buildXContentBuilder(Table table, RestChannel channel) throws Exception {
         RestRequest request = channel.request();
-        XContentBuilder builder = channel.newBuilder();
         List<DisplayHeader> displayHeaders = buildDisplayHeaders(table, request);
 
-        builder.startArray();
-        for (int row = 0; row < table.getRows().size(); row++) {
-            builder.startObject();
-            for (DisplayHeader header : displayHeaders) {
-                builder.field(header.display, renderValue(request, table.getAsMap().get(header.name).get(row).value));
-            }
-            builder.endObject();
+        return new XContentStreamingRestResponse(channel, RestStatus.OK) {
+            @Override
+            protected void buildContent(XContentBuilder builder) throws IOException {
+                builder.startArray();
+                for (int row = 0; row < table.getRows().size(); row++) {
+                    builder.startObject();
+                    for (DisplayHeader header : displayHeaders) {
+                        builder.field(header.display, renderValue(request, table.getAsMap().get(header.name).get(row).value));
+                    }
+                    builder.endObject();
 
-        }
-        builder.endArray();
-        return new BytesRestResponse(RestStatus.OK, builder);
+                }
+                builder.endArray();
+            }
+        };
     }
 
     public static RestResponse buildTextPlainResponse(Table table, RestChannel channel) throws IOException {
@@ -80,33 +85,41 @@ public class RestTable {
         List<DisplayHeader> headers = buildDisplayHeaders(table, request);
         int[] width = buildWidths(table, request, verbose, headers);
 
-        BytesStreamOutput bytesOut = channel.bytesOutput();
-        UTF8StreamWriter out = new UTF8StreamWriter().setOutput(bytesOut);
-        int lastHeader = headers.size() - 1;
-        if (verbose) {
-            for (int col = 0; col < headers.size(); col++) {
-                DisplayHeader header = headers.get(col);
-                boolean isLastColumn = col == lastHeader;
-                pad(new Table.Cell(header.display, table.findHeaderByName(header.name)), width[col], request, out, isLastColumn);
-                if (!isLastColumn) {
-                    out.append(" ");
-                }
+        return new StreamingRestResponse(RestStatus.OK) {
+            @Override
+            public String contentType() {
+                return BytesRestResponse.TEXT_CONTENT_TYPE;
             }
-            out.append("\n");
-        }
-        for (int row = 0; row < table.getRows().size(); row++) {
-            for (int col = 0; col < headers.size(); col++) {
-                DisplayHeader header = headers.get(col);
-                boolean isLastColumn = col == lastHeader;
-                pad(table.getAsMap().get(header.name).get(row), width[col], request, out, isLastColumn);
-                if (!isLastColumn) {
-                    out.append(" ");
+
+            @Override
+            protected void writeContent(OutputStream stream) throws IOException {
+                UTF8StreamWriter out = new UTF8StreamWriter().setOutput(stream);
+                int lastHeader = headers.size() - 1;
+                if (verbose) {
+                    for (int col = 0; col < headers.size(); col++) {
+                        DisplayHeader header = headers.get(col);
+                        boolean isLastColumn = col == lastHeader;
+                        pad(new Table.Cell(header.display, table.findHeaderByName(header.name)), width[col], request, out, isLastColumn);
+                        if (!isLastColumn) {
+                            out.append(" ");
+                        }
+                    }
+                    out.append("\n");
                 }
+                for (int row = 0; row < table.getRows().size(); row++) {
+                    for (int col = 0; col < headers.size(); col++) {
+                        DisplayHeader header = headers.get(col);
+                        boolean isLastColumn = col == lastHeader;
+                        pad(table.getAsMap().get(header.name).get(row), width[col], request, out, isLastColumn);
+                        if (!isLastColumn) {
+                            out.append(" ");
+                        }
+                    }
+                    out.append("\n");
+                }
+                out.close();
             }
-            out.append("\n");
-        }
-        out.close();
-        return new BytesRestResponse(RestStatus.OK, BytesRestResponse.TEXT_CONTENT_TYPE, bytesOut.bytes());
+        };
     }
 
     static List<DisplayHeader> buildDisplayHeaders(Table table, RestRequest request) {
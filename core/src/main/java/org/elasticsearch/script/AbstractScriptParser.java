@@ -37,6 +37,17 @@ public abstract class AbstractScriptParser<S extends Script> {
 
     protected abstract S createScript(String script, ScriptType type, String lang, Map<String, Object> params);
 
+    /**
+     * Creates a script whose results may be cached if {@code cacheResults} is set. Parsers of scripts that don't support
+     * caching their results reject it.
+     */
+    protected S createScript(String script, ScriptType type, String lang, Map<String, Object> params, boolean cacheResults) {
+        if (cacheResults) {
+            throw new ScriptParseException("[{}] is not supported", ScriptField.CACHE_RESULTS.getPreferredName());
+        }
+        return createScript(script, type, lang, params);
+    }
+
     protected abstract S createSimpleScript(XContentParser parser) throws IOException;
 
     @Deprecated
@@ -63,6 +74,7 @@ public abstract class AbstractScriptParser<S extends Script> {
         ScriptType type = null;
         String lang = getDefaultScriptLang();
         Map<String, Object> params = null;
+        boolean cacheResults = false;
 
         String currentFieldName = null;
         while ((token = parser.nextToken()) != XContentParser.Token.END_OBJECT) {
@@ -97,6 +109,12 @@ public abstract class AbstractScriptParser<S extends Script> {
                 } else {
                     throw new ScriptParseException("expected an object for field [{}], but found [{}]", currentFieldName, token);
                 }
+            } else if (parseFieldMatcher.match(currentFieldName, ScriptField.CACHE_RESULTS)) {
+                if (token == XContentParser.Token.VALUE_BOOLEAN) {
+                    cacheResults = parser.booleanValue();
+                } else {
+                    throw new ScriptParseException("expected a boolean value for field [{}], but found [{}]", currentFieldName, token);
+                }
             } else {
                 // TODO remove this in 3.0
                 ScriptType paramScriptType = getAdditionalScriptParameters().get(currentFieldName);
@@ -114,7 +132,12 @@ public abstract class AbstractScriptParser<S extends Script> {
                     .getPreferredName());
         }
         assert type != null : "if script is not null, type should definitely not be null";
-        return createScript(script, type, lang, params);
+        if (cacheResults && type != ScriptType.INLINE) {
+            // the results are cached by script id, but the source of stored and file scripts can change
+            throw new ScriptParseException("[{}] is only supported for [{}] scripts", ScriptField.CACHE_RESULTS.getPreferredName(),
+                    ScriptType.INLINE.getParseField().getPreferredName());
+        }
+        return createScript(script, type, lang, params, cacheResults);
 
     }
 
@@ -131,6 +154,7 @@ public abstract class AbstractScriptParser<S extends Script> {
         ScriptType type = null;
         String lang = null;
         Map<String, Object> params = null;
+        boolean cacheResults = false;
         for (Iterator<Entry<String, Object>> itr = config.entrySet().iterator(); itr.hasNext();) {
             Entry<String, Object> entry = itr.next();
             String parameterName = entry.getKey();
@@ -153,6 +177,15 @@ public abstract class AbstractScriptParser<S extends Script> {
                 } else {
                     throw new ScriptParseException("Value must be of type String: [" + parameterName + "]");
                 }
+            } else if (parseFieldMatcher.match(parameterName, ScriptField.CACHE_RESULTS)) {
+                if (parameterValue instanceof Boolean) {
+                    cacheResults = (Boolean) parameterValue;
+                    if (removeMatchedEntries) {
+                        itr.remove();
+                    }
+                } else {
+                    throw new ScriptParseException("Value must be of type Boolean: [" + parameterName + "]");
+                }
             } else if (parseFieldMatcher.match(parameterName, ScriptType.INLINE.getParseField()) || parseFieldMatcher.match(parameterName, ScriptService.SCRIPT_INLINE)) {
                 if (parameterValue instanceof String || parameterValue == null) {
                     script = (String) parameterValue;
@@ -191,7 +224,12 @@ public abstract class AbstractScriptParser<S extends Script> {
                     .getPreferredName());
         }
         assert type != null : "if script is not null, type should definitely not be null";
-        return createScript(script, type, lang, params);
+        if (cacheResults && type != ScriptType.INLINE) {
+            // the results are cached by script id, but the source of stored and file scripts can change
+            throw new ScriptParseException("[{}] is only supported for [{}] scripts", ScriptField.CACHE_RESULTS.getPreferredName(),
+                    ScriptType.INLINE.getParseField().getPreferredName());
+        }
+        return createScript(script, type, lang, params, cacheResults);
     }
 
 }
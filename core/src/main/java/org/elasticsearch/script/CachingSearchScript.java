@@ -0,0 +1,142 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.script;
+
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.search.Scorer;
+import org.elasticsearch.index.fielddata.plain.ScriptResultsIndexFieldData;
+import org.elasticsearch.index.fielddata.plain.ScriptResultsIndexFieldData.AtomicScriptResults;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+
+/**
+ * A {@link SearchScript} that returns the results of the wrapped script from field data which caches them per segment.
+ * <p>
+ * The wrapped script is only run for segments whose results couldn't be cached, and for documents that the script gets
+ * variables or a source set for since the cached results can't depend on them.
+ */
+final class CachingSearchScript implements SearchScript {
+
+    private final SearchScript script;
+    private final ScriptResultsIndexFieldData results;
+
+    CachingSearchScript(SearchScript script, ScriptResultsIndexFieldData results) {
+        this.script = script;
+        this.results = results;
+    }
+
+    @Override
+    public LeafSearchScript getLeafSearchScript(LeafReaderContext context) throws IOException {
+        AtomicScriptResults leafResults = results.load(context);
+        if (leafResults.isCacheable() == false) {
+            return script.getLeafSearchScript(context);
+        }
+        return new CachedLeafSearchScript(leafResults, script, context);
+    }
+
+    @Override
+    public boolean needsScores() {
+        return false;
+    }
+
+    static final class CachedLeafSearchScript implements LeafSearchScript {
+
+        private final AtomicScriptResults results;
+        private final SearchScript script;
+        private final LeafReaderContext context;
+        private int doc = -1;
+        private Scorer scorer;
+        private LeafSearchScript leafScript;
+
+        CachedLeafSearchScript(AtomicScriptResults results, SearchScript script, LeafReaderContext context) {
+            this.results = results;
+            this.script = script;
+            this.context = context;
+        }
+
+        /**
+         * Returns the wrapped script, which is used from now on.
+         */
+        private LeafSearchScript leafScript() {
+            if (leafScript == null) {
+                try {
+                    leafScript = script.getLeafSearchScript(context);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                if (scorer != null) {
+                    leafScript.setScorer(scorer);
+                }
+                if (doc != -1) {
+                    leafScript.setDocument(doc);
+                }
+            }
+            return leafScript;
+        }
+
+        @Override
+        public void setScorer(Scorer scorer) {
+            this.scorer = scorer;
+            if (leafScript != null) {
+                leafScript.setScorer(scorer);
+            }
+        }
+
+        @Override
+        public void setDocument(int doc) {
+            this.doc = doc;
+            if (leafScript != null) {
+                leafScript.setDocument(doc);
+            }
+        }
+
+        @Override
+        public void setSource(Map<String, Object> source) {
+            leafScript().setSource(source);
+        }
+
+        @Override
+        public void setNextVar(String name, Object value) {
+            leafScript().setNextVar(name, value);
+        }
+
+        @Override
+        public Object run() {
+            return leafScript == null ? results.get(doc) : leafScript.run();
+        }
+
+        @Override
+        public long runAsLong() {
+            return leafScript == null ? results.getLong(doc) : leafScript.runAsLong();
+        }
+
+        @Override
+        public double runAsDouble() {
+            return leafScript == null ? results.getDouble(doc) : leafScript.runAsDouble();
+        }
+
+        @Override
+        public Object unwrap(Object value) {
+            return leafScript == null ? value : leafScript.unwrap(value);
+        }
+    }
+}
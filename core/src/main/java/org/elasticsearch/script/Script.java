@@ -20,6 +20,7 @@
 package org.elasticsearch.script;
 
 import org.elasticsearch.ElasticsearchException;
+import org.elasticsearch.Version;
 import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.ParseField;
 import org.elasticsearch.common.ParseFieldMatcher;
@@ -47,6 +48,7 @@ public class Script implements ToXContent, Writeable {
     @Nullable private ScriptType type;
     @Nullable private String lang;
     @Nullable private Map<String, Object> params;
+    private boolean cacheResults;
 
     /**
      * Constructor for simple inline script. The script will have no lang or
@@ -94,6 +96,37 @@ public class Script implements ToXContent, Writeable {
         this.params = (Map<String, Object>)params;
     }
 
+    /**
+     * Constructor for Script.
+     *
+     * @param script
+     *            The cache key of the script to be compiled/executed. For
+     *            inline scripts this is the actual script source code. For
+     *            indexed scripts this is the id used in the request. For on
+     *            file scripts this is the file name.
+     * @param type
+     *            The type of script -- dynamic, indexed, or file.
+     * @param lang
+     *            The language of the script to be compiled/executed.
+     * @param params
+     *            The map of parameters the script will be executed with.
+     * @param cacheResults
+     *            Whether the results of the script may be cached per document
+     *            and segment. This is only correct for scripts whose result
+     *            solely depends on the doc values of the document and on the
+     *            parameters. Only supported for inline scripts, the source of
+     *            stored and file scripts may change without their id changing.
+     */
+    public Script(String script, ScriptType type, @Nullable String lang, @Nullable Map<String, ? extends Object> params,
+                  boolean cacheResults) {
+        this(script, type, lang, params);
+        if (cacheResults && type != ScriptType.INLINE) {
+            throw new IllegalArgumentException("[" + ScriptField.CACHE_RESULTS.getPreferredName() + "] is only supported for ["
+                + ScriptType.INLINE.getParseField().getPreferredName() + "] scripts");
+        }
+        this.cacheResults = cacheResults;
+    }
+
     public Script(StreamInput in) throws IOException {
         script = in.readString();
         if (in.readBoolean()) {
@@ -103,6 +136,9 @@ public class Script implements ToXContent, Writeable {
         if (in.readBoolean()) {
             params = in.readMap();
         }
+        if (in.getVersion().onOrAfter(Version.V_5_0_0_alpha4)) {
+            cacheResults = in.readBoolean();
+        }
     }
 
     @Override
@@ -119,6 +155,9 @@ public class Script implements ToXContent, Writeable {
         if (hasParams) {
             out.writeMap(params);
         }
+        if (out.getVersion().onOrAfter(Version.V_5_0_0_alpha4)) {
+            out.writeBoolean(cacheResults);
+        }
         doWriteTo(out);
     }
     
@@ -161,20 +200,32 @@ public class Script implements ToXContent, Writeable {
         return params;
     }
 
+    /**
+     * Method for getting whether the results of the script may be cached.
+     *
+     * @return Whether the results of the script may be cached per document and segment.
+     */
+    public boolean isCacheResults() {
+        return cacheResults;
+    }
+
     @Override
     public final XContentBuilder toXContent(XContentBuilder builder, Params builderParams) throws IOException {
-        if (type == null) {
+        if (type == null && cacheResults == false) {
             return builder.value(script);
         }
 
         builder.startObject();
-        scriptFieldToXContent(script, type, builder, builderParams);
+        scriptFieldToXContent(script, getType(), builder, builderParams);
         if (lang != null) {
             builder.field(ScriptField.LANG.getPreferredName(), lang);
         }
         if (params != null) {
             builder.field(ScriptField.PARAMS.getPreferredName(), params);
         }
+        if (cacheResults) {
+            builder.field(ScriptField.CACHE_RESULTS.getPreferredName(), true);
+        }
         builder.endObject();
         return builder;
     }
@@ -201,6 +252,7 @@ public class Script implements ToXContent, Writeable {
         result = prime * result + ((params == null) ? 0 : params.hashCode());
         result = prime * result + ((script == null) ? 0 : script.hashCode());
         result = prime * result + ((type == null) ? 0 : type.hashCode());
+        result = prime * result + (cacheResults ? 1231 : 1237);
         return result;
     }
 
@@ -226,13 +278,14 @@ public class Script implements ToXContent, Writeable {
             if (!script.equals(other.script)) return false;
         }
         if (type != other.type) return false;
+        if (cacheResults != other.cacheResults) return false;
         return true;
     }
 
     @Override
     public String toString() {
         return "[script: " + script + ", type: " + type.getParseField().getPreferredName() + ", lang: " + lang + ", params: " + params
-                + "]";
+                + (cacheResults ? ", cache_results: true" : "") + "]";
     }
 
     private static class ScriptParser extends AbstractScriptParser<Script> {
@@ -252,6 +305,11 @@ public class Script implements ToXContent, Writeable {
             return new Script(script, type, lang, params);
         }
 
+        @Override
+        protected Script createScript(String script, ScriptType type, String lang, Map<String, Object> params, boolean cacheResults) {
+            return new Script(script, type, lang, params, cacheResults);
+        }
+
         @Override
         protected String parseInlineScript(XContentParser parser) throws IOException {
             return parser.text();
@@ -262,6 +320,7 @@ public class Script implements ToXContent, Writeable {
         ParseField SCRIPT = new ParseField("script");
         ParseField LANG = new ParseField("lang");
         ParseField PARAMS = new ParseField("params");
+        ParseField CACHE_RESULTS = new ParseField("cache_results");
     }
 
     public static class ScriptParseException extends ElasticsearchException {
@@ -55,6 +55,7 @@ import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
 import org.elasticsearch.common.xcontent.XContentFactory;
 import org.elasticsearch.common.xcontent.XContentParser;
 import org.elasticsearch.env.Environment;
+import org.elasticsearch.index.fielddata.plain.ScriptResultsIndexFieldData;
 import org.elasticsearch.index.query.TemplateQueryBuilder;
 import org.elasticsearch.search.lookup.SearchLookup;
 import org.elasticsearch.watcher.FileChangesListener;
@@ -459,11 +460,23 @@ public class ScriptService extends AbstractComponent implements Closeable, Clust
     }
 
     /**
-     * Compiles (or retrieves from cache) and executes the provided search script
+     * Compiles (or retrieves from cache) and executes the provided search script. The results of scripts that allow it
+     * are cached per segment in the field data of the index, see {@link Script#isCacheResults()}.
      */
     public SearchScript search(SearchLookup lookup, Script script, ScriptContext scriptContext, Map<String, String> params) {
         CompiledScript compiledScript = compile(script, scriptContext, params);
-        return getScriptEngineServiceForLang(compiledScript.lang()).search(compiledScript, lookup, script.getParams());
+        SearchScript searchScript =
+            getScriptEngineServiceForLang(compiledScript.lang()).search(compiledScript, lookup, script.getParams());
+        if (script.isCacheResults() && searchScript.needsScores() == false
+                && lookup != null && lookup.doc().fieldDataService() != null) {
+            // the language is part of the cache key, it must not depend on the default language
+            Script key = new Script(script.getScript(), script.getType(), compiledScript.lang(), script.getParams(), true);
+            ScriptResultsIndexFieldData results = lookup.doc().fieldDataService().getForScript(key, searchScript);
+            if (results != null) {
+                return new CachingSearchScript(searchScript, results);
+            }
+        }
+        return searchScript;
     }
 
     private boolean isAnyScriptContextEnabled(String lang, ScriptType scriptType) {
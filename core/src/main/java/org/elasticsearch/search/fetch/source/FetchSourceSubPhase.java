@@ -20,8 +20,12 @@
 package org.elasticsearch.search.fetch.source;
 
 import org.elasticsearch.ElasticsearchException;
+import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.io.stream.BytesStreamOutput;
 import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.common.xcontent.XContentHelper;
+import org.elasticsearch.common.xcontent.XContentParser;
+import org.elasticsearch.common.xcontent.support.filtering.IncludeExcludeFilter;
 import org.elasticsearch.search.fetch.FetchSubPhase;
 import org.elasticsearch.search.internal.SearchContext;
 import org.elasticsearch.search.lookup.SourceLookup;
@@ -43,6 +47,20 @@ public final class FetchSourceSubPhase implements FetchSubPhase {
         }
 
         SourceLookup source = context.lookup().source();
+        BytesReference sourceRef = source.internalSourceRef();
+        if (source.source() == null && sourceRef != null) {
+            // the source hasn't been parsed, filter it straight from its bytes rather than parsing it into a map first
+            try (XContentParser parser = XContentHelper.createParser(sourceRef)) {
+                BytesStreamOutput streamOutput = new BytesStreamOutput(Math.min(1024, sourceRef.length()));
+                XContentBuilder builder = new XContentBuilder(parser.contentType().xContent(), streamOutput);
+                IncludeExcludeFilter.copy(parser, builder, fetchSourceContext.includes(), fetchSourceContext.excludes());
+                hitContext.hit().sourceRef(builder.bytes());
+            } catch (IOException e) {
+                throw new ElasticsearchException("Error filtering source", e);
+            }
+            return;
+        }
+
         Object value = source.filter(fetchSourceContext.includes(), fetchSourceContext.excludes());
         try {
             final int initialCapacity = Math.min(1024, source.internalSourceRef().length());
@@ -110,6 +110,9 @@ public class SnapshotsService extends AbstractLifecycleComponent implements Clus
 
     private final CopyOnWriteArrayList<SnapshotCompletionListener> snapshotCompletionListeners = new CopyOnWriteArrayList<>();
 
+    // the number of snapshots that this master is deleting per repository, no snapshot of these repositories can start meanwhile
+    private final Map<String, Integer> runningDeletions = new HashMap<>();
+
     @Inject
     public SnapshotsService(Settings settings, ClusterService clusterService, IndexNameExpressionResolver indexNameExpressionResolver, RepositoriesService repositoriesService, ThreadPool threadPool) {
         super(settings);
@@ -227,6 +230,10 @@ public class SnapshotsService extends AbstractLifecycleComponent implements Clus
             @Override
             public ClusterState execute(ClusterState currentState) {
                 validate(request, currentState);
+                if (isDeletionRunning(repositoryName)) {
+                    // the deletion removes shared data files that it found to be unreferenced, which the snapshot could reuse
+                    throw new ConcurrentSnapshotExecutionException(repositoryName, snapshotName, "a snapshot is being deleted");
+                }
 
                 SnapshotsInProgress snapshots = currentState.custom(SnapshotsInProgress.TYPE);
                 if (snapshots == null || snapshots.entries().isEmpty()) {
@@ -981,8 +988,15 @@ public class SnapshotsService extends AbstractLifecycleComponent implements Clus
 
             boolean waitForSnapshot = false;
 
+            boolean deletionStarted = false;
+
             @Override
             public ClusterState execute(ClusterState currentState) throws Exception {
+                if (deletionStarted == false) {
+                    // block new snapshots from here on, they would otherwise be started before the deletion
+                    startDeletion(snapshot.getRepository());
+                    deletionStarted = true;
+                }
                 SnapshotsInProgress snapshots = currentState.custom(SnapshotsInProgress.TYPE);
                 if (snapshots == null) {
                     // No snapshots running - we can continue
@@ -1046,6 +1060,9 @@ public class SnapshotsService extends AbstractLifecycleComponent implements Clus
 
             @Override
             public void onFailure(String source, Throwable t) {
+                if (deletionStarted) {
+                    endDeletion(snapshot.getRepository());
+                }
                 listener.onFailure(t);
             }
 
@@ -1110,13 +1127,33 @@ public class SnapshotsService extends AbstractLifecycleComponent implements Clus
             try {
                 Repository repository = repositoriesService.repository(snapshot.getRepository());
                 repository.deleteSnapshot(snapshot.getSnapshotId());
+                endDeletion(snapshot.getRepository());
                 listener.onResponse();
             } catch (Throwable t) {
+                endDeletion(snapshot.getRepository());
                 listener.onFailure(t);
             }
         });
     }
 
+    private boolean isDeletionRunning(String repository) {
+        synchronized (runningDeletions) {
+            return runningDeletions.containsKey(repository);
+        }
+    }
+
+    private void startDeletion(String repository) {
+        synchronized (runningDeletions) {
+            runningDeletions.merge(repository, 1, Integer::sum);
+        }
+    }
+
+    private void endDeletion(String repository) {
+        synchronized (runningDeletions) {
+            runningDeletions.computeIfPresent(repository, (name, count) -> count == 1 ? null : count - 1);
+        }
+    }
+
     /**
      * Calculates the list of shards that should be included into the current snapshot
      *
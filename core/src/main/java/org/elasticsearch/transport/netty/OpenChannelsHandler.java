@@ -22,6 +22,7 @@ package org.elasticsearch.transport.netty;
 import org.elasticsearch.common.lease.Releasable;
 import org.elasticsearch.common.logging.ESLogger;
 import org.elasticsearch.common.metrics.CounterMetric;
+import org.elasticsearch.common.network.NetworkAddress;
 import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
 import org.jboss.netty.channel.Channel;
 import org.jboss.netty.channel.ChannelEvent;
@@ -34,6 +35,11 @@ import org.jboss.netty.channel.ChannelStateEvent;
 import org.jboss.netty.channel.ChannelUpstreamHandler;
 
 import java.io.Closeable;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -93,6 +99,26 @@ public class OpenChannelsHandler implements ChannelUpstreamHandler, Releasable {
         return totalChannelsMetric.count();
     }
 
+    /**
+     * Returns the number of open channels per remote address, limited to the {@code limit} addresses with the most
+     * open channels.
+     */
+    public Map<String, Long> openChannelsPerAddress(int limit) {
+        Map<String, Long> counts = new HashMap<>();
+        for (Channel channel : openChannels) {
+            SocketAddress remoteAddress = channel.getRemoteAddress();
+            if (remoteAddress instanceof InetSocketAddress) {
+                counts.merge(NetworkAddress.format(((InetSocketAddress) remoteAddress).getAddress()), 1L, Long::sum);
+            }
+        }
+        Map<String, Long> top = new LinkedHashMap<>();
+        counts.entrySet().stream()
+            .sorted(Map.Entry.<String, Long>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+            .limit(limit)
+            .forEach(entry -> top.put(entry.getKey(), entry.getValue()));
+        return top;
+    }
+
     @Override
     public void close() {
         for (Channel channel : openChannels) {
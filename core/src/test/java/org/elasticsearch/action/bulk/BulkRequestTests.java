@@ -29,6 +29,8 @@ import org.elasticsearch.action.update.UpdateRequest;
 import org.elasticsearch.client.Requests;
 import org.elasticsearch.common.Strings;
 import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.xcontent.XContentType;
 import org.elasticsearch.script.Script;
 import org.elasticsearch.test.ESTestCase;
 
@@ -42,6 +44,7 @@ import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
 import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.notNullValue;
 
@@ -218,4 +221,28 @@ public class BulkRequestTests extends ESTestCase {
         expectThrows(NullPointerException.class, () -> bulkRequest.add((UpdateRequest) null));
         expectThrows(NullPointerException.class, () -> bulkRequest.add((DeleteRequest) null));
     }
+
+    public void testAddCompleteEntries() throws Exception {
+        String bulkAction = copyToStringFromClasspath("/org/elasticsearch/action/bulk/simple-bulk.json");
+        // translate Windows line endings (\r\n) to standard ones (\n)
+        if (Constants.WINDOWS) {
+            bulkAction = Strings.replace(bulkAction, "\r\n", "\n");
+        }
+        BytesReference data = new BytesArray(bulkAction);
+        int split = randomIntBetween(0, data.length());
+        BulkRequest first = new BulkRequest();
+        int consumed = first.addCompleteEntries(data.slice(0, split), XContentType.JSON.xContent(), null, null, null, null, null, null, true);
+        assertThat(consumed, lessThanOrEqualTo(split));
+        BulkRequest second = new BulkRequest();
+        int rest = second.addCompleteEntries(data.slice(consumed, data.length() - consumed), XContentType.JSON.xContent(), null, null, null,
+                null, null, null, true);
+        assertThat(rest, equalTo(data.length() - consumed));
+
+        List<ActionRequest<?>> requests = new ArrayList<>(first.requests());
+        requests.addAll(second.requests());
+        assertThat(requests.size(), equalTo(3));
+        assertThat(((IndexRequest) requests.get(0)).source(), equalTo(new BytesArray("{ \"field1\" : \"value1\" }")));
+        assertThat(requests.get(1), instanceOf(DeleteRequest.class));
+        assertThat(((IndexRequest) requests.get(2)).source(), equalTo(new BytesArray("{ \"field1\" : \"value3\" }")));
+    }
 }
@@ -55,9 +55,9 @@ public class BulkRequestModifierTests extends ESTestCase {
         int i = 0;
         Set<Integer> failedSlots = new HashSet<>();
         while (bulkRequestModifier.hasNext()) {
-            bulkRequestModifier.next();
+            ActionRequest request = bulkRequestModifier.next();
             if (randomBoolean()) {
-                bulkRequestModifier.markCurrentItemAsFailed(new RuntimeException());
+                bulkRequestModifier.markItemAsFailed((IndexRequest) request, new RuntimeException());
                 failedSlots.add(i);
             }
             i++;
@@ -93,9 +93,9 @@ public class BulkRequestModifierTests extends ESTestCase {
 
         IngestActionFilter.BulkRequestModifier modifier = new IngestActionFilter.BulkRequestModifier(originalBulkRequest);
         for (int i = 0; modifier.hasNext(); i++) {
-            modifier.next();
+            ActionRequest request = modifier.next();
             if (i % 2 == 0) {
-                modifier.markCurrentItemAsFailed(new RuntimeException());
+                modifier.markItemAsFailed((IndexRequest) request, new RuntimeException());
             }
         }
 
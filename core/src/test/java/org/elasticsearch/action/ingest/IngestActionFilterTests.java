@@ -159,6 +159,8 @@ public class IngestActionFilterTests extends ESTestCase {
         Task task = mock(Task.class);
         ThreadPool threadPool = mock(ThreadPool.class);
         when(threadPool.executor(any())).thenReturn(Runnable::run);
+        when(threadPool.info(ThreadPool.Names.INGEST)).thenReturn(new ThreadPool.Info(ThreadPool.Names.INGEST,
+                ThreadPool.ThreadPoolType.FIXED, randomIntBetween(1, 4)));
         PipelineStore store = mock(PipelineStore.class);
 
         Processor processor = new TestProcessor(ingestDocument -> ingestDocument.setFieldValue("field2", "value2"));
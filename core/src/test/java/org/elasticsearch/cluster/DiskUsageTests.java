@@ -35,6 +35,8 @@ import org.elasticsearch.common.collect.ImmutableOpenMap;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.transport.DummyTransportAddress;
 import org.elasticsearch.index.Index;
+import org.elasticsearch.index.search.stats.SearchStats;
+import org.elasticsearch.index.shard.IndexingStats;
 import org.elasticsearch.index.shard.ShardId;
 import org.elasticsearch.index.shard.ShardPath;
 import org.elasticsearch.index.store.StoreStats;
@@ -43,7 +45,10 @@ import org.elasticsearch.test.ESTestCase;
 
 import java.nio.file.Path;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 import static java.util.Collections.emptyMap;
 import static java.util.Collections.emptySet;
@@ -136,6 +141,80 @@ public class DiskUsageTests extends ESTestCase {
         assertEquals(test1Path.getParent().getParent().getParent().toAbsolutePath().toString(), routingToPath.get(test_1));
     }
 
+    public void testBuildShardRates() {
+        final Index index = new Index("test", "0xdeadbeef");
+        ShardRouting primary = ShardRouting.newUnassigned(new ShardId(index, 0), null, true, new UnassignedInfo(UnassignedInfo.Reason.INDEX_CREATED, "foo"));
+        primary = ShardRoutingHelper.moveToStarted(ShardRoutingHelper.initialize(primary, "node1"));
+        ShardRouting replica = ShardRouting.newUnassigned(new ShardId(index, 0), null, false, new UnassignedInfo(UnassignedInfo.Reason.INDEX_CREATED, "foo"));
+        replica = ShardRoutingHelper.moveToStarted(ShardRoutingHelper.initialize(replica, "node2"));
+        Map<String, InternalClusterInfoService.ShardOperationCounts> previousCounts = new HashMap<>();
+        ImmutableOpenMap.Builder<String, Double> indexingRates = ImmutableOpenMap.builder();
+        ImmutableOpenMap.Builder<String, Double> searchRates = ImmutableOpenMap.builder();
+
+        // the first sighting of the shards only records their counts
+        ShardStats[] stats = new ShardStats[] {shardStats(primary, 100, 10), shardStats(replica, 0, 10)};
+        InternalClusterInfoService.buildShardRates(stats, 0, previousCounts, ImmutableOpenMap.of(), ImmutableOpenMap.of(),
+            indexingRates, searchRates);
+        assertEquals(0, indexingRates.size());
+        assertEquals(0, searchRates.size());
+        assertEquals(2, previousCounts.size());
+
+        stats = new ShardStats[] {shardStats(primary, 300, 30), shardStats(replica, 0, 50)};
+        InternalClusterInfoService.buildShardRates(stats, TimeUnit.SECONDS.toNanos(2), previousCounts, ImmutableOpenMap.of(),
+            ImmutableOpenMap.of(), indexingRates, searchRates);
+        assertEquals(100.0d, indexingRates.get("[test][0][p]"), 0.0d);
+        assertEquals(10.0d, searchRates.get("[test][0][p]"), 0.0d);
+        assertEquals(0.0d, indexingRates.get("[test][0][r]"), 0.0d);
+        assertEquals(20.0d, searchRates.get("[test][0][r]"), 0.0d);
+
+        // counts going backwards mean the copy was recreated, it keeps the rate of its shard until its own rate is known,
+        // and copies that are gone are forgotten
+        ImmutableOpenMap<String, Double> previousIndexingRates = indexingRates.build();
+        ImmutableOpenMap<String, Double> previousSearchRates = searchRates.build();
+        indexingRates = ImmutableOpenMap.builder();
+        searchRates = ImmutableOpenMap.builder();
+        stats = new ShardStats[] {shardStats(primary, 5, 30)};
+        InternalClusterInfoService.buildShardRates(stats, TimeUnit.SECONDS.toNanos(4), previousCounts, previousIndexingRates,
+            previousSearchRates, indexingRates, searchRates);
+        assertEquals(100.0d, indexingRates.get("[test][0][p]"), 0.0d);
+        assertEquals(10.0d, searchRates.get("[test][0][p]"), 0.0d);
+        assertFalse(indexingRates.containsKey("[test][0][r]"));
+        assertFalse(searchRates.containsKey("[test][0][r]"));
+        assertEquals(1, previousCounts.size());
+
+        // a relocated primary is a new copy of the shard and keeps its rate as well
+        ShardRouting relocated = ShardRouting.newUnassigned(new ShardId(index, 0), null, true, new UnassignedInfo(UnassignedInfo.Reason.INDEX_CREATED, "foo"));
+        relocated = ShardRoutingHelper.moveToStarted(ShardRoutingHelper.initialize(relocated, "node3"));
+        previousIndexingRates = indexingRates.build();
+        previousSearchRates = searchRates.build();
+        indexingRates = ImmutableOpenMap.builder();
+        searchRates = ImmutableOpenMap.builder();
+        stats = new ShardStats[] {shardStats(relocated, 0, 0)};
+        InternalClusterInfoService.buildShardRates(stats, TimeUnit.SECONDS.toNanos(6), previousCounts, previousIndexingRates,
+            previousSearchRates, indexingRates, searchRates);
+        assertEquals(100.0d, indexingRates.get("[test][0][p]"), 0.0d);
+        assertEquals(10.0d, searchRates.get("[test][0][p]"), 0.0d);
+
+        // once the new copy has its own counts its own rate is reported
+        previousIndexingRates = indexingRates.build();
+        previousSearchRates = searchRates.build();
+        indexingRates = ImmutableOpenMap.builder();
+        searchRates = ImmutableOpenMap.builder();
+        stats = new ShardStats[] {shardStats(relocated, 20, 4)};
+        InternalClusterInfoService.buildShardRates(stats, TimeUnit.SECONDS.toNanos(8), previousCounts, previousIndexingRates,
+            previousSearchRates, indexingRates, searchRates);
+        assertEquals(10.0d, indexingRates.get("[test][0][p]"), 0.0d);
+        assertEquals(2.0d, searchRates.get("[test][0][p]"), 0.0d);
+    }
+
+    private ShardStats shardStats(ShardRouting shardRouting, long indexCount, long queryCount) {
+        CommonStats commonStats = new CommonStats();
+        commonStats.indexing = new IndexingStats(new IndexingStats.Stats(indexCount, 0, 0, 0, 0, 0, 0, 0, false, 0), null);
+        commonStats.search = new SearchStats(new SearchStats.Stats(queryCount, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0), 0, null);
+        Path path = createTempDir().resolve("indices").resolve(shardRouting.index().getUUID()).resolve("0");
+        return new ShardStats(shardRouting, new ShardPath(false, path, path, shardRouting.shardId()), commonStats, null);
+    }
+
     public void testFillShardsWithShadowIndices() {
         final Index index = new Index("non-shadow", "0xcafe0000");
         ShardRouting s0 = ShardRouting.newUnassigned(new ShardId(index, 0), null, false, new UnassignedInfo(UnassignedInfo.Reason.INDEX_CREATED, "foo"));
@@ -201,11 +280,11 @@ public class DiskUsageTests extends ESTestCase {
         };
         List<NodeStats> nodeStats = Arrays.asList(
                 new NodeStats(new DiscoveryNode("node_1", DummyTransportAddress.INSTANCE, emptyMap(), emptySet(), Version.CURRENT), 0,
-                        null,null,null,null,null,new FsInfo(0, null, node1FSInfo), null,null,null,null,null, null),
+                        null,null,null,null,null,new FsInfo(0, null, node1FSInfo), null,null,null,null,null, null, null),
                 new NodeStats(new DiscoveryNode("node_2", DummyTransportAddress.INSTANCE, emptyMap(), emptySet(), Version.CURRENT), 0,
-                        null,null,null,null,null, new FsInfo(0, null, node2FSInfo), null,null,null,null,null, null),
+                        null,null,null,null,null, new FsInfo(0, null, node2FSInfo), null,null,null,null,null, null, null),
                 new NodeStats(new DiscoveryNode("node_3", DummyTransportAddress.INSTANCE, emptyMap(), emptySet(), Version.CURRENT), 0,
-                        null,null,null,null,null, new FsInfo(0, null, node3FSInfo), null,null,null,null,null, null)
+                        null,null,null,null,null, new FsInfo(0, null, node3FSInfo), null,null,null,null,null, null, null)
         );
         InternalClusterInfoService.fillDiskUsagePerNode(logger, nodeStats, newLeastAvaiableUsages, newMostAvaiableUsages);
         DiskUsage leastNode_1 = newLeastAvaiableUsages.get("node_1");
@@ -242,11 +321,11 @@ public class DiskUsageTests extends ESTestCase {
         };
         List<NodeStats> nodeStats = Arrays.asList(
                 new NodeStats(new DiscoveryNode("node_1", DummyTransportAddress.INSTANCE, emptyMap(), emptySet(), Version.CURRENT), 0,
-                        null,null,null,null,null,new FsInfo(0, null, node1FSInfo), null,null,null,null,null, null),
+                        null,null,null,null,null,new FsInfo(0, null, node1FSInfo), null,null,null,null,null, null, null),
                 new NodeStats(new DiscoveryNode("node_2", DummyTransportAddress.INSTANCE, emptyMap(), emptySet(), Version.CURRENT), 0,
-                        null,null,null,null,null, new FsInfo(0, null, node2FSInfo), null,null,null,null,null, null),
+                        null,null,null,null,null, new FsInfo(0, null, node2FSInfo), null,null,null,null,null, null, null),
                 new NodeStats(new DiscoveryNode("node_3", DummyTransportAddress.INSTANCE, emptyMap(), emptySet(), Version.CURRENT), 0,
-                        null,null,null,null,null, new FsInfo(0, null, node3FSInfo), null,null,null,null,null, null)
+                        null,null,null,null,null, new FsInfo(0, null, node3FSInfo), null,null,null,null,null, null, null)
         );
         InternalClusterInfoService.fillDiskUsagePerNode(logger, nodeStats, newLeastAvailableUsages, newMostAvailableUsages);
         DiskUsage leastNode_1 = newLeastAvailableUsages.get("node_1");
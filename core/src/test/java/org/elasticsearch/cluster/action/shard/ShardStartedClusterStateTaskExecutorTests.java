@@ -0,0 +1,150 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.cluster.action.shard;
+
+import org.elasticsearch.Version;
+import org.elasticsearch.cluster.ClusterState;
+import org.elasticsearch.cluster.ClusterStateTaskConfig;
+import org.elasticsearch.cluster.ClusterStateTaskListener;
+import org.elasticsearch.cluster.metadata.IndexMetaData;
+import org.elasticsearch.cluster.metadata.MetaData;
+import org.elasticsearch.cluster.node.DiscoveryNodes;
+import org.elasticsearch.cluster.routing.RoutingService;
+import org.elasticsearch.cluster.routing.RoutingTable;
+import org.elasticsearch.cluster.routing.ShardRouting;
+import org.elasticsearch.cluster.routing.ShardRoutingState;
+import org.elasticsearch.cluster.routing.allocation.AllocationService;
+import org.elasticsearch.cluster.routing.allocation.RoutingAllocation;
+import org.elasticsearch.cluster.service.ClusterService;
+import org.elasticsearch.common.Priority;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.test.ESAllocationTestCase;
+import org.elasticsearch.threadpool.TestThreadPool;
+import org.elasticsearch.threadpool.ThreadPool;
+import org.junit.After;
+import org.junit.Before;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.elasticsearch.test.ClusterServiceUtils.createClusterService;
+import static org.elasticsearch.test.ClusterServiceUtils.setState;
+import static org.hamcrest.Matchers.equalTo;
+
+public class ShardStartedClusterStateTaskExecutorTests extends ESAllocationTestCase {
+
+    private static final String INDEX = "INDEX";
+
+    private ThreadPool threadPool;
+    private ClusterService clusterService;
+    private AllocationService allocationService;
+    private int numberOfShards;
+    private List<ClusterState> publishedStates;
+
+    @Before
+    public void setUp() throws Exception {
+        super.setUp();
+        threadPool = new TestThreadPool(getClass().getName());
+        clusterService = createClusterService(threadPool);
+        allocationService = createAllocationService();
+        numberOfShards = randomIntBetween(1, 5);
+        MetaData metaData = MetaData.builder()
+            .put(IndexMetaData.builder(INDEX).settings(settings(Version.CURRENT)).numberOfShards(numberOfShards).numberOfReplicas(1))
+            .build();
+        ClusterState state = ClusterState.builder(clusterService.state())
+            .nodes(DiscoveryNodes.builder(clusterService.state().nodes()).put(newNode("node2")))
+            .metaData(metaData)
+            .routingTable(RoutingTable.builder().addAsNew(metaData.index(INDEX)).build())
+            .build();
+        RoutingAllocation.Result result = allocationService.reroute(state, "initial allocation");
+        setState(clusterService, ClusterState.builder(state).routingResult(result));
+        assertThat(clusterService.state().getRoutingNodes().shardsWithState(ShardRoutingState.INITIALIZING).size(),
+            equalTo(numberOfShards));
+
+        publishedStates = new CopyOnWriteArrayList<>();
+        clusterService.setClusterStatePublisher((event, ackListener) -> publishedStates.add(event.state()));
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        super.tearDown();
+        clusterService.close();
+        terminate(threadPool);
+    }
+
+    public void testStartedShardsAreReroutedInTheSameClusterStateByDefault() throws Exception {
+        ShardStateAction.ShardStartedClusterStateTaskExecutor executor = new ShardStateAction.ShardStartedClusterStateTaskExecutor(
+            allocationService, routingService(Settings.EMPTY), logger);
+
+        startInitializingShards(executor);
+
+        // the replicas are allocated by the same update that started the primaries
+        assertThat(publishedStates.size(), equalTo(1));
+        ClusterState state = publishedStates.get(0);
+        assertThat(state.getRoutingNodes().shardsWithState(ShardRoutingState.STARTED).size(), equalTo(numberOfShards));
+        assertThat(state.getRoutingNodes().shardsWithState(ShardRoutingState.INITIALIZING).size(), equalTo(numberOfShards));
+    }
+
+    public void testRerouteIsDeferredWithARerouteWindow() throws Exception {
+        Settings settings = Settings.builder().put(RoutingService.CLUSTER_ROUTING_REROUTE_WINDOW_SETTING.getKey(), "50ms").build();
+        ShardStateAction.ShardStartedClusterStateTaskExecutor executor = new ShardStateAction.ShardStartedClusterStateTaskExecutor(
+            allocationService, routingService(settings), logger);
+
+        startInitializingShards(executor);
+
+        ClusterState started = publishedStates.get(0);
+        assertThat(started.getRoutingNodes().shardsWithState(ShardRoutingState.STARTED).size(), equalTo(numberOfShards));
+        assertThat(started.getRoutingNodes().shardsWithState(ShardRoutingState.INITIALIZING).size(), equalTo(0));
+        // the replicas are allocated by a separate reroute once the window has passed
+        assertBusy(() -> assertThat(publishedStates.size(), equalTo(2)));
+        ClusterState rerouted = publishedStates.get(1);
+        assertThat(rerouted.getRoutingNodes().shardsWithState(ShardRoutingState.INITIALIZING).size(), equalTo(numberOfShards));
+    }
+
+    private RoutingService routingService(Settings settings) {
+        return new RoutingService(settings, clusterService.getClusterSettings(), threadPool, clusterService, allocationService);
+    }
+
+    private void startInitializingShards(ShardStateAction.ShardStartedClusterStateTaskExecutor executor) throws InterruptedException {
+        List<ShardRouting> initializing = clusterService.state().getRoutingNodes().shardsWithState(ShardRoutingState.INITIALIZING);
+        CountDownLatch latch = new CountDownLatch(initializing.size());
+        ClusterStateTaskListener listener = new ClusterStateTaskListener() {
+            @Override
+            public void onFailure(String source, Throwable t) {
+                throw new AssertionError(t);
+            }
+
+            @Override
+            public void clusterStateProcessed(String source, ClusterState oldState, ClusterState newState) {
+                latch.countDown();
+            }
+        };
+        Map<ShardStateAction.ShardRoutingEntry, ClusterStateTaskListener> tasks = new HashMap<>();
+        for (ShardRouting shard : initializing) {
+            tasks.put(new ShardStateAction.ShardRoutingEntry(shard, shard, "test", null), listener);
+        }
+        clusterService.submitStateUpdateTasks("shards started", tasks, ClusterStateTaskConfig.build(Priority.URGENT), executor);
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+    }
+}
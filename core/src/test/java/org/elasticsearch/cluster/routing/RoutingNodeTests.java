@@ -0,0 +1,71 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.cluster.routing;
+
+import org.elasticsearch.index.Index;
+import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.test.ESTestCase;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+
+public class RoutingNodeTests extends ESTestCase {
+
+    private final Index index1 = new Index("test1", "_na_");
+    private final Index index2 = new Index("test2", "_na_");
+
+    public void testAggregatesFollowShardChanges() {
+        ShardRouting started = TestShardRouting.newShardRouting(new ShardId(index1, 0), "node1", true, ShardRoutingState.STARTED);
+        ShardRouting initializing = TestShardRouting.newShardRouting(new ShardId(index1, 1), "node1", false,
+            ShardRoutingState.INITIALIZING);
+        RoutingNode routingNode = new RoutingNode("node1", null, started, initializing);
+
+        assertThat(routingNode.numberOfOwningShards(), equalTo(2));
+        assertThat(routingNode.numberOfOwningShardsForIndex(index1), equalTo(2));
+        assertThat(routingNode.numberOfOwningShardsForIndex(index2), equalTo(0));
+        assertThat(routingNode.shardsWithState(ShardRoutingState.INITIALIZING, ShardRoutingState.RELOCATING), contains(initializing));
+
+        // relocating the started shard away keeps it on the node but it no longer owns it
+        ShardRouting relocating = started.relocate("node2", -1);
+        routingNode.update(started, relocating);
+        assertThat(routingNode.numberOfOwningShards(), equalTo(1));
+        assertThat(routingNode.numberOfOwningShardsForIndex(index1), equalTo(1));
+        assertThat(routingNode.numberOfShardsWithState(ShardRoutingState.RELOCATING), equalTo(1));
+        assertThat(routingNode.shardsWithState(ShardRoutingState.RELOCATING), contains(relocating));
+
+        ShardRouting other = TestShardRouting.newShardRouting(new ShardId(index2, 0), "node1", true, ShardRoutingState.STARTED);
+        routingNode.add(other);
+        assertThat(routingNode.numberOfOwningShards(), equalTo(2));
+        assertThat(routingNode.numberOfOwningShardsForIndex(index2), equalTo(1));
+
+        routingNode.remove(relocating);
+        ShardRouting startedReplica = initializing.moveToStarted();
+        routingNode.update(initializing, startedReplica);
+        assertThat(routingNode.numberOfOwningShards(), equalTo(2));
+        assertThat(routingNode.numberOfOwningShardsForIndex(index1), equalTo(1));
+        assertThat(routingNode.shardsWithState(ShardRoutingState.INITIALIZING, ShardRoutingState.RELOCATING), empty());
+        assertThat(routingNode.numberOfShardsWithState(ShardRoutingState.STARTED), equalTo(2));
+
+        routingNode.remove(other);
+        assertThat(routingNode.numberOfOwningShardsForIndex(index2), equalTo(0));
+        assertThat(routingNode.numberOfOwningShards(), equalTo(1));
+    }
+}
@@ -19,6 +19,7 @@
 
 package org.elasticsearch.cluster.routing;
 
+import org.elasticsearch.common.settings.ClusterSettings;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.test.ESAllocationTestCase;
 import org.junit.Before;
@@ -49,7 +50,7 @@ public class RoutingServiceTests extends ESAllocationTestCase {
         private AtomicBoolean rerouted = new AtomicBoolean();
 
         public TestRoutingService() {
-            super(Settings.EMPTY, null, null);
+            super(Settings.EMPTY, new ClusterSettings(Settings.EMPTY, ClusterSettings.BUILT_IN_CLUSTER_SETTINGS), null, null, null);
         }
 
         public boolean hasReroutedAndClear() {
@@ -22,6 +22,8 @@ package org.elasticsearch.cluster.routing.allocation;
 import com.carrotsearch.hppc.cursors.ObjectCursor;
 import org.apache.lucene.util.ArrayUtil;
 import org.elasticsearch.Version;
+import org.elasticsearch.cluster.ClusterInfo;
+import org.elasticsearch.cluster.ClusterInfoService;
 import org.elasticsearch.cluster.ClusterState;
 import org.elasticsearch.cluster.EmptyClusterInfoService;
 import org.elasticsearch.cluster.metadata.IndexMetaData;
@@ -36,6 +38,7 @@ import org.elasticsearch.cluster.routing.ShardRoutingState;
 import org.elasticsearch.cluster.routing.allocation.allocator.BalancedShardsAllocator;
 import org.elasticsearch.cluster.routing.allocation.allocator.ShardsAllocator;
 import org.elasticsearch.cluster.routing.allocation.decider.ClusterRebalanceAllocationDecider;
+import org.elasticsearch.common.collect.ImmutableOpenMap;
 import org.elasticsearch.common.logging.ESLogger;
 import org.elasticsearch.common.logging.Loggers;
 import org.elasticsearch.common.settings.ClusterSettings;
@@ -286,6 +289,172 @@ public class BalanceConfigurationTests extends ESAllocationTestCase {
         assertThat(allocator.getIndexBalance(), Matchers.equalTo(0.5f));
         assertThat(allocator.getShardBalance(), Matchers.equalTo(0.1f));
         assertThat(allocator.getThreshold(), Matchers.equalTo(3.0f));
+        assertThat(allocator.getLoadBalance(), Matchers.equalTo(0.0f));
+
+        settings = Settings.builder();
+        settings.put(BalancedShardsAllocator.LOAD_BALANCE_FACTOR_SETTING.getKey(), 0.7);
+        service.applySettings(settings.build());
+        assertThat(allocator.getIndexBalance(), Matchers.equalTo(0.55f));
+        assertThat(allocator.getShardBalance(), Matchers.equalTo(0.45f));
+        assertThat(allocator.getLoadBalance(), Matchers.equalTo(0.7f));
+    }
+
+    public void testLoadBalance() {
+        // all hot shards end up on node0 because they are allocated before node1 joins
+        ClusterState clusterState = allocateHotAndColdIndices(1.0f);
+        for (String node : new String[] {"node0", "node1"}) {
+            int hotShards = 0;
+            for (ShardRouting shard : clusterState.getRoutingNodes().node(node)) {
+                assertThat(shard.state(), Matchers.equalTo(STARTED));
+                if (shard.getIndexName().startsWith("hot")) {
+                    hotShards++;
+                }
+            }
+            assertThat(hotShards, Matchers.equalTo(2));
+        }
+
+        // without the load the shards are balanced already
+        clusterState = allocateHotAndColdIndices(0.0f);
+        for (ShardRouting shard : clusterState.getRoutingNodes().node("node0")) {
+            assertThat(shard.getIndexName(), Matchers.startsWith("hot"));
+        }
+    }
+
+    private ClusterState allocateHotAndColdIndices(float loadBalance) {
+        final int numIndices = 4;
+        ImmutableOpenMap.Builder<String, Double> indexingRates = ImmutableOpenMap.builder();
+        MetaData.Builder metaData = MetaData.builder();
+        for (int i = 0; i < numIndices; i++) {
+            indexingRates.put("[hot" + i + "][0][p]", 1000.0d);
+            indexingRates.put("[cold" + i + "][0][p]", 0.0d);
+            metaData.put(IndexMetaData.builder("hot" + i).settings(settings(Version.CURRENT)).numberOfShards(1).numberOfReplicas(0));
+            metaData.put(IndexMetaData.builder("cold" + i).settings(settings(Version.CURRENT)).numberOfShards(1).numberOfReplicas(0));
+        }
+        AllocationService strategy = createLoadAwareAllocationService(loadBalance, indexingRates.build(), ImmutableOpenMap.of());
+
+        MetaData fullMetaData = metaData.build();
+        MetaData.Builder hotMetaData = MetaData.builder();
+        RoutingTable.Builder routingTable = RoutingTable.builder();
+        for (int i = 0; i < numIndices; i++) {
+            hotMetaData.put(fullMetaData.index("hot" + i), false);
+            routingTable.addAsNew(fullMetaData.index("hot" + i));
+        }
+        ClusterState clusterState = ClusterState.builder(org.elasticsearch.cluster.ClusterName.CLUSTER_NAME_SETTING.getDefault(Settings.EMPTY))
+            .metaData(hotMetaData).routingTable(routingTable.build()).nodes(DiscoveryNodes.builder().put(newNode("node0"))).build();
+        clusterState = startAllShards(strategy, clusterState);
+
+        routingTable = RoutingTable.builder(clusterState.routingTable());
+        for (int i = 0; i < numIndices; i++) {
+            routingTable.addAsNew(fullMetaData.index("cold" + i));
+        }
+        clusterState = ClusterState.builder(clusterState).metaData(fullMetaData).routingTable(routingTable.build())
+            .nodes(DiscoveryNodes.builder(clusterState.nodes()).put(newNode("node1"))).build();
+        return startAllShards(strategy, clusterState);
+    }
+
+    public void testLoadBalanceWithinAnIndex() {
+        // shards 0 and 1 are hot, shards 2 and 3 are cold
+        ImmutableOpenMap.Builder<String, Double> rates = ImmutableOpenMap.builder();
+        for (int i = 0; i < 4; i++) {
+            rates.put("[test][" + i + "][p]", i < 2 ? 1000.0d : 0.0d);
+        }
+        ImmutableOpenMap<String, Double> indexingRates = rates.build();
+        MetaData metaData = MetaData.builder()
+            .put(IndexMetaData.builder("test").settings(settings(Version.CURRENT)).numberOfShards(4).numberOfReplicas(0)).build();
+        for (float loadBalance : new float[] {0.0f, 1.0f}) {
+            AllocationService strategy = createLoadAwareAllocationService(loadBalance, indexingRates, ImmutableOpenMap.of());
+            ClusterState clusterState = ClusterState.builder(org.elasticsearch.cluster.ClusterName.CLUSTER_NAME_SETTING.getDefault(Settings.EMPTY))
+                .metaData(metaData).routingTable(RoutingTable.builder().addAsNew(metaData.index("test")).build())
+                .nodes(DiscoveryNodes.builder().put(newNode("node0"))).build();
+            clusterState = startAllShards(strategy, clusterState);
+            clusterState = ClusterState.builder(clusterState).nodes(DiscoveryNodes.builder(clusterState.nodes()).put(newNode("node1")))
+                .build();
+            clusterState = startAllShards(strategy, clusterState);
+
+            for (String node : new String[] {"node0", "node1"}) {
+                int hotShards = 0;
+                for (ShardRouting shard : clusterState.getRoutingNodes().node(node)) {
+                    if (shard.id() < 2) {
+                        hotShards++;
+                    }
+                }
+                assertThat(clusterState.getRoutingNodes().node(node).size(), Matchers.equalTo(2));
+                // only the load tells the hot shards from the cold ones, without it the lowest shard ids move first
+                assertThat(hotShards, Matchers.equalTo(loadBalance > 0 ? 1 : node.equals("node1") ? 2 : 0));
+            }
+        }
+    }
+
+    public void testLoadBalanceDoesNotChurn() {
+        final int numNodes = randomIntBetween(2, 6);
+        final int numIndices = randomIntBetween(1, 8);
+        ImmutableOpenMap.Builder<String, Double> indexingRates = ImmutableOpenMap.builder();
+        ImmutableOpenMap.Builder<String, Double> searchRates = ImmutableOpenMap.builder();
+        MetaData.Builder metaDataBuilder = MetaData.builder();
+        for (int i = 0; i < numIndices; i++) {
+            final int numShards = randomIntBetween(1, 6);
+            metaDataBuilder.put(IndexMetaData.builder("test" + i).settings(settings(Version.CURRENT))
+                .numberOfShards(numShards).numberOfReplicas(randomIntBetween(0, 1)));
+            for (int shard = 0; shard < numShards; shard++) {
+                for (String copy : new String[] {"p", "r"}) {
+                    if (randomBoolean()) {
+                        indexingRates.put("[test" + i + "][" + shard + "][" + copy + "]", randomBoolean() ? 0.0d : randomDouble() * 1000);
+                    }
+                    if (randomBoolean()) {
+                        searchRates.put("[test" + i + "][" + shard + "][" + copy + "]", randomBoolean() ? 0.0d : randomDouble() * 100);
+                    }
+                }
+            }
+        }
+        MetaData metaData = metaDataBuilder.build();
+        RoutingTable.Builder routingTable = RoutingTable.builder();
+        for (ObjectCursor<IndexMetaData> index : metaData.indices().values()) {
+            routingTable.addAsNew(index.value);
+        }
+        DiscoveryNodes.Builder nodes = DiscoveryNodes.builder();
+        for (int i = 0; i < numNodes; i++) {
+            nodes.put(newNode("node" + i));
+        }
+        ClusterState clusterState = ClusterState.builder(org.elasticsearch.cluster.ClusterName.CLUSTER_NAME_SETTING.getDefault(Settings.EMPTY))
+            .metaData(metaData).routingTable(routingTable.build()).nodes(nodes).build();
+        // the rates are keyed by shard, so a relocated copy keeps the load of the shard
+        AllocationService strategy = createLoadAwareAllocationService(randomFloat() * 2, indexingRates.build(), searchRates.build());
+
+        // startAllShards only returns once the balancer stopped relocating shards
+        clusterState = startAllShards(strategy, clusterState);
+        assertThat(clusterState.getRoutingNodes().unassigned().size(), Matchers.equalTo(0));
+        for (int i = 0; i < 3; i++) {
+            assertFalse(strategy.reroute(clusterState, "reroute").changed());
+        }
+    }
+
+    private AllocationService createLoadAwareAllocationService(float loadBalance, ImmutableOpenMap<String, Double> indexingRates,
+                                                               ImmutableOpenMap<String, Double> searchRates) {
+        final ClusterInfo clusterInfo = new ClusterInfo(ImmutableOpenMap.of(), ImmutableOpenMap.of(), ImmutableOpenMap.of(),
+            ImmutableOpenMap.of(), indexingRates, searchRates);
+        Settings settings = Settings.builder().put(BalancedShardsAllocator.LOAD_BALANCE_FACTOR_SETTING.getKey(), loadBalance).build();
+        return createAllocationService(settings, new ClusterInfoService() {
+            @Override
+            public ClusterInfo getClusterInfo() {
+                return clusterInfo;
+            }
+
+            @Override
+            public void addListener(Listener listener) {
+            }
+        });
+    }
+
+    private ClusterState startAllShards(AllocationService strategy, ClusterState clusterState) {
+        clusterState = ClusterState.builder(clusterState).routingTable(strategy.reroute(clusterState, "reroute").routingTable()).build();
+        int iterations = 0;
+        while (clusterState.getRoutingNodes().shardsWithState(INITIALIZING).isEmpty() == false) {
+            assertThat("shards keep relocating", ++iterations, Matchers.lessThan(100));
+            RoutingTable routingTable = strategy.applyStartedShards(clusterState,
+                clusterState.getRoutingNodes().shardsWithState(INITIALIZING)).routingTable();
+            clusterState = ClusterState.builder(clusterState).routingTable(routingTable).build();
+        }
+        return clusterState;
     }
 
     public void testNoRebalanceOnPrimaryOverload() {
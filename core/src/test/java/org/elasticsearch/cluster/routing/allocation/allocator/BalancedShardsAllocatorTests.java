@@ -0,0 +1,228 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.cluster.routing.allocation.allocator;
+
+import com.carrotsearch.hppc.cursors.ObjectCursor;
+import org.elasticsearch.Version;
+import org.elasticsearch.cluster.ClusterName;
+import org.elasticsearch.cluster.ClusterState;
+import org.elasticsearch.cluster.EmptyClusterInfoService;
+import org.elasticsearch.cluster.metadata.IndexMetaData;
+import org.elasticsearch.cluster.metadata.MetaData;
+import org.elasticsearch.cluster.node.DiscoveryNodes;
+import org.elasticsearch.cluster.routing.RoutingNode;
+import org.elasticsearch.cluster.routing.RoutingTable;
+import org.elasticsearch.cluster.routing.ShardRouting;
+import org.elasticsearch.cluster.routing.allocation.AllocationService;
+import org.elasticsearch.cluster.routing.allocation.RoutingAllocation;
+import org.elasticsearch.cluster.routing.allocation.decider.AllocationDecider;
+import org.elasticsearch.cluster.routing.allocation.decider.AllocationDeciders;
+import org.elasticsearch.cluster.routing.allocation.decider.Decision;
+import org.elasticsearch.common.settings.ClusterSettings;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.test.ESAllocationTestCase;
+import org.elasticsearch.test.gateway.NoopGatewayAllocator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import static org.elasticsearch.cluster.routing.ShardRoutingState.INITIALIZING;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+
+public class BalancedShardsAllocatorTests extends ESAllocationTestCase {
+
+    /**
+     * Each of the three nodes holds three shards, but the shards of each "unbalanced_N" index are all on node_N. Index "balanced"
+     * has a shard on node_0 and node_1, which is within the threshold, so the balancer doesn't look at it.
+     */
+    public void testBalancedIndicesAreSkipped() {
+        PinningDecider pinningDecider = new PinningDecider();
+        AllocationService strategy = createAllocationService(pinningDecider, true);
+        ClusterState clusterState = createPinnedCluster(strategy, pinningDecider);
+        pinningDecider.pinned = false;
+        RoutingAllocation.Result result = strategy.reroute(clusterState, "reroute");
+        assertTrue(result.changed());
+        assertThat(pinningDecider.balancedIndices, equalTo(new HashSet<>(Arrays.asList("unbalanced_0", "unbalanced_1", "unbalanced_2"))));
+
+        // balancing every index also asks about the balanced one, but relocates the same shards
+        PinningDecider everyIndexDecider = new PinningDecider();
+        AllocationService everyIndexStrategy = createAllocationService(everyIndexDecider, false);
+        ClusterState everyIndexClusterState = createPinnedCluster(everyIndexStrategy, everyIndexDecider);
+        assertThat(shardsPerNode(everyIndexClusterState.routingTable()), equalTo(shardsPerNode(clusterState.routingTable())));
+        everyIndexDecider.pinned = false;
+        RoutingAllocation.Result everyIndexResult = everyIndexStrategy.reroute(everyIndexClusterState, "reroute");
+        assertThat(everyIndexDecider.balancedIndices,
+            equalTo(new HashSet<>(Arrays.asList("balanced", "unbalanced_0", "unbalanced_1", "unbalanced_2"))));
+        assertThat(shardsPerNode(result.routingTable()), equalTo(shardsPerNode(everyIndexResult.routingTable())));
+
+        // once the cluster is balanced a reroute doesn't look at any index
+        clusterState = startAllShards(strategy, ClusterState.builder(clusterState).routingTable(result.routingTable()).build());
+        for (RoutingNode node : clusterState.getRoutingNodes()) {
+            assertThat(node.size(), equalTo(3));
+        }
+        pinningDecider.balancedIndices.clear();
+        assertFalse(strategy.reroute(clusterState, "reroute").changed());
+        assertThat(pinningDecider.balancedIndices, empty());
+    }
+
+    /**
+     * Adds nodes to a random cluster one at a time and checks that each rebalancing step relocates exactly the same shards as
+     * balancing every index would.
+     */
+    public void testSameAllocationAsBalancingEveryIndex() {
+        AllocationDeciders deciders = randomAllocationDeciders(Settings.EMPTY,
+            new ClusterSettings(Settings.EMPTY, ClusterSettings.BUILT_IN_CLUSTER_SETTINGS), random());
+        AllocationService strategy = createAllocationService(deciders, true);
+        AllocationService everyIndexStrategy = createAllocationService(deciders, false);
+
+        MetaData.Builder metaData = MetaData.builder();
+        int numIndices = randomIntBetween(1, 20);
+        for (int i = 0; i < numIndices; i++) {
+            metaData.put(IndexMetaData.builder("test_" + i).settings(settings(Version.CURRENT))
+                .numberOfShards(randomIntBetween(1, 10)).numberOfReplicas(randomIntBetween(0, 2)));
+        }
+        int numNodes = randomIntBetween(3, 10);
+        ClusterState clusterState = newCluster(metaData.build(), numNodes);
+        clusterState = startAllShards(strategy, clusterState);
+
+        int newNodes = randomIntBetween(1, 10);
+        for (int n = 0; n < newNodes; n++) {
+            clusterState = ClusterState.builder(clusterState)
+                .nodes(DiscoveryNodes.builder(clusterState.nodes()).put(newNode("node_" + (numNodes + n)))).build();
+            while (true) {
+                RoutingAllocation.Result result = strategy.reroute(clusterState, "reroute");
+                RoutingAllocation.Result everyIndexResult = everyIndexStrategy.reroute(clusterState, "reroute");
+                assertThat(result.changed(), equalTo(everyIndexResult.changed()));
+                assertThat(shardsPerNode(result.routingTable()), equalTo(shardsPerNode(everyIndexResult.routingTable())));
+                if (result.changed() == false) {
+                    break;
+                }
+                clusterState = ClusterState.builder(clusterState).routingTable(result.routingTable()).build();
+                RoutingTable routingTable = strategy.applyStartedShards(clusterState,
+                    clusterState.getRoutingNodes().shardsWithState(INITIALIZING), false).routingTable();
+                clusterState = ClusterState.builder(clusterState).routingTable(routingTable).build();
+            }
+        }
+    }
+
+    private static AllocationService createAllocationService(AllocationDecider decider, boolean skipBalancedIndices) {
+        return createAllocationService(new AllocationDeciders(Settings.EMPTY, new AllocationDecider[] { decider }), skipBalancedIndices);
+    }
+
+    private static AllocationService createAllocationService(AllocationDeciders deciders, boolean skipBalancedIndices) {
+        BalancedShardsAllocator allocator = new BalancedShardsAllocator(Settings.EMPTY);
+        allocator.setSkipBalancedIndices(skipBalancedIndices);
+        return new AllocationService(Settings.EMPTY, deciders, NoopGatewayAllocator.INSTANCE, allocator,
+            EmptyClusterInfoService.INSTANCE);
+    }
+
+    private ClusterState createPinnedCluster(AllocationService strategy, PinningDecider pinningDecider) {
+        MetaData.Builder metaData = MetaData.builder();
+        metaData.put(IndexMetaData.builder("balanced").settings(settings(Version.CURRENT)).numberOfShards(2).numberOfReplicas(0));
+        metaData.put(IndexMetaData.builder("unbalanced_0").settings(settings(Version.CURRENT)).numberOfShards(2).numberOfReplicas(0));
+        metaData.put(IndexMetaData.builder("unbalanced_1").settings(settings(Version.CURRENT)).numberOfShards(2).numberOfReplicas(0));
+        metaData.put(IndexMetaData.builder("unbalanced_2").settings(settings(Version.CURRENT)).numberOfShards(3).numberOfReplicas(0));
+        ClusterState clusterState = startAllShards(strategy, newCluster(metaData.build(), 3));
+        assertThat(pinningDecider.balancedIndices, empty());
+        return clusterState;
+    }
+
+    private ClusterState newCluster(MetaData metaData, int numNodes) {
+        RoutingTable.Builder routingTable = RoutingTable.builder();
+        for (ObjectCursor<IndexMetaData> index : metaData.indices().values()) {
+            routingTable.addAsNew(index.value);
+        }
+        DiscoveryNodes.Builder nodes = DiscoveryNodes.builder();
+        for (int i = 0; i < numNodes; i++) {
+            nodes.put(newNode("node_" + i));
+        }
+        return ClusterState.builder(ClusterName.CLUSTER_NAME_SETTING.getDefault(Settings.EMPTY))
+            .metaData(metaData).routingTable(routingTable.build()).nodes(nodes).build();
+    }
+
+    private ClusterState startAllShards(AllocationService strategy, ClusterState clusterState) {
+        clusterState = ClusterState.builder(clusterState).routingTable(strategy.reroute(clusterState, "reroute").routingTable()).build();
+        int iterations = 0;
+        while (clusterState.getRoutingNodes().shardsWithState(INITIALIZING).isEmpty() == false) {
+            assertThat("shards keep relocating", ++iterations < 100, equalTo(true));
+            RoutingTable routingTable = strategy.applyStartedShards(clusterState,
+                clusterState.getRoutingNodes().shardsWithState(INITIALIZING)).routingTable();
+            clusterState = ClusterState.builder(clusterState).routingTable(routingTable).build();
+        }
+        return clusterState;
+    }
+
+    /**
+     * Returns the copies of each shard by the node they are on and the node they relocate to, if any.
+     */
+    private static Map<String, List<String>> shardsPerNode(RoutingTable routingTable) {
+        Map<String, List<String>> shards = new TreeMap<>();
+        for (ShardRouting shard : routingTable.allShards()) {
+            String copy = (shard.primary() ? "p" : "r") + " " + shard.currentNodeId() + " -> " + shard.relocatingNodeId();
+            shards.computeIfAbsent(shard.shardId().toString(), k -> new ArrayList<>()).add(copy);
+        }
+        for (List<String> copies : shards.values()) {
+            Collections.sort(copies);
+        }
+        return shards;
+    }
+
+    /**
+     * While pinned, allocates the shards of index "unbalanced_N" to node_N and shard N of other indices to node_N. Records the
+     * indices the balancer looks at.
+     */
+    private static class PinningDecider extends AllocationDecider {
+        volatile boolean pinned = true;
+        final Set<String> balancedIndices = Collections.synchronizedSet(new HashSet<>());
+
+        PinningDecider() {
+            super(Settings.EMPTY);
+        }
+
+        @Override
+        public Decision canAllocate(ShardRouting shardRouting, RoutingNode node, RoutingAllocation allocation) {
+            if (pinned == false) {
+                return Decision.YES;
+            }
+            String index = shardRouting.getIndexName();
+            String pinnedNode = "node_" + (index.startsWith("unbalanced_") ? index.substring("unbalanced_".length()) : shardRouting.id());
+            return pinnedNode.equals(node.nodeId()) ? Decision.YES : Decision.NO;
+        }
+
+        @Override
+        public Decision canAllocate(IndexMetaData indexMetaData, RoutingNode node, RoutingAllocation allocation) {
+            // only the balancer asks about an index rather than a shard
+            balancedIndices.add(indexMetaData.getIndex().getName());
+            return Decision.YES;
+        }
+
+        @Override
+        public Decision canRebalance(RoutingAllocation allocation) {
+            return pinned ? Decision.NO : Decision.YES;
+        }
+    }
+}
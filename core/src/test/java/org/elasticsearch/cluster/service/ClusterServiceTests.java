@@ -665,6 +665,57 @@ public class ClusterServiceTests extends ESTestCase {
         latch.await();
     }
 
+    public void testPendingTasksReportBatches() throws InterruptedException {
+        ClusterStateTaskExecutor<SimpleTask> executor = (currentState, tasks) ->
+            ClusterStateTaskExecutor.BatchResult.<SimpleTask>builder().successes(tasks).build(currentState);
+        final int numOfTasks = randomIntBetween(1, 10);
+        final CountDownLatch firstBatch = new CountDownLatch(numOfTasks);
+        final CountDownLatch lastBatch = new CountDownLatch(1);
+        ClusterStateTaskListener listener = new ClusterStateTaskListener() {
+            @Override
+            public void clusterStateProcessed(String source, ClusterState oldState, ClusterState newState) {
+                if (firstBatch.getCount() > 0) {
+                    firstBatch.countDown();
+                } else {
+                    lastBatch.countDown();
+                }
+            }
+
+            @Override
+            public void onFailure(String source, Throwable t) {
+                fail(ExceptionsHelper.detailedMessage(t));
+            }
+        };
+
+        try (BlockingTask blockingTask = new BlockingTask(Priority.IMMEDIATE)) {
+            clusterService.submitStateUpdateTask("blocking", blockingTask);
+            for (int i = 0; i < numOfTasks; i++) {
+                clusterService.submitStateUpdateTask("task " + i, new SimpleTask(i), ClusterStateTaskConfig.build(Priority.NORMAL),
+                    executor, listener);
+            }
+            List<PendingClusterTask> pendingTasks = clusterService.pendingTasks().stream()
+                .filter(task -> task.getSource().string().startsWith("task ")).collect(Collectors.toList());
+            assertThat(pendingTasks.size(), equalTo(numOfTasks));
+            for (PendingClusterTask pendingTask : pendingTasks) {
+                assertThat(pendingTask.getBatchSize(), equalTo(numOfTasks));
+                assertThat(pendingTask.getLastBatchSize(), equalTo(0));
+            }
+        }
+        firstBatch.await();
+
+        try (BlockingTask blockingTask = new BlockingTask(Priority.IMMEDIATE)) {
+            clusterService.submitStateUpdateTask("blocking", blockingTask);
+            clusterService.submitStateUpdateTask("last task", new SimpleTask(numOfTasks), ClusterStateTaskConfig.build(Priority.NORMAL),
+                executor, listener);
+            List<PendingClusterTask> pendingTasks = clusterService.pendingTasks().stream()
+                .filter(task -> task.getSource().string().equals("last task")).collect(Collectors.toList());
+            assertThat(pendingTasks.size(), equalTo(1));
+            assertThat(pendingTasks.get(0).getBatchSize(), equalTo(1));
+            assertThat(pendingTasks.get(0).getLastBatchSize(), equalTo(numOfTasks));
+        }
+        lastBatch.await();
+    }
+
     @TestLogging("cluster:TRACE") // To ensure that we log cluster state events on TRACE level
     public void testClusterStateUpdateLogging() throws Exception {
         MockLogAppender mockAppender = new MockLogAppender();
@@ -0,0 +1,129 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.elasticsearch.common.xcontent.support.filtering;
+
+import org.elasticsearch.common.Strings;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.common.xcontent.XContentFactory;
+import org.elasticsearch.common.xcontent.XContentHelper;
+import org.elasticsearch.common.xcontent.XContentParser;
+import org.elasticsearch.common.xcontent.XContentType;
+import org.elasticsearch.common.xcontent.support.XContentMapValues;
+import org.elasticsearch.test.ESTestCase;
+
+import java.io.IOException;
+import java.util.Map;
+
+import static org.hamcrest.Matchers.equalTo;
+
+public class IncludeExcludeFilterTests extends ESTestCase {
+
+    private static final String[] NAMES = new String[] {"a", "b", "ab", "c"};
+
+    public void testSameAsMapFiltering() throws IOException {
+        for (int i = 0; i < 100; i++) {
+            XContentType type = randomFrom(XContentType.values());
+            XContentBuilder source = XContentFactory.contentBuilder(type);
+            source.startObject();
+            randomFields(source, 0);
+            source.endObject();
+            String[] includes = randomPatterns();
+            String[] excludes = randomPatterns();
+            assertFiltered(source.bytes(), includes, excludes);
+        }
+    }
+
+    public void testKeepsEmptyObjectsAndArrays() throws IOException {
+        XContentBuilder source = XContentFactory.jsonBuilder().startObject()
+            .startObject("obj").field("a", 1).endObject()
+            .startObject("empty").endObject()
+            .startArray("arr").startObject().field("b", 2).endObject().endArray()
+            .endObject();
+        assertFiltered(source.bytes(), new String[] {"obj.b", "empty", "arr.a"}, Strings.EMPTY_ARRAY);
+        assertThat(filter(source.bytes(), new String[] {"obj.b", "empty", "arr.a"}, Strings.EMPTY_ARRAY),
+            equalTo("{\"empty\":{},\"arr\":[]}"));
+        assertThat(filter(source.bytes(), Strings.EMPTY_ARRAY, new String[] {"*.a", "*.b"}),
+            equalTo("{\"obj\":{},\"empty\":{},\"arr\":[]}"));
+    }
+
+    private void assertFiltered(BytesReference source, String[] includes, String[] excludes) throws IOException {
+        Map<String, Object> expected = XContentMapValues.filter(XContentHelper.convertToMap(source, false).v2(), includes, excludes);
+        XContentBuilder builder = XContentFactory.contentBuilder(XContentFactory.xContentType(source));
+        try (XContentParser parser = XContentHelper.createParser(source)) {
+            IncludeExcludeFilter.copy(parser, builder, includes, excludes);
+        }
+        assertThat(XContentHelper.convertToMap(builder.bytes(), false).v2(), equalTo(expected));
+    }
+
+    private String filter(BytesReference source, String[] includes, String[] excludes) throws IOException {
+        XContentBuilder builder = XContentFactory.jsonBuilder();
+        try (XContentParser parser = XContentHelper.createParser(source)) {
+            IncludeExcludeFilter.copy(parser, builder, includes, excludes);
+        }
+        return builder.string();
+    }
+
+    private void randomFields(XContentBuilder builder, int depth) throws IOException {
+        int numFields = randomIntBetween(0, 3);
+        for (int i = 0; i < numFields; i++) {
+            // field names are unique within an object
+            builder.field(NAMES[i]);
+            randomValue(builder, depth);
+        }
+    }
+
+    private void randomValue(XContentBuilder builder, int depth) throws IOException {
+        int kind = depth >= 3 ? 0 : randomIntBetween(0, 2);
+        if (kind == 0) {
+            if (randomBoolean()) {
+                builder.value(randomAsciiOfLength(3));
+            } else {
+                builder.value(randomInt());
+            }
+        } else if (kind == 1) {
+            builder.startObject();
+            randomFields(builder, depth + 1);
+            builder.endObject();
+        } else {
+            builder.startArray();
+            int numValues = randomIntBetween(0, 3);
+            for (int i = 0; i < numValues; i++) {
+                randomValue(builder, depth + 1);
+            }
+            builder.endArray();
+        }
+    }
+
+    private String[] randomPatterns() {
+        String[] patterns = new String[randomIntBetween(0, 2)];
+        for (int i = 0; i < patterns.length; i++) {
+            StringBuilder pattern = new StringBuilder();
+            int length = randomIntBetween(1, 3);
+            for (int j = 0; j < length; j++) {
+                if (j > 0) {
+                    pattern.append('.');
+                }
+                pattern.append(randomBoolean() ? randomFrom(NAMES) : randomFrom("*", "a*", "*b"));
+            }
+            patterns[i] = pattern.toString();
+        }
+        return patterns;
+    }
+}
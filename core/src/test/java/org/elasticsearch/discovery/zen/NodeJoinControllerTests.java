@@ -519,7 +519,8 @@ public class NodeJoinControllerTests extends ESTestCase {
     static class NoopRoutingService extends RoutingService {
 
         public NoopRoutingService(Settings settings) {
-            super(settings, null, new NoopAllocationService(settings));
+            super(settings, new ClusterSettings(settings, ClusterSettings.BUILT_IN_CLUSTER_SETTINGS), null, null,
+                new NoopAllocationService(settings));
         }
 
         @Override
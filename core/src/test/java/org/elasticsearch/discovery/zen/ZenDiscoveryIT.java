@@ -45,6 +45,7 @@ import org.elasticsearch.discovery.zen.elect.ElectMasterService;
 import org.elasticsearch.discovery.zen.fd.FaultDetection;
 import org.elasticsearch.discovery.zen.membership.MembershipAction;
 import org.elasticsearch.discovery.zen.publish.PublishClusterStateAction;
+import org.elasticsearch.discovery.zen.publish.PublishClusterStateStats;
 import org.elasticsearch.node.Node;
 import org.elasticsearch.test.ESIntegTestCase;
 import org.elasticsearch.test.TestCustomMetaData;
@@ -332,16 +333,6 @@ public class ZenDiscoveryIT extends ESIntegTestCase {
     }
 
     public void testDiscoveryStats() throws IOException {
-        String expectedStatsJsonResponse = "{\n" +
-                "  \"discovery\" : {\n" +
-                "    \"cluster_state_queue\" : {\n" +
-                "      \"total\" : 0,\n" +
-                "      \"pending\" : 0,\n" +
-                "      \"committed\" : 0\n" +
-                "    }\n" +
-                "  }\n" +
-                "}";
-
         Settings nodeSettings = Settings.builder()
                 .put("discovery.type", "zen") // <-- To override the local setting if set externally
                 .build();
@@ -356,6 +347,38 @@ public class ZenDiscoveryIT extends ESIntegTestCase {
         assertThat(stats.getQueueStats().getTotal(), equalTo(0));
         assertThat(stats.getQueueStats().getCommitted(), equalTo(0));
         assertThat(stats.getQueueStats().getPending(), equalTo(0));
+        PublishClusterStateStats publishStats = stats.getPublishStats();
+        assertThat(publishStats, notNullValue());
+        assertThat(publishStats.getFullStatesSent(), equalTo(0L));
+        assertThat(publishStats.getDiffsSent(), equalTo(0L));
+        assertThat(publishStats.getFullStatesReceived(), equalTo(0L));
+        assertThat(publishStats.getDiffsReceived(), equalTo(0L));
+
+        String expectedStatsJsonResponse = "{\n" +
+                "  \"discovery\" : {\n" +
+                "    \"cluster_state_queue\" : {\n" +
+                "      \"total\" : 0,\n" +
+                "      \"pending\" : 0,\n" +
+                "      \"committed\" : 0\n" +
+                "    },\n" +
+                "    \"cluster_state_publishing\" : {\n" +
+                "      \"published\" : " + publishStats.getPublished() + ",\n" +
+                "      \"compute_time_in_millis\" : " + publishStats.getComputeTimeInMillis() + ",\n" +
+                "      \"serialize_time_in_millis\" : " + publishStats.getSerializeTimeInMillis() + ",\n" +
+                "      \"send_time_in_millis\" : " + publishStats.getSendTimeInMillis() + ",\n" +
+                "      \"sent\" : {\n" +
+                "        \"full_states\" : 0,\n" +
+                "        \"diffs\" : 0,\n" +
+                "        \"incompatible_diffs\" : 0\n" +
+                "      },\n" +
+                "      \"received\" : {\n" +
+                "        \"full_states\" : 0,\n" +
+                "        \"diffs\" : 0,\n" +
+                "        \"apply_time_in_millis\" : 0\n" +
+                "      }\n" +
+                "    }\n" +
+                "  }\n" +
+                "}";
 
         XContentBuilder builder = XContentFactory.jsonBuilder().prettyPrint();
         builder.startObject();
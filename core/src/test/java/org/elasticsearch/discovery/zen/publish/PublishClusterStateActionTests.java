@@ -36,6 +36,7 @@ import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.Randomness;
 import org.elasticsearch.common.collect.ImmutableOpenMap;
 import org.elasticsearch.common.collect.Tuple;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.logging.ESLogger;
 import org.elasticsearch.common.settings.ClusterSettings;
@@ -246,12 +247,61 @@ public class PublishClusterStateActionTests extends ESTestCase {
         return new MockPublishAction(
                 settings,
                 transportService,
+                threadPool,
                 clusterStateSupplier,
                 listener,
                 discoverySettings,
                 CLUSTER_NAME);
     }
 
+    public void testPublishStats() throws Exception {
+        MockNode nodeA = createMockNode("nodeA", Settings.EMPTY).setAsMaster();
+        MockNode nodeB = createMockNode("nodeB", Settings.EMPTY);
+
+        ClusterState previousClusterState = nodeA.clusterState;
+        DiscoveryNodes discoveryNodes = DiscoveryNodes.builder(previousClusterState.nodes()).put(nodeB.discoveryNode).build();
+        ClusterState clusterState = ClusterState.builder(previousClusterState).nodes(discoveryNodes).incrementVersion().build();
+        publishStateAndWait(nodeA.action, clusterState, previousClusterState);
+
+        previousClusterState = clusterState;
+        clusterState = ClusterState.builder(clusterState).blocks(ClusterBlocks.builder().addGlobalBlock(MetaData.CLUSTER_READ_ONLY_BLOCK)).incrementVersion().build();
+        publishStateAndWait(nodeA.action, clusterState, previousClusterState);
+
+        // node C needs the full state while node B gets a diff, both are serialized concurrently
+        MockNode nodeC = createMockNode("nodeC", Settings.EMPTY);
+        previousClusterState = clusterState;
+        discoveryNodes = DiscoveryNodes.builder(discoveryNodes).put(nodeC.discoveryNode).build();
+        clusterState = ClusterState.builder(clusterState).nodes(discoveryNodes).incrementVersion().build();
+        publishStateAndWait(nodeA.action, clusterState, previousClusterState);
+        assertSameStateFromDiff(nodeB.clusterState, clusterState);
+        assertSameStateFromFull(nodeC.clusterState, clusterState);
+
+        PublishClusterStateStats stats = nodeA.action.stats();
+        assertThat(stats.getPublished(), equalTo(3L));
+        assertThat(stats.getFullStatesSent(), equalTo(2L));
+        assertThat(stats.getDiffsSent(), equalTo(2L));
+        assertThat(stats.getIncompatibleDiffs(), equalTo(0L));
+        assertThat(stats.getFullStatesReceived(), equalTo(0L));
+        assertThat(stats.getDiffsReceived(), equalTo(0L));
+
+        stats = nodeB.action.stats();
+        assertThat(stats.getPublished(), equalTo(0L));
+        assertThat(stats.getFullStatesReceived(), equalTo(1L));
+        assertThat(stats.getDiffsReceived(), equalTo(2L));
+
+        stats = nodeC.action.stats();
+        assertThat(stats.getFullStatesReceived(), equalTo(1L));
+        assertThat(stats.getDiffsReceived(), equalTo(0L));
+
+        BytesStreamOutput out = new BytesStreamOutput();
+        nodeA.action.stats().writeTo(out);
+        PublishClusterStateStats read = new PublishClusterStateStats();
+        read.readFrom(out.bytes().streamInput());
+        assertThat(read.getPublished(), equalTo(3L));
+        assertThat(read.getDiffsSent(), equalTo(2L));
+        assertThat(read.getSerializeTimeInMillis(), equalTo(nodeA.action.stats().getSerializeTimeInMillis()));
+    }
+
     public void testSimpleClusterStatePublishing() throws Exception {
         MockNode nodeA = createMockNode("nodeA", Settings.EMPTY).setAsMaster();
         MockNode nodeB = createMockNode("nodeB", Settings.EMPTY);
@@ -850,8 +900,8 @@ public class PublishClusterStateActionTests extends ESTestCase {
         AtomicBoolean timeoutOnCommit = new AtomicBoolean();
         AtomicBoolean errorOnCommit = new AtomicBoolean();
 
-        public MockPublishAction(Settings settings, TransportService transportService, Supplier<ClusterState> clusterStateSupplier, NewPendingClusterStateListener listener, DiscoverySettings discoverySettings, ClusterName clusterName) {
-            super(settings, transportService, clusterStateSupplier, listener, discoverySettings, clusterName);
+        public MockPublishAction(Settings settings, TransportService transportService, ThreadPool threadPool, Supplier<ClusterState> clusterStateSupplier, NewPendingClusterStateListener listener, DiscoverySettings discoverySettings, ClusterName clusterName) {
+            super(settings, transportService, threadPool, clusterStateSupplier, listener, discoverySettings, clusterName);
         }
 
         @Override
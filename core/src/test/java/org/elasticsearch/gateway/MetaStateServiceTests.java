@@ -103,4 +103,28 @@ public class MetaStateServiceTests extends ESTestCase {
             assertThat(loadedState.index("test1"), equalTo(index));
         }
     }
+
+    public void testLoadManyIndicesConcurrently() throws Exception {
+        try (NodeEnvironment env = newNodeEnvironment()) {
+            Settings settings = Settings.builder().put(MetaStateService.LOAD_CONCURRENCY_SETTING.getKey(), randomIntBetween(1, 4)).build();
+            MetaStateService metaStateService = new MetaStateService(settings, env);
+
+            int numIndices = randomIntBetween(1, 20);
+            MetaData.Builder metaData = MetaData.builder();
+            for (int i = 0; i < numIndices; i++) {
+                IndexMetaData index = IndexMetaData.builder("test" + i)
+                        .settings(Settings.builder().put(indexSettings).put(IndexMetaData.SETTING_INDEX_UUID, "uuid" + i))
+                        .build();
+                metaStateService.writeIndex("test_write", index);
+                metaData.put(index, false);
+            }
+
+            MetaData loadedState = metaStateService.loadFullState();
+            assertThat(loadedState.indices().size(), equalTo(numIndices));
+            for (int i = 0; i < numIndices; i++) {
+                assertThat(loadedState.index("test" + i), equalTo(metaData.get("test" + i)));
+            }
+            assertThat(metaStateService.loadIndicesStates(folder -> folder.equals("uuid0")).size(), equalTo(numIndices - 1));
+        }
+    }
 }
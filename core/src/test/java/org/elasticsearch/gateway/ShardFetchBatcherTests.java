@@ -0,0 +1,330 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.gateway;
+
+import org.elasticsearch.Version;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.support.PlainActionFuture;
+import org.elasticsearch.cluster.ClusterName;
+import org.elasticsearch.cluster.node.DiscoveryNode;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.transport.DummyTransportAddress;
+import org.elasticsearch.gateway.TransportNodesListGatewayStartedShards.NodeGatewayStartedShards;
+import org.elasticsearch.gateway.TransportNodesListGatewayStartedShards.NodesGatewayStartedShards;
+import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.test.ESTestCase;
+import org.elasticsearch.test.VersionUtils;
+import org.elasticsearch.test.transport.CapturingTransport;
+import org.elasticsearch.threadpool.TestThreadPool;
+import org.elasticsearch.threadpool.ThreadPool;
+import org.elasticsearch.transport.TransportChannel;
+import org.elasticsearch.transport.TransportResponse;
+import org.elasticsearch.transport.TransportResponseOptions;
+import org.elasticsearch.transport.TransportService;
+import org.junit.After;
+import org.junit.Before;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import static java.util.Collections.emptyList;
+import static java.util.Collections.emptyMap;
+import static java.util.Collections.emptySet;
+import static java.util.Collections.singletonList;
+import static org.hamcrest.Matchers.arrayContaining;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.nullValue;
+
+public class ShardFetchBatcherTests extends ESTestCase {
+
+    private final DiscoveryNode node1 = new DiscoveryNode("node1", DummyTransportAddress.INSTANCE, emptyMap(), emptySet(),
+        Version.CURRENT);
+    private final DiscoveryNode node2 = new DiscoveryNode("node2", DummyTransportAddress.INSTANCE, emptyMap(), emptySet(),
+        Version.CURRENT);
+
+    private ThreadPool threadPool;
+    private CapturingTransport transport;
+    private TransportService transportService;
+    private ShardFetchBatcher<NodesGatewayStartedShards, NodeGatewayStartedShards> batcher;
+    private List<PerShardFetch> perShardFetches;
+
+    @Override
+    @Before
+    public void setUp() throws Exception {
+        super.setUp();
+        threadPool = new TestThreadPool(getTestName());
+        transport = new CapturingTransport();
+        transportService = new TransportService(Settings.EMPTY, transport, threadPool);
+        transportService.start();
+        transportService.acceptIncomingRequests();
+        Settings settings = Settings.builder().put(ShardFetchBatcher.BATCH_SIZE_SETTING.getKey(), 2).build();
+        perShardFetches = new ArrayList<>();
+        batcher = new ShardFetchBatcher<>(settings, "internal:test", threadPool, transportService, ThreadPool.Names.SAME,
+            NodeGatewayStartedShards::new, shardId -> { throw new UnsupportedOperationException(); },
+            (responses, failures) -> new NodesGatewayStartedShards(ClusterName.DEFAULT, responses, failures),
+            (shardId, nodes, listener) -> perShardFetches.add(new PerShardFetch(shardId, nodes, listener)));
+    }
+
+    @Override
+    @After
+    public void tearDown() throws Exception {
+        transportService.close();
+        ThreadPool.terminate(threadPool, 30, TimeUnit.SECONDS);
+        super.tearDown();
+    }
+
+    public void testFetchesAreBatchedPerNode() {
+        final Map<ShardId, NodesGatewayStartedShards> results = new HashMap<>();
+        final List<ShardId> shardIds = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            ShardId shardId = new ShardId("test", "_na_", i);
+            shardIds.add(shardId);
+            batcher.list(shardId, new DiscoveryNode[]{node1, node2}, listener(shardId, results));
+        }
+        ShardId node1Only = new ShardId("test", "_na_", 3);
+        batcher.list(node1Only, new DiscoveryNode[]{node1}, listener(node1Only, results));
+        assertThat(transport.capturedRequests().length, equalTo(0));
+
+        batcher.flush();
+        Map<String, List<CapturingTransport.CapturedRequest>> requests = transport.getCapturedRequestsByTargetNodeAndClear();
+        assertThat(perShardFetches.size(), equalTo(0));
+        assertThat(requests.get(node1.getId()).size(), equalTo(2));
+        assertThat(requests.get(node2.getId()).size(), equalTo(2));
+
+        // node1 answers everything, node2 fails its first batch and fails a single shard in the second one
+        for (CapturingTransport.CapturedRequest request : requests.get(node1.getId())) {
+            respond(node1, request, -1);
+        }
+        transport.handleRemoteError(requests.get(node2.getId()).get(0).requestId, new IllegalStateException("boom"));
+        respond(node2, requests.get(node2.getId()).get(1), 0);
+
+        assertThat(results.size(), equalTo(4));
+        assertThat(results.get(shardIds.get(0)).getNodes().size(), equalTo(1));
+        assertThat(results.get(shardIds.get(0)).failures().size(), equalTo(1));
+        assertThat(results.get(shardIds.get(1)).getNodes().size(), equalTo(1));
+        assertThat(results.get(shardIds.get(1)).failures().size(), equalTo(1));
+        assertThat(results.get(shardIds.get(2)).getNodes().size(), equalTo(1));
+        assertThat(results.get(shardIds.get(2)).failures().size(), equalTo(1));
+        assertThat(results.get(node1Only).getNodes().size(), equalTo(1));
+        assertThat(results.get(node1Only).failures().size(), equalTo(0));
+        assertThat(results.get(node1Only).getNodes().get(0).getNode(), equalTo(node1));
+    }
+
+    public void testFlushWithoutFetches() {
+        batcher.flush();
+        assertThat(transport.capturedRequests().length, equalTo(0));
+        ShardId shardId = new ShardId("test", "_na_", 0);
+        Map<ShardId, NodesGatewayStartedShards> results = new HashMap<>();
+        batcher.list(shardId, new DiscoveryNode[]{node2}, listener(shardId, results));
+        batcher.flush();
+        batcher.flush();
+        CapturingTransport.CapturedRequest[] requests = transport.getCapturedRequestsAndClear();
+        assertThat(requests.length, equalTo(1));
+        assertThat(((ShardFetchBatcher.NodeBatchRequest) requests[0].request).getShardIds(), contains(shardId));
+        respond(node2, requests[0], -1);
+        assertThat(results.get(shardId).getNodes().get(0).allocationId(), nullValue());
+    }
+
+    public void testOlderNodesAreFetchedPerShard() {
+        final DiscoveryNode oldNode = new DiscoveryNode("old_node", DummyTransportAddress.INSTANCE, emptyMap(), emptySet(),
+            VersionUtils.getPreviousVersion(ShardFetchBatcher.BATCHED_FETCH_VERSION));
+        final DiscoveryNode otherOldNode = new DiscoveryNode("other_old_node", DummyTransportAddress.INSTANCE, emptyMap(), emptySet(),
+            VersionUtils.getPreviousVersion(ShardFetchBatcher.BATCHED_FETCH_VERSION));
+        final Map<ShardId, NodesGatewayStartedShards> results = new HashMap<>();
+        final ShardId shardId = new ShardId("test", "_na_", 0);
+        batcher.list(shardId, new DiscoveryNode[]{node1, oldNode, otherOldNode}, listener(shardId, results));
+        batcher.flush();
+
+        // the batched action only goes to the node that knows it
+        Map<String, List<CapturingTransport.CapturedRequest>> requests = transport.getCapturedRequestsByTargetNodeAndClear();
+        assertThat(requests.keySet(), contains(node1.getId()));
+        assertThat(perShardFetches.size(), equalTo(1));
+        PerShardFetch perShardFetch = perShardFetches.get(0);
+        assertThat(perShardFetch.shardId, equalTo(shardId));
+        assertThat(perShardFetch.nodes, arrayContaining(oldNode, otherOldNode));
+
+        respond(node1, requests.get(node1.getId()).get(0), -1);
+        assertThat(results.size(), equalTo(0));
+        // one old node answers, the other one doesn't show up in the response at all
+        perShardFetch.listener.onResponse(new NodesGatewayStartedShards(ClusterName.DEFAULT,
+            singletonList(new NodeGatewayStartedShards(oldNode, 1, null, false)), emptyList()));
+
+        NodesGatewayStartedShards response = results.get(shardId);
+        assertThat(response.getNodes().size(), equalTo(2));
+        assertThat(response.failures().size(), equalTo(1));
+        assertThat(response.failures().get(0).nodeId(), equalTo(otherOldNode.getId()));
+    }
+
+    public void testFailedPerShardFetchFailsOnlyTheOlderNodes() {
+        final DiscoveryNode oldNode = new DiscoveryNode("old_node", DummyTransportAddress.INSTANCE, emptyMap(), emptySet(),
+            VersionUtils.getPreviousVersion(ShardFetchBatcher.BATCHED_FETCH_VERSION));
+        final Map<ShardId, NodesGatewayStartedShards> results = new HashMap<>();
+        final ShardId shardId = new ShardId("test", "_na_", 0);
+        batcher.list(shardId, new DiscoveryNode[]{oldNode, node2}, listener(shardId, results));
+        batcher.flush();
+
+        perShardFetches.get(0).listener.onFailure(new IllegalStateException("boom"));
+        respond(node2, transport.getCapturedRequestsAndClear()[0], -1);
+
+        NodesGatewayStartedShards response = results.get(shardId);
+        assertThat(response.getNodes().size(), equalTo(1));
+        assertThat(response.getNodes().get(0).getNode(), equalTo(node2));
+        assertThat(response.failures().size(), equalTo(1));
+        assertThat(response.failures().get(0).nodeId(), equalTo(oldNode.getId()));
+    }
+
+    public void testBatchHandlerRunsEveryShardOperation() throws Exception {
+        final ShardId failingShard = new ShardId("test", "_na_", 1);
+        ShardFetchBatcher<NodesGatewayStartedShards, NodeGatewayStartedShards> dataNodeBatcher = new ShardFetchBatcher<>(
+            Settings.EMPTY, "internal:test_data_node", threadPool, transportService, ThreadPool.Names.GENERIC,
+            NodeGatewayStartedShards::new,
+            shardId -> {
+                if (shardId.equals(failingShard)) {
+                    throw new IllegalStateException("failed to load " + shardId);
+                }
+                return new NodeGatewayStartedShards(node1, shardId.id(), null, false);
+            },
+            (responses, failures) -> new NodesGatewayStartedShards(ClusterName.DEFAULT, responses, failures),
+            (shardId, nodes, listener) -> { throw new UnsupportedOperationException(); });
+        final List<ShardId> shardIds = new ArrayList<>();
+        for (int i = 0; i < randomIntBetween(2, 20); i++) {
+            shardIds.add(new ShardId("test", "_na_", i));
+        }
+
+        CapturingChannel channel = new CapturingChannel();
+        dataNodeBatcher.new NodeBatchTransportHandler().messageReceived(new ShardFetchBatcher.NodeBatchRequest(shardIds), channel);
+        TransportResponse response = channel.response.get(10, TimeUnit.SECONDS);
+
+        // the results have to survive the trip back to the master
+        BytesStreamOutput out = new BytesStreamOutput();
+        response.writeTo(out);
+        ShardFetchBatcher<NodesGatewayStartedShards, NodeGatewayStartedShards>.NodeBatchResponse received =
+            dataNodeBatcher.new NodeBatchResponse();
+        StreamInput in = out.bytes().streamInput();
+        received.readFrom(in);
+        List<Object> results = received.getResults();
+        assertThat(results.size(), equalTo(shardIds.size()));
+        for (int i = 0; i < shardIds.size(); i++) {
+            if (shardIds.get(i).equals(failingShard)) {
+                assertThat(results.get(i), instanceOf(IllegalStateException.class));
+                assertThat(((Throwable) results.get(i)).getMessage(), equalTo("failed to load " + failingShard));
+            } else {
+                assertThat(results.get(i), instanceOf(NodeGatewayStartedShards.class));
+                assertThat(((NodeGatewayStartedShards) results.get(i)).legacyVersion(), equalTo((long) i));
+            }
+        }
+    }
+
+    public void testBatchHandlerRespondsToAnEmptyBatch() throws Exception {
+        CapturingChannel channel = new CapturingChannel();
+        batcher.new NodeBatchTransportHandler().messageReceived(new ShardFetchBatcher.NodeBatchRequest(emptyList()), channel);
+        TransportResponse response = channel.response.get(10, TimeUnit.SECONDS);
+        assertThat(((ShardFetchBatcher.NodeBatchResponse) response).getResults().size(), equalTo(0));
+    }
+
+    private void respond(DiscoveryNode node, CapturingTransport.CapturedRequest request, int failedShard) {
+        List<ShardId> shardIds = ((ShardFetchBatcher.NodeBatchRequest) request.request).getShardIds();
+        AtomicReferenceArray<Object> results = new AtomicReferenceArray<>(shardIds.size());
+        for (int i = 0; i < shardIds.size(); i++) {
+            if (i == failedShard) {
+                results.set(i, new IllegalStateException("failed to load " + shardIds.get(i)));
+            } else {
+                results.set(i, new NodeGatewayStartedShards(node, -1, null, false));
+            }
+        }
+        transport.handleResponse(request.requestId, batcher.new NodeBatchResponse(results));
+    }
+
+    private static class PerShardFetch {
+        final ShardId shardId;
+        final DiscoveryNode[] nodes;
+        final ActionListener<NodesGatewayStartedShards> listener;
+
+        PerShardFetch(ShardId shardId, DiscoveryNode[] nodes, ActionListener<NodesGatewayStartedShards> listener) {
+            this.shardId = shardId;
+            this.nodes = nodes;
+            this.listener = listener;
+        }
+    }
+
+    private static class CapturingChannel implements TransportChannel {
+        final PlainActionFuture<TransportResponse> response = new PlainActionFuture<>();
+
+        @Override
+        public String action() {
+            return "internal:test";
+        }
+
+        @Override
+        public String getProfileName() {
+            return "";
+        }
+
+        @Override
+        public void sendResponse(TransportResponse response) throws IOException {
+            this.response.onResponse(response);
+        }
+
+        @Override
+        public void sendResponse(TransportResponse response, TransportResponseOptions options) throws IOException {
+            this.response.onResponse(response);
+        }
+
+        @Override
+        public void sendResponse(Throwable error) throws IOException {
+            this.response.onFailure(error);
+        }
+
+        @Override
+        public long getRequestId() {
+            return 0;
+        }
+
+        @Override
+        public String getChannelType() {
+            return "test";
+        }
+    }
+
+    private ActionListener<NodesGatewayStartedShards> listener(ShardId shardId, Map<ShardId, NodesGatewayStartedShards> results) {
+        return new ActionListener<NodesGatewayStartedShards>() {
+            @Override
+            public void onResponse(NodesGatewayStartedShards response) {
+                synchronized (results) {
+                    assertThat(results.put(shardId, response), nullValue());
+                }
+            }
+
+            @Override
+            public void onFailure(Throwable e) {
+                throw new AssertionError(e);
+            }
+        };
+    }
+}
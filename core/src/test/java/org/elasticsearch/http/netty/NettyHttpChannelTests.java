@@ -23,12 +23,14 @@ import org.elasticsearch.common.bytes.BytesArray;
 import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.network.NetworkService;
 import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.util.BigArrays;
 import org.elasticsearch.common.util.MockBigArrays;
 import org.elasticsearch.http.HttpTransportSettings;
 import org.elasticsearch.http.netty.cors.CorsHandler;
 import org.elasticsearch.indices.breaker.NoneCircuitBreakerService;
 import org.elasticsearch.rest.RestResponse;
 import org.elasticsearch.rest.RestStatus;
+import org.elasticsearch.rest.StreamingRestResponse;
 import org.elasticsearch.test.ESTestCase;
 import org.elasticsearch.threadpool.TestThreadPool;
 import org.elasticsearch.threadpool.ThreadPool;
@@ -39,7 +41,9 @@ import org.jboss.netty.channel.ChannelConfig;
 import org.jboss.netty.channel.ChannelFactory;
 import org.jboss.netty.channel.ChannelFuture;
 import org.jboss.netty.channel.ChannelPipeline;
+import org.jboss.netty.channel.Channels;
 import org.jboss.netty.handler.codec.http.DefaultHttpHeaders;
+import org.jboss.netty.handler.codec.http.HttpChunk;
 import org.jboss.netty.handler.codec.http.HttpHeaders;
 import org.jboss.netty.handler.codec.http.HttpMethod;
 import org.jboss.netty.handler.codec.http.HttpRequest;
@@ -48,7 +52,10 @@ import org.jboss.netty.handler.codec.http.HttpVersion;
 import org.junit.After;
 import org.junit.Before;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.net.SocketAddress;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -57,9 +64,13 @@ import static org.elasticsearch.http.HttpTransportSettings.SETTING_CORS_ALLOW_ME
 import static org.elasticsearch.http.HttpTransportSettings.SETTING_CORS_ALLOW_ORIGIN;
 import static org.elasticsearch.http.HttpTransportSettings.SETTING_CORS_ENABLED;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.hasItem;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
 
 public class NettyHttpChannelTests extends ESTestCase {
 
@@ -198,6 +209,83 @@ public class NettyHttpChannelTests extends ESTestCase {
         assertThat(response.headers().get(HttpHeaders.Names.CONTENT_TYPE), equalTo(resp.contentType()));
     }
 
+    public void testStreamingResponseFittingIntoOneChunk() {
+        httpServerTransport = new NettyHttpServerTransport(Settings.EMPTY, networkService, BigArrays.NON_RECYCLING_INSTANCE, threadPool);
+        WriteCapturingChannel writeCapturingChannel = new WriteCapturingChannel();
+        NettyHttpRequest request = new NettyHttpRequest(new TestHttpRequest(), writeCapturingChannel);
+
+        NettyHttpChannel channel = new NettyHttpChannel(httpServerTransport, request, null, randomBoolean());
+        byte[] content = randomUnicodeOfLengthBetween(1, 1024).getBytes(StandardCharsets.UTF_8);
+        channel.sendResponse(new TestStreamingResponse(content, content.length));
+
+        List<Object> writtenObjects = writeCapturingChannel.getWrittenObjects();
+        assertThat(writtenObjects.size(), is(1));
+        HttpResponse response = (HttpResponse) writtenObjects.get(0);
+        assertThat(response.isChunked(), is(false));
+        assertThat(response.headers().get(HttpHeaders.Names.CONTENT_LENGTH), equalTo(Integer.toString(content.length)));
+        assertThat(response.headers().get(HttpHeaders.Names.CONTENT_TYPE), equalTo("text"));
+        assertThat(toBytes(response.getContent()), equalTo(content));
+    }
+
+    public void testStreamingResponseIsChunked() {
+        Settings settings = Settings.builder().put(HttpTransportSettings.SETTING_HTTP_RESPONSE_CHUNK_SIZE.getKey(), "1kb").build();
+        // the chunks are released as soon as they are written, don't let them be recycled before we look at them
+        httpServerTransport = new NettyHttpServerTransport(settings, networkService, BigArrays.NON_RECYCLING_INSTANCE, threadPool);
+        WriteCapturingChannel writeCapturingChannel = new WriteCapturingChannel();
+        NettyHttpRequest request = new NettyHttpRequest(new TestHttpRequest(), writeCapturingChannel);
+
+        NettyHttpChannel channel = new NettyHttpChannel(httpServerTransport, request, null, randomBoolean());
+        byte[] content = new byte[scaledRandomIntBetween(2048, 64 * 1024)];
+        random().nextBytes(content);
+        channel.sendResponse(new TestStreamingResponse(content, randomIntBetween(1, 4096)));
+
+        List<Object> writtenObjects = writeCapturingChannel.getWrittenObjects();
+        assertThat(writtenObjects.size(), greaterThan(2));
+        HttpResponse response = (HttpResponse) writtenObjects.get(0);
+        assertThat(response.isChunked(), is(true));
+        assertThat(HttpHeaders.isTransferEncodingChunked(response), is(true));
+        assertThat(response.headers().get(HttpHeaders.Names.CONTENT_LENGTH), nullValue());
+        assertThat(response.headers().get(HttpHeaders.Names.CONTENT_TYPE), equalTo("text"));
+        assertThat(writtenObjects.get(writtenObjects.size() - 1), sameInstance(HttpChunk.LAST_CHUNK));
+
+        ChannelBuffer received = ChannelBuffers.dynamicBuffer();
+        for (Object chunk : writtenObjects.subList(1, writtenObjects.size() - 1)) {
+            received.writeBytes(((HttpChunk) chunk).getContent());
+        }
+        assertThat(toBytes(received), equalTo(content));
+    }
+
+    public void testStreamingResponseFailure() {
+        Settings settings = Settings.builder().put(HttpTransportSettings.SETTING_HTTP_RESPONSE_CHUNK_SIZE.getKey(), "1kb").build();
+        httpServerTransport = new NettyHttpServerTransport(settings, networkService, bigArrays, threadPool);
+
+        // nothing was sent yet, so the failure is reported as an error response
+        WriteCapturingChannel writeCapturingChannel = new WriteCapturingChannel();
+        NettyHttpRequest request = new NettyHttpRequest(new TestHttpRequest(), writeCapturingChannel);
+        NettyHttpChannel channel = new NettyHttpChannel(httpServerTransport, request, null, randomBoolean());
+        channel.sendResponse(new TestStreamingResponse(new byte[512], 512, true));
+        assertThat(writeCapturingChannel.getWrittenObjects().size(), is(1));
+        HttpResponse response = (HttpResponse) writeCapturingChannel.getWrittenObjects().get(0);
+        assertThat(response.getStatus().getCode(), equalTo(RestStatus.INTERNAL_SERVER_ERROR.getStatus()));
+        assertThat(writeCapturingChannel.isClosed(), is(false));
+
+        // the response is already on the wire, so the connection has to be dropped
+        writeCapturingChannel = new WriteCapturingChannel();
+        request = new NettyHttpRequest(new TestHttpRequest(), writeCapturingChannel);
+        channel = new NettyHttpChannel(httpServerTransport, request, null, randomBoolean());
+        channel.sendResponse(new TestStreamingResponse(new byte[4096], 512, true));
+        response = (HttpResponse) writeCapturingChannel.getWrittenObjects().get(0);
+        assertThat(response.isChunked(), is(true));
+        assertThat(writeCapturingChannel.getWrittenObjects(), not(hasItem(HttpChunk.LAST_CHUNK)));
+        assertThat(writeCapturingChannel.isClosed(), is(true));
+    }
+
+    private static byte[] toBytes(ChannelBuffer buffer) {
+        byte[] bytes = new byte[buffer.readableBytes()];
+        buffer.getBytes(buffer.readerIndex(), bytes);
+        return bytes;
+    }
+
     private HttpResponse execRequestWithCors(final Settings settings, final String originValue, final String host) {
         // construct request and send it over the transport layer
         httpServerTransport = new NettyHttpServerTransport(settings, networkService, bigArrays, threadPool);
@@ -220,6 +308,8 @@ public class NettyHttpChannelTests extends ESTestCase {
 
         private List<Object> writtenObjects = new ArrayList<>();
 
+        private boolean closed;
+
         @Override
         public Integer getId() {
             return null;
@@ -273,13 +363,13 @@ public class NettyHttpChannelTests extends ESTestCase {
         @Override
         public ChannelFuture write(Object message) {
             writtenObjects.add(message);
-            return null;
+            return Channels.succeededFuture(this);
         }
 
         @Override
         public ChannelFuture write(Object message, SocketAddress remoteAddress) {
             writtenObjects.add(message);
-            return null;
+            return Channels.succeededFuture(this);
         }
 
         @Override
@@ -304,6 +394,7 @@ public class NettyHttpChannelTests extends ESTestCase {
 
         @Override
         public ChannelFuture close() {
+            closed = true;
             return null;
         }
 
@@ -365,6 +456,10 @@ public class NettyHttpChannelTests extends ESTestCase {
         public List<Object> getWrittenObjects() {
             return writtenObjects;
         }
+
+        public boolean isClosed() {
+            return closed;
+        }
     }
 
     private static class TestHttpRequest implements HttpRequest {
@@ -446,4 +541,37 @@ public class NettyHttpChannelTests extends ESTestCase {
             return RestStatus.OK;
         }
     }
+
+    private static class TestStreamingResponse extends StreamingRestResponse {
+
+        private final byte[] content;
+        private final int writeSize;
+        private final boolean fail;
+
+        TestStreamingResponse(byte[] content, int writeSize) {
+            this(content, writeSize, false);
+        }
+
+        TestStreamingResponse(byte[] content, int writeSize, boolean fail) {
+            super(RestStatus.OK);
+            this.content = content;
+            this.writeSize = writeSize;
+            this.fail = fail;
+        }
+
+        @Override
+        public String contentType() {
+            return "text";
+        }
+
+        @Override
+        protected void writeContent(OutputStream out) throws IOException {
+            for (int offset = 0; offset < content.length; offset += writeSize) {
+                out.write(content, offset, Math.min(writeSize, content.length - offset));
+            }
+            if (fail) {
+                throw new IOException("simulated failure");
+            }
+        }
+    }
 }
@@ -56,6 +56,10 @@ import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.hamcrest.Matchers.both;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
 import static org.jboss.netty.buffer.ChannelBuffers.EMPTY_BUFFER;
 import static org.jboss.netty.buffer.ChannelBuffers.copiedBuffer;
 import static org.jboss.netty.handler.codec.http.HttpHeaders.Names.CONNECTION;
@@ -88,6 +92,8 @@ public class HttpPipeliningHandlerTests extends ESTestCase {
 
     private HashedWheelTimer timer;
 
+    private final HttpPipeliningHandler.DepthTracker depthTracker = new HttpPipeliningHandler.DepthTracker();
+
     private InetSocketAddress boundAddress;
 
     @Before
@@ -112,7 +118,7 @@ public class HttpPipeliningHandlerTests extends ESTestCase {
                 return Channels.pipeline(
                         new HttpRequestDecoder(),
                         new HttpResponseEncoder(),
-                        new HttpPipeliningHandler(10000),
+                        new HttpPipeliningHandler(10000, depthTracker),
                         new ServerHandler()
                 );
             }
@@ -134,7 +140,7 @@ public class HttpPipeliningHandlerTests extends ESTestCase {
         clientBootstrap.releaseExternalResources();
     }
 
-    public void testShouldReturnMessagesInOrder() throws InterruptedException {
+    public void testShouldReturnMessagesInOrder() throws Exception {
         responsesIn = new CountDownLatch(1);
         responses.clear();
 
@@ -159,6 +165,9 @@ public class HttpPipeliningHandlerTests extends ESTestCase {
 
         assertTrue(responses.contains(SOME_RESPONSE_TEXT + PATH1));
         assertTrue(responses.contains(SOME_RESPONSE_TEXT + PATH2));
+
+        assertThat(depthTracker.maxDepth(), both(greaterThanOrEqualTo(1L)).and(lessThanOrEqualTo(2L)));
+        assertBusy(() -> assertThat(depthTracker.pending(), equalTo(0L)));
     }
 
     public class ClientHandler extends SimpleChannelUpstreamHandler {
@@ -925,6 +925,57 @@ public class InternalEngineTests extends ESTestCase {
         }
     }
 
+    public void testRetainTranslogSinceSyncedCommit() throws IOException {
+        try (Store store = createStore();
+             Engine engine = new InternalEngine(config(defaultSettings, store, createTempDir(), newMergePolicy()))) {
+            final String syncId = randomUnicodeOfCodepointLengthBetween(10, 20);
+            ParsedDocument doc = testParsedDocument("1", "1", "test", null, -1, -1, testDocumentWithTextField(), B_1, null);
+            engine.index(new Engine.Index(newUid("1"), doc));
+            Engine.CommitId commitID = engine.flush();
+            assertEquals(Engine.SyncedFlushResult.SUCCESS, engine.syncFlush(syncId, commitID));
+            assertNull("synced commit is still the last commit", engine.acquireTranslogViewSinceSyncedCommit(syncId, 1));
+
+            final int numOps = randomIntBetween(1, 10);
+            for (int i = 0; i < numOps; i++) {
+                engine.index(new Engine.Index(newUid(Integer.toString(i + 2)), doc));
+            }
+            engine.flush();
+            assertNull(engine.acquireTranslogViewSinceSyncedCommit(syncId, 2));
+            assertNull(engine.acquireTranslogViewSinceSyncedCommit(syncId + "1", 1));
+            try (Translog.View view = engine.acquireTranslogViewSinceSyncedCommit(syncId, 1)) {
+                assertNotNull(view);
+                assertEquals(numOps, view.totalOperations());
+            }
+
+            // operations after the next flush are part of the retained translog as well
+            engine.index(new Engine.Index(newUid("1"), doc));
+            engine.flush();
+            try (Translog.View view = engine.acquireTranslogViewSinceSyncedCommit(syncId, 1)) {
+                assertNotNull(view);
+                assertEquals(numOps + 1, view.totalOperations());
+                assertEquals(numOps + 1, view.snapshot().totalOperations());
+            }
+        }
+    }
+
+    public void testTranslogRetentionDisabled() throws IOException {
+        IndexSettings indexSettings = IndexSettingsModule.newIndexSettings("test", Settings.builder()
+            .put(defaultSettings.getSettings())
+            .put(IndexSettings.INDEX_TRANSLOG_RETENTION_SIZE_SETTING.getKey(), "0b")
+            .build());
+        try (Store store = createStore();
+             Engine engine = new InternalEngine(config(indexSettings, store, createTempDir(), newMergePolicy()))) {
+            final String syncId = randomUnicodeOfCodepointLengthBetween(10, 20);
+            ParsedDocument doc = testParsedDocument("1", "1", "test", null, -1, -1, testDocumentWithTextField(), B_1, null);
+            engine.index(new Engine.Index(newUid("1"), doc));
+            Engine.CommitId commitID = engine.flush();
+            assertEquals(Engine.SyncedFlushResult.SUCCESS, engine.syncFlush(syncId, commitID));
+            engine.index(new Engine.Index(newUid("2"), doc));
+            engine.flush();
+            assertNull(engine.acquireTranslogViewSinceSyncedCommit(syncId, 1));
+        }
+    }
+
     public void testRenewSyncFlush() throws Exception {
         final int iters = randomIntBetween(2, 5); // run this a couple of times to get some coverage
         for (int i = 0; i < iters; i++) {
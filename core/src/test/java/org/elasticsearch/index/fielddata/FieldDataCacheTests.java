@@ -129,6 +129,10 @@ public class FieldDataCacheTests extends ESTestCase {
         @Override
         public void clear(String fieldName) {
         }
+
+        @Override
+        public void clearOwnEntries() {
+        }
     }
 
 }
@@ -20,6 +20,7 @@ package org.elasticsearch.index.mapper.core;
 
 import java.io.IOException;
 import java.util.Locale;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.lucene.document.LongPoint;
 import org.apache.lucene.index.DirectoryReader;
@@ -29,6 +30,7 @@ import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.index.IndexWriterConfig;
 import org.apache.lucene.index.MultiReader;
 import org.apache.lucene.index.Term;
+import org.apache.lucene.search.Query;
 import org.apache.lucene.search.TermQuery;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.util.IOUtils;
@@ -42,6 +44,10 @@ import org.elasticsearch.index.mapper.core.DateFieldMapper.DateFieldType;
 import org.joda.time.DateTimeZone;
 import org.junit.Before;
 
+import static org.hamcrest.Matchers.anyOf;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+
 public class DateFieldTypeTests extends FieldTypeTestCase {
     @Override
     protected MappedFieldType createDefaultFieldType() {
@@ -156,12 +162,47 @@ public class DateFieldTypeTests extends FieldTypeTestCase {
         ft.setIndexOptions(IndexOptions.DOCS);
         assertEquals(LongPoint.newExactQuery("field", instant), ft.termQuery(date, null));
 
+        // dates relative to now are resolved when the query is executed
+        Query query = ft.termQuery("now/d", null);
+        assertThat(query, instanceOf(DateFieldType.LateParsingQuery.class));
+        assertTrue(((DateFieldType.LateParsingQuery) query).isRelativeToNow());
+        assertFalse(((DateFieldType.LateParsingQuery) ft.rangeQuery(date, null, true, true)).isRelativeToNow());
+
         ft.setIndexOptions(IndexOptions.NONE);
         IllegalArgumentException e = expectThrows(IllegalArgumentException.class,
                 () -> ft.termQuery(date, null));
         assertEquals("Cannot search on field [field] since it is not indexed.", e.getMessage());
     }
 
+    public void testTermQueryAbsoluteDate() {
+        MappedFieldType ft = createDefaultFieldType();
+        ft.setName("field");
+        ft.setIndexOptions(IndexOptions.DOCS);
+        long day = LegacyDateFieldMapper.Defaults.DATE_TIME_FORMATTER.parser().parseDateTime("2015-10-12").getMillis();
+        // absolute dates are resolved right away, rounded down for the lower and up for the upper bound
+        assertEquals(LongPoint.newRangeQuery("field", day, day + TimeUnit.DAYS.toMillis(1) - 1), ft.termQuery("2015-10-12||/d", null));
+    }
+
+    public void testTermQueryRelativeToNow() throws IOException {
+        MappedFieldType ft = createDefaultFieldType();
+        ft.setName("field");
+        ft.setIndexOptions(IndexOptions.DOCS);
+        Query query = ft.termQuery("now/d", null);
+        assertThat(query, instanceOf(DateFieldType.LateParsingQuery.class));
+
+        // the date is resolved when the query is rewritten, which may happen on the next day
+        long before = System.currentTimeMillis();
+        Query rewritten = query.rewrite(new MultiReader());
+        long after = System.currentTimeMillis();
+        assertThat(rewritten, anyOf(equalTo(startOfDayQuery("field", before)), equalTo(startOfDayQuery("field", after))));
+    }
+
+    private static Query startOfDayQuery(String field, long nowInMillis) {
+        DateMathParser parser = new DateMathParser(LegacyDateFieldMapper.Defaults.DATE_TIME_FORMATTER);
+        return LongPoint.newRangeQuery(field, parser.parse("now/d", () -> nowInMillis, false, null),
+                parser.parse("now/d", () -> nowInMillis, true, null));
+    }
+
     public void testRangeQuery() throws IOException {
         MappedFieldType ft = createDefaultFieldType();
         ft.setName("field");
@@ -275,11 +275,31 @@ public abstract class ESIndexLevelReplicationTestCase extends ESTestCase {
         }
 
         public synchronized IndexShard addReplica() throws IOException {
-            final IndexShard replica = newShard(false, getDiscoveryNode("s" + replicaId.incrementAndGet()), indexMetaData, homePath);
+            return addReplica("s" + replicaId.incrementAndGet());
+        }
+
+        /**
+         * Adds a replica on the node with the given id, reusing the files a replica that was on that node left behind.
+         */
+        public synchronized IndexShard addReplica(String nodeId) throws IOException {
+            final IndexShard replica = newShard(false, getDiscoveryNode(nodeId), indexMetaData, homePath);
             replicas.add(replica);
             return replica;
         }
 
+        /**
+         * Closes the given replica and removes it from the group, leaving its files on disk.
+         */
+        public synchronized void removeReplica(IndexShard replica) throws IOException {
+            assertTrue(replicas.remove(replica));
+            replica.close("removed", false);
+            IOUtils.close(replica.store());
+        }
+
+        public synchronized IndexShard getPrimary() {
+            return primary;
+        }
+
         public void recoverReplica(IndexShard replica, BiFunction<IndexShard, DiscoveryNode, RecoveryTarget> targetSupplier)
             throws IOException {
             final DiscoveryNode pNode;
@@ -293,7 +313,7 @@ public abstract class ESIndexLevelReplicationTestCase extends ESTestCase {
             StartRecoveryRequest request = new StartRecoveryRequest(replica.shardId(), pNode, rNode,
                 replica.store().getMetadataOrEmpty(), RecoveryState.Type.REPLICA, 0);
             RecoverySourceHandler recovery = new RecoverySourceHandler(primary, recoveryTarget, request, (int) ByteSizeUnit.MB.toKB(1),
-                logger);
+                randomIntBetween(1, 4), threadPool.generic(), logger);
             recovery.recoverToTarget();
             recoveryTarget.markAsDone();
             replica.updateRoutingEntry(ShardRoutingHelper.moveToStarted(replica.routingEntry()));
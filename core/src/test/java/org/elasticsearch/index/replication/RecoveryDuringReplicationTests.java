@@ -18,10 +18,15 @@
  */
 package org.elasticsearch.index.replication;
 
+import org.elasticsearch.action.admin.indices.flush.FlushRequest;
 import org.elasticsearch.cluster.node.DiscoveryNode;
+import org.elasticsearch.common.UUIDs;
+import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.logging.ESLogger;
+import org.elasticsearch.index.engine.Engine;
 import org.elasticsearch.index.shard.IndexShard;
 import org.elasticsearch.index.store.Store;
+import org.elasticsearch.index.store.StoreFileMetaData;
 import org.elasticsearch.index.translog.Translog;
 import org.elasticsearch.indices.recovery.RecoveryState;
 import org.elasticsearch.indices.recovery.RecoveryTarget;
@@ -32,6 +37,7 @@ import java.util.EnumSet;
 import java.util.List;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class RecoveryDuringReplicationTests extends ESIndexLevelReplicationTestCase {
 
@@ -56,6 +62,44 @@ public class RecoveryDuringReplicationTests extends ESIndexLevelReplicationTestC
         }
     }
 
+    public void testRecoveryOfSyncedCopyOnlyReplaysTranslog() throws Exception {
+        try (ReplicationGroup shards = createGroup(0)) {
+            shards.startAll();
+            IndexShard replica = shards.addReplica();
+            shards.recoverReplica(replica, (indexShard, node) -> new RecoveryTarget(indexShard, node, recoveryListener));
+            int docs = shards.indexDocs(randomInt(50));
+            shards.flush();
+            final String syncId = UUIDs.randomBase64UUID();
+            for (IndexShard shard : shards) {
+                Engine.CommitId commitId = shard.flush(new FlushRequest().waitIfOngoing(true));
+                assertEquals(Engine.SyncedFlushResult.SUCCESS, shard.syncFlush(syncId, commitId));
+            }
+
+            // the replica goes away while the primary keeps indexing and flushes past the synced commit
+            final String replicaNodeId = replica.routingEntry().currentNodeId();
+            shards.removeReplica(replica);
+            final int missedDocs = shards.indexDocs(randomIntBetween(1, 50));
+            docs += missedDocs;
+            shards.getPrimary().flush(new FlushRequest().waitIfOngoing(true));
+
+            IndexShard recovered = shards.addReplica(replicaNodeId);
+            AtomicInteger fileChunks = new AtomicInteger();
+            shards.recoverReplica(recovered, (indexShard, node) -> new RecoveryTarget(indexShard, node, recoveryListener) {
+                @Override
+                public void writeFileChunk(StoreFileMetaData fileMetaData, long position, BytesReference content, boolean lastChunk,
+                                           int totalTranslogOps) throws IOException {
+                    fileChunks.incrementAndGet();
+                    super.writeFileChunk(fileMetaData, position, content, lastChunk, totalTranslogOps);
+                }
+            });
+
+            assertEquals(0, fileChunks.get());
+            assertEquals(0, recovered.recoveryState().getIndex().recoveredFileCount());
+            assertEquals(missedDocs, recovered.recoveryState().getTranslog().recoveredOperations());
+            shards.assertAllEqual(docs);
+        }
+    }
+
     private static class BlockingTarget extends RecoveryTarget {
         private final CountDownLatch recoveryBlocked;
         private final CountDownLatch releaseRecovery;
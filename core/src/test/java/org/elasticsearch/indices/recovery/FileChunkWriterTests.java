@@ -0,0 +1,172 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.elasticsearch.indices.recovery;
+
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.index.store.StoreFileMetaData;
+import org.elasticsearch.test.ESTestCase;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.sameInstance;
+
+public class FileChunkWriterTests extends ESTestCase {
+
+    public void testChunksArrivingOutOfOrder() throws IOException {
+        byte[] file = randomFile(1);
+        StoreFileMetaData metaData = new StoreFileMetaData("_0.cfs", file.length, "checksum");
+        List<Chunk> chunks = chunks(file);
+        Collections.shuffle(chunks, random());
+        RecordingOutput output = new RecordingOutput();
+        RecoveryTarget.FileChunkWriter writer = new RecoveryTarget.FileChunkWriter(output);
+
+        for (Chunk chunk : chunks) {
+            write(writer, metaData, chunk);
+        }
+
+        assertArrayEquals(file, output.written());
+        assertTrue(output.lastChunkWritten);
+        assertThat(writer.pendingChunks(), equalTo(0));
+    }
+
+    public void testDuplicateChunksAreWrittenOnce() throws IOException {
+        byte[] file = randomFile(1);
+        StoreFileMetaData metaData = new StoreFileMetaData("_0.cfs", file.length, "checksum");
+        List<Chunk> chunks = chunks(file);
+        List<Chunk> received = new ArrayList<>(chunks);
+        for (int i = 0; i < randomIntBetween(1, 10); i++) {
+            received.add(randomFrom(chunks));
+        }
+        Collections.shuffle(received, random());
+        RecordingOutput output = new RecordingOutput();
+        RecoveryTarget.FileChunkWriter writer = new RecoveryTarget.FileChunkWriter(output);
+
+        for (Chunk chunk : received) {
+            write(writer, metaData, chunk);
+        }
+
+        assertArrayEquals(file, output.written());
+        assertThat(output.writes, equalTo(chunks.size()));
+        assertThat(writer.pendingChunks(), equalTo(0));
+    }
+
+    public void testFailureInTheMiddleOfAFile() throws IOException {
+        byte[] file = randomFile(100);
+        StoreFileMetaData metaData = new StoreFileMetaData("_0.cfs", file.length, "checksum");
+        List<Chunk> chunks = chunks(file);
+        final int failingChunk = randomIntBetween(1, chunks.size() - 2);
+        final IOException failure = new IOException("disk full");
+        RecordingOutput output = new RecordingOutput() {
+            @Override
+            public void write(StoreFileMetaData fileMetaData, long position, BytesReference content, boolean lastChunk)
+                throws IOException {
+                if (position == chunks.get(failingChunk).position) {
+                    throw failure;
+                }
+                super.write(fileMetaData, position, content, lastChunk);
+            }
+        };
+        RecoveryTarget.FileChunkWriter writer = new RecoveryTarget.FileChunkWriter(output);
+
+        // a chunk after the failing one is held on to until the failing one arrives
+        Chunk later = chunks.get(failingChunk + 1);
+        write(writer, metaData, later);
+        assertThat(writer.pendingChunks(), equalTo(1));
+        IOException e = expectThrows(IOException.class, () -> {
+            for (int i = 0; i <= failingChunk; i++) {
+                Chunk chunk = chunks.get(i);
+                write(writer, metaData, chunk);
+            }
+        });
+        assertThat(e, sameInstance(failure));
+        assertThat(output.written().length, equalTo((int) chunks.get(failingChunk).position));
+        assertThat(writer.pendingChunks(), equalTo(0));
+
+        // the file can't be completed anymore
+        Chunk last = chunks.get(chunks.size() - 1);
+        IllegalStateException stateException = expectThrows(IllegalStateException.class,
+            () -> write(writer, metaData, last));
+        assertThat(stateException.getCause(), sameInstance(failure));
+        assertFalse(output.lastChunkWritten);
+    }
+
+    private static byte[] randomFile(int minLength) {
+        byte[] file = new byte[randomIntBetween(minLength, 1024)];
+        random().nextBytes(file);
+        return file;
+    }
+
+    private static List<Chunk> chunks(byte[] file) {
+        List<Chunk> chunks = new ArrayList<>();
+        int position = 0;
+        while (position < file.length) {
+            int length = Math.min(randomIntBetween(1, 32), file.length - position);
+            chunks.add(new Chunk(position, new BytesArray(file, position, length), position + length == file.length));
+            position += length;
+        }
+        return chunks;
+    }
+
+    private static void write(RecoveryTarget.FileChunkWriter writer, StoreFileMetaData metaData, Chunk chunk) throws IOException {
+        BytesRef buffer = BytesRef.deepCopyOf(chunk.content.toBytesRef());
+        writer.writeChunk(metaData, chunk.position, new BytesArray(buffer), chunk.lastChunk);
+        // the transport may reuse the buffer of the request once the chunk is handled
+        Arrays.fill(buffer.bytes, (byte) 0);
+    }
+
+    private static class Chunk {
+        final long position;
+        final BytesReference content;
+        final boolean lastChunk;
+
+        Chunk(long position, BytesReference content, boolean lastChunk) {
+            this.position = position;
+            this.content = content;
+            this.lastChunk = lastChunk;
+        }
+    }
+
+    private static class RecordingOutput implements RecoveryTarget.FileChunkWriter.ChunkOutput {
+        private final BytesStreamOutput out = new BytesStreamOutput();
+        private int writes;
+        private boolean lastChunkWritten;
+
+        @Override
+        public void write(StoreFileMetaData fileMetaData, long position, BytesReference content, boolean lastChunk)
+            throws IOException {
+            assertThat("chunks must be written in order", position, equalTo((long) out.size()));
+            assertFalse("nothing may be written after the last chunk", lastChunkWritten);
+            content.writeTo(out);
+            writes++;
+            lastChunkWritten = lastChunk;
+        }
+
+        byte[] written() {
+            return BytesReference.toBytes(out.bytes());
+        }
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.indices.store;
+
+import org.apache.lucene.analysis.MockAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.index.store.Store;
+import org.elasticsearch.test.ESTestCase;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+
+public class UnallocatedMetaDataCacheTests extends ESTestCase {
+
+    private final ShardId shardId = new ShardId("test", "_na_", 0);
+
+    public void testSnapshotIsCachedUntilTheNextCommit() throws IOException {
+        Path indexLocation = createTempDir();
+        UnallocatedMetaDataCache cache = new UnallocatedMetaDataCache(logger, 100000);
+        assertThat(cache.getOrRead(shardId, indexLocation), sameInstance(Store.MetadataSnapshot.EMPTY));
+        assertThat(cache.count(), equalTo(0));
+
+        try (Directory dir = FSDirectory.open(indexLocation);
+             IndexWriter writer = new IndexWriter(dir, new IndexWriterConfig(new MockAnalyzer(random())))) {
+            indexDocs(writer, randomIntBetween(1, 10));
+            Store.MetadataSnapshot first = cache.getOrRead(shardId, indexLocation);
+            assertThat(first.size(), not(equalTo(0)));
+            assertThat(cache.count(), equalTo(1));
+            assertThat(cache.getOrRead(shardId, indexLocation), sameInstance(first));
+
+            // a new commit is read from disk again and replaces the cached one
+            indexDocs(writer, randomIntBetween(1, 10));
+            Store.MetadataSnapshot second = cache.getOrRead(shardId, indexLocation);
+            assertThat(second, not(sameInstance(first)));
+            assertThat(second.getSegmentsFile().name(), not(equalTo(first.getSegmentsFile().name())));
+            assertThat(cache.count(), equalTo(1));
+            assertThat(cache.getOrRead(shardId, indexLocation), sameInstance(second));
+        }
+
+        // the shard got allocated on the node
+        cache.invalidate(shardId);
+        assertThat(cache.count(), equalTo(0));
+    }
+
+    public void testNothingIsCachedWithoutRoom() throws IOException {
+        Path indexLocation = createTempDir();
+        UnallocatedMetaDataCache cache = new UnallocatedMetaDataCache(logger, 0);
+        try (Directory dir = FSDirectory.open(indexLocation);
+             IndexWriter writer = new IndexWriter(dir, new IndexWriterConfig(new MockAnalyzer(random())))) {
+            indexDocs(writer, randomIntBetween(1, 10));
+        }
+        Store.MetadataSnapshot first = cache.getOrRead(shardId, indexLocation);
+        assertThat(cache.count(), equalTo(0));
+        Store.MetadataSnapshot second = cache.getOrRead(shardId, indexLocation);
+        assertThat(second, not(sameInstance(first)));
+        assertThat(second.asMap().keySet(), equalTo(first.asMap().keySet()));
+    }
+
+    private static void indexDocs(IndexWriter writer, int numDocs) throws IOException {
+        for (int i = 0; i < numDocs; i++) {
+            Document doc = new Document();
+            doc.add(new StringField("id", randomAsciiOfLength(10), Field.Store.YES));
+            writer.addDocument(doc);
+        }
+        writer.commit();
+    }
+}
@@ -25,6 +25,7 @@ import org.elasticsearch.ingest.ProcessorsRegistry;
 import org.elasticsearch.script.ScriptService;
 import org.elasticsearch.test.ESTestCase;
 import org.elasticsearch.threadpool.TestThreadPool;
+import org.elasticsearch.threadpool.ThreadPool;
 import org.junit.Before;
 
 import java.util.ArrayList;
@@ -99,7 +100,7 @@ public class ConfigurationUtilsTests extends ESTestCase {
         Processor processor = mock(Processor.class);
         ProcessorsRegistry.Builder builder = new ProcessorsRegistry.Builder();
         builder.registerProcessor("test_processor", (registry) -> (tag, config) -> processor);
-        ProcessorsRegistry registry = builder.build(mock(ScriptService.class), mock(ClusterService.class));
+        ProcessorsRegistry registry = builder.build(mock(ScriptService.class), mock(ClusterService.class), mock(ThreadPool.class));
 
 
         List<Map<String, Map<String, Object>>> config = new ArrayList<>();
@@ -375,7 +375,7 @@ public class IngestDocumentTests extends ESTestCase {
 
     public void testSetFieldValueNullName() {
         try {
-            ingestDocument.setFieldValue(null, "bar");
+            ingestDocument.setFieldValue((String) null, "bar");
             fail("add field should have failed");
         } catch (IllegalArgumentException e) {
             assertThat(e.getMessage(), equalTo("path cannot be null nor empty"));
@@ -831,6 +831,70 @@ public class IngestDocumentTests extends ESTestCase {
         }
     }
 
+    public void testPreParsedFieldPath() {
+        FieldPath path = new FieldPath("_source.fizz.new_field");
+        assertThat(ingestDocument.hasField(path), equalTo(false));
+        ingestDocument.setFieldValue(path, "value");
+        assertThat(ingestDocument.hasField(path), equalTo(true));
+        assertThat(ingestDocument.getFieldValue(path, String.class), equalTo("value"));
+        assertThat(ingestDocument.getFieldValue("fizz.new_field", String.class), equalTo("value"));
+        ingestDocument.appendFieldValue(path, "other");
+        assertThat(ingestDocument.getFieldValue(path, List.class), equalTo(Arrays.asList("value", "other")));
+        ingestDocument.removeField(path);
+        assertThat(ingestDocument.hasField(path), equalTo(false));
+
+        // the same path object can be used on many documents
+        IngestDocument other = new IngestDocument(new HashMap<>(), new HashMap<>());
+        other.setFieldValue(path, "value");
+        assertThat(other.getFieldValue(path, String.class), equalTo("value"));
+
+        FieldPath ingestPath = new FieldPath("_ingest.timestamp");
+        assertThat(ingestDocument.getFieldValue(ingestPath, String.class), equalTo(ingestDocument.getIngestMetadata().get("timestamp")));
+        assertThat(ingestDocument.getFieldValue(new FieldPath("_source._ingest.timestamp"), String.class), equalTo("bogus_timestamp"));
+    }
+
+    public void testInvalidFieldPath() {
+        try {
+            new FieldPath(randomBoolean() ? null : "");
+            fail("parsing the path should have failed");
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), equalTo("path cannot be null nor empty"));
+        }
+        try {
+            new FieldPath("_ingest.");
+            fail("parsing the path should have failed");
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), equalTo("path [_ingest.] is not valid"));
+        }
+    }
+
+    public void testConstantTemplatesDoNotBuildModel() {
+        TemplateService.Template constant = TestTemplateService.instance().compile("field1");
+        TemplateService.Template templated = new TemplateService.Template() {
+            @Override
+            public String execute(Map<String, Object> model) {
+                return model.get("foo") + "_field";
+            }
+
+            @Override
+            public String getKey() {
+                return "{{foo}}_field";
+            }
+
+            @Override
+            public boolean isConstant() {
+                return false;
+            }
+        };
+        ingestDocument.setFieldValue(constant, ValueSource.wrap("value", TestTemplateService.instance()));
+        assertThat(ingestDocument.getFieldValue("field1", String.class), equalTo("value"));
+        ingestDocument.setFieldValue(templated, ValueSource.wrap("value", TestTemplateService.instance()));
+        assertThat(ingestDocument.getFieldValue("bar_field", String.class), equalTo("value"));
+        ingestDocument.setFieldValue(constant, new ValueSource.TemplatedValue(templated));
+        assertThat(ingestDocument.getFieldValue("field1", String.class), equalTo("bar_field"));
+        assertThat(ingestDocument.renderTemplate(templated), equalTo("bar_field"));
+    }
+
     public void testListRemoveField() {
         ingestDocument.removeField("list.0.field");
         assertThat(ingestDocument.getSourceAndMetadata().size(), equalTo(8));
@@ -19,12 +19,15 @@
 
 package org.elasticsearch.ingest;
 
+import org.elasticsearch.Version;
 import org.elasticsearch.common.io.stream.BytesStreamOutput;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.test.ESTestCase;
 
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 
 public class IngestStatsTests extends ESTestCase {
@@ -32,7 +35,10 @@ public class IngestStatsTests extends ESTestCase {
     public void testSerialization() throws IOException {
         IngestStats.Stats total = new IngestStats.Stats(5, 10, 20, 30);
         IngestStats.Stats foo = new IngestStats.Stats(50, 100, 200, 300);
-        IngestStats ingestStats = new IngestStats(total, Collections.singletonMap("foo", foo));
+        List<IngestStats.ProcessorStats> fooProcessors = Arrays.asList(new IngestStats.ProcessorStats("grok", "parse", 50, 70, 3),
+                new IngestStats.ProcessorStats("date", null, 47, 20, 0));
+        IngestStats ingestStats = new IngestStats(total, Collections.singletonMap("foo", foo),
+                Collections.singletonMap("foo", fooProcessors));
         IngestStats serialize = serialize(ingestStats);
         assertNotSame(serialize, ingestStats);
         assertNotSame(serialize.getTotalStats(), total);
@@ -57,12 +63,46 @@ public class IngestStatsTests extends ESTestCase {
         assertEquals(leftStats.getIngestFailedCount(), rightStats.getIngestFailedCount());
         assertEquals(leftStats.getIngestTimeInMillis(), rightStats.getIngestTimeInMillis());
         assertEquals(leftStats.getIngestCurrent(), rightStats.getIngestCurrent());
+
+        List<IngestStats.ProcessorStats> serializedProcessors = serialize.getProcessorStatsPerPipeline().get("foo");
+        assertEquals(fooProcessors.size(), serializedProcessors.size());
+        for (int i = 0; i < fooProcessors.size(); i++) {
+            IngestStats.ProcessorStats expected = fooProcessors.get(i);
+            IngestStats.ProcessorStats actual = serializedProcessors.get(i);
+            assertEquals(expected.getType(), actual.getType());
+            assertEquals(expected.getTag(), actual.getTag());
+            assertEquals(expected.getCount(), actual.getCount());
+            assertEquals(expected.getTimeInMillis(), actual.getTimeInMillis());
+            assertEquals(expected.getFailedCount(), actual.getFailedCount());
+        }
+    }
+
+    public void testSerializationBwc() throws IOException {
+        IngestStats.Stats total = new IngestStats.Stats(5, 10, 20, 30);
+        IngestStats.Stats foo = new IngestStats.Stats(50, 100, 200, 300);
+        List<IngestStats.ProcessorStats> fooProcessors =
+                Collections.singletonList(new IngestStats.ProcessorStats("grok", "parse", 50, 70, 3));
+        IngestStats ingestStats = new IngestStats(total, Collections.singletonMap("foo", foo),
+                Collections.singletonMap("foo", fooProcessors));
+        // nodes before 5.0.0-alpha4 neither send nor expect processor stats
+        IngestStats serialize = serialize(ingestStats, Version.V_5_0_0_alpha3);
+        assertEquals(total.getIngestCount(), serialize.getTotalStats().getIngestCount());
+        assertEquals(foo.getIngestCount(), serialize.getStatsPerPipeline().get("foo").getIngestCount());
+        assertTrue(serialize.getProcessorStatsPerPipeline().isEmpty());
     }
 
     private IngestStats serialize(IngestStats stats) throws IOException {
+        return serialize(stats, Version.CURRENT);
+    }
+
+    private IngestStats serialize(IngestStats stats, Version version) throws IOException {
         BytesStreamOutput out = new BytesStreamOutput();
+        out.setVersion(version);
         stats.writeTo(out);
         StreamInput in = out.bytes().streamInput();
-        return new IngestStats(in);
+        in.setVersion(version);
+        IngestStats read = new IngestStats(in);
+        assertEquals(0, in.available());
+        return read;
     }
 }
@@ -28,23 +28,36 @@ import org.elasticsearch.action.index.IndexRequest;
 import org.elasticsearch.action.update.UpdateRequest;
 import org.elasticsearch.common.bytes.BytesArray;
 import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.common.util.concurrent.AbstractRunnable;
+import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
+import org.elasticsearch.common.util.concurrent.EsRejectedExecutionException;
 import org.elasticsearch.test.ESTestCase;
+import org.elasticsearch.threadpool.TestThreadPool;
 import org.elasticsearch.threadpool.ThreadPool;
 import org.hamcrest.CustomTypeSafeMatcher;
 import org.junit.Before;
 import org.mockito.ArgumentMatcher;
 import org.mockito.invocation.InvocationOnMock;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.hasKey;
 import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyBoolean;
 import static org.mockito.Matchers.anyString;
@@ -68,6 +81,8 @@ public class PipelineExecutionServiceTests extends ESTestCase {
         store = mock(PipelineStore.class);
         ThreadPool threadPool = mock(ThreadPool.class);
         when(threadPool.executor(anyString())).thenReturn(Runnable::run);
+        when(threadPool.info(ThreadPool.Names.INGEST)).thenReturn(new ThreadPool.Info(ThreadPool.Names.INGEST,
+                ThreadPool.ThreadPoolType.FIXED, randomIntBetween(1, 4)));
         executionService = new PipelineExecutionService(store, threadPool);
     }
 
@@ -367,6 +382,138 @@ public class PipelineExecutionServiceTests extends ESTestCase {
         verify(completionHandler, times(1)).accept(null);
     }
 
+    public void testBulkRequestExecutionRejected() throws Exception {
+        ThreadPool threadPool = mock(ThreadPool.class);
+        EsRejectedExecutionException rejection = new EsRejectedExecutionException("rejected");
+        // like the ingest thread pool, hand the rejection to the task when it can handle it
+        when(threadPool.executor(anyString())).thenReturn(command -> {
+            if (command instanceof AbstractRunnable) {
+                ((AbstractRunnable) command).onRejection(rejection);
+            } else {
+                throw rejection;
+            }
+        });
+        PipelineExecutionService executionService = new PipelineExecutionService(store, threadPool);
+        CompoundProcessor processor = mock(CompoundProcessor.class);
+        when(store.get("_id")).thenReturn(new Pipeline("_id", null, processor));
+
+        BulkRequest bulkRequest = new BulkRequest();
+        int numRequest = scaledRandomIntBetween(1, 64);
+        for (int i = 0; i < numRequest; i++) {
+            bulkRequest.add(new IndexRequest("_index", "_type", Integer.toString(i)).source("field1", "value1").setPipeline("_id"));
+        }
+
+        @SuppressWarnings("unchecked")
+        BiConsumer<IndexRequest, Throwable> requestItemErrorHandler = mock(BiConsumer.class);
+        @SuppressWarnings("unchecked")
+        Consumer<Throwable> completionHandler = mock(Consumer.class);
+        executionService.executeBulkRequest(bulkRequest.requests(), requestItemErrorHandler, completionHandler);
+
+        verify(processor, never()).execute(any());
+        verify(requestItemErrorHandler, never()).accept(any(), any());
+        verify(completionHandler, times(1)).accept(rejection);
+    }
+
+    public void testBulkRequestExecutionOnIngestThreadPool() throws Exception {
+        ThreadPool threadPool = new TestThreadPool(getTestName());
+        try {
+            PipelineExecutionService executionService = new PipelineExecutionService(store, threadPool);
+            Set<String> threads = ConcurrentCollections.newConcurrentSet();
+            when(store.get("_id")).thenReturn(new Pipeline("_id", null, new CompoundProcessor(new TestProcessor(ingestDocument -> {
+                threads.add(Thread.currentThread().getName());
+                if (ingestDocument.getFieldValue("fail", Boolean.class)) {
+                    throw new IllegalArgumentException("failed " + ingestDocument.getFieldValue("_id", String.class));
+                }
+                ingestDocument.setFieldValue("processed", true);
+            }))));
+
+            BulkRequest bulkRequest = new BulkRequest();
+            List<IndexRequest> expectedFailures = new ArrayList<>();
+            int numRequest = scaledRandomIntBetween(8, 512);
+            for (int i = 0; i < numRequest; i++) {
+                IndexRequest indexRequest = new IndexRequest("_index", "_type", Integer.toString(i)).setPipeline("_id");
+                boolean fail = rarely();
+                indexRequest.source("fail", fail);
+                if (fail) {
+                    expectedFailures.add(indexRequest);
+                }
+                bulkRequest.add(indexRequest);
+            }
+
+            List<IndexRequest> failures = new ArrayList<>();
+            CountDownLatch latch = new CountDownLatch(1);
+            AtomicReference<Throwable> completion = new AtomicReference<>();
+            executionService.executeBulkRequest(bulkRequest.requests(), (indexRequest, e) -> {
+                assertThat(e.getMessage(), containsString("failed " + indexRequest.id()));
+                assertThat(indexRequest.getPipeline(), equalTo("_id"));
+                failures.add(indexRequest);
+            }, e -> {
+                completion.set(e);
+                latch.countDown();
+            });
+            latch.await();
+
+            assertThat(completion.get(), nullValue());
+            assertThat(failures, equalTo(expectedFailures));
+            for (ActionRequest<?> request : bulkRequest.requests()) {
+                IndexRequest indexRequest = (IndexRequest) request;
+                if (expectedFailures.contains(indexRequest) == false) {
+                    assertThat(indexRequest.sourceAsMap().get("processed"), equalTo(true));
+                    assertThat(indexRequest.getPipeline(), nullValue());
+                }
+            }
+            for (String thread : threads) {
+                assertThat(thread, containsString("[" + ThreadPool.Names.INGEST + "]"));
+            }
+        } finally {
+            ThreadPool.terminate(threadPool, 10, TimeUnit.SECONDS);
+        }
+    }
+
+    public void testProcessorStats() throws Exception {
+        Processor first = new TestProcessor("first", "test", ingestDocument -> {});
+        Processor second = new TestProcessor("second", "test", ingestDocument -> {
+            if (ingestDocument.hasField("fail")) {
+                throw new IllegalArgumentException("failed");
+            }
+        });
+        Pipeline pipeline = new Pipeline("_id1", null, new CompoundProcessor(true, Arrays.asList(first, second),
+                Collections.emptyList()));
+        when(store.get("_id1")).thenReturn(pipeline);
+        executionService.updatePipelineStats(new IngestMetadata(Collections.singletonMap("_id1",
+                new PipelineConfiguration("_id1", new BytesArray("{}")))));
+
+        @SuppressWarnings("unchecked")
+        Consumer<Throwable> failureHandler = mock(Consumer.class);
+        @SuppressWarnings("unchecked")
+        Consumer<Boolean> completionHandler = mock(Consumer.class);
+        executionService.executeIndexRequest(new IndexRequest("_index").source("field", "value").setPipeline("_id1"), failureHandler,
+                completionHandler);
+        executionService.executeIndexRequest(new IndexRequest("_index").source("fail", true).setPipeline("_id1"), failureHandler,
+                completionHandler);
+        verify(completionHandler, times(2)).accept(true);
+
+        List<IngestStats.ProcessorStats> processorStats = executionService.stats().getProcessorStatsPerPipeline().get("_id1");
+        assertThat(processorStats.size(), equalTo(2));
+        assertThat(processorStats.get(0).getTag(), equalTo("first"));
+        assertThat(processorStats.get(0).getType(), equalTo("test"));
+        assertThat(processorStats.get(0).getCount(), equalTo(2L));
+        assertThat(processorStats.get(0).getFailedCount(), equalTo(0L));
+        assertThat(processorStats.get(1).getTag(), equalTo("second"));
+        assertThat(processorStats.get(1).getCount(), equalTo(2L));
+        assertThat(processorStats.get(1).getFailedCount(), equalTo(1L));
+
+        // replacing the pipeline starts the processor stats over but keeps the pipeline stats
+        when(store.get("_id1")).thenReturn(new Pipeline("_id1", null, new CompoundProcessor(first)));
+        executionService.executeIndexRequest(new IndexRequest("_index").source("field", "value").setPipeline("_id1"), failureHandler,
+                completionHandler);
+        IngestStats ingestStats = executionService.stats();
+        assertThat(ingestStats.getStatsPerPipeline().get("_id1").getIngestCount(), equalTo(3L));
+        processorStats = ingestStats.getProcessorStatsPerPipeline().get("_id1");
+        assertThat(processorStats.size(), equalTo(1));
+        assertThat(processorStats.get(0).getCount(), equalTo(1L));
+    }
+
     public void testStats() throws Exception {
         IngestStats ingestStats = executionService.stats();
         assertThat(ingestStats.getStatsPerPipeline().size(), equalTo(0));
@@ -22,6 +22,7 @@ package org.elasticsearch.ingest;
 import org.elasticsearch.cluster.service.ClusterService;
 import org.elasticsearch.script.ScriptService;
 import org.elasticsearch.test.ESTestCase;
+import org.elasticsearch.threadpool.ThreadPool;
 
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.CoreMatchers.sameInstance;
@@ -43,7 +44,7 @@ public class ProcessorsRegistryTests extends ESTestCase {
             assertThat(e.getMessage(), equalTo("Processor factory already registered for name [1]"));
         }
 
-        ProcessorsRegistry registry = builder.build(mock(ScriptService.class), mock(ClusterService.class));
+        ProcessorsRegistry registry = builder.build(mock(ScriptService.class), mock(ClusterService.class), mock(ThreadPool.class));
         assertThat(registry.getProcessorFactories().size(), equalTo(2));
         assertThat(registry.getProcessorFactory("1"), sameInstance(factory1));
         assertThat(registry.getProcessorFactory("2"), sameInstance(factory2));
@@ -20,21 +20,28 @@
 package org.elasticsearch.rest;
 
 import org.elasticsearch.client.node.NodeClient;
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.util.concurrent.ThreadContext;
 import org.elasticsearch.test.ESTestCase;
+import org.elasticsearch.test.rest.FakeRestChannel;
 import org.elasticsearch.test.rest.FakeRestRequest;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.instanceOf;
 
 public class RestControllerTests extends ESTestCase {
 
@@ -110,6 +117,167 @@ public class RestControllerTests extends ESTestCase {
         assertFalse(controller.canTripCircuitBreaker(new FakeRestRequest.Builder().withPath("/do-not-trip").build()));
     }
 
+    public void testHandlerStats() throws Exception {
+        RestController controller = new RestController(Settings.EMPTY);
+        controller.registerHandler(RestRequest.Method.POST, "/ok", new RespondingRestHandler());
+        controller.registerHandler(RestRequest.Method.POST, "/fail", new FailingRestHandler());
+        controller.registerHandler(RestRequest.Method.POST, "/pending", new FakeRestHandler(true));
+
+        int requests = randomIntBetween(1, 5);
+        for (int i = 0; i < requests; i++) {
+            RestRequest request = new FakeRestRequest.Builder().withMethod(RestRequest.Method.POST).withPath("/ok")
+                .withContent(new BytesArray("request")).build();
+            controller.dispatchRequest(request, new FakeRestChannel(request, false, 1), null, new ThreadContext(Settings.EMPTY));
+        }
+        RestRequest failing = post("/fail");
+        expectThrows(IllegalArgumentException.class,
+            () -> controller.dispatchRequest(failing, new FakeRestChannel(failing, false, 1), null, new ThreadContext(Settings.EMPTY)));
+        RestRequest pending = post("/pending");
+        controller.dispatchRequest(pending, new FakeRestChannel(pending, false, 1), null, new ThreadContext(Settings.EMPTY));
+
+        Map<String, RestHandlerStats> stats = controller.handlerStats();
+        RestHandlerStats ok = stats.get(RespondingRestHandler.class.getName());
+        assertThat(ok.getCount(), equalTo((long) requests));
+        assertThat(ok.getCurrent(), equalTo(0L));
+        assertThat(ok.getRequestBytes(), equalTo(requests * 7L));
+        assertThat(ok.getResponseBytes(), equalTo(requests * 8L));
+        assertThat(Arrays.stream(ok.getLatencyHistogram()).sum(), equalTo((long) requests));
+
+        // a failing handler doesn't leave the request pending, the caller sends back the failure
+        RestHandlerStats fail = stats.get(FailingRestHandler.class.getName());
+        assertThat(fail.getCount(), equalTo(1L));
+        assertThat(fail.getCurrent(), equalTo(0L));
+
+        RestHandlerStats waiting = stats.get(FakeRestHandler.class.getName());
+        assertThat(waiting.getCount(), equalTo(0L));
+        assertThat(waiting.getCurrent(), equalTo(1L));
+    }
+
+    public void testHandlersWithTheSameSimpleNameHaveSeparateStats() throws Exception {
+        RestController controller = new RestController(Settings.EMPTY);
+        controller.registerHandler(RestRequest.Method.POST, "/first", new First.Handler());
+        controller.registerHandler(RestRequest.Method.POST, "/second", new Second.Handler());
+
+        RestRequest request = post("/first");
+        controller.dispatchRequest(request, new FakeRestChannel(request, false, 1), null, new ThreadContext(Settings.EMPTY));
+
+        Map<String, RestHandlerStats> stats = controller.handlerStats();
+        assertThat(stats.get(First.Handler.class.getName()).getCount(), equalTo(1L));
+        assertThat(stats.get(Second.Handler.class.getName()).getCount(), equalTo(0L));
+    }
+
+    public void testCanStreamContent() throws Exception {
+        RestController controller = new RestController(Settings.EMPTY);
+        controller.registerHandler(RestRequest.Method.POST, "/stream", new FakeStreamingRestHandler(null));
+        controller.registerHandler(RestRequest.Method.POST, "/do-not-stream", new FakeRestHandler(true));
+
+        assertTrue(controller.canStreamContent(post("/stream")));
+        assertFalse(controller.canStreamContent(post("/do-not-stream")));
+        assertFalse(controller.canStreamContent(post("/unknown-path")));
+
+        // filters expect the whole request
+        controller.registerFilter(new RestFilter() {
+            @Override
+            public void process(RestRequest request, RestChannel channel, NodeClient client, RestFilterChain filterChain) throws Exception {
+                filterChain.continueProcessing(request, channel, client);
+            }
+        });
+        assertFalse(controller.canStreamContent(post("/stream")));
+    }
+
+    public void testStreamingContentConsumerFailure() throws Exception {
+        List<BytesReference> received = new ArrayList<>();
+        AtomicReference<Throwable> aborted = new AtomicReference<>();
+        RestController controller = new RestController(Settings.EMPTY) {
+            @Override
+            boolean checkRequestParameters(RestRequest request, RestChannel channel) {
+                return true;
+            }
+        };
+        controller.registerHandler(RestRequest.Method.POST, "/stream", new FakeStreamingRestHandler(
+            new StreamingRestHandler.ContentConsumer() {
+                @Override
+                public void accept(BytesReference content) throws Exception {
+                    received.add(content);
+                    if (received.size() == 2) {
+                        throw new IllegalArgumentException("bad content");
+                    }
+                }
+
+                @Override
+                public void finish() throws Exception {
+                    fail("the consumer failed before all content was received");
+                }
+
+                @Override
+                public void abort(Throwable cause) {
+                    aborted.set(cause);
+                }
+            }));
+
+        RestRequest request = post("/stream");
+        FakeRestChannel channel = new FakeRestChannel(request, false, 1);
+        StreamingRestHandler.ContentConsumer consumer = controller.dispatchStreamingRequest(request, channel, null,
+            new ThreadContext(Settings.EMPTY), null);
+        consumer.accept(new BytesArray("first"));
+        assertThat(channel.errors().get(), equalTo(0));
+        consumer.accept(new BytesArray("second"));
+        assertThat(channel.errors().get(), equalTo(1));
+        assertThat(aborted.get(), instanceOf(IllegalArgumentException.class));
+        // anything after the failure is discarded
+        consumer.accept(new BytesArray("third"));
+        consumer.finish();
+        assertThat(received.size(), equalTo(2));
+        assertThat(channel.errors().get(), equalTo(1));
+    }
+
+    private static RestRequest post(String path) {
+        return new FakeRestRequest.Builder().withMethod(RestRequest.Method.POST).withPath(path).build();
+    }
+
+    private static class RespondingRestHandler implements RestHandler {
+        @Override
+        public void handleRequest(RestRequest request, RestChannel channel, NodeClient client) throws Exception {
+            channel.sendResponse(new BytesRestResponse(RestStatus.OK, BytesRestResponse.TEXT_CONTENT_TYPE, "response"));
+        }
+    }
+
+    private static class FailingRestHandler implements RestHandler {
+        @Override
+        public void handleRequest(RestRequest request, RestChannel channel, NodeClient client) throws Exception {
+            throw new IllegalArgumentException("bad request");
+        }
+    }
+
+    private static class First {
+        private static class Handler extends RespondingRestHandler {
+        }
+    }
+
+    private static class Second {
+        private static class Handler extends RespondingRestHandler {
+        }
+    }
+
+    private static class FakeStreamingRestHandler implements StreamingRestHandler {
+        private final ContentConsumer consumer;
+
+        private FakeStreamingRestHandler(ContentConsumer consumer) {
+            this.consumer = consumer;
+        }
+
+        @Override
+        public void handleRequest(RestRequest request, RestChannel channel, NodeClient client) throws Exception {
+            //no op
+        }
+
+        @Override
+        public ContentConsumer handleStreamingRequest(RestRequest request, RestChannel channel, NodeClient client,
+                                                      FlowControl flowControl) throws Exception {
+            return consumer;
+        }
+    }
+
     private static class FakeRestHandler implements RestHandler {
         private final boolean canTripCircuitBreaker;
 
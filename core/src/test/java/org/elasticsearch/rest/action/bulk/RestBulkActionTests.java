@@ -0,0 +1,166 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.rest.action.bulk;
+
+import org.elasticsearch.action.Action;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.ActionRequest;
+import org.elasticsearch.action.ActionRequestBuilder;
+import org.elasticsearch.action.ActionResponse;
+import org.elasticsearch.action.bulk.BulkItemResponse;
+import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.action.bulk.BulkResponse;
+import org.elasticsearch.action.index.IndexRequest;
+import org.elasticsearch.action.index.IndexResponse;
+import org.elasticsearch.action.support.replication.ReplicationResponse;
+import org.elasticsearch.client.node.NodeClient;
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.rest.RestController;
+import org.elasticsearch.rest.RestRequest;
+import org.elasticsearch.rest.StreamingRestHandler;
+import org.elasticsearch.test.ESTestCase;
+import org.elasticsearch.test.rest.FakeRestChannel;
+import org.elasticsearch.test.rest.FakeRestRequest;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+
+public class RestBulkActionTests extends ESTestCase {
+
+    public void testStreamedEntriesSplitAcrossChunks() throws Exception {
+        Settings settings = Settings.builder().put(RestBulkAction.STREAMING_BATCH_SIZE.getKey(), "200b").build();
+        RestBulkAction action = new RestBulkAction(settings, new RestController(settings));
+        List<BulkRequest> batches = new ArrayList<>();
+        RestRequest request = new FakeRestRequest.Builder().withMethod(RestRequest.Method.POST).withPath("/_bulk").build();
+        FakeRestChannel channel = new FakeRestChannel(request, false, 1);
+        StreamingRestHandler.ContentConsumer consumer = action.handleStreamingRequest(request, channel,
+            new RespondingClient(batches), new NoopFlowControl());
+
+        int numDocs = randomIntBetween(10, 50);
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < numDocs; i++) {
+            body.append("{\"index\":{\"_index\":\"test\",\"_type\":\"type\",\"_id\":\"").append(i).append("\"}}\n");
+            body.append("{\"field\":\"value").append(i).append("\"}\n");
+        }
+        byte[] bytes = body.toString().getBytes(StandardCharsets.UTF_8);
+        // chunk boundaries fall anywhere, including in the middle of a line
+        int offset = 0;
+        while (offset < bytes.length) {
+            int length = Math.min(randomIntBetween(1, 64), bytes.length - offset);
+            consumer.accept(new BytesArray(bytes, offset, length));
+            offset += length;
+        }
+        consumer.finish();
+
+        assertThat(channel.responses().get(), equalTo(1));
+        assertThat(channel.errors().get(), equalTo(0));
+        assertThat(batches.size(), greaterThan(1));
+        int id = 0;
+        for (BulkRequest batch : batches) {
+            for (ActionRequest<?> item : batch.requests()) {
+                IndexRequest indexRequest = (IndexRequest) item;
+                assertThat(indexRequest.id(), equalTo(Integer.toString(id)));
+                assertThat(indexRequest.source().utf8ToString(), equalTo("{\"field\":\"value" + id + "\"}"));
+                id++;
+            }
+        }
+        assertThat(id, equalTo(numDocs));
+    }
+
+    public void testOversizedLineIsRejected() throws Exception {
+        Settings settings = Settings.builder().put("http.max_content_length", "100b").build();
+        RestBulkAction action = new RestBulkAction(settings, new RestController(settings));
+        List<BulkRequest> batches = new ArrayList<>();
+        RestRequest request = new FakeRestRequest.Builder().withMethod(RestRequest.Method.POST).withPath("/_bulk").build();
+        FakeRestChannel channel = new FakeRestChannel(request, false, 1);
+        StreamingRestHandler.ContentConsumer consumer = action.handleStreamingRequest(request, channel,
+            new RespondingClient(batches), new NoopFlowControl());
+
+        // lines up to the limit are fine, even if the whole body is larger
+        String entry = "{\"index\":{\"_index\":\"test\",\"_type\":\"type\"}}\n{\"field\":\"value\"}\n";
+        for (int i = 0; i < 5; i++) {
+            consumer.accept(new BytesArray(entry));
+        }
+        consumer.accept(new BytesArray("{\"index\":{\"_index\":\"test\",\"_type\":\"type\"}}\n{\"field\":\""));
+        IllegalArgumentException e = expectThrows(IllegalArgumentException.class, () -> {
+            for (int i = 0; i < 10; i++) {
+                consumer.accept(new BytesArray("0123456789"));
+            }
+        });
+        assertThat(e.getMessage(), containsString("exceeds the maximum content length of [100b]"));
+    }
+
+    public void testPartialLineLength() {
+        byte separator = '\n';
+        assertThat(RestBulkAction.partialLineLength(new BytesArray("abc"), separator, 0), equalTo(3L));
+        assertThat(RestBulkAction.partialLineLength(new BytesArray("abc"), separator, 5), equalTo(8L));
+        assertThat(RestBulkAction.partialLineLength(new BytesArray("abc\n"), separator, 5), equalTo(0L));
+        assertThat(RestBulkAction.partialLineLength(new BytesArray("a\nbc\nde"), separator, 5), equalTo(2L));
+    }
+
+    /**
+     * Records the bulk requests it receives and reports all their items as successful.
+     */
+    private static class RespondingClient extends NodeClient {
+
+        private final List<BulkRequest> batches;
+
+        RespondingClient(List<BulkRequest> batches) {
+            super(Settings.EMPTY, null);
+            this.batches = batches;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <Request extends ActionRequest<Request>, Response extends ActionResponse,
+                RequestBuilder extends ActionRequestBuilder<Request, Response, RequestBuilder>> void doExecute(
+                Action<Request, Response, RequestBuilder> action, Request request, ActionListener<Response> listener) {
+            BulkRequest bulkRequest = (BulkRequest) request;
+            batches.add(bulkRequest);
+            BulkItemResponse[] items = new BulkItemResponse[bulkRequest.numberOfActions()];
+            for (int i = 0; i < items.length; i++) {
+                IndexRequest indexRequest = (IndexRequest) bulkRequest.requests().get(i);
+                IndexResponse indexResponse =
+                    new IndexResponse(new ShardId("test", "_na_", 0), indexRequest.type(), indexRequest.id(), 1, true);
+                indexResponse.setShardInfo(new ReplicationResponse.ShardInfo(1, 1));
+                items[i] = new BulkItemResponse(i, "index", indexResponse);
+            }
+            listener.onResponse((Response) new BulkResponse(items, 0));
+        }
+    }
+
+    private static class NoopFlowControl implements StreamingRestHandler.FlowControl {
+
+        @Override
+        public void pause() {
+        }
+
+        @Override
+        public void resume() {
+        }
+    }
+}
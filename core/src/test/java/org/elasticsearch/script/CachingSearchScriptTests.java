@@ -0,0 +1,328 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.script;
+
+import org.apache.lucene.analysis.core.KeywordAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.search.Scorer;
+import org.apache.lucene.store.RAMDirectory;
+import org.elasticsearch.common.breaker.CircuitBreaker;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.index.IndexService;
+import org.elasticsearch.index.engine.Engine;
+import org.elasticsearch.index.fielddata.IndexFieldDataService;
+import org.elasticsearch.index.fielddata.plain.ScriptResultsIndexFieldData;
+import org.elasticsearch.indices.IndicesService;
+import org.elasticsearch.plugins.Plugin;
+import org.elasticsearch.plugins.ScriptPlugin;
+import org.elasticsearch.script.ScriptService.ScriptType;
+import org.elasticsearch.search.lookup.SearchLookup;
+import org.elasticsearch.test.ESSingleNodeTestCase;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+
+import static java.util.Collections.emptyMap;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.instanceOf;
+
+public class CachingSearchScriptTests extends ESSingleNodeTestCase {
+
+    @Override
+    protected Collection<Class<? extends Plugin>> getPlugins() {
+        return pluginList(CountingScriptPlugin.class);
+    }
+
+    public void testResultsAreCachedPerSegment() throws Exception {
+        final IndexService indexService = createIndex("test");
+        final IndicesService indicesService = getInstanceFromNode(IndicesService.class);
+        final IndexFieldDataService ifdService = new IndexFieldDataService(indexService.getIndexSettings(),
+                indicesService.getIndicesFieldDataCache(), indicesService.getCircuitBreakerService(), indexService.mapperService());
+        final CircuitBreaker breaker = indicesService.getCircuitBreakerService().getBreaker(CircuitBreaker.FIELDDATA);
+        final long usedBefore = breaker.getUsed();
+
+        final IndexWriter writer = newWriter(3);
+        final DirectoryReader reader = DirectoryReader.open(writer);
+        final LeafReaderContext context = reader.leaves().get(0);
+        final AtomicInteger runs = new AtomicInteger();
+        final SearchScript script = new CountingScript(runs, doc -> doc == 1 ? null : doc * 2);
+        final Script key = new Script("doc * 2", ScriptType.INLINE, "test", null, true);
+
+        for (int i = 0; i < 2; i++) {
+            ScriptResultsIndexFieldData results = ifdService.getForScript(key, script);
+            LeafSearchScript leafScript = new CachingSearchScript(script, results).getLeafSearchScript(context);
+            for (int doc = 0; doc < 3; doc++) {
+                leafScript.setDocument(doc);
+                if (doc == 1) {
+                    assertNull(leafScript.run());
+                } else {
+                    assertEquals((long) doc * 2, leafScript.run());
+                    assertEquals(doc * 2, leafScript.runAsLong());
+                    assertEquals(doc * 2, leafScript.runAsDouble(), 0d);
+                }
+            }
+        }
+        // the script only ran while loading the segment the first time
+        assertEquals(3, runs.get());
+        assertThat(breaker.getUsed(), greaterThan(usedBefore));
+
+        reader.close();
+        writer.close();
+        assertEquals(usedBefore, breaker.getUsed());
+        ifdService.clear();
+    }
+
+    public void testUncacheableResultsAreComputedByTheScript() throws Exception {
+        final IndexService indexService = createIndex("test");
+        final IndicesService indicesService = getInstanceFromNode(IndicesService.class);
+        final IndexFieldDataService ifdService = new IndexFieldDataService(indexService.getIndexSettings(),
+                indicesService.getIndicesFieldDataCache(), indicesService.getCircuitBreakerService(), indexService.mapperService());
+        final CircuitBreaker breaker = indicesService.getCircuitBreakerService().getBreaker(CircuitBreaker.FIELDDATA);
+        final long usedBefore = breaker.getUsed();
+
+        final IndexWriter writer = newWriter(2);
+        final DirectoryReader reader = DirectoryReader.open(writer);
+        final LeafReaderContext context = reader.leaves().get(0);
+        final AtomicInteger runs = new AtomicInteger();
+        final SearchScript script = new CountingScript(runs, doc -> "value" + doc);
+        final Script key = new Script("'value' + doc", ScriptType.INLINE, "test", null, true);
+
+        LeafSearchScript leafScript = new CachingSearchScript(script, ifdService.getForScript(key, script)).getLeafSearchScript(context);
+        // loading stops at the first result that can't be cached
+        assertEquals(1, runs.get());
+        assertEquals(usedBefore, breaker.getUsed());
+        for (int doc = 0; doc < 2; doc++) {
+            leafScript.setDocument(doc);
+            assertEquals("value" + doc, leafScript.run());
+        }
+        assertEquals(3, runs.get());
+
+        reader.close();
+        writer.close();
+        ifdService.clear();
+    }
+
+    public void testVariablesFallBackToTheScript() throws Exception {
+        final IndexService indexService = createIndex("test");
+        final IndicesService indicesService = getInstanceFromNode(IndicesService.class);
+        final IndexFieldDataService ifdService = new IndexFieldDataService(indexService.getIndexSettings(),
+                indicesService.getIndicesFieldDataCache(), indicesService.getCircuitBreakerService(), indexService.mapperService());
+
+        final IndexWriter writer = newWriter(2);
+        final DirectoryReader reader = DirectoryReader.open(writer);
+        final LeafReaderContext context = reader.leaves().get(0);
+        final AtomicInteger runs = new AtomicInteger();
+        final SearchScript script = new CountingScript(runs, doc -> doc);
+        final Script key = new Script("doc", ScriptType.INLINE, "test", null, true);
+
+        LeafSearchScript leafScript = new CachingSearchScript(script, ifdService.getForScript(key, script)).getLeafSearchScript(context);
+        assertEquals(2, runs.get());
+        leafScript.setDocument(1);
+        assertEquals(1L, leafScript.run());
+        assertEquals(2, runs.get());
+        leafScript.setNextVar("_value", 42L);
+        assertEquals(42L, leafScript.run());
+        assertEquals(3, runs.get());
+
+        reader.close();
+        writer.close();
+        ifdService.clear();
+    }
+
+    public void testScriptServiceCachesResultsOfScriptsThatAllowIt() throws Exception {
+        final IndexService indexService = createIndex("test",
+            Settings.builder().put(IndexFieldDataService.INDEX_FIELDDATA_MAX_CACHED_SCRIPTS_SETTING.getKey(), 1).build());
+        final int numDocs = randomIntBetween(1, 10);
+        for (int i = 0; i < numDocs; i++) {
+            client().prepareIndex("test", "type", Integer.toString(i)).setSource("field", i).get();
+        }
+        client().admin().indices().prepareRefresh("test").get();
+        final ScriptService scriptService = getInstanceFromNode(ScriptService.class);
+        final SearchLookup lookup = new SearchLookup(indexService.mapperService(), indexService.fieldData(), null);
+        final Script cached = new Script("1", ScriptType.INLINE, CountingScriptEngine.NAME, null, true);
+        final Script other = new Script("2", ScriptType.INLINE, CountingScriptEngine.NAME, null, true);
+        final Script live = new Script("1", ScriptType.INLINE, CountingScriptEngine.NAME, null);
+        final AtomicInteger runs = CountingScriptEngine.RUNS;
+        runs.set(0);
+
+        try (Engine.Searcher searcher = indexService.getShard(0).acquireSearcher("test")) {
+            // the script runs once per document the first time, later searches are served from the cache
+            for (int i = 0; i < 2; i++) {
+                SearchScript script = scriptService.search(lookup, cached, ScriptContext.Standard.SEARCH, emptyMap());
+                assertThat(script, instanceOf(CachingSearchScript.class));
+                runEveryDocument(script, searcher.reader(), 1);
+                assertEquals(numDocs, runs.get());
+            }
+
+            // scripts that don't allow caching run every time
+            runEveryDocument(scriptService.search(lookup, live, ScriptContext.Standard.SEARCH, emptyMap()), searcher.reader(), 1);
+            assertEquals(numDocs * 2, runs.get());
+
+            // only the results of one script fit, the first script's results are dropped to make room for the other one
+            runEveryDocument(scriptService.search(lookup, other, ScriptContext.Standard.SEARCH, emptyMap()), searcher.reader(), 2);
+            assertEquals(numDocs * 3, runs.get());
+            runEveryDocument(scriptService.search(lookup, cached, ScriptContext.Standard.SEARCH, emptyMap()), searcher.reader(), 1);
+            assertEquals(numDocs * 4, runs.get());
+        } finally {
+            indexService.fieldData().clear();
+        }
+    }
+
+    private static void runEveryDocument(SearchScript script, IndexReader reader, int offset) throws IOException {
+        for (LeafReaderContext context : reader.leaves()) {
+            LeafSearchScript leafScript = script.getLeafSearchScript(context);
+            for (int doc = 0; doc < context.reader().maxDoc(); doc++) {
+                leafScript.setDocument(doc);
+                assertEquals(doc + offset, ((Number) leafScript.run()).intValue());
+            }
+        }
+    }
+
+    private static IndexWriter newWriter(int numDocs) throws IOException {
+        IndexWriter writer = new IndexWriter(new RAMDirectory(), new IndexWriterConfig(new KeywordAnalyzer()));
+        for (int i = 0; i < numDocs; i++) {
+            writer.addDocument(new Document());
+        }
+        return writer;
+    }
+
+    public static class CountingScriptPlugin extends Plugin implements ScriptPlugin {
+        @Override
+        public ScriptEngineService getScriptEngineService(Settings settings) {
+            return new CountingScriptEngine();
+        }
+    }
+
+    /**
+     * Runs scripts that add their source, a number, to the id of the current document, and counts how often they ran.
+     */
+    private static class CountingScriptEngine implements ScriptEngineService {
+
+        static final String NAME = "counting";
+        static final AtomicInteger RUNS = new AtomicInteger();
+
+        @Override
+        public String getType() {
+            return NAME;
+        }
+
+        @Override
+        public String getExtension() {
+            return NAME;
+        }
+
+        @Override
+        public Object compile(String scriptName, String scriptSource, Map<String, String> params) {
+            return Integer.parseInt(scriptSource);
+        }
+
+        @Override
+        public ExecutableScript executable(CompiledScript compiledScript, Map<String, Object> vars) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public SearchScript search(CompiledScript compiledScript, SearchLookup lookup, Map<String, Object> vars) {
+            int offset = (Integer) compiledScript.compiled();
+            return new CountingScript(RUNS, doc -> doc + offset);
+        }
+
+        @Override
+        public boolean isInlineScriptEnabled() {
+            return true;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    /**
+     * Returns the result of the given function for the current document, or the {@code _value} variable if it is set.
+     */
+    private static class CountingScript implements SearchScript {
+
+        private final AtomicInteger runs;
+        private final IntFunction<Object> function;
+
+        CountingScript(AtomicInteger runs, IntFunction<Object> function) {
+            this.runs = runs;
+            this.function = function;
+        }
+
+        @Override
+        public LeafSearchScript getLeafSearchScript(LeafReaderContext context) throws IOException {
+            return new LeafSearchScript() {
+
+                int doc;
+                Object value;
+
+                @Override
+                public void setScorer(Scorer scorer) {
+                }
+
+                @Override
+                public void setDocument(int doc) {
+                    this.doc = doc;
+                }
+
+                @Override
+                public void setSource(Map<String, Object> source) {
+                }
+
+                @Override
+                public void setNextVar(String name, Object value) {
+                    if ("_value".equals(name)) {
+                        this.value = value;
+                    }
+                }
+
+                @Override
+                public Object run() {
+                    runs.incrementAndGet();
+                    return value == null ? function.apply(doc) : value;
+                }
+
+                @Override
+                public long runAsLong() {
+                    return ((Number) run()).longValue();
+                }
+
+                @Override
+                public double runAsDouble() {
+                    return ((Number) run()).doubleValue();
+                }
+            };
+        }
+
+        @Override
+        public boolean needsScores() {
+            return false;
+        }
+    }
+}
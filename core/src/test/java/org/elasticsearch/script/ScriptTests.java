@@ -0,0 +1,95 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.script;
+
+import org.elasticsearch.Version;
+import org.elasticsearch.common.ParseFieldMatcher;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.xcontent.ToXContent;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.common.xcontent.XContentFactory;
+import org.elasticsearch.common.xcontent.XContentParser;
+import org.elasticsearch.script.Script.ScriptParseException;
+import org.elasticsearch.script.ScriptService.ScriptType;
+import org.elasticsearch.test.ESTestCase;
+
+import java.io.IOException;
+import java.util.Collections;
+
+import static org.hamcrest.Matchers.containsString;
+
+public class ScriptTests extends ESTestCase {
+
+    public void testCacheResultsXContentRoundTrip() throws IOException {
+        Script script = new Script("doc['field'].value * factor", ScriptType.INLINE, "painless",
+                Collections.singletonMap("factor", 2), randomBoolean());
+        XContentBuilder builder = XContentFactory.jsonBuilder();
+        script.toXContent(builder, ToXContent.EMPTY_PARAMS);
+        assertEquals(script.isCacheResults(), builder.string().contains("\"cache_results\":true"));
+        try (XContentParser parser = XContentFactory.xContent(builder.bytes()).createParser(builder.bytes())) {
+            parser.nextToken();
+            assertEquals(script, Script.parse(parser, ParseFieldMatcher.STRICT));
+        }
+    }
+
+    public void testCacheResultsSerialization() throws IOException {
+        Script script = new Script("doc['field'].value", ScriptType.INLINE, "painless", null, randomBoolean());
+        BytesStreamOutput out = new BytesStreamOutput();
+        script.writeTo(out);
+        Script copy = new Script(out.bytes().streamInput());
+        assertEquals(script, copy);
+        assertEquals(script.isCacheResults(), copy.isCacheResults());
+    }
+
+    public void testCacheResultsIsNotSentToOlderNodes() throws IOException {
+        Script script = new Script("doc['field'].value", ScriptType.INLINE, "painless", null, true);
+        BytesStreamOutput out = new BytesStreamOutput();
+        out.setVersion(Version.V_5_0_0_alpha3);
+        script.writeTo(out);
+        StreamInput in = out.bytes().streamInput();
+        in.setVersion(Version.V_5_0_0_alpha3);
+        Script copy = new Script(in);
+        assertFalse(copy.isCacheResults());
+        assertEquals(new Script("doc['field'].value", ScriptType.INLINE, "painless", null), copy);
+    }
+
+    public void testOnlyInlineScriptsSupportCacheResults() throws IOException {
+        ScriptType type = randomFrom(ScriptType.STORED, ScriptType.FILE);
+        String json = "{\"" + type.getParseField().getPreferredName() + "\":\"script_id\",\"cache_results\":true}";
+        try (XContentParser parser = XContentFactory.xContent(json).createParser(json)) {
+            parser.nextToken();
+            ScriptParseException e = expectThrows(ScriptParseException.class, () -> Script.parse(parser, ParseFieldMatcher.STRICT));
+            assertThat(e.getMessage(), containsString("[cache_results] is only supported for [inline] scripts"));
+        }
+        IllegalArgumentException e = expectThrows(IllegalArgumentException.class,
+                () -> new Script("script_id", type, "painless", null, true));
+        assertThat(e.getMessage(), containsString("[cache_results] is only supported for [inline] scripts"));
+    }
+
+    public void testTemplatesDoNotSupportCacheResults() throws IOException {
+        String template = "{\"inline\":\"{{field}}\",\"cache_results\":true}";
+        try (XContentParser parser = XContentFactory.xContent(template).createParser(template)) {
+            parser.nextToken();
+            ScriptParseException e = expectThrows(ScriptParseException.class, () -> Template.parse(parser, ParseFieldMatcher.STRICT));
+            assertThat(e.getMessage(), containsString("[cache_results] is not supported"));
+        }
+    }
+}
@@ -23,6 +23,7 @@ import org.apache.lucene.util.IOUtils;
 import org.elasticsearch.ExceptionsHelper;
 import org.elasticsearch.Version;
 import org.elasticsearch.action.ListenableActionFuture;
+import org.elasticsearch.action.admin.cluster.node.stats.NodeStats;
 import org.elasticsearch.action.admin.cluster.repositories.put.PutRepositoryResponse;
 import org.elasticsearch.action.admin.cluster.snapshots.create.CreateSnapshotResponse;
 import org.elasticsearch.action.admin.cluster.snapshots.delete.DeleteSnapshotResponse;
@@ -31,6 +32,7 @@ import org.elasticsearch.action.admin.cluster.snapshots.restore.RestoreSnapshotR
 import org.elasticsearch.action.admin.cluster.snapshots.status.SnapshotIndexShardStage;
 import org.elasticsearch.action.admin.cluster.snapshots.status.SnapshotIndexShardStatus;
 import org.elasticsearch.action.admin.cluster.snapshots.status.SnapshotIndexStatus;
+import org.elasticsearch.action.admin.cluster.snapshots.status.SnapshotStats;
 import org.elasticsearch.action.admin.cluster.snapshots.status.SnapshotStatus;
 import org.elasticsearch.action.admin.cluster.snapshots.status.SnapshotsStatusResponse;
 import org.elasticsearch.action.admin.cluster.state.ClusterStateResponse;
@@ -61,7 +63,9 @@ import org.elasticsearch.index.store.IndexStore;
 import org.elasticsearch.common.xcontent.XContentFactory;
 import org.elasticsearch.indices.InvalidIndexNameException;
 import org.elasticsearch.repositories.RepositoriesService;
+import org.elasticsearch.repositories.RepositoriesStats;
 import org.elasticsearch.repositories.RepositoryException;
+import org.elasticsearch.snapshots.mockstore.MockRepository;
 import org.elasticsearch.test.junit.annotations.TestLogging;
 
 import java.nio.channels.SeekableByteChannel;
@@ -73,6 +77,7 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
@@ -96,8 +101,10 @@ import static org.hamcrest.Matchers.allOf;
 import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.hamcrest.Matchers.nullValue;
 import static org.hamcrest.Matchers.startsWith;
@@ -1356,6 +1363,184 @@ public class SharedClusterSnapshotRestoreIT extends AbstractSnapshotIntegTestCas
         assertThrows(client.admin().cluster().prepareCreateSnapshot("readonly-repo", "test-snap-2").setWaitForCompletion(true).setIndices("test-idx"), RepositoryException.class, "cannot create snapshot in a readonly repository");
     }
 
+    public void testDedupSharedDataFiles() throws Exception {
+        Client client = client();
+        logger.info("-->  creating repository");
+        Path repositoryLocation = randomRepoPath();
+        assertAcked(client.admin().cluster().preparePutRepository("test-repo")
+                .setType("fs").setSettings(Settings.builder()
+                        .put("location", repositoryLocation)
+                        .put("compress", randomBoolean())
+                        .put("dedup", true)
+                        .put("chunk_size", randomIntBetween(100, 1000), ByteSizeUnit.BYTES)));
+
+        createIndex("test-idx");
+        ensureGreen();
+
+        logger.info("--> indexing some data");
+        for (int i = 0; i < 100; i++) {
+            index("test-idx", "doc", Integer.toString(i), "foo", "bar" + i);
+        }
+        refresh();
+
+        logger.info("--> snapshot");
+        CreateSnapshotResponse createSnapshotResponse = client.admin().cluster().prepareCreateSnapshot("test-repo", "test-snap-1").setWaitForCompletion(true).setIndices("test-idx").get();
+        assertThat(createSnapshotResponse.getSnapshotInfo().successfulShards(), greaterThan(0));
+        assertThat(createSnapshotResponse.getSnapshotInfo().successfulShards(), equalTo(createSnapshotResponse.getSnapshotInfo().totalShards()));
+        int numberOfShards = createSnapshotResponse.getSnapshotInfo().totalShards();
+
+        logger.info("--> restore index with a different name");
+        RestoreSnapshotResponse restoreSnapshotResponse = client.admin().cluster().prepareRestoreSnapshot("test-repo", "test-snap-1")
+                .setRenamePattern("test-idx").setRenameReplacement("test-idx-copy").setWaitForCompletion(true).execute().actionGet();
+        assertThat(restoreSnapshotResponse.getRestoreInfo().totalShards(), greaterThan(0));
+        ensureGreen();
+
+        logger.info("--> snapshot the restored index");
+        createSnapshotResponse = client.admin().cluster().prepareCreateSnapshot("test-repo", "test-snap-2").setWaitForCompletion(true).setIndices("test-idx-copy").get();
+        assertThat(createSnapshotResponse.getSnapshotInfo().successfulShards(), equalTo(numberOfShards));
+
+        logger.info("--> only the commit points of the restored index should have been copied");
+        SnapshotStatus snapshotStatus = client.admin().cluster().prepareSnapshotStatus("test-repo").setSnapshots("test-snap-2").get().getSnapshots().get(0);
+        assertThat(snapshotStatus.getStats().getNumberOfFiles(), lessThanOrEqualTo(numberOfShards));
+
+        logger.info("--> delete the first snapshot and the restored index");
+        client.admin().cluster().prepareDeleteSnapshot("test-repo", "test-snap-1").get();
+        cluster().wipeIndices("test-idx-copy");
+
+        logger.info("--> restore the second snapshot");
+        restoreSnapshotResponse = client.admin().cluster().prepareRestoreSnapshot("test-repo", "test-snap-2").setWaitForCompletion(true).execute().actionGet();
+        assertThat(restoreSnapshotResponse.getRestoreInfo().successfulShards(), equalTo(numberOfShards));
+        assertThat(client.prepareSearch("test-idx-copy").setSize(0).get().getHits().totalHits(), equalTo(100L));
+
+        logger.info("--> delete the second snapshot and make sure that no shared data files are left");
+        client.admin().cluster().prepareDeleteSnapshot("test-repo", "test-snap-2").get();
+        assertThat(numberOfFiles(repositoryLocation.resolve("shared")), equalTo(0));
+    }
+
+    public void testDedupSnapshotCantStartWhileDeleting() throws Exception {
+        Client client = client();
+        logger.info("-->  creating repository");
+        Path repositoryLocation = randomRepoPath();
+        assertAcked(client.admin().cluster().preparePutRepository("test-repo")
+                .setType("mock").setSettings(Settings.builder()
+                        .put("location", repositoryLocation)
+                        .put("compress", randomBoolean())
+                        .put("dedup", true)
+                        .put("chunk_size", randomIntBetween(100, 1000), ByteSizeUnit.BYTES)));
+
+        createIndex("test-idx");
+        ensureGreen();
+
+        logger.info("--> indexing some data");
+        for (int i = 0; i < 100; i++) {
+            index("test-idx", "doc", Integer.toString(i), "foo", "bar" + i);
+        }
+        refresh();
+
+        logger.info("--> snapshot");
+        CreateSnapshotResponse createSnapshotResponse = client.admin().cluster().prepareCreateSnapshot("test-repo", "test-snap-1").setWaitForCompletion(true).setIndices("test-idx").get();
+        assertThat(createSnapshotResponse.getSnapshotInfo().successfulShards(), greaterThan(0));
+        int numberOfShards = createSnapshotResponse.getSnapshotInfo().totalShards();
+
+        logger.info("--> delete the snapshot and block the master while it deletes the references to the shared data files");
+        String masterNode = internalCluster().getMasterName();
+        ((MockRepository) internalCluster().getInstance(RepositoriesService.class, masterNode).repository("test-repo"))
+                .blockOnDataFiles(true);
+        ListenableActionFuture<DeleteSnapshotResponse> deleteFuture =
+                client.admin().cluster().prepareDeleteSnapshot("test-repo", "test-snap-1").execute();
+        try {
+            waitForBlock(masterNode, "test-repo", TimeValue.timeValueMinutes(1));
+
+            logger.info("--> a snapshot reusing the shared data files of the deleted snapshot can't start");
+            // go to the snapshot service of the master directly, the create snapshot action may wait for the snapshot thread
+            // pool that runs the deletion
+            SnapshotsService snapshotsService = internalCluster().getInstance(SnapshotsService.class, masterNode);
+            SnapshotsService.SnapshotRequest request = new SnapshotsService.SnapshotRequest("test-repo", "test-snap-2", "test")
+                    .indices(new String[] {"test-idx"}).masterNodeTimeout(TimeValue.timeValueMinutes(1));
+            CompletableFuture<Void> created = new CompletableFuture<>();
+            snapshotsService.createSnapshot(request, new SnapshotsService.CreateSnapshotListener() {
+                @Override
+                public void onResponse() {
+                    created.complete(null);
+                }
+
+                @Override
+                public void onFailure(Throwable t) {
+                    created.completeExceptionally(t);
+                }
+            });
+            ExecutionException e = expectThrows(ExecutionException.class, () -> created.get(1, TimeUnit.MINUTES));
+            assertThat(e.getCause(), instanceOf(ConcurrentSnapshotExecutionException.class));
+            assertThat(e.getCause().getMessage(), containsString("a snapshot is being deleted"));
+        } finally {
+            unblockNode("test-repo", masterNode);
+        }
+        assertAcked(deleteFuture.get());
+
+        logger.info("--> snapshot once the deletion is done");
+        createSnapshotResponse = client.admin().cluster().prepareCreateSnapshot("test-repo", "test-snap-2").setWaitForCompletion(true).setIndices("test-idx").get();
+        assertThat(createSnapshotResponse.getSnapshotInfo().successfulShards(), equalTo(numberOfShards));
+
+        logger.info("--> restore the snapshot");
+        cluster().wipeIndices("test-idx");
+        RestoreSnapshotResponse restoreSnapshotResponse = client.admin().cluster().prepareRestoreSnapshot("test-repo", "test-snap-2").setWaitForCompletion(true).execute().actionGet();
+        assertThat(restoreSnapshotResponse.getRestoreInfo().successfulShards(), equalTo(numberOfShards));
+        assertThat(client.prepareSearch("test-idx").setSize(0).get().getHits().totalHits(), equalTo(100L));
+    }
+
+    public void testRepositoriesStats() throws Exception {
+        Client client = client();
+        logger.info("-->  creating repository");
+        assertAcked(client.admin().cluster().preparePutRepository("test-repo")
+                .setType("fs").setSettings(Settings.builder()
+                        .put("location", randomRepoPath())
+                        .put("compress", randomBoolean())
+                        .put("concurrent_streams", randomIntBetween(1, 4))
+                        .put("chunk_size", randomIntBetween(100, 1000), ByteSizeUnit.BYTES)));
+
+        createIndex("test-idx");
+        ensureGreen();
+
+        logger.info("--> indexing some data");
+        for (int i = 0; i < 100; i++) {
+            index("test-idx", "doc", Integer.toString(i), "foo", "bar" + i);
+        }
+        refresh();
+
+        logger.info("--> snapshot");
+        CreateSnapshotResponse createSnapshotResponse = client.admin().cluster().prepareCreateSnapshot("test-repo", "test-snap").setWaitForCompletion(true).setIndices("test-idx").get();
+        assertThat(createSnapshotResponse.getSnapshotInfo().successfulShards(), greaterThan(0));
+        assertThat(createSnapshotResponse.getSnapshotInfo().successfulShards(), equalTo(createSnapshotResponse.getSnapshotInfo().totalShards()));
+        SnapshotStats snapshotStats = client.admin().cluster().prepareSnapshotStatus("test-repo").setSnapshots("test-snap").get().getSnapshots().get(0).getStats();
+
+        logger.info("--> delete index");
+        cluster().wipeIndices("test-idx");
+
+        logger.info("--> restore index");
+        RestoreSnapshotResponse restoreSnapshotResponse = client.admin().cluster().prepareRestoreSnapshot("test-repo", "test-snap").setWaitForCompletion(true).execute().actionGet();
+        assertThat(restoreSnapshotResponse.getRestoreInfo().failedShards(), equalTo(0));
+        assertThat(client.prepareSearch("test-idx").setSize(0).get().getHits().totalHits(), equalTo(100L));
+
+        logger.info("--> check the repository stats of all nodes");
+        long snapshotFiles = 0;
+        long snapshotSize = 0;
+        long restoreFiles = 0;
+        long restoreSize = 0;
+        for (NodeStats nodeStats : client.admin().cluster().prepareNodesStats().clear().setRepositories(true).get().getNodes()) {
+            RepositoriesStats.Stats stats = nodeStats.getRepositoriesStats().getStatsPerRepository().get("test-repo");
+            snapshotFiles += stats.getSnapshot().getFiles();
+            snapshotSize += stats.getSnapshot().getSizeInBytes();
+            assertThat(stats.getSnapshot().getCurrent(), equalTo(0L));
+            restoreFiles += stats.getRestore().getFiles();
+            restoreSize += stats.getRestore().getSizeInBytes();
+            assertThat(stats.getRestore().getCurrent(), equalTo(0L));
+        }
+        assertThat(snapshotFiles, equalTo((long) snapshotStats.getNumberOfFiles()));
+        assertThat(snapshotSize, equalTo(snapshotStats.getTotalSize()));
+        assertThat(restoreFiles, greaterThan(0L));
+        assertThat(restoreSize, greaterThan(0L));
+    }
+
     public void testThrottling() throws Exception {
         Client client = client();
 
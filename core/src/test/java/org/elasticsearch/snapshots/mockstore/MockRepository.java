@@ -49,6 +49,7 @@ import java.nio.file.Path;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
@@ -305,6 +306,14 @@ public class MockRepository extends FsRepository {
                 super.deleteBlob(blobName);
             }
 
+            @Override
+            public void deleteBlobs(Collection<String> blobNames) throws IOException {
+                for (String blobName : blobNames) {
+                    maybeIOExceptionOrBlock(blobName);
+                }
+                super.deleteBlobs(blobNames);
+            }
+
             @Override
             public void deleteBlobsByPrefix(String blobNamePrefix) throws IOException {
                 maybeIOExceptionOrBlock(blobNamePrefix);
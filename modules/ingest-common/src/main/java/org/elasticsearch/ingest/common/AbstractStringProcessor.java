@@ -21,6 +21,7 @@ package org.elasticsearch.ingest.common;
 
 import org.elasticsearch.ingest.AbstractProcessor;
 import org.elasticsearch.ingest.ConfigurationUtils;
+import org.elasticsearch.ingest.FieldPath;
 import org.elasticsearch.ingest.IngestDocument;
 import org.elasticsearch.ingest.Processor;
 
@@ -32,10 +33,12 @@ import java.util.Map;
  */
 abstract class AbstractStringProcessor extends AbstractProcessor {
     private final String field;
+    private final FieldPath fieldPath;
 
     protected AbstractStringProcessor(String tag, String field) {
         super(tag);
         this.field = field;
+        this.fieldPath = new FieldPath(field);
     }
 
     public String getField() {
@@ -44,11 +47,11 @@ abstract class AbstractStringProcessor extends AbstractProcessor {
 
     @Override
     public final void execute(IngestDocument document) {
-        String val = document.getFieldValue(field, String.class);
+        String val = document.getFieldValue(fieldPath, String.class);
         if (val == null) {
             throw new IllegalArgumentException("field [" + field + "] is null, cannot process it.");
         }
-        document.setFieldValue(field, process(val));
+        document.setFieldValue(fieldPath, process(val));
     }
 
     protected abstract String process(String value);
@@ -22,6 +22,7 @@ package org.elasticsearch.ingest.common;
 import org.elasticsearch.ExceptionsHelper;
 import org.elasticsearch.ingest.AbstractProcessor;
 import org.elasticsearch.ingest.ConfigurationUtils;
+import org.elasticsearch.ingest.FieldPath;
 import org.elasticsearch.ingest.IngestDocument;
 import org.elasticsearch.ingest.Processor;
 import org.joda.time.DateTime;
@@ -43,7 +44,9 @@ public final class DateProcessor extends AbstractProcessor {
     private final DateTimeZone timezone;
     private final Locale locale;
     private final String field;
+    private final FieldPath fieldPath;
     private final String targetField;
+    private final FieldPath targetFieldPath;
     private final List<String> formats;
     private final List<Function<String, DateTime>> dateParsers;
 
@@ -52,7 +55,9 @@ public final class DateProcessor extends AbstractProcessor {
         this.timezone = timezone;
         this.locale = locale;
         this.field = field;
+        this.fieldPath = new FieldPath(field);
         this.targetField = targetField;
+        this.targetFieldPath = new FieldPath(targetField);
         this.formats = formats;
         this.dateParsers = new ArrayList<>();
         for (String format : formats) {
@@ -63,7 +68,7 @@ public final class DateProcessor extends AbstractProcessor {
 
     @Override
     public void execute(IngestDocument ingestDocument) {
-        String value = ingestDocument.getFieldValue(field, String.class);
+        String value = ingestDocument.getFieldValue(fieldPath, String.class);
 
         DateTime dateTime = null;
         Exception lastException = null;
@@ -80,7 +85,7 @@ public final class DateProcessor extends AbstractProcessor {
             throw new IllegalArgumentException("unable to parse date [" + value + "]", lastException);
         }
 
-        ingestDocument.setFieldValue(targetField, ISODateTimeFormat.dateTime().print(dateTime));
+        ingestDocument.setFieldValue(targetFieldPath, ISODateTimeFormat.dateTime().print(dateTime));
     }
 
     @Override
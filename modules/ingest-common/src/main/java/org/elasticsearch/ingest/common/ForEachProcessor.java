@@ -21,6 +21,7 @@ package org.elasticsearch.ingest.common;
 
 import org.elasticsearch.ingest.AbstractProcessor;
 import org.elasticsearch.ingest.ConfigurationUtils;
+import org.elasticsearch.ingest.FieldPath;
 import org.elasticsearch.ingest.IngestDocument;
 import org.elasticsearch.ingest.Processor;
 import org.elasticsearch.ingest.ProcessorsRegistry;
@@ -45,17 +46,19 @@ public final class ForEachProcessor extends AbstractProcessor {
     public static final String TYPE = "foreach";
 
     private final String field;
+    private final FieldPath fieldPath;
     private final List<Processor> processors;
 
     ForEachProcessor(String tag, String field, List<Processor> processors) {
         super(tag);
         this.field = field;
+        this.fieldPath = new FieldPath(field);
         this.processors = processors;
     }
 
     @Override
     public void execute(IngestDocument ingestDocument) throws Exception {
-        List<Object> values = ingestDocument.getFieldValue(field, List.class);
+        List<Object> values = ingestDocument.getFieldValue(fieldPath, List.class);
         List<Object> newValues = new ArrayList<>(values.size());
         for (Object value : values) {
             Map<String, Object> innerSource = new HashMap<>(ingestDocument.getSourceAndMetadata());
@@ -66,7 +69,7 @@ public final class ForEachProcessor extends AbstractProcessor {
             }
             newValues.add(innerSource.get("_value"));
         }
-        ingestDocument.setFieldValue(field, newValues);
+        ingestDocument.setFieldValue(fieldPath, newValues);
     }
 
     @Override
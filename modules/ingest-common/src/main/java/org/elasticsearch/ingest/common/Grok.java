@@ -31,6 +31,7 @@ import org.joni.exception.ValueException;
 import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 
@@ -58,20 +59,28 @@ final class Grok {
     private final boolean namedCaptures;
     private final Regex compiledExpression;
     private final String expression;
+    private final String[] requiredLiterals;
+    private final ThreadWatchdog threadWatchdog;
 
 
     public Grok(Map<String, String> patternBank, String grokPattern) {
         this(patternBank, grokPattern, true);
     }
 
-    @SuppressWarnings("unchecked")
     public Grok(Map<String, String> patternBank, String grokPattern, boolean namedCaptures) {
+        this(patternBank, grokPattern, namedCaptures, ThreadWatchdog.noop());
+    }
+
+    Grok(Map<String, String> patternBank, String grokPattern, boolean namedCaptures, ThreadWatchdog threadWatchdog) {
         this.patternBank = patternBank;
         this.namedCaptures = namedCaptures;
+        this.threadWatchdog = threadWatchdog;
 
         this.expression = toRegex(grokPattern);
         byte[] expressionBytes = expression.getBytes(StandardCharsets.UTF_8);
         this.compiledExpression = new Regex(expressionBytes, 0, expressionBytes.length, Option.DEFAULT, UTF8Encoding.INSTANCE);
+        List<String> requiredLiterals = RequiredLiterals.extract(expression);
+        this.requiredLiterals = requiredLiterals.toArray(new String[requiredLiterals.size()]);
     }
 
 
@@ -125,17 +134,36 @@ final class Grok {
         return grokPattern;
     }
 
+    /**
+     * Cheaply checks whether the text could be matched by this expression: if this returns false the text contains none of
+     * the literals the expression requires and {@link #match(String)} and {@link #captures(String)} won't match either.
+     */
+    public boolean mightMatch(String text) {
+        for (String literal : requiredLiterals) {
+            if (text.contains(literal) == false) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     public boolean match(String text) {
-        Matcher matcher = compiledExpression.matcher(text.getBytes(StandardCharsets.UTF_8));
-        int result = matcher.search(0, text.length(), Option.DEFAULT);
-        return (result != -1);
+        if (mightMatch(text) == false) {
+            return false;
+        }
+        byte[] textAsBytes = text.getBytes(StandardCharsets.UTF_8);
+        Matcher matcher = compiledExpression.matcher(textAsBytes);
+        return search(matcher, textAsBytes.length) != Matcher.FAILED;
     }
 
     public Map<String, Object> captures(String text) {
+        if (mightMatch(text) == false) {
+            return null;
+        }
         byte[] textAsBytes = text.getBytes(StandardCharsets.UTF_8);
         Map<String, Object> fields = new HashMap<>();
         Matcher matcher = compiledExpression.matcher(textAsBytes);
-        int result = matcher.search(0, textAsBytes.length, Option.DEFAULT);
+        int result = search(matcher, textAsBytes.length);
         if (result != -1 && compiledExpression.numberOfNames() > 0) {
             Region region = matcher.getEagerRegion();
             for (Iterator<NameEntry> entry = compiledExpression.namedBackrefIterator(); entry.hasNext();) {
@@ -157,5 +185,20 @@ final class Grok {
         }
         return null;
     }
-}
 
+    private int search(Matcher matcher, int length) {
+        threadWatchdog.register();
+        try {
+            return matcher.searchInterruptible(0, length, Option.DEFAULT);
+        } catch (InterruptedException e) {
+            throw new IllegalArgumentException("grok pattern matching was interrupted after [" +
+                threadWatchdog.maxExecutionTimeInMillis() + "] ms");
+        } finally {
+            threadWatchdog.unregister();
+        }
+    }
+
+    String[] getRequiredLiterals() {
+        return requiredLiterals;
+    }
+}
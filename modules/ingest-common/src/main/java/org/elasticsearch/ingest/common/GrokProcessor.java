@@ -21,9 +21,12 @@ package org.elasticsearch.ingest.common;
 
 import org.elasticsearch.ingest.AbstractProcessor;
 import org.elasticsearch.ingest.ConfigurationUtils;
+import org.elasticsearch.ingest.FieldPath;
 import org.elasticsearch.ingest.IngestDocument;
 import org.elasticsearch.ingest.Processor;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -35,9 +38,16 @@ public final class GrokProcessor extends AbstractProcessor {
 
     public static final String TYPE = "grok";
     private static final String PATTERN_MATCH_KEY = "_ingest._grok_match_index";
+    private static final FieldPath PATTERN_MATCH_PATH = new FieldPath(PATTERN_MATCH_KEY);
 
     private final String matchField;
+    private final FieldPath matchFieldPath;
     private final Grok grok;
+    /**
+     * Each of the patterns on its own, only set if there are multiple patterns. They are used to skip the combined expression
+     * when the required literals of all but one pattern are missing from the field value.
+     */
+    private final List<Grok> patternGroks;
     private final boolean traceMatch;
 
     public GrokProcessor(String tag, Map<String, String> patternBank, List<String> matchPatterns, String matchField) {
@@ -45,16 +55,54 @@ public final class GrokProcessor extends AbstractProcessor {
     }
 
     public GrokProcessor(String tag, Map<String, String> patternBank, List<String> matchPatterns, String matchField, boolean traceMatch) {
+        this(tag, patternBank, matchPatterns, matchField, traceMatch, ThreadWatchdog.noop());
+    }
+
+    GrokProcessor(String tag, Map<String, String> patternBank, List<String> matchPatterns, String matchField, boolean traceMatch,
+                  ThreadWatchdog threadWatchdog) {
         super(tag);
         this.matchField = matchField;
-        this.grok = new Grok(patternBank, combinePatterns(matchPatterns, traceMatch));
+        this.matchFieldPath = new FieldPath(matchField);
+        this.grok = new Grok(patternBank, combinePatterns(matchPatterns, traceMatch), true, threadWatchdog);
+        if (matchPatterns.size() > 1) {
+            List<Grok> patternGroks = new ArrayList<>(matchPatterns.size());
+            for (String matchPattern : matchPatterns) {
+                patternGroks.add(new Grok(patternBank, matchPattern, true, threadWatchdog));
+            }
+            this.patternGroks = Collections.unmodifiableList(patternGroks);
+        } else {
+            this.patternGroks = null;
+        }
         this.traceMatch = traceMatch;
     }
 
     @Override
     public void execute(IngestDocument ingestDocument) throws Exception {
-        String fieldValue = ingestDocument.getFieldValue(matchField, String.class);
-        Map<String, Object> matches = grok.captures(fieldValue);
+        String fieldValue = ingestDocument.getFieldValue(matchFieldPath, String.class);
+        Map<String, Object> matches;
+        int matchedPattern;
+        if (patternGroks == null) {
+            matchedPattern = 0;
+            matches = grok.captures(fieldValue);
+        } else {
+            matchedPattern = -1;
+            int candidates = 0;
+            for (int i = 0; i < patternGroks.size() && candidates < 2; i++) {
+                if (patternGroks.get(i).mightMatch(fieldValue)) {
+                    matchedPattern = i;
+                    candidates++;
+                }
+            }
+            if (candidates == 0) {
+                matches = null;
+            } else if (candidates == 1) {
+                // none of the other patterns can match so the combined expression would capture exactly what this one does
+                matches = patternGroks.get(matchedPattern).captures(fieldValue);
+            } else {
+                matchedPattern = -1;
+                matches = grok.captures(fieldValue);
+            }
+        }
         if (matches == null) {
             throw new IllegalArgumentException("Provided Grok expressions do not match field value: [" + fieldValue + "]");
         }
@@ -63,11 +111,13 @@ public final class GrokProcessor extends AbstractProcessor {
             .filter((e) -> Objects.nonNull(e.getValue()))
             .forEach((e) -> ingestDocument.setFieldValue(e.getKey(), e.getValue()));
 
-        if (traceMatch) {
+        if (traceMatch && matchedPattern != -1) {
+            ingestDocument.setFieldValue(PATTERN_MATCH_PATH, Integer.toString(matchedPattern));
+        } else if (traceMatch) {
             @SuppressWarnings("unchecked")
-            HashMap<String, String> matchMap = (HashMap<String, String>) ingestDocument.getFieldValue(PATTERN_MATCH_KEY, Object.class);
+            HashMap<String, String> matchMap = (HashMap<String, String>) ingestDocument.getFieldValue(PATTERN_MATCH_PATH, Object.class);
             matchMap.keySet().stream().findFirst().ifPresent((index) -> {
-                ingestDocument.setFieldValue(PATTERN_MATCH_KEY, index);
+                ingestDocument.setFieldValue(PATTERN_MATCH_PATH, index);
             });
         }
     }
@@ -117,9 +167,15 @@ public final class GrokProcessor extends AbstractProcessor {
     public static final class Factory implements Processor.Factory {
 
         private final Map<String, String> builtinPatterns;
+        private final ThreadWatchdog threadWatchdog;
 
         public Factory(Map<String, String> builtinPatterns) {
+            this(builtinPatterns, ThreadWatchdog.noop());
+        }
+
+        Factory(Map<String, String> builtinPatterns, ThreadWatchdog threadWatchdog) {
             this.builtinPatterns = builtinPatterns;
+            this.threadWatchdog = threadWatchdog;
         }
 
         @Override
@@ -138,7 +194,7 @@ public final class GrokProcessor extends AbstractProcessor {
             }
 
             try {
-                return new GrokProcessor(processorTag, patternBank, matchPatterns, matchField, traceMatch);
+                return new GrokProcessor(processorTag, patternBank, matchPatterns, matchField, traceMatch, threadWatchdog);
             } catch (Exception e) {
                 throw newConfigurationException(TYPE, processorTag, "patterns",
                     "Invalid regex pattern found in: " + matchPatterns + ". " + e.getMessage());
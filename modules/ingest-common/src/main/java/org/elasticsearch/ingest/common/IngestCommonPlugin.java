@@ -19,25 +19,46 @@
 
 package org.elasticsearch.ingest.common;
 
+import org.elasticsearch.common.settings.Setting;
+import org.elasticsearch.common.settings.Setting.Property;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.ingest.ProcessorsRegistry;
 import org.elasticsearch.node.NodeModule;
 import org.elasticsearch.plugins.Plugin;
+import org.elasticsearch.threadpool.ThreadPool;
 
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 public class IngestCommonPlugin extends Plugin {
 
     public static final String NAME = "ingest-common";
 
+    /**
+     * How often the grok watchdog checks for grok expressions that have been running for too long.
+     */
+    public static final Setting<TimeValue> WATCHDOG_INTERVAL_SETTING =
+        Setting.timeSetting("ingest.grok.watchdog.interval", TimeValue.timeValueSeconds(1), Property.NodeScope);
+    /**
+     * How long a grok expression may run against a single value before it is interrupted. Zero disables the watchdog.
+     */
+    public static final Setting<TimeValue> WATCHDOG_MAX_EXECUTION_TIME_SETTING =
+        Setting.timeSetting("ingest.grok.watchdog.max_execution_time", TimeValue.timeValueSeconds(1), Property.NodeScope);
+
+    private final Settings settings;
     private final Map<String, String> builtinPatterns;
 
-    public IngestCommonPlugin() throws IOException {
+    public IngestCommonPlugin(Settings settings) throws IOException {
+        this.settings = settings;
         this.builtinPatterns = loadBuiltinPatterns();
     }
 
@@ -58,11 +79,28 @@ public class IngestCommonPlugin extends Plugin {
         nodeModule.registerProcessor(ForEachProcessor.TYPE, (registry) -> new ForEachProcessor.Factory(registry));
         nodeModule.registerProcessor(DateIndexNameProcessor.TYPE, (registry) -> new DateIndexNameProcessor.Factory());
         nodeModule.registerProcessor(SortProcessor.TYPE, (registry) -> new SortProcessor.Factory());
-        nodeModule.registerProcessor(GrokProcessor.TYPE, (registry) -> new GrokProcessor.Factory(builtinPatterns));
+        nodeModule.registerProcessor(GrokProcessor.TYPE, (registry) ->
+            new GrokProcessor.Factory(builtinPatterns, createGrokThreadWatchdog(registry)));
         nodeModule.registerProcessor(ScriptProcessor.TYPE, (registry) ->
             new ScriptProcessor.Factory(registry.getScriptService()));
     }
 
+    @Override
+    public List<Setting<?>> getSettings() {
+        return Arrays.asList(WATCHDOG_INTERVAL_SETTING, WATCHDOG_MAX_EXECUTION_TIME_SETTING);
+    }
+
+    private ThreadWatchdog createGrokThreadWatchdog(ProcessorsRegistry registry) {
+        long interval = WATCHDOG_INTERVAL_SETTING.get(settings).millis();
+        long maxExecutionTime = WATCHDOG_MAX_EXECUTION_TIME_SETTING.get(settings).millis();
+        ThreadPool threadPool = registry.getThreadPool();
+        if (interval <= 0 || maxExecutionTime <= 0) {
+            return ThreadWatchdog.noop();
+        }
+        return ThreadWatchdog.newInstance(interval, maxExecutionTime, threadPool::estimatedTimeInMillis,
+            (delay, command) -> threadPool.schedule(TimeValue.timeValueMillis(delay), ThreadPool.Names.GENERIC, command));
+    }
+
     // Code for loading built-in grok patterns packaged with the jar file:
 
     private static final String[] PATTERN_NAMES = new String[] {
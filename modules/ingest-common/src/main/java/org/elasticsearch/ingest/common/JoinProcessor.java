@@ -21,6 +21,7 @@ package org.elasticsearch.ingest.common;
 
 import org.elasticsearch.ingest.AbstractProcessor;
 import org.elasticsearch.ingest.ConfigurationUtils;
+import org.elasticsearch.ingest.FieldPath;
 import org.elasticsearch.ingest.IngestDocument;
 import org.elasticsearch.ingest.Processor;
 
@@ -37,11 +38,13 @@ public final class JoinProcessor extends AbstractProcessor {
     public static final String TYPE = "join";
 
     private final String field;
+    private final FieldPath fieldPath;
     private final String separator;
 
     JoinProcessor(String tag, String field, String separator) {
         super(tag);
         this.field = field;
+        this.fieldPath = new FieldPath(field);
         this.separator = separator;
     }
 
@@ -55,14 +58,14 @@ public final class JoinProcessor extends AbstractProcessor {
 
     @Override
     public void execute(IngestDocument document) {
-        List<?> list = document.getFieldValue(field, List.class);
+        List<?> list = document.getFieldValue(fieldPath, List.class);
         if (list == null) {
             throw new IllegalArgumentException("field [" + field + "] is null, cannot join.");
         }
         String joined = list.stream()
                 .map(Object::toString)
                 .collect(Collectors.joining(separator));
-        document.setFieldValue(field, joined);
+        document.setFieldValue(fieldPath, joined);
     }
 
     @Override
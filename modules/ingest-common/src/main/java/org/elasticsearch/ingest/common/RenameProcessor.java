@@ -21,6 +21,7 @@ package org.elasticsearch.ingest.common;
 
 import org.elasticsearch.ingest.AbstractProcessor;
 import org.elasticsearch.ingest.ConfigurationUtils;
+import org.elasticsearch.ingest.FieldPath;
 import org.elasticsearch.ingest.IngestDocument;
 import org.elasticsearch.ingest.Processor;
 
@@ -34,12 +35,16 @@ public final class RenameProcessor extends AbstractProcessor {
     public static final String TYPE = "rename";
 
     private final String field;
+    private final FieldPath fieldPath;
     private final String targetField;
+    private final FieldPath targetFieldPath;
 
     RenameProcessor(String tag, String field, String targetField) {
         super(tag);
         this.field = field;
+        this.fieldPath = new FieldPath(field);
         this.targetField = targetField;
+        this.targetFieldPath = new FieldPath(targetField);
     }
 
     String getField() {
@@ -52,20 +57,20 @@ public final class RenameProcessor extends AbstractProcessor {
 
     @Override
     public void execute(IngestDocument document) {
-        if (document.hasField(field) == false) {
+        if (document.hasField(fieldPath) == false) {
             throw new IllegalArgumentException("field [" + field + "] doesn't exist");
         }
-        if (document.hasField(targetField)) {
+        if (document.hasField(targetFieldPath)) {
             throw new IllegalArgumentException("field [" + targetField + "] already exists");
         }
 
-        Object oldValue = document.getFieldValue(field, Object.class);
-        document.setFieldValue(targetField, oldValue);
+        Object oldValue = document.getFieldValue(fieldPath, Object.class);
+        document.setFieldValue(targetFieldPath, oldValue);
         try {
-            document.removeField(field);
+            document.removeField(fieldPath);
         } catch (Exception e) {
             //remove the new field if the removal of the old one failed
-            document.removeField(targetField);
+            document.removeField(targetFieldPath);
             throw e;
         }
     }
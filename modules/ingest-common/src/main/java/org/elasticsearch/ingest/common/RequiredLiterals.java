@@ -0,0 +1,283 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.ingest.common;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Extracts the literal strings that any input must contain in order to be matched by a regular expression. This lets grok
+ * reject inputs with a couple of {@link String#contains(CharSequence)} calls instead of running the full regex engine.
+ * <p>
+ * The extraction is conservative: only plain literals, groups, alternations and quantifiers are understood. Anything else,
+ * like back references, inline options or escapes that aren't plain punctuation, makes the extraction give up and return
+ * an empty list, in which case every input has to go through the regex engine.
+ */
+final class RequiredLiterals {
+
+    private static final String NON_LITERAL_ESCAPES = "dDwWsShHbBAzZGnrtfvea";
+    private static final int NOT_QUANTIFIED = -1;
+
+    private final String regex;
+    private int pos;
+
+    private RequiredLiterals(String regex) {
+        this.regex = regex;
+    }
+
+    /**
+     * Returns the literals that every input matched by the given regex contains, or an empty list if there are none or
+     * if the regex uses constructs that aren't understood.
+     */
+    static List<String> extract(String regex) {
+        RequiredLiterals parser = new RequiredLiterals(regex);
+        try {
+            List<String> literals = parser.alternation();
+            if (parser.pos != regex.length()) {
+                return Collections.emptyList();
+            }
+            return literals.stream().distinct().collect(Collectors.toList());
+        } catch (UnsupportedRegexException e) {
+            return Collections.emptyList();
+        }
+    }
+
+    /**
+     * Parses alternatives up to the end of the regex or of the enclosing group. Literals are only required if there is a
+     * single alternative.
+     */
+    private List<String> alternation() {
+        List<String> literals = sequence();
+        boolean alternatives = false;
+        while (pos < regex.length() && regex.charAt(pos) == '|') {
+            pos++;
+            sequence();
+            alternatives = true;
+        }
+        return alternatives ? Collections.emptyList() : literals;
+    }
+
+    private List<String> sequence() {
+        List<String> literals = new ArrayList<>();
+        StringBuilder run = new StringBuilder();
+        while (pos < regex.length()) {
+            int c = regex.codePointAt(pos);
+            if (c == '|' || c == ')') {
+                break;
+            }
+            pos += Character.charCount(c);
+            String literal = null;
+            List<String> groupLiterals = Collections.emptyList();
+            switch (c) {
+                case '\\':
+                    literal = escape();
+                    break;
+                case '[':
+                    skipCharacterClass();
+                    break;
+                case '(':
+                    groupLiterals = group();
+                    break;
+                case '.':
+                case '^':
+                case '$':
+                    break;
+                case '*':
+                case '+':
+                case '?':
+                case '{':
+                    throw new UnsupportedRegexException();
+                default:
+                    literal = new String(Character.toChars(c));
+            }
+            int min = quantifier();
+            if (literal != null && min == NOT_QUANTIFIED) {
+                run.append(literal);
+                continue;
+            }
+            if (literal != null && min != 0) {
+                // a repeated literal is required but the rest of the run doesn't directly follow it
+                run.append(literal);
+            }
+            flush(run, literals);
+            if (min != 0) {
+                literals.addAll(groupLiterals);
+            }
+        }
+        flush(run, literals);
+        return literals;
+    }
+
+    /**
+     * Consumes the quantifiers following an atom and returns the minimum number of times the atom has to occur, capped at 1,
+     * or {@link #NOT_QUANTIFIED} if the atom isn't followed by a quantifier.
+     */
+    private int quantifier() {
+        int min = NOT_QUANTIFIED;
+        while (pos < regex.length()) {
+            char c = regex.charAt(pos);
+            int atomMin;
+            if (c == '?' || c == '*' || c == '+') {
+                atomMin = c == '+' ? 1 : 0;
+                pos++;
+                // lazy and possessive modifiers don't change how often the atom has to occur
+                if (pos < regex.length() && (regex.charAt(pos) == '?' || regex.charAt(pos) == '+')) {
+                    pos++;
+                }
+            } else if (c == '{') {
+                atomMin = interval();
+            } else {
+                break;
+            }
+            min = min == NOT_QUANTIFIED ? atomMin : Math.min(min, atomMin);
+        }
+        return min;
+    }
+
+    /**
+     * Parses a <code>{n}</code>, <code>{n,}</code>, <code>{n,m}</code> or <code>{,m}</code> interval and returns its lower bound,
+     * capped at 1.
+     */
+    private int interval() {
+        int end = regex.indexOf('}', pos);
+        if (end == -1) {
+            throw new UnsupportedRegexException();
+        }
+        String interval = regex.substring(pos + 1, end);
+        String lower = interval.indexOf(',') == -1 ? interval : interval.substring(0, interval.indexOf(','));
+        String upper = interval.indexOf(',') == -1 ? interval : interval.substring(interval.indexOf(',') + 1);
+        if (isDigits(lower) == false && lower.isEmpty() == false || isDigits(upper) == false && upper.isEmpty() == false
+                || lower.isEmpty() && upper.isEmpty()) {
+            throw new UnsupportedRegexException();
+        }
+        pos = end + 1;
+        return lower.isEmpty() || Integer.parseInt(lower) == 0 ? 0 : 1;
+    }
+
+    private static boolean isDigits(String s) {
+        if (s.isEmpty() || s.length() > 9) {
+            return false;
+        }
+        for (int i = 0; i < s.length(); i++) {
+            if (Character.isDigit(s.charAt(i)) == false) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Parses the character after a backslash and returns it if it is matched literally, or null if it matches a class of
+     * characters or an anchor.
+     */
+    private String escape() {
+        if (pos >= regex.length()) {
+            throw new UnsupportedRegexException();
+        }
+        int c = regex.codePointAt(pos);
+        pos += Character.charCount(c);
+        if (c < 128 && Character.isLetterOrDigit(c)) {
+            if (NON_LITERAL_ESCAPES.indexOf(c) != -1) {
+                return null;
+            }
+            throw new UnsupportedRegexException();
+        }
+        return new String(Character.toChars(c));
+    }
+
+    /**
+     * Skips a character class, including nested classes. The opening bracket has already been consumed.
+     */
+    private void skipCharacterClass() {
+        if (pos < regex.length() && regex.charAt(pos) == '^') {
+            pos++;
+        }
+        if (pos < regex.length() && regex.charAt(pos) == ']') {
+            pos++;
+        }
+        while (pos < regex.length()) {
+            char c = regex.charAt(pos++);
+            if (c == '\\') {
+                pos++;
+            } else if (c == '[') {
+                skipCharacterClass();
+            } else if (c == ']') {
+                return;
+            }
+        }
+        throw new UnsupportedRegexException();
+    }
+
+    /**
+     * Parses a group and returns the literals it requires. The opening parenthesis has already been consumed.
+     */
+    private List<String> group() {
+        boolean lookaround = false;
+        if (regex.startsWith("?", pos)) {
+            if (regex.startsWith("?#", pos)) {
+                int end = regex.indexOf(')', pos);
+                if (end == -1) {
+                    throw new UnsupportedRegexException();
+                }
+                pos = end + 1;
+                return Collections.emptyList();
+            } else if (regex.startsWith("?:", pos) || regex.startsWith("?>", pos)) {
+                pos += 2;
+            } else if (regex.startsWith("?=", pos) || regex.startsWith("?!", pos)) {
+                pos += 2;
+                lookaround = true;
+            } else if (regex.startsWith("?<=", pos) || regex.startsWith("?<!", pos)) {
+                pos += 3;
+                lookaround = true;
+            } else if (regex.startsWith("?<", pos) || regex.startsWith("?'", pos)) {
+                char close = regex.charAt(pos + 1) == '<' ? '>' : '\'';
+                int end = regex.indexOf(close, pos + 2);
+                if (end == -1) {
+                    throw new UnsupportedRegexException();
+                }
+                pos = end + 1;
+            } else {
+                // inline options like (?i) change how literals are matched
+                throw new UnsupportedRegexException();
+            }
+        }
+        List<String> literals = alternation();
+        if (pos >= regex.length() || regex.charAt(pos) != ')') {
+            throw new UnsupportedRegexException();
+        }
+        pos++;
+        return lookaround ? Collections.emptyList() : literals;
+    }
+
+    private static void flush(StringBuilder run, List<String> literals) {
+        if (run.length() > 0) {
+            literals.add(run.toString());
+            run.setLength(0);
+        }
+    }
+
+    private static final class UnsupportedRegexException extends RuntimeException {
+        UnsupportedRegexException() {
+            super(null, null, false, false);
+        }
+    }
+}
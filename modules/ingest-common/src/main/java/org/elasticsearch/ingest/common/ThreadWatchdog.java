@@ -0,0 +1,168 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.ingest.common;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiConsumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Protects against long running operations that need to be interrupted.
+ * <p>
+ * Threads register themselves before starting such an operation and unregister afterwards. While threads are registered a
+ * periodic check interrupts the ones that have been running for longer than the maximum execution time. The operation is
+ * expected to notice the interrupt, like joni's {@code Matcher#searchInterruptible} does.
+ */
+interface ThreadWatchdog {
+
+    /**
+     * Registers the current thread. Must be followed by a call to {@link #unregister()} from the same thread.
+     */
+    void register();
+
+    /**
+     * The number of milliseconds a registered thread may run before it is interrupted.
+     */
+    long maxExecutionTimeInMillis();
+
+    /**
+     * Unregisters the current thread, clearing its interrupt status if it was interrupted by this watchdog.
+     */
+    void unregister();
+
+    /**
+     * A watchdog that never interrupts anything.
+     */
+    static ThreadWatchdog noop() {
+        return Noop.INSTANCE;
+    }
+
+    /**
+     * Creates a watchdog that checks the registered threads every {@code interval} milliseconds and interrupts the ones that
+     * have been registered for longer than {@code maxExecutionTime} milliseconds.
+     *
+     * @param relativeTimeSupplier supplies the current relative time in milliseconds
+     * @param scheduler            schedules the given command to run after the given number of milliseconds
+     */
+    static ThreadWatchdog newInstance(long interval, long maxExecutionTime, LongSupplier relativeTimeSupplier,
+                                      BiConsumer<Long, Runnable> scheduler) {
+        return new Default(interval, maxExecutionTime, relativeTimeSupplier, scheduler);
+    }
+
+    final class Noop implements ThreadWatchdog {
+
+        private static final Noop INSTANCE = new Noop();
+
+        private Noop() {
+        }
+
+        @Override
+        public void register() {
+        }
+
+        @Override
+        public long maxExecutionTimeInMillis() {
+            return Long.MAX_VALUE;
+        }
+
+        @Override
+        public void unregister() {
+        }
+    }
+
+    final class Default implements ThreadWatchdog {
+
+        private final long interval;
+        private final long maxExecutionTime;
+        private final LongSupplier relativeTimeSupplier;
+        private final BiConsumer<Long, Runnable> scheduler;
+        private final AtomicBoolean running = new AtomicBoolean(false);
+        final ConcurrentMap<Thread, Registration> registry = new ConcurrentHashMap<>();
+
+        private Default(long interval, long maxExecutionTime, LongSupplier relativeTimeSupplier, BiConsumer<Long, Runnable> scheduler) {
+            this.interval = interval;
+            this.maxExecutionTime = maxExecutionTime;
+            this.relativeTimeSupplier = relativeTimeSupplier;
+            this.scheduler = scheduler;
+        }
+
+        @Override
+        public void register() {
+            Registration previous = registry.put(Thread.currentThread(), new Registration(relativeTimeSupplier.getAsLong(), false));
+            assert previous == null : "thread [" + Thread.currentThread().getName() + "] is already registered";
+            scheduleCheckIfNeeded();
+        }
+
+        @Override
+        public long maxExecutionTimeInMillis() {
+            return maxExecutionTime;
+        }
+
+        @Override
+        public void unregister() {
+            Registration registration = registry.remove(Thread.currentThread());
+            assert registration != null : "thread [" + Thread.currentThread().getName() + "] is not registered";
+            if (registration != null && registration.interrupted) {
+                // the interrupt is only meant for the watched operation, it must not leak into whatever the thread runs next
+                Thread.interrupted();
+            }
+        }
+
+        private void scheduleCheckIfNeeded() {
+            if (registry.isEmpty() == false && running.compareAndSet(false, true)) {
+                scheduler.accept(interval, this::interruptLongRunningExecutions);
+            }
+        }
+
+        private void interruptLongRunningExecutions() {
+            final long currentRelativeTime = relativeTimeSupplier.getAsLong();
+            for (Thread thread : registry.keySet()) {
+                // interrupting under the map's lock for the thread ensures it can't have unregistered in the mean time
+                registry.computeIfPresent(thread, (t, registration) -> {
+                    if (registration.interrupted == false && currentRelativeTime - registration.startTime > maxExecutionTime) {
+                        t.interrupt();
+                        return new Registration(registration.startTime, true);
+                    }
+                    return registration;
+                });
+            }
+            if (registry.isEmpty()) {
+                running.set(false);
+                // a thread may have registered after the check above without scheduling a check itself
+                scheduleCheckIfNeeded();
+            } else {
+                scheduler.accept(interval, this::interruptLongRunningExecutions);
+            }
+        }
+
+        static final class Registration {
+
+            private final long startTime;
+            private final boolean interrupted;
+
+            Registration(long startTime, boolean interrupted) {
+                this.startTime = startTime;
+                this.interrupted = interrupted;
+            }
+        }
+    }
+}
@@ -25,6 +25,7 @@ import org.elasticsearch.ingest.ProcessorsRegistry;
 import org.elasticsearch.ingest.TestProcessor;
 import org.elasticsearch.script.ScriptService;
 import org.elasticsearch.test.ESTestCase;
+import org.elasticsearch.threadpool.ThreadPool;
 import org.hamcrest.Matchers;
 
 import java.util.Collections;
@@ -39,7 +40,7 @@ public class ForEachProcessorFactoryTests extends ESTestCase {
         ProcessorsRegistry.Builder builder = new ProcessorsRegistry.Builder();
         Processor processor = new TestProcessor(ingestDocument -> {});
         builder.registerProcessor("_name", (registry) -> (tag, config) -> processor);
-        ProcessorsRegistry registry = builder.build(mock(ScriptService.class), mock(ClusterService.class));
+        ProcessorsRegistry registry = builder.build(mock(ScriptService.class), mock(ClusterService.class), mock(ThreadPool.class));
         ForEachProcessor.Factory forEachFactory = new ForEachProcessor.Factory(registry);
 
         Map<String, Object> config = new HashMap<>();
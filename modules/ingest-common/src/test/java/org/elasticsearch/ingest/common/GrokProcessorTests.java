@@ -26,6 +26,7 @@ import org.elasticsearch.test.ESTestCase;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import static org.hamcrest.Matchers.equalTo;
@@ -116,6 +117,38 @@ public class GrokProcessorTests extends ESTestCase {
         assertThat(doc.getFieldValue("_ingest._grok_match_index", String.class), equalTo("1"));
     }
 
+    public void testSetMetadataWithSinglePattern() throws Exception {
+        String fieldName = RandomDocumentPicks.randomFieldName(random());
+        IngestDocument doc = RandomDocumentPicks.randomIngestDocument(random(), new HashMap<>());
+        doc.setFieldValue(fieldName, "abc1");
+        GrokProcessor processor = new GrokProcessor(randomAsciiOfLength(10), Collections.singletonMap("ONE", "1"),
+            Collections.singletonList("%{ONE:one}"), fieldName, true);
+        processor.execute(doc);
+        assertThat(doc.getFieldValue("one", String.class), equalTo("1"));
+        assertThat(doc.getFieldValue("_ingest._grok_match_index", String.class), equalTo("0"));
+    }
+
+    public void testPatternsMissingRequiredLiteralsAreSkipped() throws Exception {
+        Map<String, String> patternBank = new HashMap<>();
+        patternBank.put("NUMBER", "\\d+");
+        List<String> patterns = Arrays.asList("took=%{NUMBER:took}", "status=%{NUMBER:status}", "size=%{NUMBER:size}");
+        String fieldName = RandomDocumentPicks.randomFieldName(random());
+        GrokProcessor processor = new GrokProcessor(randomAsciiOfLength(10), patternBank, patterns, fieldName, true);
+
+        IngestDocument doc = RandomDocumentPicks.randomIngestDocument(random(), new HashMap<>());
+        doc.setFieldValue(fieldName, "request status=200");
+        processor.execute(doc);
+        assertThat(doc.hasField("took"), equalTo(false));
+        assertThat(doc.getFieldValue("status", String.class), equalTo("200"));
+        assertThat(doc.hasField("size"), equalTo(false));
+        assertThat(doc.getFieldValue("_ingest._grok_match_index", String.class), equalTo("1"));
+
+        IngestDocument noCandidates = RandomDocumentPicks.randomIngestDocument(random(), new HashMap<>());
+        noCandidates.setFieldValue(fieldName, "request code=200");
+        Exception e = expectThrows(IllegalArgumentException.class, () -> processor.execute(noCandidates));
+        assertThat(e.getMessage(), equalTo("Provided Grok expressions do not match field value: [request code=200]"));
+    }
+
     public void testCombinedPatterns() {
         String combined;
         combined = GrokProcessor.combinePatterns(Arrays.asList(""), false);
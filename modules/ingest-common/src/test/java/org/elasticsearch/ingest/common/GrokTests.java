@@ -27,6 +27,8 @@ import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.is;
@@ -307,4 +309,73 @@ public class GrokTests extends ESTestCase {
         Grok grok = new Grok(bank, "%{MONTHDAY:greatday}");
         assertThat(grok.captures("nomatch"), nullValue());
     }
+
+    public void testRequiredLiteralsPrefilter() {
+        Grok grok = new Grok(basePatterns, "%{IP:client} %{WORD:method} %{URIPATHPARAM:request}");
+        assertThat(grok.getRequiredLiterals(), equalTo(new String[] {" ", "/"}));
+        assertThat(grok.mightMatch("55.3.244.1"), equalTo(false));
+        assertThat(grok.captures("55.3.244.1"), nullValue());
+        assertThat(grok.match("55.3.244.1"), equalTo(false));
+
+        Map<String, String> bank = new HashMap<>();
+        bank.put("STATUS", "\\d{3}");
+        grok = new Grok(bank, "status=%{STATUS:status}, took=%{STATUS:took}ms");
+        assertThat(grok.getRequiredLiterals(), equalTo(new String[] {"status=", ", took=", "ms"}));
+        assertThat(grok.captures("status=200, took=100"), nullValue());
+        Map<String, Object> matches = grok.captures("status=200, took=100ms");
+        assertThat(matches.get("status"), equalTo("200"));
+        assertThat(matches.get("took"), equalTo("100"));
+    }
+
+    public void testMatchWithNonAsciiText() {
+        Grok grok = new Grok(basePatterns, "-%{WORD:word}");
+        assertThat(grok.match("ääää-bc"), equalTo(true));
+        assertThat(grok.captures("ääää-bc").get("word"), equalTo("bc"));
+    }
+
+    public void testExponentialExpressionsAreInterrupted() throws Exception {
+        AtomicBoolean run = new AtomicBoolean(true);
+        AtomicReference<Thread> watched = new AtomicReference<>();
+        ThreadWatchdog watchdog = new ThreadWatchdog() {
+            @Override
+            public void register() {
+                watched.set(Thread.currentThread());
+            }
+
+            @Override
+            public long maxExecutionTimeInMillis() {
+                return 100;
+            }
+
+            @Override
+            public void unregister() {
+                watched.set(null);
+                run.set(false);
+            }
+        };
+        Thread interrupter = new Thread(() -> {
+            while (run.get()) {
+                Thread thread = watched.get();
+                if (thread != null) {
+                    thread.interrupt();
+                }
+            }
+        });
+        interrupter.start();
+        try {
+            Grok grok = new Grok(basePatterns, "(a+)+b", true, watchdog);
+            StringBuilder text = new StringBuilder();
+            for (int i = 0; i < 64; i++) {
+                text.append('a');
+            }
+            // the required literal "b" is present so the expression can't be skipped, but it never follows the a's
+            text.append("c b");
+            Exception e = expectThrows(IllegalArgumentException.class, () -> grok.captures(text.toString()));
+            assertThat(e.getMessage(), equalTo("grok pattern matching was interrupted after [100] ms"));
+        } finally {
+            run.set(false);
+            interrupter.join();
+            Thread.interrupted();
+        }
+    }
 }
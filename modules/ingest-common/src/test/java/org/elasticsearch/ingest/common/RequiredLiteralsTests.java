@@ -0,0 +1,82 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.ingest.common;
+
+import org.elasticsearch.test.ESTestCase;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+
+public class RequiredLiteralsTests extends ESTestCase {
+
+    public void testLiterals() {
+        assertThat(RequiredLiterals.extract("foo"), contains("foo"));
+        assertThat(RequiredLiterals.extract("foo\\.bar\\[baz\\]"), contains("foo.bar[baz]"));
+        assertThat(RequiredLiterals.extract("^GET /index\\d+$"), contains("GET /index"));
+        assertThat(RequiredLiterals.extract("foo.bar"), contains("foo", "bar"));
+        assertThat(RequiredLiterals.extract("foo[a-z\\]]bar"), contains("foo", "bar"));
+        assertThat(RequiredLiterals.extract("foo[[:alpha:]]bar"), contains("foo", "bar"));
+        assertThat(RequiredLiterals.extract("zürich"), contains("zürich"));
+        assertThat(RequiredLiterals.extract(""), empty());
+    }
+
+    public void testQuantifiers() {
+        assertThat(RequiredLiterals.extract("foos?bar"), contains("foo", "bar"));
+        assertThat(RequiredLiterals.extract("foos*bar"), contains("foo", "bar"));
+        assertThat(RequiredLiterals.extract("foos+bar"), contains("foos", "bar"));
+        assertThat(RequiredLiterals.extract("foos{0,2}bar"), contains("foo", "bar"));
+        assertThat(RequiredLiterals.extract("foos{,2}bar"), contains("foo", "bar"));
+        assertThat(RequiredLiterals.extract("foos{2}bar"), contains("foos", "bar"));
+        assertThat(RequiredLiterals.extract("foos+?bar"), contains("foos", "bar"));
+        assertThat(RequiredLiterals.extract("foos??bar"), contains("foo", "bar"));
+        assertThat(RequiredLiterals.extract("(?:foo)?bar"), contains("bar"));
+        assertThat(RequiredLiterals.extract("(?:foo)+bar"), contains("foo", "bar"));
+    }
+
+    public void testGroups() {
+        assertThat(RequiredLiterals.extract("(?<name>foo)-(bar)"), contains("foo", "-", "bar"));
+        assertThat(RequiredLiterals.extract("(?'name'foo)"), contains("foo"));
+        assertThat(RequiredLiterals.extract("(?>foo)"), contains("foo"));
+        assertThat(RequiredLiterals.extract("(?=foo)bar"), contains("bar"));
+        assertThat(RequiredLiterals.extract("(?<!foo)bar"), contains("bar"));
+        assertThat(RequiredLiterals.extract("foo(?#comment)bar"), contains("foo", "bar"));
+        assertThat(RequiredLiterals.extract("(?:a(?:b|c)d)e"), contains("a", "d", "e"));
+    }
+
+    public void testAlternations() {
+        assertThat(RequiredLiterals.extract("foo|bar"), empty());
+        assertThat(RequiredLiterals.extract("a(?:foo|bar)b"), contains("a", "b"));
+        assertThat(RequiredLiterals.extract("(?:foo|bar)"), empty());
+    }
+
+    public void testUnsupportedConstructs() {
+        assertThat(RequiredLiterals.extract("(?i)foo"), empty());
+        assertThat(RequiredLiterals.extract("(?<word>foo) \\k<word>"), empty());
+        assertThat(RequiredLiterals.extract("(foo) \\1"), empty());
+        assertThat(RequiredLiterals.extract("foo\\x41"), empty());
+        assertThat(RequiredLiterals.extract("foo\\p{Alpha}"), empty());
+        assertThat(RequiredLiterals.extract("foo{bar}"), empty());
+        assertThat(RequiredLiterals.extract("*foo"), empty());
+        assertThat(RequiredLiterals.extract("(foo"), empty());
+        assertThat(RequiredLiterals.extract("foo)"), empty());
+        assertThat(RequiredLiterals.extract("[foo"), empty());
+        assertThat(RequiredLiterals.extract("foo\\"), empty());
+    }
+}
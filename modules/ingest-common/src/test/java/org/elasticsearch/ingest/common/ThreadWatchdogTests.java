@@ -0,0 +1,81 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.ingest.common;
+
+import org.elasticsearch.test.ESTestCase;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.sameInstance;
+
+public class ThreadWatchdogTests extends ESTestCase {
+
+    public void testInterruptsLongRunningThreads() {
+        AtomicLong relativeTime = new AtomicLong(0);
+        List<Runnable> scheduled = new ArrayList<>();
+        ThreadWatchdog watchdog = ThreadWatchdog.newInstance(10, 100, relativeTime::get, (delay, command) -> {
+            assertThat(delay, equalTo(10L));
+            scheduled.add(command);
+        });
+
+        watchdog.register();
+        assertThat(scheduled.size(), equalTo(1));
+        relativeTime.set(50);
+        scheduled.remove(0).run();
+        assertThat(Thread.currentThread().isInterrupted(), equalTo(false));
+        assertThat(scheduled.size(), equalTo(1));
+
+        relativeTime.set(101);
+        scheduled.remove(0).run();
+        assertThat(Thread.currentThread().isInterrupted(), equalTo(true));
+        assertThat(scheduled.size(), equalTo(1));
+
+        // the interrupt must not outlive the registration
+        watchdog.unregister();
+        assertThat(Thread.currentThread().isInterrupted(), equalTo(false));
+
+        // the last check notices that nothing is registered anymore and stops rescheduling itself
+        scheduled.remove(0).run();
+        assertThat(scheduled.size(), equalTo(0));
+        watchdog.register();
+        assertThat(scheduled.size(), equalTo(1));
+        watchdog.unregister();
+    }
+
+    public void testUnregisterKeepsInterruptsFromOthers() {
+        List<Runnable> scheduled = new ArrayList<>();
+        ThreadWatchdog watchdog = ThreadWatchdog.newInstance(10, 100, () -> 0L, (delay, command) -> scheduled.add(command));
+        watchdog.register();
+        Thread.currentThread().interrupt();
+        watchdog.unregister();
+        assertThat(Thread.interrupted(), equalTo(true));
+    }
+
+    public void testNoop() {
+        ThreadWatchdog watchdog = ThreadWatchdog.noop();
+        assertThat(ThreadWatchdog.noop(), sameInstance(watchdog));
+        assertThat(watchdog.maxExecutionTimeInMillis(), equalTo(Long.MAX_VALUE));
+        watchdog.register();
+        watchdog.unregister();
+    }
+}
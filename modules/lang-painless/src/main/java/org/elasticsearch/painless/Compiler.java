@@ -20,6 +20,8 @@
 package org.elasticsearch.painless;
 
 import org.elasticsearch.bootstrap.BootstrapInfo;
+import org.elasticsearch.common.logging.ESLogger;
+import org.elasticsearch.common.logging.Loggers;
 import org.elasticsearch.painless.antlr.Walker;
 import org.elasticsearch.painless.node.SSource;
 import org.objectweb.asm.util.Printer;
@@ -30,6 +32,7 @@ import java.security.CodeSource;
 import java.security.SecureClassLoader;
 import java.security.cert.Certificate;
 import java.util.BitSet;
+import java.util.List;
 
 import static org.elasticsearch.painless.WriterConstants.CLASS_NAME;
 
@@ -40,6 +43,8 @@ import static org.elasticsearch.painless.WriterConstants.CLASS_NAME;
  */
 final class Compiler {
 
+    private static final ESLogger logger = Loggers.getLogger(Compiler.class);
+
     /**
      * The maximum number of characters allowed in the script source.
      */
@@ -104,12 +109,17 @@ final class Compiler {
         root.analyze();
         root.write();
 
+        if (logger.isDebugEnabled() && root.getDynamicCallSites().isEmpty() == false) {
+            logger.debug("script [{}] dispatches {} dynamically, consider declaring the types of the receivers",
+                name, root.getDynamicCallSites());
+        }
+
         try {
             Class<? extends Executable> clazz = loader.define(CLASS_NAME, root.getBytes());
             java.lang.reflect.Constructor<? extends Executable> constructor =
-                    clazz.getConstructor(String.class, String.class, BitSet.class);
+                    clazz.getConstructor(String.class, String.class, BitSet.class, List.class);
 
-            return constructor.newInstance(name, source, root.getStatements());
+            return constructor.newInstance(name, source, root.getStatements(), root.getDynamicCallSites());
         } catch (Exception exception) { // Catch everything to let the user know this is something caused internally.
             throw new IllegalStateException("An internal error occurred attempting to define the script [" + name + "].", exception);
         }
@@ -23,6 +23,7 @@ import org.apache.lucene.search.Scorer;
 import org.elasticsearch.search.lookup.LeafDocLookup;
 
 import java.util.BitSet;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -33,11 +34,13 @@ public abstract class Executable {
     private final String name;
     private final String source;
     private final BitSet statements;
+    private final List<String> dynamicCallSites;
 
-    public Executable(String name, String source, BitSet statements) {
+    public Executable(String name, String source, BitSet statements, List<String> dynamicCallSites) {
         this.name = name;
         this.source = source;
         this.statements = statements;
+        this.dynamicCallSites = dynamicCallSites;
     }
 
     public String getName() {
@@ -48,6 +51,15 @@ public abstract class Executable {
         return source;
     }
 
+    /**
+     * Returns the calls, field accesses and brace accesses that are dispatched at runtime because their receiver is
+     * {@code def}, each as {@code [site] at offset [offset]}. Declaring the types of these receivers lets the compiler
+     * resolve them instead.
+     */
+    public List<String> getDynamicCallSites() {
+        return dynamicCallSites;
+    }
+
     /** 
      * Finds the start of the first statement boundary that is
      * on or before {@code offset}. If one is not found, {@code -1}
@@ -21,8 +21,11 @@ package org.elasticsearch.painless;
 
 import org.elasticsearch.painless.node.SFunction;
 
+import java.util.ArrayList;
 import java.util.BitSet;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -31,6 +34,7 @@ import java.util.Map;
 public class Globals {
     private final Map<String,SFunction> syntheticMethods = new HashMap<>();
     private final Map<String,Constant> constantInitializers = new HashMap<>();
+    private final List<String> dynamicCallSites = new ArrayList<>();
     private final BitSet statements;
     
     /** Create a new Globals from the set of statement boundaries */
@@ -55,6 +59,11 @@ public class Globals {
         }
     }
     
+    /** Records a call site that has to be dispatched dynamically because its receiver type is unknown at compile time */
+    public void addDynamicCallSite(Location location, String site) {
+        dynamicCallSites.add("[" + site + "] at offset [" + location.getOffset() + "]");
+    }
+    
     /** Returns the current synthetic methods */
     public Map<String,SFunction> getSyntheticMethods() {
         return syntheticMethods;
@@ -65,6 +74,11 @@ public class Globals {
         return constantInitializers;
     }
     
+    /** Returns the call sites that are dispatched dynamically */
+    public List<String> getDynamicCallSites() {
+        return Collections.unmodifiableList(dynamicCallSites);
+    }
+    
     /** Returns the set of statement boundaries */
     public BitSet getStatements() {
         return statements;
@@ -185,13 +185,21 @@ public final class Locals {
     
     /** Creates a new variable. Throws IAE if the variable has already been defined (even in a parent) or reserved. */
     public Variable addVariable(Location location, Type type, String name, boolean readonly) {
+        return addVariable(location, type, null, name, readonly);
+    }
+
+    /**
+     * Creates a new variable whose value is always exactly of type {@code exactType}, even though it is declared as
+     * {@code type}. Throws IAE if the variable has already been defined (even in a parent) or reserved.
+     */
+    public Variable addVariable(Location location, Type type, Type exactType, String name, boolean readonly) {
         if (hasVariable(name)) {
             throw location.createError(new IllegalArgumentException("Variable [" + name + "] is already defined."));
         }
         if (KEYWORDS.contains(name)) {
             throw location.createError(new IllegalArgumentException("Variable [" + name + "] is reserved."));
         }
-        return defineVariable(location, type, name, readonly);
+        return defineVariable(location, type, exactType, name, readonly);
     }
     
     /** Return type of this scope (e.g. int, if inside a function that returns int) */
@@ -265,10 +273,15 @@ public final class Locals {
     
     /** Defines a variable at this scope internally. */
     private Variable defineVariable(Location location, Type type, String name, boolean readonly) {
+        return defineVariable(location, type, null, name, readonly);
+    }
+
+    /** Defines a variable at this scope internally. */
+    private Variable defineVariable(Location location, Type type, Type exactType, String name, boolean readonly) {
         if (variables == null) {
             variables = new HashMap<>();
         }
-        Variable variable = new Variable(location, name, type, getNextSlot(), readonly);
+        Variable variable = new Variable(location, name, type, exactType, getNextSlot(), readonly);
         variables.put(name, variable); // TODO: check result
         nextSlotNumber += type.type.getSize();
         return variable;
@@ -291,13 +304,19 @@ public final class Locals {
         public final Location location;
         public final String name;
         public final Type type;
+        /**
+         * The exact type of every value stored in the variable if it is known at compile time and more specific than
+         * {@link #type}, otherwise null.
+         */
+        public final Type exactType;
         public final boolean readonly;
         private final int slot;
         
-        public Variable(Location location, String name, Type type, int slot, boolean readonly) {
+        public Variable(Location location, String name, Type type, Type exactType, int slot, boolean readonly) {
             this.location = location;
             this.name = name;
             this.type = type;
+            this.exactType = exactType;
             this.slot = slot;
             this.readonly = readonly;
         }
@@ -478,7 +478,7 @@ public final class Walker extends PainlessParserBaseVisitor<Object> {
             String name = declvar.ID().getText();
             AExpression expression = declvar.expression() == null ? null : (AExpression)visitExpression(declvar.expression());
 
-            declarations.add(new SDeclaration(location(declvar), type, name, expression));
+            declarations.add(new SDeclaration(location(declvar), type, name, expression, reserved.peek()));
         }
 
         return new SDeclBlock(location(ctx), declarations);
@@ -655,10 +655,20 @@ public final class Walker extends PainlessParserBaseVisitor<Object> {
         }
 
         AExpression expression = (AExpression)visitExpression(ctx.expression());
+        markAssigned(links);
 
         return new EChain(location(ctx), links, false, false, operation, expression);
     }
 
+    /**
+     * Marks the variable a chain stores to as reassigned, so its declaration doesn't assume it keeps its initial type.
+     */
+    private void markAssigned(List<ALink> links) {
+        if (links.size() == 1 && links.get(0) instanceof LVariable) {
+            reserved.peek().markAssigned(((LVariable)links.get(0)).name);
+        }
+    }
+
     private Object visitUnary(UnaryContext ctx) {
         Object expression = visit(ctx);
 
@@ -686,6 +696,8 @@ public final class Walker extends PainlessParserBaseVisitor<Object> {
             throw location(ctx).createError(new IllegalStateException("Illegal tree structure."));
         }
 
+        markAssigned(links);
+
         return new EChain(location(ctx), links, true, false, operation, null);
     }
 
@@ -703,6 +715,8 @@ public final class Walker extends PainlessParserBaseVisitor<Object> {
             throw location(ctx).createError(new IllegalStateException("Illegal tree structure."));
         }
 
+        markAssigned(links);
+
         return new EChain(location(ctx), links, false, true, operation, null);
     }
 
@@ -22,6 +22,8 @@ package org.elasticsearch.painless.node;
 import org.elasticsearch.painless.Definition;
 import org.elasticsearch.painless.Globals;
 import org.elasticsearch.painless.Definition.Cast;
+import org.elasticsearch.painless.Definition.Method;
+import org.elasticsearch.painless.Definition.MethodKey;
 import org.elasticsearch.painless.Definition.Sort;
 import org.elasticsearch.painless.Definition.Type;
 import org.elasticsearch.painless.Location;
@@ -33,6 +35,7 @@ import org.elasticsearch.painless.MethodWriter;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 
@@ -113,6 +116,20 @@ public final class EChain extends AExpression {
                 current.store = expression != null || pre || post;
             }
 
+            boolean narrowed = false;
+
+            if (index == 1 && previous instanceof LVariable && current.store == false &&
+                (index < links.size() - 1 || isUntypedRead())) {
+                Type exactType = ((LVariable)previous).variable.exactType;
+
+                if (exactType != null && resolvesStatically(current, exactType, variables)) {
+                    // the variable is loaded as its exact type, see LVariable#load
+                    previous.after = exactType;
+                    current.before = exactType;
+                    narrowed = true;
+                }
+            }
+
             ALink analyzed = current.analyze(variables);
 
             if (analyzed == null) {
@@ -122,6 +139,12 @@ public final class EChain extends AExpression {
                     links.set(index, analyzed);
                 }
 
+                if (narrowed && analyzed.store == false && analyzed.after.sort != Sort.DEF && analyzed.after.sort.primitive == false) {
+                    // a link resolved against the exact type of a def variable still produces a def value, just like
+                    // the dynamic call would have, so the rest of the chain and the target type are analyzed as before
+                    analyzed.after = Definition.DEF_TYPE;
+                }
+
                 previous = analyzed;
                 ++index;
             }
@@ -132,6 +155,94 @@ public final class EChain extends AExpression {
         }
     }
 
+    /**
+     * Returns whether the value of the chain is only ever used as a def. Otherwise a dynamic last link is kept, since its call
+     * site returns the expected type directly, see {@link #analyzeRead()}.
+     */
+    private boolean isUntypedRead() {
+        return expected == null || expected.sort == Sort.DEF || expected.clazz == Object.class;
+    }
+
+    /**
+     * Returns whether the link can be resolved against the given type at compile time with the same outcome as the
+     * dynamic lookup. Links that can't, like unknown methods or arguments that don't cast to the parameters of the method,
+     * stay dynamic, so they keep failing at runtime, and only when reached, like they did before the type was inferred.
+     */
+    private static boolean resolvesStatically(ALink link, Type type, Locals locals) {
+        if (link instanceof LCallInvoke) {
+            LCallInvoke call = (LCallInvoke)link;
+
+            if (type.sort == Sort.ARRAY) {
+                return false;
+            }
+
+            Method method = type.struct.methods.get(new MethodKey(call.name, call.arguments.size()));
+
+            if (method == null) {
+                return false;
+            }
+
+            for (AExpression argument : call.arguments) {
+                if (argument instanceof ILambda) {
+                    // lambdas and method references can only be analyzed once their target type is known
+                    return false;
+                }
+            }
+
+            // the arguments are analyzed like a def call analyzes them, and are then either cast to the
+            // parameters of the method or passed to the def call that is used instead
+            for (AExpression argument : call.arguments) {
+                argument.internal = true;
+                argument.analyze(locals);
+            }
+
+            call.analyzedArguments = true;
+
+            for (int argument = 0; argument < call.arguments.size(); ++argument) {
+                if (castsCleanly(call.arguments.get(argument), method.arguments.get(argument)) == false) {
+                    return false;
+                }
+            }
+
+            return true;
+        } else if (link instanceof LField) {
+            String value = ((LField)link).value;
+
+            if (type.sort == Sort.ARRAY) {
+                return "length".equals(value);
+            }
+
+            String property = Character.toUpperCase(value.charAt(0)) + value.substring(1);
+
+            return type.struct.members.containsKey(value) ||
+                type.struct.methods.containsKey(new MethodKey("get" + property, 0)) ||
+                type.struct.methods.containsKey(new MethodKey("is" + property, 0)) ||
+                Map.class.isAssignableFrom(type.clazz) || List.class.isAssignableFrom(type.clazz) && isIndex(value);
+        }
+
+        return false;
+    }
+
+    private static boolean castsCleanly(AExpression argument, Type parameter) {
+        try {
+            AnalyzerCaster.getLegalCast(argument.location, argument.actual, parameter, false, true);
+
+            return true;
+        } catch (ClassCastException exception) {
+            return false;
+        }
+    }
+
+    private static boolean isIndex(String value) {
+        try {
+            Integer.parseInt(value);
+
+            return true;
+        } catch (NumberFormatException exception) {
+            return false;
+        }
+    }
+
     private void analyzeIncrDecr() {
         ALink last = links.get(links.size() - 1);
 
@@ -44,6 +44,8 @@ public final class LCallInvoke extends ALink {
     final List<AExpression> arguments;
 
     Method method = null;
+
+    boolean analyzedArguments = false; // true once the arguments were analyzed like def call arguments, see EChain
     
     boolean box = false; // true for primitive types
 
@@ -86,8 +88,10 @@ public final class LCallInvoke extends ALink {
                 AExpression expression = arguments.get(argument);
 
                 expression.expected = method.arguments.get(argument);
-                expression.internal = true;
-                expression.analyze(locals);
+                if (analyzedArguments == false) {
+                    expression.internal = true;
+                    expression.analyze(locals);
+                }
                 arguments.set(argument, expression.cast(locals));
             }
 
@@ -96,7 +100,7 @@ public final class LCallInvoke extends ALink {
 
             return this;
         } else if (before.sort == Sort.DEF) {
-            ALink link = new LDefCall(location, name, arguments);
+            ALink link = new LDefCall(location, name, arguments, analyzedArguments);
             link.copy(this);
 
             return link.analyze(locals);
@@ -62,6 +62,7 @@ final class LDefArray extends ALink implements IDefLink {
 
     @Override
     void write(MethodWriter writer, Globals globals) {
+        globals.addDynamicCallSite(location, "[]");
         index.write(writer, globals);
     }
 
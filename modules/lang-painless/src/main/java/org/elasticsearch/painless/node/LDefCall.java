@@ -41,12 +41,14 @@ final class LDefCall extends ALink implements IDefLink {
     final List<AExpression> arguments;
     StringBuilder recipe;
     List<String> pointers = new ArrayList<>();
+    final boolean analyzedArguments;
 
-    LDefCall(Location location, String name, List<AExpression> arguments) {
+    LDefCall(Location location, String name, List<AExpression> arguments, boolean analyzedArguments) {
         super(location, -1);
 
         this.name = Objects.requireNonNull(name);
         this.arguments = Objects.requireNonNull(arguments);
+        this.analyzedArguments = analyzedArguments;
     }
     
     @Override
@@ -63,8 +65,10 @@ final class LDefCall extends ALink implements IDefLink {
         for (int argument = 0; argument < arguments.size(); ++argument) {
             AExpression expression = arguments.get(argument);
 
-            expression.internal = true;
-            expression.analyze(locals);
+            if (analyzedArguments == false) {
+                expression.internal = true;
+                expression.analyze(locals);
+            }
 
             if (expression instanceof ILambda) {
                 ILambda lambda = (ILambda) expression;
@@ -87,7 +91,7 @@ final class LDefCall extends ALink implements IDefLink {
 
     @Override
     void write(MethodWriter writer, Globals globals) {
-        // Do nothing.
+        globals.addDynamicCallSite(location, name + "()");
     }
 
     @Override
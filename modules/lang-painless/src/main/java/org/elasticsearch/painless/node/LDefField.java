@@ -56,7 +56,7 @@ final class LDefField extends ALink implements IDefLink {
 
     @Override
     void write(MethodWriter writer, Globals globals) {
-        // Do nothing.
+        globals.addDynamicCallSite(location, "." + value);
     }
 
     @Override
@@ -89,14 +89,25 @@ public final class LField extends ALink {
             if (shortcut) {
                 return new LShortcut(location, value).copy(this).analyze(locals);
             } else {
-                EConstant index = new EConstant(location, value);
-                index.analyze(locals);
-
                 if (Map.class.isAssignableFrom(before.clazz)) {
+                    EConstant index = new EConstant(location, value);
+                    index.analyze(locals);
+
                     return new LMapShortcut(location, index).copy(this).analyze(locals);
                 }
 
                 if (List.class.isAssignableFrom(before.clazz)) {
+                    final int position;
+
+                    try {
+                        position = Integer.parseInt(value);
+                    } catch (NumberFormatException exception) {
+                        throw createError(new IllegalArgumentException("Illegal list shortcut value [" + value + "]."));
+                    }
+
+                    EConstant index = new EConstant(location, position);
+                    index.analyze(locals);
+
                     return new LListShortcut(location, index).copy(this).analyze(locals);
                 }
             }
@@ -34,7 +34,7 @@ import java.util.Set;
  */
 public final class LVariable extends ALink {
 
-    final String name;
+    public final String name;
 
     Variable variable;
 
@@ -73,11 +73,15 @@ public final class LVariable extends ALink {
 
     @Override
     void load(MethodWriter writer, Globals globals) {
-        writer.visitVarInsn(after.type.getOpcode(Opcodes.ILOAD), variable.getSlot());
+        writer.visitVarInsn(variable.type.type.getOpcode(Opcodes.ILOAD), variable.getSlot());
+
+        if (after != variable.type) {
+            writer.checkCast(after.type);
+        }
     }
 
     @Override
     void store(MethodWriter writer, Globals globals) {
-        writer.visitVarInsn(after.type.getOpcode(Opcodes.ISTORE), variable.getSlot());
+        writer.visitVarInsn(variable.type.type.getOpcode(Opcodes.ISTORE), variable.getSlot());
     }
 }
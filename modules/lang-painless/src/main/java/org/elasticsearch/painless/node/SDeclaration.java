@@ -22,11 +22,15 @@ package org.elasticsearch.painless.node;
 import org.elasticsearch.painless.Definition;
 import org.elasticsearch.painless.Globals;
 import org.elasticsearch.painless.Location;
+import org.elasticsearch.painless.Definition.Sort;
 import org.elasticsearch.painless.Definition.Type;
 import org.elasticsearch.painless.Locals;
 import org.elasticsearch.painless.Locals.Variable;
+import org.elasticsearch.painless.node.SFunction.Reserved;
 import org.objectweb.asm.Opcodes;
 
+import java.lang.reflect.Modifier;
+import java.util.List;
 import java.util.Objects;
 import java.util.Set;
 
@@ -39,16 +43,18 @@ public final class SDeclaration extends AStatement {
 
     final String type;
     final String name;
+    final Reserved reserved;
     AExpression expression;
 
     Variable variable;
 
-    public SDeclaration(Location location, String type, String name, AExpression expression) {
+    public SDeclaration(Location location, String type, String name, AExpression expression, Reserved reserved) {
         super(location);
 
         this.type = Objects.requireNonNull(type);
         this.name = Objects.requireNonNull(name);
         this.expression = expression;
+        this.reserved = Objects.requireNonNull(reserved);
     }
     
     @Override
@@ -69,13 +75,47 @@ public final class SDeclaration extends AStatement {
             throw createError(new IllegalArgumentException("Not a type [" + this.type + "]."));
         }
 
+        Type exactType = null;
+
         if (expression != null) {
             expression.expected = type;
             expression.analyze(locals);
+
+            if (type.sort == Sort.DEF && reserved.isAssigned(name) == false) {
+                exactType = exactType(expression);
+            }
+
             expression = expression.cast(locals);
         }
 
-        variable = locals.addVariable(location, type, name, false);
+        variable = locals.addVariable(location, type, exactType, name, false);
+    }
+
+    /**
+     * Returns the exact type of the values the expression evaluates to if it is known at compile time, otherwise null.
+     * This lets calls on a def variable that is never reassigned be resolved at compile time instead of being dispatched
+     * dynamically, with the same result because the dynamic lookup would have been done against the very same type.
+     */
+    private static Type exactType(AExpression expression) {
+        Type actual = expression.actual;
+
+        if (actual.sort == Sort.DEF || actual.sort.primitive) {
+            return null;
+        }
+
+        if (actual.sort == Sort.ARRAY || Modifier.isFinal(actual.clazz.getModifiers())) {
+            return actual;
+        }
+
+        if (expression instanceof EChain) {
+            List<ALink> links = ((EChain)expression).links;
+
+            if (links.size() == 1 && links.get(0) instanceof LNewObj) {
+                return actual;
+            }
+        }
+
+        return null;
     }
 
     @Override
@@ -41,6 +41,7 @@ import java.lang.invoke.MethodType;
 import java.lang.reflect.Modifier;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
 import java.util.Set;
@@ -208,6 +209,13 @@ public class SFunction extends AStatement {
         void markReserved(String name);
         boolean isReserved(String name);
 
+        /**
+         * Marks a variable name as assigned to after its declaration, which means the type of the variable
+         * can't be inferred from its initializer.
+         */
+        void markAssigned(String name);
+        boolean isAssigned(String name);
+
         void setMaxLoopCounter(int max);
         int getMaxLoopCounter();
     }
@@ -216,6 +224,7 @@ public class SFunction extends AStatement {
         public static final String THIS = "#this";
         public static final String LOOP = "#loop";
 
+        private final Set<String> assigned = new HashSet<>();
         private int maxLoopCounter = 0;
 
         public void markReserved(String name) {
@@ -226,6 +235,16 @@ public class SFunction extends AStatement {
             return name.equals(THIS) || name.equals(LOOP);
         }
 
+        @Override
+        public void markAssigned(String name) {
+            assigned.add(name);
+        }
+
+        @Override
+        public boolean isAssigned(String name) {
+            return assigned.contains(name);
+        }
+
         @Override
         public void setMaxLoopCounter(int max) {
             maxLoopCounter = max;
@@ -43,6 +43,7 @@ import java.util.BitSet;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -278,6 +279,10 @@ public final class SSource extends AStatement {
         return globals.getStatements();
     }
 
+    public List<String> getDynamicCallSites() {
+        return globals.getDynamicCallSites();
+    }
+
     public byte[] getBytes() {
         return bytes;
     }
@@ -286,6 +291,7 @@ public final class SSource extends AStatement {
     public static final class MainMethodReserved implements Reserved {
         private boolean score = false;
         private boolean ctx = false;
+        private final Set<String> assigned = new HashSet<>();
         private int maxLoopCounter = 0;
 
         @Override
@@ -302,6 +308,16 @@ public final class SSource extends AStatement {
             return Locals.KEYWORDS.contains(name);
         }
 
+        @Override
+        public void markAssigned(String name) {
+            assigned.add(name);
+        }
+
+        @Override
+        public boolean isAssigned(String name) {
+            return assigned.contains(name);
+        }
+
         public boolean usesScore() {
             return score;
         }
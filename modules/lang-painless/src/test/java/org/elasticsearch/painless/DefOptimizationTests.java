@@ -19,6 +19,8 @@
 
 package org.elasticsearch.painless;
 
+import java.util.Collections;
+
 public class DefOptimizationTests extends ScriptTestCase {
     public void testIntBraceArrayOptiLoad() {
         final String script = "int x = 0; def y = new int[1]; y[0] = 5; x = y[0]; return x;";
@@ -466,4 +468,80 @@ public class DefOptimizationTests extends ScriptTestCase {
         assertBytecodeExists("List l = new ArrayList(); l.stream().mapToDouble(Double::valueOf).map(x -> x + 1)",
                              "synthetic lambda$0(D)D");
     }
+
+    public void testInferredFinalTypeCall() {
+        final String script = "def x = 'abc'; return x.length();";
+        assertBytecodeExists(script, "INVOKEINTERFACE java/lang/CharSequence.length ()I");
+        assertEquals(3, exec(script));
+    }
+
+    public void testInferredNewObjCall() {
+        final String script = "def x = new ArrayList(); x.add(5); return x.get(0);";
+        assertBytecodeExists(script, "INVOKEINTERFACE java/util/Collection.add (Ljava/lang/Object;)Z");
+        assertBytecodeExists(script, "INVOKEINTERFACE java/util/List.get (I)Ljava/lang/Object;");
+        assertEquals(5, exec(script));
+    }
+
+    public void testInferredArrayLength() {
+        final String script = "def x = new int[2]; return x.length;";
+        assertBytecodeExists(script, "ARRAYLENGTH");
+        assertEquals(2, exec(script));
+    }
+
+    public void testInferredListFieldShortcut() {
+        final String script = "def x = new ArrayList(); x.add(5); return x.0;";
+        assertBytecodeExists(script, "INVOKEINTERFACE java/util/List.get (I)Ljava/lang/Object;");
+        assertEquals(5, exec(script));
+    }
+
+    public void testInferredStoresStayDynamic() {
+        assertBytecodeExists("def x = new int[1]; x[0] = 5; return x[0];", "INVOKEDYNAMIC arrayStore(Ljava/lang/Object;II)V");
+        assertBytecodeExists("def x = new ArrayList(); x.add(3); x.0 = 5; return x.0;", "INVOKEDYNAMIC 0(Ljava/lang/Object;I)V");
+    }
+
+    public void testInferredCallWithTypedTargetStaysDynamic() {
+        final String script = "def x = new HashMap(); x.put('a', 1); int i = x.get('a'); return i;";
+        assertBytecodeExists(script, "INVOKEDYNAMIC get(Ljava/lang/Object;Ljava/lang/String;)I");
+        assertEquals(1, exec(script));
+    }
+
+    public void testInferredCallWithUncastableArgumentsStaysDynamic() {
+        final String script = "def x = new ArrayList(); x.add(1); if (x.isEmpty()) { return x.get('bogus'); } return 1;";
+        assertBytecodeExists(script, "INVOKEDYNAMIC get(Ljava/lang/Object;Ljava/lang/String;)Ljava/lang/Object;");
+        assertEquals(1, exec(script));
+    }
+
+    public void testInferredCallWithLambdaStaysDynamic() {
+        final String script = "def x = new ArrayList(); x.add(1); x.add(2); x.removeIf(y -> y == 1); return x.size();";
+        assertBytecodeExists(script, "INVOKEDYNAMIC removeIf(Ljava/lang/Object;");
+        assertBytecodeExists(script, "INVOKEINTERFACE java/util/Collection.size ()I");
+        assertEquals(1, exec(script));
+    }
+
+    public void testInferredCallResultIsDef() {
+        final String script = "def x = new HashMap(); x.put('a', 'abc'); return x.get('a').length();";
+        assertBytecodeExists(script, "INVOKEDYNAMIC length(Ljava/lang/Object;)Ljava/lang/Object;");
+        assertEquals(3, exec(script));
+    }
+
+    public void testReassignedVariableStaysDynamic() {
+        final String script = "def x = 'abc'; if (x.isEmpty()) { x = new ArrayList(); } return x.size();";
+        assertBytecodeExists(script, "INVOKEDYNAMIC size(Ljava/lang/Object;)Ljava/lang/Object;");
+        assertBytecodeExists("def x = 1; x++; return x.intValue();", "INVOKEDYNAMIC intValue(Ljava/lang/Object;)Ljava/lang/Object;");
+    }
+
+    public void testUnknownMethodStaysDynamic() {
+        assertBytecodeExists("def x = 'abc'; if (x.isEmpty()) { return x.bogus(); } return 1;",
+                             "INVOKEDYNAMIC bogus(Ljava/lang/Object;)Ljava/lang/Object;");
+        assertEquals(1, exec("def x = 'abc'; if (x.isEmpty()) { return x.bogus(); } return 1;"));
+    }
+
+    public void testDynamicCallSitesAreReported() {
+        Executable script = (Executable) scriptEngine.compile(null, "def x = params.a; def y = 'abc'; return x.foo() + y.length();",
+                                                              Collections.emptyMap());
+        assertEquals(Collections.singletonList("[foo()] at offset [41]"), script.getDynamicCallSites());
+
+        script = (Executable) scriptEngine.compile(null, "String y = 'abc'; return y.length();", Collections.emptyMap());
+        assertEquals(Collections.emptyList(), script.getDynamicCallSites());
+    }
 }
@@ -18,11 +18,14 @@
  */
 package org.elasticsearch.percolator;
 
+import org.apache.lucene.document.BinaryPoint;
 import org.apache.lucene.document.Field;
 import org.apache.lucene.document.FieldType;
+import org.apache.lucene.index.FieldInfo;
 import org.apache.lucene.index.Fields;
 import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.index.MultiFields;
+import org.apache.lucene.index.PointValues;
 import org.apache.lucene.index.PrefixCodedTerms;
 import org.apache.lucene.index.Term;
 import org.apache.lucene.index.Terms;
@@ -36,6 +39,7 @@ import org.apache.lucene.search.BoostQuery;
 import org.apache.lucene.search.ConstantScoreQuery;
 import org.apache.lucene.search.DisjunctionMaxQuery;
 import org.apache.lucene.search.PhraseQuery;
+import org.apache.lucene.search.PointRangeQuery;
 import org.apache.lucene.search.Query;
 import org.apache.lucene.search.SynonymQuery;
 import org.apache.lucene.search.TermQuery;
@@ -47,12 +51,16 @@ import org.apache.lucene.search.spans.SpanQuery;
 import org.apache.lucene.search.spans.SpanTermQuery;
 import org.apache.lucene.util.BytesRef;
 import org.apache.lucene.util.BytesRefBuilder;
+import org.elasticsearch.common.hash.MurmurHash3;
 import org.elasticsearch.common.logging.LoggerMessageFormat;
 import org.elasticsearch.common.lucene.search.MatchNoDocsQuery;
 import org.elasticsearch.index.mapper.ParseContext;
+import org.elasticsearch.index.mapper.core.DateFieldMapper;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -63,7 +71,7 @@ import java.util.Set;
 import java.util.function.Function;
 
 /**
- * Utility to extract query terms from queries and create queries from documents.
+ * Utility to extract query terms and ranges from queries and create queries from documents.
  */
 public final class ExtractQueryTermsService {
 
@@ -72,6 +80,11 @@ public final class ExtractQueryTermsService {
     public static final String EXTRACTION_PARTIAL = "partial";
     public static final String EXTRACTION_FAILED = "failed";
 
+    // the number of bytes of an indexed range bound, the field name hash fills the bytes that the value doesn't use
+    static final int RANGE_BYTES = 16;
+    // ranges on wider values are not extracted, so that enough bytes of the field name hash are left to tell fields apart
+    static final int MAX_RANGE_VALUE_BYTES = 8;
+
     static final Map<Class<? extends Query>, Function<Query, Result>> queryProcessors;
 
     static {
@@ -92,6 +105,8 @@ public final class ExtractQueryTermsService {
         map.put(BooleanQuery.class, booleanQuery());
         map.put(DisjunctionMaxQuery.class, disjunctionMaxQuery());
         map.put(SynonymQuery.class, synonymQuery());
+        map.put(PointRangeQuery.class, pointRangeQuery());
+        map.put(DateFieldMapper.DateFieldType.LateParsingQuery.class, lateParsingQuery());
         queryProcessors = Collections.unmodifiableMap(map);
     }
 
@@ -99,18 +114,20 @@ public final class ExtractQueryTermsService {
     }
 
     /**
-     * Extracts all terms from the specified query and adds it to the specified document.
+     * Extracts all terms and ranges from the specified query and adds it to the specified document.
      *
      * @param query                 The query to extract terms from
      * @param document              The document to add the extracted terms to
      * @param queryTermsFieldField  The field in the document holding the extracted terms
+     * @param queryRangesField      The field in the document holding the extracted ranges, or <code>null</code> if ranges
+     *                              can't be used for this query, in which case extraction fails if it depends on ranges
      * @param extractionResultField The field contains whether query term extraction was successful, partial or
      *                              failed. (For example the query contained an unsupported query (e.g. WildcardQuery)
      *                              then query extraction would fail)
      * @param fieldType             The field type for the query metadata field
      */
     public static void extractQueryTerms(Query query, ParseContext.Document document, String queryTermsFieldField,
-                                         String extractionResultField, FieldType fieldType) {
+                                         String queryRangesField, String extractionResultField, FieldType fieldType) {
         Result result;
         try {
             result = extractQueryTerms(query);
@@ -118,6 +135,10 @@ public final class ExtractQueryTermsService {
             document.add(new Field(extractionResultField, EXTRACTION_FAILED, fieldType));
             return;
         }
+        if (result.ranges.isEmpty() == false && queryRangesField == null) {
+            document.add(new Field(extractionResultField, EXTRACTION_FAILED, fieldType));
+            return;
+        }
         for (Term term : result.terms) {
             BytesRefBuilder builder = new BytesRefBuilder();
             builder.append(new BytesRef(term.field()));
@@ -125,6 +146,11 @@ public final class ExtractQueryTermsService {
             builder.append(term.bytes());
             document.add(new Field(queryTermsFieldField, builder.toBytesRef(), fieldType));
         }
+        for (Range range : result.ranges) {
+            byte[] lower = encodeRangeValue(range.fieldName, range.lowerPoint);
+            byte[] upper = encodeRangeValue(range.fieldName, range.upperPoint);
+            document.add(new BinaryPoint(queryRangesField, lower, upper));
+        }
         if (result.verified) {
             document.add(new Field(extractionResultField, EXTRACTION_COMPLETE, fieldType));
         } else {
@@ -133,9 +159,12 @@ public final class ExtractQueryTermsService {
     }
 
     /**
-     * Creates a terms query containing all terms from all fields of the specified index reader.
+     * Creates a query that selects the queries that may match the documents of the specified index reader: the queries
+     * that some term of the documents was extracted from, and the queries that the values of a numeric field of the
+     * documents may be in one of the extracted ranges of. Returns a plain terms query if there are no numeric values or if
+     * the specified ranges field is <code>null</code>.
      */
-    public static Query createQueryTermsQuery(IndexReader indexReader, String queryMetadataField,
+    public static Query createQueryTermsQuery(IndexReader indexReader, String queryMetadataField, String queryRangesField,
                                               Term... optionalTerms) throws IOException {
         Objects.requireNonNull(queryMetadataField);
 
@@ -159,7 +188,66 @@ public final class ExtractQueryTermsService {
                 extractedTerms.add(new Term(queryMetadataField, builder.toBytesRef()));
             }
         }
-        return new TermsQuery(extractedTerms);
+        Query termsQuery = new TermsQuery(extractedTerms);
+        if (queryRangesField == null) {
+            return termsQuery;
+        }
+
+        List<Query> rangeQueries = new ArrayList<>();
+        for (FieldInfo fieldInfo : MultiFields.getMergedFieldInfos(indexReader)) {
+            if (fieldInfo.getPointDimensionCount() != 1 || fieldInfo.getPointNumBytes() > MAX_RANGE_VALUE_BYTES) {
+                continue;
+            }
+            byte[] minValue = PointValues.getMinPackedValue(indexReader, fieldInfo.name);
+            byte[] maxValue = PointValues.getMaxPackedValue(indexReader, fieldInfo.name);
+            if (minValue == null || maxValue == null) {
+                continue;
+            }
+            // a range may contain a value if its lower bound is at most the largest value and its upper bound at least
+            // the smallest value, the field name hash in front of the values limits this to the ranges of the same field
+            byte[] lowest = new byte[minValue.length];
+            byte[] highest = new byte[maxValue.length];
+            Arrays.fill(highest, (byte) 0xff);
+            rangeQueries.add(BinaryPoint.newRangeQuery(queryRangesField,
+                    new byte[][] {encodeRangeValue(fieldInfo.name, lowest), encodeRangeValue(fieldInfo.name, minValue)},
+                    new byte[][] {encodeRangeValue(fieldInfo.name, maxValue), encodeRangeValue(fieldInfo.name, highest)}));
+        }
+        if (rangeQueries.isEmpty()) {
+            return termsQuery;
+        }
+
+        BooleanQuery.Builder builder = new BooleanQuery.Builder();
+        builder.add(termsQuery, BooleanClause.Occur.SHOULD);
+        if (rangeQueries.size() < BooleanQuery.getMaxClauseCount()) {
+            for (Query rangeQuery : rangeQueries) {
+                builder.add(rangeQuery, BooleanClause.Occur.SHOULD);
+            }
+        } else {
+            // too many numeric fields to check them one by one, so select all queries with ranges
+            byte[] lowest = new byte[RANGE_BYTES];
+            byte[] highest = new byte[RANGE_BYTES];
+            Arrays.fill(highest, (byte) 0xff);
+            builder.add(BinaryPoint.newRangeQuery(queryRangesField, new byte[][] {lowest, lowest}, new byte[][] {highest, highest}),
+                    BooleanClause.Occur.SHOULD);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Encodes a range bound of the specified field, prefixed by the hash of the field name so that the ranges of all fields
+     * can be indexed in a single points field.
+     */
+    static byte[] encodeRangeValue(String fieldName, byte[] value) {
+        assert value.length <= MAX_RANGE_VALUE_BYTES;
+        byte[] fieldNameBytes = fieldName.getBytes(StandardCharsets.UTF_8);
+        MurmurHash3.Hash128 hash = MurmurHash3.hash128(fieldNameBytes, 0, fieldNameBytes.length, 0, new MurmurHash3.Hash128());
+        byte[] encoded = new byte[RANGE_BYTES];
+        for (int i = 0; i < Long.BYTES; i++) {
+            encoded[i] = (byte) (hash.h1 >>> (Long.SIZE - Byte.SIZE * (i + 1)));
+            encoded[Long.BYTES + i] = (byte) (hash.h2 >>> (Long.SIZE - Byte.SIZE * (i + 1)));
+        }
+        System.arraycopy(value, 0, encoded, RANGE_BYTES - value.length, value.length);
+        return encoded;
     }
 
     /**
@@ -167,6 +255,7 @@ public final class ExtractQueryTermsService {
      * <p>
      * From boolean query with no should clauses or phrase queries only the longest term are selected,
      * since that those terms are likely to be the rarest. Boolean query's must_not clauses are always ignored.
+     * Ranges are extracted from numeric range queries, but a required clause with terms is preferred over one with ranges.
      * <p>
      * If from part of the query, no query terms can be extracted then term extraction is stopped and
      * an UnsupportedQueryException is thrown.
@@ -230,6 +319,30 @@ public final class ExtractQueryTermsService {
         };
     }
 
+    static Function<Query, Result> pointRangeQuery() {
+        return query -> {
+            PointRangeQuery pointRangeQuery = (PointRangeQuery) query;
+            if (pointRangeQuery.getNumDims() != 1 || pointRangeQuery.getBytesPerDim() > MAX_RANGE_VALUE_BYTES) {
+                throw new UnsupportedQueryException(query);
+            }
+            Range range = new Range(pointRangeQuery.getField(), pointRangeQuery.getLowerPoint(), pointRangeQuery.getUpperPoint());
+            // a multi valued field may have values on both sides of the range without any value in it
+            return new Result(false, Collections.emptySet(), Collections.singleton(range));
+        };
+    }
+
+    static Function<Query, Result> lateParsingQuery() {
+        return query -> {
+            DateFieldMapper.DateFieldType.LateParsingQuery lateParsingQuery = (DateFieldMapper.DateFieldType.LateParsingQuery) query;
+            if (lateParsingQuery.isRelativeToNow()) {
+                // the range would be extracted as it is now, but it moves with the time of percolation
+                throw new UnsupportedQueryException(query);
+            }
+            // the bounds don't depend on the time of the search, so they can be parsed right away
+            return extractQueryTerms(lateParsingQuery.parse());
+        };
+    }
+
     static Function<Query, Result> commonTermsQuery() {
         return query -> {
             List<Term> terms = ((CommonTermsQuery) query).getTerms();
@@ -327,7 +440,7 @@ public final class ExtractQueryTermsService {
                 }
             }
             if (numRequiredClauses > 0) {
-                Set<Term> bestClause = null;
+                Result bestClause = null;
                 UnsupportedQueryException uqe = null;
                 for (BooleanClause clause : clauses) {
                     if (clause.isRequired() == false) {
@@ -344,10 +457,10 @@ public final class ExtractQueryTermsService {
                         uqe = e;
                         continue;
                     }
-                    bestClause = selectTermListWithTheLongestShortestTerm(temp.terms, bestClause);
+                    bestClause = selectBestExtraction(temp, bestClause);
                 }
                 if (bestClause != null) {
-                    return new Result(false, bestClause);
+                    return new Result(false, bestClause.terms, bestClause.ranges);
                 } else {
                     if (uqe != null) {
                         // we're unable to select the best clause and an exception occurred, so we bail
@@ -379,14 +492,38 @@ public final class ExtractQueryTermsService {
     static Result handleDisjunction(List<Query> disjunctions, int minimumShouldMatch, boolean otherClauses) {
         boolean verified = minimumShouldMatch <= 1 && otherClauses == false;
         Set<Term> terms = new HashSet<>();
+        Set<Range> ranges = new HashSet<>();
         for (Query disjunct : disjunctions) {
             Result subResult = extractQueryTerms(disjunct);
             if (subResult.verified == false) {
                 verified = false;
             }
             terms.addAll(subResult.terms);
+            ranges.addAll(subResult.ranges);
+        }
+        return new Result(verified, terms, ranges);
+    }
+
+    static Result selectBestExtraction(Result result1, Result result2) {
+        if (result1 == null) {
+            return result2;
+        } else if (result2 == null) {
+            return result1;
+        }
+        boolean onlyTerms1 = result1.ranges.isEmpty();
+        boolean onlyTerms2 = result2.ranges.isEmpty();
+        if (onlyTerms1 && onlyTerms2) {
+            Set<Term> bestTerms = selectTermListWithTheLongestShortestTerm(result1.terms, result2.terms);
+            return bestTerms == result1.terms ? result1 : result2;
+        } else if (onlyTerms1 != onlyTerms2) {
+            // a numeric value is likely to be in the ranges of many more queries than a term is extracted from
+            return onlyTerms1 ? result1 : result2;
+        } else {
+            // keep the clause that selects the least candidates, assuming that fewer terms and ranges select fewer candidates
+            int size1 = result1.terms.size() + result1.ranges.size();
+            int size2 = result2.terms.size() + result2.ranges.size();
+            return size1 <= size2 ? result1 : result2;
         }
-        return new Result(verified, terms);
     }
 
     static Set<Term> selectTermListWithTheLongestShortestTerm(Set<Term> terms1, Set<Term> terms2) {
@@ -417,15 +554,59 @@ public final class ExtractQueryTermsService {
     static class Result {
 
         final Set<Term> terms;
+        final Set<Range> ranges;
         final boolean verified;
 
         Result(boolean verified, Set<Term> terms) {
+            this(verified, terms, Collections.emptySet());
+        }
+
+        Result(boolean verified, Set<Term> terms, Set<Range> ranges) {
             this.terms = terms;
+            this.ranges = ranges;
             this.verified = verified;
         }
 
     }
 
+    /**
+     * A range of a numeric field, with the bounds encoded like the points of the field.
+     */
+    static final class Range {
+
+        final String fieldName;
+        final byte[] lowerPoint;
+        final byte[] upperPoint;
+
+        Range(String fieldName, byte[] lowerPoint, byte[] upperPoint) {
+            this.fieldName = fieldName;
+            this.lowerPoint = lowerPoint;
+            this.upperPoint = upperPoint;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Range range = (Range) o;
+            return fieldName.equals(range.fieldName) && Arrays.equals(lowerPoint, range.lowerPoint)
+                    && Arrays.equals(upperPoint, range.upperPoint);
+        }
+
+        @Override
+        public int hashCode() {
+            int result = fieldName.hashCode();
+            result = 31 * result + Arrays.hashCode(lowerPoint);
+            result = 31 * result + Arrays.hashCode(upperPoint);
+            return result;
+        }
+
+        @Override
+        public String toString() {
+            return fieldName + ":[" + new BytesRef(lowerPoint) + " TO " + new BytesRef(upperPoint) + "]";
+        }
+    }
+
     /**
      * Exception indicating that none or some query terms couldn't extracted from a percolator query.
      */
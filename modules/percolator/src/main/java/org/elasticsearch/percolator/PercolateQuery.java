@@ -37,8 +37,10 @@ import org.apache.lucene.util.Bits;
 import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.lucene.Lucene;
 import org.elasticsearch.common.lucene.search.MatchNoDocsQuery;
+import org.elasticsearch.common.lucene.search.Queries;
 
 import java.io.IOException;
+import java.util.List;
 import java.util.Objects;
 import java.util.Set;
 
@@ -53,7 +55,7 @@ public final class PercolateQuery extends Query implements Accountable {
 
         private final String docType;
         private final QueryStore queryStore;
-        private final BytesReference documentSource;
+        private final List<BytesReference> documents;
         private final IndexSearcher percolatorIndexSearcher;
 
         private Query queriesMetaDataQuery;
@@ -63,33 +65,36 @@ public final class PercolateQuery extends Query implements Accountable {
         /**
          * @param docType                   The type of the document being percolated
          * @param queryStore                The lookup holding all the percolator queries as Lucene queries.
-         * @param documentSource            The source of the document being percolated
-         * @param percolatorIndexSearcher   The index searcher on top of the in-memory index that holds the document being percolated
+         * @param documents                 The sources of the documents being percolated
+         * @param percolatorIndexSearcher   The index searcher on top of the in-memory index that holds the documents being percolated
          */
-        public Builder(String docType, QueryStore queryStore, BytesReference documentSource, IndexSearcher percolatorIndexSearcher) {
+        public Builder(String docType, QueryStore queryStore, List<BytesReference> documents, IndexSearcher percolatorIndexSearcher) {
             this.docType = Objects.requireNonNull(docType);
             this.queryStore = Objects.requireNonNull(queryStore);
-            this.documentSource = Objects.requireNonNull(documentSource);
+            this.documents = Objects.requireNonNull(documents);
             this.percolatorIndexSearcher = Objects.requireNonNull(percolatorIndexSearcher);
         }
 
         /**
-         * Optionally sets a query that reduces the number of queries to percolate based on extracted terms from
-         * the document to be percolated.
+         * Optionally sets a query that reduces the number of queries to percolate based on extracted terms and numeric values
+         * from the document to be percolated.
          * @param extractedTermsFieldName   The name of the field to get the extracted terms from
+         * @param extractedRangesFieldName  The name of the field to get the extracted ranges from
          * @param extractionResultField     The field to indicate for a document whether query term extraction was complete,
          *                                  partial or failed. If query extraction was complete, the MemoryIndex doesn't
          */
-        public void extractQueryTermsQuery(String extractedTermsFieldName, String extractionResultField) throws IOException {
-            // We can only skip the MemoryIndex verification when percolating a single document.
-            // When the document being percolated contains a nested object field then the MemoryIndex contains multiple
-            // documents. In this case the term query that indicates whether memory index verification can be skipped
-            // can incorrectly indicate that non nested queries would match, while their nested variants would not.
-            if (percolatorIndexSearcher.getIndexReader().maxDoc() == 1) {
+        public void extractQueryTermsQuery(String extractedTermsFieldName, String extractedRangesFieldName,
+                                           String extractionResultField) throws IOException {
+            // We can only skip the MemoryIndex verification when the in-memory index holds no nested documents.
+            // When a document being percolated contains a nested object field then the term query that indicates
+            // whether memory index verification can be skipped can incorrectly indicate that non nested queries
+            // would match, while their nested variants would not. Several root documents are fine, since a query
+            // that was fully extracted matches any document that contains one of its terms.
+            if (hasNestedDocuments(percolatorIndexSearcher.getIndexReader()) == false) {
                 this.verifiedQueriesQuery = new TermQuery(new Term(extractionResultField, ExtractQueryTermsService.EXTRACTION_COMPLETE));
             }
             this.queriesMetaDataQuery = ExtractQueryTermsService.createQueryTermsQuery(
-                    percolatorIndexSearcher.getIndexReader(), extractedTermsFieldName,
+                    percolatorIndexSearcher.getIndexReader(), extractedTermsFieldName, extractedRangesFieldName,
                     // include extractionResultField:failed, because docs with this term have no extractedTermsField
                     // and otherwise we would fail to return these docs. Docs that failed query term extraction
                     // always need to be verified by MemoryIndex:
@@ -97,6 +102,16 @@ public final class PercolateQuery extends Query implements Accountable {
             );
         }
 
+        private static boolean hasNestedDocuments(IndexReader reader) throws IOException {
+            if (reader.maxDoc() == 1) {
+                return false;
+            }
+            // not using the percolator index searcher, because it filters out nested documents
+            IndexSearcher searcher = new IndexSearcher(reader);
+            searcher.setQueryCache(null);
+            return searcher.count(Queries.newNestedFilter()) > 0;
+        }
+
         /**
          * @param percolateTypeQuery    A query that identifies all document containing percolator queries
          */
@@ -116,7 +131,7 @@ public final class PercolateQuery extends Query implements Accountable {
             if (queriesMetaDataQuery != null) {
                 queriesQuery.add(queriesMetaDataQuery, FILTER);
             }
-            return new PercolateQuery(docType, queryStore, documentSource, queriesQuery.build(), percolatorIndexSearcher,
+            return new PercolateQuery(docType, queryStore, documents, queriesQuery.build(), percolatorIndexSearcher,
                     verifiedQueriesQuery);
         }
 
@@ -124,15 +139,15 @@ public final class PercolateQuery extends Query implements Accountable {
 
     private final String documentType;
     private final QueryStore queryStore;
-    private final BytesReference documentSource;
+    private final List<BytesReference> documents;
     private final Query percolatorQueriesQuery;
     private final Query verifiedQueriesQuery;
     private final IndexSearcher percolatorIndexSearcher;
 
-    private PercolateQuery(String documentType, QueryStore queryStore, BytesReference documentSource,
+    private PercolateQuery(String documentType, QueryStore queryStore, List<BytesReference> documents,
                            Query percolatorQueriesQuery, IndexSearcher percolatorIndexSearcher, Query verifiedQueriesQuery) {
         this.documentType = documentType;
-        this.documentSource = documentSource;
+        this.documents = documents;
         this.percolatorQueriesQuery = percolatorQueriesQuery;
         this.queryStore = queryStore;
         this.percolatorIndexSearcher = percolatorIndexSearcher;
@@ -143,7 +158,7 @@ public final class PercolateQuery extends Query implements Accountable {
     public Query rewrite(IndexReader reader) throws IOException {
         Query rewritten = percolatorQueriesQuery.rewrite(reader);
         if (rewritten != percolatorQueriesQuery) {
-            return new PercolateQuery(documentType, queryStore, documentSource, rewritten, percolatorIndexSearcher,
+            return new PercolateQuery(documentType, queryStore, documents, rewritten, percolatorIndexSearcher,
                     verifiedQueriesQuery);
         } else {
             return this;
@@ -261,8 +276,11 @@ public final class PercolateQuery extends Query implements Accountable {
         return documentType;
     }
 
-    public BytesReference getDocumentSource() {
-        return documentSource;
+    /**
+     * @return the sources of the documents being percolated, in the order of their slots
+     */
+    public List<BytesReference> getDocuments() {
+        return documents;
     }
 
     public QueryStore getQueryStore() {
@@ -278,7 +296,7 @@ public final class PercolateQuery extends Query implements Accountable {
         PercolateQuery that = (PercolateQuery) o;
 
         if (!documentType.equals(that.documentType)) return false;
-        return documentSource.equals(that.documentSource);
+        return documents.equals(that.documents);
 
     }
 
@@ -286,19 +304,30 @@ public final class PercolateQuery extends Query implements Accountable {
     public int hashCode() {
         int result = classHash();
         result = 31 * result + documentType.hashCode();
-        result = 31 * result + documentSource.hashCode();
+        result = 31 * result + documents.hashCode();
         return result;
     }
 
     @Override
     public String toString(String s) {
-        return "PercolateQuery{document_type={" + documentType + "},document_source={" + documentSource.utf8ToString() +
+        StringBuilder sources = new StringBuilder();
+        for (BytesReference document : documents) {
+            if (sources.length() > 0) {
+                sources.append(',');
+            }
+            sources.append(document.utf8ToString());
+        }
+        return "PercolateQuery{document_type={" + documentType + "},document_source={" + sources +
                 "},inner={" + percolatorQueriesQuery.toString(s)  + "}}";
     }
 
     @Override
     public long ramBytesUsed() {
-        return documentSource.ramBytesUsed();
+        long ramUsed = 0;
+        for (BytesReference document : documents) {
+            ramUsed += document.ramBytesUsed();
+        }
+        return ramUsed;
     }
 
     @FunctionalInterface
@@ -27,6 +27,7 @@ import org.apache.lucene.index.FieldInfo;
 import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.index.IndexWriterConfig;
 import org.apache.lucene.index.LeafReader;
+import org.apache.lucene.index.LogByteSizeMergePolicy;
 import org.apache.lucene.index.StoredFieldVisitor;
 import org.apache.lucene.index.Term;
 import org.apache.lucene.index.memory.MemoryIndex;
@@ -64,6 +65,7 @@ import org.elasticsearch.index.mapper.DocumentMapperForType;
 import org.elasticsearch.index.mapper.MappedFieldType;
 import org.elasticsearch.index.mapper.MapperService;
 import org.elasticsearch.index.mapper.ParsedDocument;
+import org.elasticsearch.index.mapper.core.LegacyDateFieldMapper;
 import org.elasticsearch.index.mapper.internal.SourceFieldMapper;
 import org.elasticsearch.index.mapper.internal.TypeFieldMapper;
 import org.elasticsearch.index.query.AbstractQueryBuilder;
@@ -72,8 +74,12 @@ import org.elasticsearch.index.query.QueryParseContext;
 import org.elasticsearch.index.query.QueryRewriteContext;
 import org.elasticsearch.index.query.QueryShardContext;
 import org.elasticsearch.index.query.QueryShardException;
+import org.elasticsearch.search.lookup.SearchLookup;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 
@@ -86,6 +92,7 @@ public class PercolateQueryBuilder extends AbstractQueryBuilder<PercolateQueryBu
     public static final ParseField QUERY_NAME_FIELD = new ParseField(NAME);
 
     static final ParseField DOCUMENT_FIELD = new ParseField("document");
+    static final ParseField DOCUMENTS_FIELD = new ParseField("documents");
     private static final ParseField QUERY_FIELD = new ParseField("field");
     private static final ParseField DOCUMENT_TYPE_FIELD = new ParseField("document_type");
     private static final ParseField INDEXED_DOCUMENT_FIELD_INDEX = new ParseField("index");
@@ -97,7 +104,7 @@ public class PercolateQueryBuilder extends AbstractQueryBuilder<PercolateQueryBu
 
     private final String field;
     private final String documentType;
-    private final BytesReference document;
+    private final List<BytesReference> documents;
 
     private final String indexedDocumentIndex;
     private final String indexedDocumentType;
@@ -107,18 +114,26 @@ public class PercolateQueryBuilder extends AbstractQueryBuilder<PercolateQueryBu
     private final Long indexedDocumentVersion;
 
     public PercolateQueryBuilder(String field, String documentType, BytesReference document) {
+        this(field, documentType, Collections.singletonList(document));
+    }
+
+    /**
+     * Percolates several documents at once. The documents are indexed together, so that each candidate query only
+     * needs to be run once, and the slots of the documents a query matches are returned with its hit.
+     */
+    public PercolateQueryBuilder(String field, String documentType, List<BytesReference> documents) {
         if (field == null) {
             throw new IllegalArgumentException("[field] is a required argument");
         }
         if (documentType == null) {
             throw new IllegalArgumentException("[document_type] is a required argument");
         }
-        if (document == null) {
+        if (documents == null || documents.isEmpty() || documents.contains(null)) {
             throw new IllegalArgumentException("[document] is a required argument");
         }
         this.field = field;
         this.documentType = documentType;
-        this.document = document;
+        this.documents = Collections.unmodifiableList(new ArrayList<>(documents));
         indexedDocumentIndex = null;
         indexedDocumentType = null;
         indexedDocumentId = null;
@@ -153,7 +168,7 @@ public class PercolateQueryBuilder extends AbstractQueryBuilder<PercolateQueryBu
         this.indexedDocumentRouting = indexedDocumentRouting;
         this.indexedDocumentPreference = indexedDocumentPreference;
         this.indexedDocumentVersion = indexedDocumentVersion;
-        this.document = null;
+        this.documents = Collections.emptyList();
     }
 
     /**
@@ -173,7 +188,12 @@ public class PercolateQueryBuilder extends AbstractQueryBuilder<PercolateQueryBu
         } else {
             indexedDocumentVersion = null;
         }
-        document = in.readOptionalBytesReference();
+        if (in.getVersion().onOrAfter(Version.V_5_0_0_alpha4)) {
+            documents = in.readList(StreamInput::readBytesReference);
+        } else {
+            BytesReference document = in.readOptionalBytesReference();
+            documents = document != null ? Collections.singletonList(document) : Collections.emptyList();
+        }
     }
 
     @Override
@@ -191,7 +211,18 @@ public class PercolateQueryBuilder extends AbstractQueryBuilder<PercolateQueryBu
         } else {
             out.writeBoolean(false);
         }
-        out.writeOptionalBytesReference(document);
+        if (out.getVersion().onOrAfter(Version.V_5_0_0_alpha4)) {
+            out.writeVInt(documents.size());
+            for (BytesReference document : documents) {
+                out.writeBytesReference(document);
+            }
+        } else {
+            if (documents.size() > 1) {
+                throw new IllegalArgumentException("percolating multiple documents is not supported by nodes before version ["
+                        + Version.V_5_0_0_alpha4 + "]");
+            }
+            out.writeOptionalBytesReference(documents.isEmpty() ? null : documents.get(0));
+        }
     }
 
     @Override
@@ -199,17 +230,21 @@ public class PercolateQueryBuilder extends AbstractQueryBuilder<PercolateQueryBu
         builder.startObject(NAME);
         builder.field(DOCUMENT_TYPE_FIELD.getPreferredName(), documentType);
         builder.field(QUERY_FIELD.getPreferredName(), field);
-        if (document != null) {
+        if (documents.size() == 1) {
+            BytesReference document = documents.get(0);
             XContentType contentType = XContentFactory.xContentType(document);
             if (contentType == builder.contentType()) {
                 builder.rawField(DOCUMENT_FIELD.getPreferredName(), document);
             } else {
-                try (XContentParser parser = XContentFactory.xContent(contentType).createParser(document)) {
-                    parser.nextToken();
-                    builder.field(DOCUMENT_FIELD.getPreferredName());
-                    builder.copyCurrentStructure(parser);
-                }
+                builder.field(DOCUMENT_FIELD.getPreferredName());
+                documentToXContent(builder, document);
+            }
+        } else if (documents.size() > 1) {
+            builder.startArray(DOCUMENTS_FIELD.getPreferredName());
+            for (BytesReference document : documents) {
+                documentToXContent(builder, document);
             }
+            builder.endArray();
         }
         if (indexedDocumentIndex != null || indexedDocumentType != null || indexedDocumentId != null) {
             if (indexedDocumentIndex != null) {
@@ -235,6 +270,13 @@ public class PercolateQueryBuilder extends AbstractQueryBuilder<PercolateQueryBu
         builder.endObject();
     }
 
+    private static void documentToXContent(XContentBuilder builder, BytesReference document) throws IOException {
+        try (XContentParser parser = XContentFactory.xContent(document).createParser(document)) {
+            parser.nextToken();
+            builder.copyCurrentStructure(parser);
+        }
+    }
+
     public static Optional<PercolateQueryBuilder> fromXContent(QueryParseContext parseContext) throws IOException {
         XContentParser parser = parseContext.parser();
         float boost = AbstractQueryBuilder.DEFAULT_BOOST;
@@ -249,7 +291,7 @@ public class PercolateQueryBuilder extends AbstractQueryBuilder<PercolateQueryBu
         String indexedDocumentPreference = null;
         Long indexedDocumentVersion = null;
 
-        BytesReference source = null;
+        List<BytesReference> documents = new ArrayList<>();
 
         String queryName = null;
         String currentFieldName = null;
@@ -260,10 +302,20 @@ public class PercolateQueryBuilder extends AbstractQueryBuilder<PercolateQueryBu
                 currentFieldName = parser.currentName();
             } else if (token == XContentParser.Token.START_OBJECT) {
                 if (parseContext.getParseFieldMatcher().match(currentFieldName, DOCUMENT_FIELD)) {
-                    try (XContentBuilder builder = XContentFactory.jsonBuilder()) {
-                        builder.copyCurrentStructure(parser);
-                        builder.flush();
-                        source = builder.bytes();
+                    documents.add(parseDocument(parser));
+                } else {
+                    throw new ParsingException(parser.getTokenLocation(), "[" + PercolateQueryBuilder.NAME +
+                            "] query does not support [" + token + "]");
+                }
+            } else if (token == XContentParser.Token.START_ARRAY) {
+                if (parseContext.getParseFieldMatcher().match(currentFieldName, DOCUMENTS_FIELD)) {
+                    while ((token = parser.nextToken()) != XContentParser.Token.END_ARRAY) {
+                        if (token != XContentParser.Token.START_OBJECT) {
+                            throw new ParsingException(parser.getTokenLocation(), "[" + PercolateQueryBuilder.NAME +
+                                    "] query expects [" + DOCUMENTS_FIELD.getPreferredName() + "] to only contain objects, but got [" +
+                                    token + "]");
+                        }
+                        documents.add(parseDocument(parser));
                     }
                 } else {
                     throw new ParsingException(parser.getTokenLocation(), "[" + PercolateQueryBuilder.NAME +
@@ -306,8 +358,8 @@ public class PercolateQueryBuilder extends AbstractQueryBuilder<PercolateQueryBu
         }
 
         PercolateQueryBuilder queryBuilder;
-        if (source != null) {
-            queryBuilder = new PercolateQueryBuilder(field, documentType, source);
+        if (documents.isEmpty() == false) {
+            queryBuilder = new PercolateQueryBuilder(field, documentType, documents);
         } else if (indexedDocumentId != null) {
             queryBuilder = new PercolateQueryBuilder(field, documentType, indexedDocumentIndex, indexedDocumentType,
                     indexedDocumentId, indexedDocumentRouting, indexedDocumentPreference, indexedDocumentVersion);
@@ -319,11 +371,19 @@ public class PercolateQueryBuilder extends AbstractQueryBuilder<PercolateQueryBu
         return Optional.of(queryBuilder);
     }
 
+    private static BytesReference parseDocument(XContentParser parser) throws IOException {
+        try (XContentBuilder builder = XContentFactory.jsonBuilder()) {
+            builder.copyCurrentStructure(parser);
+            builder.flush();
+            return builder.bytes();
+        }
+    }
+
     @Override
     protected boolean doEquals(PercolateQueryBuilder other) {
         return Objects.equals(field, other.field)
                 && Objects.equals(documentType, other.documentType)
-                && Objects.equals(document, other.document)
+                && Objects.equals(documents, other.documents)
                 && Objects.equals(indexedDocumentIndex, other.indexedDocumentIndex)
                 && Objects.equals(indexedDocumentType, other.indexedDocumentType)
                 && Objects.equals(indexedDocumentId, other.indexedDocumentId);
@@ -331,7 +391,7 @@ public class PercolateQueryBuilder extends AbstractQueryBuilder<PercolateQueryBu
 
     @Override
     protected int doHashCode() {
-        return Objects.hash(field, documentType, document, indexedDocumentIndex, indexedDocumentType, indexedDocumentId);
+        return Objects.hash(field, documentType, documents, indexedDocumentIndex, indexedDocumentType, indexedDocumentId);
     }
 
     @Override
@@ -341,7 +401,7 @@ public class PercolateQueryBuilder extends AbstractQueryBuilder<PercolateQueryBu
 
     @Override
     protected QueryBuilder doRewrite(QueryRewriteContext queryShardContext) throws IOException {
-        if (document != null) {
+        if (documents.isEmpty() == false) {
             return this;
         }
 
@@ -372,7 +432,7 @@ public class PercolateQueryBuilder extends AbstractQueryBuilder<PercolateQueryBu
             throw new IllegalStateException("query builder must be rewritten first");
         }
 
-        if (document == null) {
+        if (documents.isEmpty()) {
             throw new IllegalStateException("no document to percolate");
         }
 
@@ -380,7 +440,10 @@ public class PercolateQueryBuilder extends AbstractQueryBuilder<PercolateQueryBu
         DocumentMapperForType docMapperForType = mapperService.documentMapperWithAutoCreate(documentType);
         DocumentMapper docMapper = docMapperForType.getDocumentMapper();
 
-        ParsedDocument doc = docMapper.parse(source(context.index().getName(), documentType, "_temp_id", document));
+        List<ParsedDocument> docs = new ArrayList<>(documents.size());
+        for (BytesReference document : documents) {
+            docs.add(docMapper.parse(source(context.index().getName(), documentType, "_temp_id", document)));
+        }
 
         FieldNameAnalyzer fieldNameAnalyzer = (FieldNameAnalyzer) docMapper.mappers().indexAnalyzer();
         // Need to this custom impl because FieldNameAnalyzer is strict and the percolator sometimes isn't when
@@ -397,11 +460,11 @@ public class PercolateQueryBuilder extends AbstractQueryBuilder<PercolateQueryBu
             }
         };
         final IndexSearcher docSearcher;
-        if (doc.docs().size() > 1) {
-            assert docMapper.hasNestedObjects();
-            docSearcher = createMultiDocumentSearcher(analyzer, doc);
+        if (docs.size() > 1 || docs.get(0).docs().size() > 1) {
+            assert docs.size() > 1 || docMapper.hasNestedObjects();
+            docSearcher = createMultiDocumentSearcher(analyzer, docs);
         } else {
-            MemoryIndex memoryIndex = MemoryIndex.fromDocument(doc.rootDoc(), analyzer, true, false);
+            MemoryIndex memoryIndex = MemoryIndex.fromDocument(docs.get(0).rootDoc(), analyzer, true, false);
             docSearcher = memoryIndex.createSearcher();
             docSearcher.setQueryCache(null);
         }
@@ -426,14 +489,14 @@ public class PercolateQueryBuilder extends AbstractQueryBuilder<PercolateQueryBu
             PercolatorFieldMapper.PercolatorFieldType pft = (PercolatorFieldMapper.PercolatorFieldType) fieldType;
             PercolateQuery.QueryStore queryStore = createStore(pft, context, mapUnmappedFieldsAsString);
             PercolateQuery.Builder builder = new PercolateQuery.Builder(
-                    documentType, queryStore, document, docSearcher
+                    documentType, queryStore, documents, docSearcher
             );
-            builder.extractQueryTermsQuery(pft.getExtractedTermsField(), pft.getExtractionResultFieldName());
+            builder.extractQueryTermsQuery(pft.getExtractedTermsField(), pft.getExtractedRangesField(), pft.getExtractionResultFieldName());
             return builder.build();
         } else {
             Query percolateTypeQuery = new TermQuery(new Term(TypeFieldMapper.NAME, MapperService.PERCOLATOR_LEGACY_TYPE_NAME));
             PercolateQuery.Builder builder = new PercolateQuery.Builder(
-                    documentType, createLegacyStore(context, mapUnmappedFieldsAsString), document, docSearcher
+                    documentType, createLegacyStore(context, mapUnmappedFieldsAsString), documents, docSearcher
             );
             builder.setPercolateTypeQuery(percolateTypeQuery);
             return builder.build();
@@ -448,14 +511,23 @@ public class PercolateQueryBuilder extends AbstractQueryBuilder<PercolateQueryBu
         return documentType;
     }
 
-    public BytesReference getDocument() {
-        return document;
+    public List<BytesReference> getDocuments() {
+        return documents;
     }
 
-    static IndexSearcher createMultiDocumentSearcher(Analyzer analyzer, ParsedDocument doc) {
+    /**
+     * Indexes the given documents, including their nested documents, into a single in-memory segment. The root documents
+     * keep the order of the given documents, which is what the slots reported for matching queries are based on.
+     */
+    static IndexSearcher createMultiDocumentSearcher(Analyzer analyzer, List<ParsedDocument> docs) {
         RAMDirectory ramDirectory = new RAMDirectory();
-        try (IndexWriter indexWriter = new IndexWriter(ramDirectory, new IndexWriterConfig(analyzer))) {
-            indexWriter.addDocuments(doc.docs());
+        // only merges adjacent segments, so that the documents stay in order
+        IndexWriterConfig indexWriterConfig = new IndexWriterConfig(analyzer).setMergePolicy(new LogByteSizeMergePolicy());
+        try (IndexWriter indexWriter = new IndexWriter(ramDirectory, indexWriterConfig)) {
+            for (ParsedDocument doc : docs) {
+                indexWriter.addDocuments(doc.docs());
+            }
+            indexWriter.forceMerge(1);
             indexWriter.commit();
             DirectoryReader directoryReader = DirectoryReader.open(ramDirectory);
             assert directoryReader.leaves().size() == 1 : "Expected single leaf, but got [" + directoryReader.leaves().size() + "]";
@@ -473,13 +545,25 @@ public class PercolateQueryBuilder extends AbstractQueryBuilder<PercolateQueryBu
             slowSearcher.setQueryCache(null);
             return slowSearcher;
         } catch (IOException e) {
-            throw new ElasticsearchException("Failed to create index for percolator with nested document ", e);
+            throw new ElasticsearchException("Failed to create index for percolator with multiple documents", e);
         }
     }
 
-    private static PercolateQuery.QueryStore createStore(PercolatorFieldMapper.PercolatorFieldType fieldType,
-                                                         QueryShardContext context,
-                                                         boolean mapUnmappedFieldsAsString) {
+    static PercolateQuery.QueryStore createStore(PercolatorFieldMapper.PercolatorFieldType fieldType,
+                                                 QueryShardContext context,
+                                                 boolean mapUnmappedFieldsAsString) {
+        final PercolatorQueriesIndexFieldData queriesFieldData;
+        PercolatorQueriesIndexFieldData fieldData = context.getForField(fieldType);
+        if (fieldData.isCaching()) {
+            CacheableQueryShardContext cacheableContext = new CacheableQueryShardContext(context);
+            queriesFieldData = fieldData.withQueryParser(qbSource -> {
+                cacheableContext.cacheable = true;
+                Query query = parseStoredQuery(cacheableContext, mapUnmappedFieldsAsString, qbSource);
+                return cacheableContext.cacheable ? query : null;
+            });
+        } else {
+            queriesFieldData = null;
+        }
         return ctx -> {
             LeafReader leafReader = ctx.reader();
             BinaryDocValues binaryDocValues = leafReader.getBinaryDocValues(fieldType.getQueryBuilderFieldName());
@@ -487,15 +571,16 @@ public class PercolateQueryBuilder extends AbstractQueryBuilder<PercolateQueryBu
                 return docId -> null;
             }
 
+            PercolatorQueriesIndexFieldData.AtomicQueries cachedQueries =
+                    queriesFieldData != null ? queriesFieldData.load(ctx) : PercolatorQueriesIndexFieldData.AtomicQueries.EMPTY;
             Bits bits = leafReader.getDocsWithField(fieldType.getQueryBuilderFieldName());
             return docId -> {
-                if (bits.get(docId)) {
+                if (cachedQueries.isCached(docId)) {
+                    return cachedQueries.getQuery(docId);
+                } else if (bits.get(docId)) {
                     BytesRef qbSource = binaryDocValues.get(docId);
                     if (qbSource.length > 0) {
-                        XContent xContent = PercolatorFieldMapper.QUERY_BUILDER_CONTENT_TYPE.xContent();
-                        try (XContentParser sourceParser = xContent.createParser(qbSource.bytes, qbSource.offset, qbSource.length)) {
-                            return parseQuery(context, mapUnmappedFieldsAsString, sourceParser);
-                        }
+                        return parseStoredQuery(context, mapUnmappedFieldsAsString, qbSource);
                     } else {
                         return null;
                     }
@@ -506,6 +591,49 @@ public class PercolateQueryBuilder extends AbstractQueryBuilder<PercolateQueryBu
         };
     }
 
+    private static Query parseStoredQuery(QueryShardContext context, boolean mapUnmappedFieldsAsString,
+                                          BytesRef qbSource) throws IOException {
+        XContent xContent = PercolatorFieldMapper.QUERY_BUILDER_CONTENT_TYPE.xContent();
+        try (XContentParser sourceParser = xContent.createParser(qbSource.bytes, qbSource.offset, qbSource.length)) {
+            return parseQuery(context, mapUnmappedFieldsAsString, sourceParser);
+        }
+    }
+
+    /**
+     * Records whether the queries it builds can be cached across requests, which isn't the case for queries that depend on
+     * the current time, on the search lookup of the request or on fields that aren't mapped yet. Queries on date fields
+     * resolve dates relative to now when they are executed, except for legacy date fields which resolve them right away.
+     */
+    private static final class CacheableQueryShardContext extends QueryShardContext {
+
+        private boolean cacheable = true;
+
+        CacheableQueryShardContext(QueryShardContext source) {
+            super(source);
+        }
+
+        @Override
+        public long nowInMillis() {
+            cacheable = false;
+            return super.nowInMillis();
+        }
+
+        @Override
+        public SearchLookup lookup() {
+            cacheable = false;
+            return super.lookup();
+        }
+
+        @Override
+        public MappedFieldType fieldMapper(String name) {
+            MappedFieldType fieldType = getMapperService().fullName(name);
+            if (fieldType == null || fieldType instanceof LegacyDateFieldMapper.DateFieldType) {
+                cacheable = false;
+            }
+            return super.fieldMapper(name);
+        }
+    }
+
     private static PercolateQuery.QueryStore createLegacyStore(QueryShardContext context, boolean mapUnmappedFieldsAsString) {
         return ctx -> {
             LeafReader leafReader = ctx.reader();
@@ -31,6 +31,7 @@ import org.elasticsearch.common.xcontent.XContentFactory;
 import org.elasticsearch.common.xcontent.XContentLocation;
 import org.elasticsearch.common.xcontent.XContentParser;
 import org.elasticsearch.common.xcontent.XContentType;
+import org.elasticsearch.index.fielddata.IndexFieldData;
 import org.elasticsearch.index.mapper.FieldMapper;
 import org.elasticsearch.index.mapper.MappedFieldType;
 import org.elasticsearch.index.mapper.Mapper;
@@ -59,6 +60,7 @@ public class PercolatorFieldMapper extends FieldMapper {
     private static final PercolatorFieldType FIELD_TYPE = new PercolatorFieldType();
 
     public static final String EXTRACTED_TERMS_FIELD_NAME = "extracted_terms";
+    public static final String EXTRACTED_RANGES_FIELD_NAME = "extracted_ranges";
     public static final String EXTRACTION_RESULT_FIELD_NAME = "extraction_result";
     public static final String QUERY_BUILDER_FIELD_NAME = "query_builder_field";
 
@@ -76,6 +78,8 @@ public class PercolatorFieldMapper extends FieldMapper {
             context.path().add(name());
             KeywordFieldMapper extractedTermsField = createExtractQueryFieldBuilder(EXTRACTED_TERMS_FIELD_NAME, context);
             ((PercolatorFieldType) fieldType).queryTermsField = extractedTermsField.fieldType();
+            // the extracted ranges are indexed as points which have no mapper, they are only ever searched by the percolator
+            ((PercolatorFieldType) fieldType).queryRangesFieldName = context.path().pathAsText(EXTRACTED_RANGES_FIELD_NAME);
             KeywordFieldMapper extractionResultField = createExtractQueryFieldBuilder(EXTRACTION_RESULT_FIELD_NAME, context);
             ((PercolatorFieldType) fieldType).extractionResultField = extractionResultField.fieldType();
             BinaryFieldMapper queryBuilderField = createQueryBuilderFieldBuilder(context);
@@ -117,6 +121,7 @@ public class PercolatorFieldMapper extends FieldMapper {
     public static class PercolatorFieldType extends MappedFieldType {
 
         private MappedFieldType queryTermsField;
+        private String queryRangesFieldName;
         private MappedFieldType extractionResultField;
         private MappedFieldType queryBuilderField;
 
@@ -129,6 +134,7 @@ public class PercolatorFieldMapper extends FieldMapper {
         public PercolatorFieldType(PercolatorFieldType ref) {
             super(ref);
             queryTermsField = ref.queryTermsField;
+            queryRangesFieldName = ref.queryRangesFieldName;
             extractionResultField = ref.extractionResultField;
             queryBuilderField = ref.queryBuilderField;
         }
@@ -137,6 +143,10 @@ public class PercolatorFieldMapper extends FieldMapper {
             return queryTermsField.name();
         }
 
+        public String getExtractedRangesField() {
+            return queryRangesFieldName;
+        }
+
         public String getExtractionResultFieldName() {
             return extractionResultField.name();
         }
@@ -150,6 +160,20 @@ public class PercolatorFieldMapper extends FieldMapper {
             return new PercolatorFieldType(this);
         }
 
+        /**
+         * The field data of a percolator field are the parsed queries, which the percolate query caches per segment.
+         */
+        @Override
+        public IndexFieldData.Builder fielddataBuilder() {
+            return (indexSettings, fieldType, cache, breakerService, mapperService) -> new PercolatorQueriesIndexFieldData(
+                    indexSettings, fieldType.name(), getQueryBuilderFieldName(), cache, breakerService);
+        }
+
+        @Override
+        protected boolean isAggregatable() {
+            return false;
+        }
+
         @Override
         public String typeName() {
             return CONTENT_TYPE;
@@ -222,8 +246,8 @@ public class PercolatorFieldMapper extends FieldMapper {
         }
 
         Query query = toQuery(queryShardContext, mapUnmappedFieldAsString, queryBuilder);
-        ExtractQueryTermsService.extractQueryTerms(query, context.doc(), queryTermsField.name(), extractionResultField.name(),
-                queryTermsField.fieldType());
+        ExtractQueryTermsService.extractQueryTerms(query, context.doc(), queryTermsField.name(),
+                fieldType().getExtractedRangesField(), extractionResultField.name(), queryTermsField.fieldType());
         return null;
     }
 
@@ -258,6 +282,11 @@ public class PercolatorFieldMapper extends FieldMapper {
         }
     }
 
+    @Override
+    public PercolatorFieldType fieldType() {
+        return (PercolatorFieldType) super.fieldType();
+    }
+
     @Override
     public Iterator<Mapper> iterator() {
         return Arrays.<Mapper>asList(queryTermsField, extractionResultField, queryBuilderField).iterator();
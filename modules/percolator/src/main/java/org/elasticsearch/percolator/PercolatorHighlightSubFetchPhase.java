@@ -33,6 +33,7 @@ import org.elasticsearch.common.text.Text;
 import org.elasticsearch.index.query.ParsedQuery;
 import org.elasticsearch.search.Highlighters;
 import org.elasticsearch.search.fetch.FetchSubPhase;
+import org.elasticsearch.search.highlight.HighlightField;
 import org.elasticsearch.search.highlight.HighlightPhase;
 import org.elasticsearch.search.highlight.SearchContextHighlight;
 import org.elasticsearch.search.internal.InternalSearchHit;
@@ -43,9 +44,14 @@ import java.io.IOException;
 import java.util.Collections;
 import java.util.List;
 
+import static org.elasticsearch.percolator.PercolatorMatchedSlotSubFetchPhase.matchingSlots;
+import static org.elasticsearch.percolator.PercolatorMatchedSlotSubFetchPhase.rootDocs;
+
 /**
  * Highlighting in the case of the percolate query is a bit different, because the PercolateQuery itself doesn't get highlighted,
  * but the source of the PercolateQuery gets highlighted by each hit containing a query.
+ * When several documents are percolated, each document the query matches is highlighted and the names of its
+ * highlighted fields are prefixed with the slot of the document, as in {@code 0_field}.
  */
 public final class PercolatorHighlightSubFetchPhase extends HighlightPhase {
 
@@ -73,33 +79,53 @@ public final class PercolatorHighlightSubFetchPhase extends HighlightPhase {
         IndexSearcher percolatorIndexSearcher = percolateQuery.getPercolatorIndexSearcher();
         PercolateQuery.QueryStore queryStore = percolateQuery.getQueryStore();
 
+        List<BytesReference> documents = percolateQuery.getDocuments();
         LeafReaderContext percolatorLeafReaderContext = percolatorIndexSearcher.getIndexReader().leaves().get(0);
         FetchSubPhase.HitContext hitContext = new FetchSubPhase.HitContext();
-        SubSearchContext subSearchContext =
-                createSubSearchContext(context, percolatorLeafReaderContext, percolateQuery.getDocumentSource());
+        SubSearchContext subSearchContext = createSubSearchContext(context);
 
-        for (InternalSearchHit hit : hits) {
-            final Query query;
-            try {
+        try {
+            int[] rootDocs = documents.size() > 1 ? rootDocs(percolatorIndexSearcher) : null;
+            for (InternalSearchHit hit : hits) {
                 LeafReaderContext ctx = ctxs.get(ReaderUtil.subIndex(hit.docId(), ctxs));
                 int segmentDocId = hit.docId() - ctx.docBase;
-                query = queryStore.getQueries(ctx).getQuery(segmentDocId);
-            } catch (IOException e) {
-                throw new RuntimeException(e);
-            }
-            if (query != null) {
+                final Query query = queryStore.getQueries(ctx).getQuery(segmentDocId);
+                if (query == null) {
+                    continue;
+                }
+
                 subSearchContext.parsedQuery(new ParsedQuery(query));
-                hitContext.reset(
-                        new InternalSearchHit(0, "unknown", new Text(percolateQuery.getDocumentType()), Collections.emptyMap()),
-                        percolatorLeafReaderContext, 0, percolatorIndexSearcher
-                );
-                hitContext.cache().clear();
-                super.hitExecute(subSearchContext, hitContext);
-                hit.highlightFields().putAll(hitContext.hit().getHighlightFields());
+                if (rootDocs == null) {
+                    highlight(subSearchContext, hitContext, percolateQuery, percolatorLeafReaderContext, 0, documents.get(0));
+                    hit.highlightFields().putAll(hitContext.hit().getHighlightFields());
+                } else {
+                    for (int slot : matchingSlots(percolatorIndexSearcher, rootDocs, query)) {
+                        highlight(subSearchContext, hitContext, percolateQuery, percolatorLeafReaderContext, rootDocs[slot],
+                                documents.get(slot));
+                        for (HighlightField field : hitContext.hit().getHighlightFields().values()) {
+                            String name = slot + "_" + field.name();
+                            hit.highlightFields().put(name, new HighlightField(name, field.fragments()));
+                        }
+                    }
+                }
             }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
         }
     }
 
+    private void highlight(SubSearchContext subSearchContext, FetchSubPhase.HitContext hitContext, PercolateQuery percolateQuery,
+                           LeafReaderContext percolatorLeafReaderContext, int docId, BytesReference source) {
+        subSearchContext.lookup().source().setSegmentAndDocument(percolatorLeafReaderContext, docId);
+        subSearchContext.lookup().source().setSource(source);
+        hitContext.reset(
+                new InternalSearchHit(docId, "unknown", new Text(percolateQuery.getDocumentType()), Collections.emptyMap()),
+                percolatorLeafReaderContext, docId, percolateQuery.getPercolatorIndexSearcher()
+        );
+        hitContext.cache().clear();
+        super.hitExecute(subSearchContext, hitContext);
+    }
+
     static PercolateQuery locatePercolatorQuery(Query query) {
         if (query instanceof PercolateQuery) {
             return (PercolateQuery) query;
@@ -119,13 +145,11 @@ public final class PercolatorHighlightSubFetchPhase extends HighlightPhase {
         return null;
     }
 
-    private SubSearchContext createSubSearchContext(SearchContext context, LeafReaderContext leafReaderContext, BytesReference source) {
+    private SubSearchContext createSubSearchContext(SearchContext context) {
         SubSearchContext subSearchContext = new SubSearchContext(context);
         subSearchContext.highlight(new SearchContextHighlight(context.highlight().fields()));
         // Enforce highlighting by source, because MemoryIndex doesn't support stored fields.
         subSearchContext.highlight().globalForceSource(true);
-        subSearchContext.lookup().source().setSegmentAndDocument(leafReaderContext, 0);
-        subSearchContext.lookup().source().setSource(source);
         return subSearchContext;
     }
 }
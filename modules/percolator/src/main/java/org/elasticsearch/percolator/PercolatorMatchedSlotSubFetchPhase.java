@@ -0,0 +1,138 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.percolator;
+
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.ReaderUtil;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.SimpleCollector;
+import org.elasticsearch.search.SearchHitField;
+import org.elasticsearch.search.fetch.FetchSubPhase;
+import org.elasticsearch.search.internal.InternalSearchHit;
+import org.elasticsearch.search.internal.InternalSearchHitField;
+import org.elasticsearch.search.internal.SearchContext;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.elasticsearch.percolator.PercolatorHighlightSubFetchPhase.locatePercolatorQuery;
+
+/**
+ * Adds the slots of the percolated documents that a hit's query matches to the hit when several documents are
+ * percolated at once. The slot of a document is its position in the list of documents that were percolated.
+ */
+public final class PercolatorMatchedSlotSubFetchPhase implements FetchSubPhase {
+
+    public static final String FIELD_NAME = "_percolator_document_slot";
+
+    @Override
+    public void hitsExecute(SearchContext context, InternalSearchHit[] hits) {
+        PercolateQuery percolateQuery = locatePercolatorQuery(context.query());
+        if (percolateQuery == null || percolateQuery.getDocuments().size() == 1) {
+            return;
+        }
+
+        List<LeafReaderContext> ctxs = context.searcher().getIndexReader().leaves();
+        IndexSearcher percolatorIndexSearcher = percolateQuery.getPercolatorIndexSearcher();
+        PercolateQuery.QueryStore queryStore = percolateQuery.getQueryStore();
+        try {
+            int[] rootDocs = rootDocs(percolatorIndexSearcher);
+            for (InternalSearchHit hit : hits) {
+                LeafReaderContext ctx = ctxs.get(ReaderUtil.subIndex(hit.docId(), ctxs));
+                int segmentDocId = hit.docId() - ctx.docBase;
+                Query query = queryStore.getQueries(ctx).getQuery(segmentDocId);
+                if (query == null) {
+                    continue;
+                }
+
+                List<Object> slots = new ArrayList<>();
+                for (int slot : matchingSlots(percolatorIndexSearcher, rootDocs, query)) {
+                    slots.add(slot);
+                }
+                Map<String, SearchHitField> fields = hit.fieldsOrNull();
+                if (fields == null) {
+                    fields = new HashMap<>();
+                    hit.fields(fields);
+                }
+                fields.put(FIELD_NAME, new InternalSearchHitField(FIELD_NAME, slots));
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Returns the ids of the root documents in the in-memory index, the position of an id is the slot of its document.
+     */
+    static int[] rootDocs(IndexSearcher percolatorIndexSearcher) throws IOException {
+        // the percolator index searcher filters out nested documents, so this only collects root documents
+        return collect(percolatorIndexSearcher, new MatchAllDocsQuery());
+    }
+
+    /**
+     * Returns the slots of the documents that the given query matches, in ascending order.
+     */
+    static int[] matchingSlots(IndexSearcher percolatorIndexSearcher, int[] rootDocs, Query query) throws IOException {
+        int[] docs = collect(percolatorIndexSearcher, query);
+        for (int i = 0; i < docs.length; i++) {
+            int slot = Arrays.binarySearch(rootDocs, docs[i]);
+            assert slot >= 0 : "document [" + docs[i] + "] is not a root document";
+            docs[i] = slot;
+        }
+        return docs;
+    }
+
+    private static int[] collect(IndexSearcher searcher, Query query) throws IOException {
+        DocIdsCollector collector = new DocIdsCollector();
+        searcher.search(query, collector);
+        return Arrays.copyOf(collector.docs, collector.size);
+    }
+
+    private static final class DocIdsCollector extends SimpleCollector {
+
+        private int[] docs = new int[1];
+        private int size;
+        private int docBase;
+
+        @Override
+        protected void doSetNextReader(LeafReaderContext context) throws IOException {
+            docBase = context.docBase;
+        }
+
+        @Override
+        public void collect(int doc) throws IOException {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+            }
+            docs[size++] = docBase + doc;
+        }
+
+        @Override
+        public boolean needsScores() {
+            return false;
+        }
+    }
+}
@@ -57,6 +57,7 @@ public class PercolatorPlugin extends Plugin implements MapperPlugin, ActionPlug
     public void onModule(SearchModule module) {
         module.registerQuery(PercolateQueryBuilder::new, PercolateQueryBuilder::fromXContent, PercolateQueryBuilder.QUERY_NAME_FIELD);
         module.registerFetchSubPhase(new PercolatorHighlightSubFetchPhase(settings, module.getHighlighters()));
+        module.registerFetchSubPhase(new PercolatorMatchedSlotSubFetchPhase());
     }
 
     @Override
@@ -0,0 +1,267 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.percolator;
+
+import org.apache.lucene.index.BinaryDocValues;
+import org.apache.lucene.index.LeafReader;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.util.Accountable;
+import org.apache.lucene.util.Bits;
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.FixedBitSet;
+import org.apache.lucene.util.RamUsageEstimator;
+import org.elasticsearch.ElasticsearchException;
+import org.elasticsearch.common.Nullable;
+import org.elasticsearch.common.breaker.CircuitBreaker;
+import org.elasticsearch.index.IndexSettings;
+import org.elasticsearch.index.fielddata.AtomicFieldData;
+import org.elasticsearch.index.fielddata.IndexFieldData;
+import org.elasticsearch.index.fielddata.IndexFieldData.XFieldComparatorSource.Nested;
+import org.elasticsearch.index.fielddata.IndexFieldDataCache;
+import org.elasticsearch.index.fielddata.ScriptDocValues;
+import org.elasticsearch.index.fielddata.SortedBinaryDocValues;
+import org.elasticsearch.index.fielddata.plain.AbstractIndexFieldData;
+import org.elasticsearch.indices.breaker.CircuitBreakerService;
+import org.elasticsearch.search.MultiValueMode;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Collections;
+
+/**
+ * Field data holding the parsed percolator queries of a segment. The queries are parsed when the segment is first
+ * percolated and then cached like any other field data, so they are accounted for in the field data circuit breaker and
+ * evicted with the segment.
+ * <p>
+ * Queries that can't be cached, because they depend on the request they are parsed for or because they fail to parse,
+ * are marked as such and have to be parsed by the percolate query itself.
+ */
+public class PercolatorQueriesIndexFieldData extends AbstractIndexFieldData<PercolatorQueriesIndexFieldData.AtomicQueries> {
+
+    // the size of a query that can't estimate it itself, the same default as the one of Lucene's query cache
+    static final long DEFAULT_QUERY_RAM_BYTES_USED = 1024;
+
+    private final String queryBuilderFieldName;
+    private final CircuitBreakerService breakerService;
+    private final QueryParser queryParser;
+
+    public PercolatorQueriesIndexFieldData(IndexSettings indexSettings, String fieldName, String queryBuilderFieldName,
+                                           IndexFieldDataCache cache, CircuitBreakerService breakerService) {
+        this(indexSettings, fieldName, queryBuilderFieldName, cache, breakerService, null);
+    }
+
+    private PercolatorQueriesIndexFieldData(IndexSettings indexSettings, String fieldName, String queryBuilderFieldName,
+                                            IndexFieldDataCache cache, CircuitBreakerService breakerService,
+                                            QueryParser queryParser) {
+        super(indexSettings, fieldName, cache);
+        this.queryBuilderFieldName = queryBuilderFieldName;
+        this.breakerService = breakerService;
+        this.queryParser = queryParser;
+    }
+
+    /**
+     * Returns field data that parses the queries of segments that aren't cached yet with the given parser.
+     */
+    PercolatorQueriesIndexFieldData withQueryParser(QueryParser queryParser) {
+        return new PercolatorQueriesIndexFieldData(indexSettings, getFieldName(), queryBuilderFieldName, cache, breakerService,
+                queryParser);
+    }
+
+    /**
+     * Returns whether loaded queries are cached. If not, parsing all queries of a segment up front would be wasted.
+     */
+    boolean isCaching() {
+        return (cache instanceof IndexFieldDataCache.None) == false;
+    }
+
+    @Override
+    public AtomicQueries load(LeafReaderContext context) {
+        if (context.reader().getFieldInfos().fieldInfo(queryBuilderFieldName) == null) {
+            return empty(context.reader().maxDoc());
+        }
+        try {
+            return cache.load(context, this);
+        } catch (Throwable e) {
+            if (e instanceof ElasticsearchException) {
+                throw (ElasticsearchException) e;
+            } else {
+                throw new ElasticsearchException(e);
+            }
+        }
+    }
+
+    @Override
+    public AtomicQueries loadDirect(LeafReaderContext context) throws Exception {
+        if (queryParser == null) {
+            throw new IllegalStateException("percolator queries can only be loaded by the percolate query");
+        }
+        final LeafReader reader = context.reader();
+        final int maxDoc = reader.maxDoc();
+        final BinaryDocValues binaryDocValues = reader.getBinaryDocValues(queryBuilderFieldName);
+        if (binaryDocValues == null) {
+            return empty(maxDoc);
+        }
+        final Bits docsWithField = reader.getDocsWithField(queryBuilderFieldName);
+        final Bits liveDocs = reader.getLiveDocs();
+        final CircuitBreaker breaker = breakerService.getBreaker(CircuitBreaker.FIELDDATA);
+        final Query[] queries = new Query[maxDoc];
+        final FixedBitSet uncached = new FixedBitSet(maxDoc);
+        long ramBytesUsed = AtomicQueries.ramBytesUsed(maxDoc);
+        breaker.addEstimateBytesAndMaybeBreak(ramBytesUsed, getFieldName());
+        boolean success = false;
+        try {
+            for (int doc = 0; doc < maxDoc; doc++) {
+                if ((liveDocs != null && liveDocs.get(doc) == false) || docsWithField.get(doc) == false) {
+                    continue;
+                }
+                BytesRef source = binaryDocValues.get(doc);
+                if (source.length == 0) {
+                    continue;
+                }
+                Query query;
+                try {
+                    query = queryParser.parse(source);
+                } catch (Exception e) {
+                    // the query may never be a candidate, so leave it to the percolate query to fail if it is
+                    query = null;
+                }
+                if (query == null) {
+                    uncached.set(doc);
+                    continue;
+                }
+                long queryRamBytesUsed = ramBytesUsed(query, source);
+                breaker.addEstimateBytesAndMaybeBreak(queryRamBytesUsed, getFieldName());
+                ramBytesUsed += queryRamBytesUsed;
+                queries[doc] = query;
+            }
+            success = true;
+            return new AtomicQueries(queries, uncached, ramBytesUsed);
+        } finally {
+            if (success == false) {
+                breaker.addWithoutBreaking(-ramBytesUsed);
+            }
+        }
+    }
+
+    /**
+     * Estimates the memory used by a parsed query. Queries that can't tell are assumed to take a fixed amount of memory
+     * plus the size of the source they were parsed from.
+     */
+    static long ramBytesUsed(Query query, BytesRef source) {
+        if (query instanceof Accountable) {
+            return ((Accountable) query).ramBytesUsed();
+        }
+        return DEFAULT_QUERY_RAM_BYTES_USED + source.length;
+    }
+
+    @Override
+    protected AtomicQueries empty(int maxDoc) {
+        return AtomicQueries.EMPTY;
+    }
+
+    @Override
+    public IndexFieldData.XFieldComparatorSource comparatorSource(@Nullable Object missingValue, MultiValueMode sortMode,
+                                                                  Nested nested) {
+        throw unsupported();
+    }
+
+    private IllegalArgumentException unsupported() {
+        return new IllegalArgumentException("Fielddata is not supported on field [" + getFieldName() + "] of type ["
+                + PercolatorFieldMapper.CONTENT_TYPE + "]");
+    }
+
+    /**
+     * Parses the source of a stored query.
+     */
+    @FunctionalInterface
+    interface QueryParser {
+
+        /**
+         * @return the parsed query or {@code null} if the query can't be cached
+         */
+        Query parse(BytesRef source) throws IOException;
+
+    }
+
+    /**
+     * The parsed percolator queries of a segment.
+     */
+    public static final class AtomicQueries implements AtomicFieldData {
+
+        static final AtomicQueries EMPTY = new AtomicQueries(new Query[0], new FixedBitSet(0), 0);
+
+        private final Query[] queries;
+        private final FixedBitSet uncached;
+        private final long ramBytesUsed;
+
+        AtomicQueries(Query[] queries, FixedBitSet uncached, long ramBytesUsed) {
+            this.queries = queries;
+            this.uncached = uncached;
+            this.ramBytesUsed = ramBytesUsed;
+        }
+
+        static long ramBytesUsed(int maxDoc) {
+            return RamUsageEstimator.NUM_BYTES_OBJECT_HEADER + 2 * RamUsageEstimator.NUM_BYTES_OBJECT_REF + Long.BYTES
+                + RamUsageEstimator.NUM_BYTES_ARRAY_HEADER + (long) maxDoc * RamUsageEstimator.NUM_BYTES_OBJECT_REF
+                + RamUsageEstimator.NUM_BYTES_OBJECT_HEADER + RamUsageEstimator.NUM_BYTES_ARRAY_HEADER
+                + (long) FixedBitSet.bits2words(maxDoc) * Long.BYTES;
+        }
+
+        /**
+         * Returns whether the query of the given document was cached, which includes documents without a query.
+         * If not, the query has to be parsed by the caller.
+         */
+        public boolean isCached(int docId) {
+            return docId < queries.length && uncached.get(docId) == false;
+        }
+
+        /**
+         * Returns the parsed query of the given document, or {@code null} if it has no query or its query isn't cached.
+         */
+        public Query getQuery(int docId) {
+            return docId < queries.length ? queries[docId] : null;
+        }
+
+        @Override
+        public ScriptDocValues getScriptValues() {
+            throw new IllegalArgumentException("percolator queries can only be accessed by the percolate query");
+        }
+
+        @Override
+        public SortedBinaryDocValues getBytesValues() {
+            throw new IllegalArgumentException("percolator queries can only be accessed by the percolate query");
+        }
+
+        @Override
+        public long ramBytesUsed() {
+            return ramBytesUsed;
+        }
+
+        @Override
+        public Collection<Accountable> getChildResources() {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
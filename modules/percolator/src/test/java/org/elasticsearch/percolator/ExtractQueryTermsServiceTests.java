@@ -19,9 +19,16 @@
 package org.elasticsearch.percolator;
 
 import org.apache.lucene.analysis.core.WhitespaceAnalyzer;
+import org.apache.lucene.document.DoublePoint;
 import org.apache.lucene.document.FieldType;
+import org.apache.lucene.document.InetAddressPoint;
+import org.apache.lucene.document.IntPoint;
+import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.index.IndexOptions;
 import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
 import org.apache.lucene.index.IndexableField;
 import org.apache.lucene.index.PrefixCodedTerms;
 import org.apache.lucene.index.Term;
@@ -34,8 +41,11 @@ import org.apache.lucene.search.BooleanQuery;
 import org.apache.lucene.search.BoostQuery;
 import org.apache.lucene.search.ConstantScoreQuery;
 import org.apache.lucene.search.DisjunctionMaxQuery;
+import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.MatchAllDocsQuery;
 import org.apache.lucene.search.PhraseQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
 import org.apache.lucene.search.SynonymQuery;
 import org.apache.lucene.search.TermQuery;
 import org.apache.lucene.search.TermRangeQuery;
@@ -44,13 +54,16 @@ import org.apache.lucene.search.spans.SpanNearQuery;
 import org.apache.lucene.search.spans.SpanNotQuery;
 import org.apache.lucene.search.spans.SpanOrQuery;
 import org.apache.lucene.search.spans.SpanTermQuery;
+import org.apache.lucene.store.Directory;
 import org.apache.lucene.util.BytesRef;
 import org.elasticsearch.common.lucene.search.MatchNoDocsQuery;
+import org.elasticsearch.common.network.InetAddresses;
 import org.elasticsearch.index.mapper.ParseContext;
+import org.elasticsearch.percolator.ExtractQueryTermsService.Range;
 import org.elasticsearch.percolator.ExtractQueryTermsService.Result;
 import org.elasticsearch.test.ESTestCase;
 
-
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -61,17 +74,21 @@ import java.util.Set;
 import static org.elasticsearch.percolator.ExtractQueryTermsService.EXTRACTION_COMPLETE;
 import static org.elasticsearch.percolator.ExtractQueryTermsService.EXTRACTION_FAILED;
 import static org.elasticsearch.percolator.ExtractQueryTermsService.EXTRACTION_PARTIAL;
+import static org.elasticsearch.percolator.ExtractQueryTermsService.RANGE_BYTES;
 import static org.elasticsearch.percolator.ExtractQueryTermsService.UnsupportedQueryException;
 import static org.elasticsearch.percolator.ExtractQueryTermsService.extractQueryTerms;
 import static org.elasticsearch.percolator.ExtractQueryTermsService.createQueryTermsQuery;
+import static org.elasticsearch.percolator.ExtractQueryTermsService.encodeRangeValue;
 import static org.elasticsearch.percolator.ExtractQueryTermsService.selectTermListWithTheLongestShortestTerm;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.sameInstance;
 
 public class ExtractQueryTermsServiceTests extends ESTestCase {
 
     public static final String QUERY_TERMS_FIELD = "extracted_terms";
+    public static final String QUERY_RANGES_FIELD = "extracted_ranges";
     public static final String EXTRACTION_RESULT_FIELD = "extraction_result";
     public static final FieldType QUERY_TERMS_FIELD_TYPE = new FieldType();
 
@@ -89,7 +106,7 @@ public class ExtractQueryTermsServiceTests extends ESTestCase {
         bq.add(termQuery2, BooleanClause.Occur.SHOULD);
 
         ParseContext.Document document = new ParseContext.Document();
-        extractQueryTerms(bq.build(), document, QUERY_TERMS_FIELD, EXTRACTION_RESULT_FIELD, QUERY_TERMS_FIELD_TYPE);
+        extractQueryTerms(bq.build(), document, QUERY_TERMS_FIELD, QUERY_RANGES_FIELD, EXTRACTION_RESULT_FIELD, QUERY_TERMS_FIELD_TYPE);
         assertThat(document.getField(EXTRACTION_RESULT_FIELD).stringValue(), equalTo(EXTRACTION_COMPLETE));
         List<IndexableField> fields = new ArrayList<>(Arrays.asList(document.getFields(QUERY_TERMS_FIELD)));
         Collections.sort(fields, (field1, field2) -> field1.binaryValue().compareTo(field2.binaryValue()));
@@ -103,7 +120,7 @@ public class ExtractQueryTermsServiceTests extends ESTestCase {
     public void testExtractQueryMetadata_unsupported() {
         TermRangeQuery query = new TermRangeQuery("field1", new BytesRef("a"), new BytesRef("z"), true, true);
         ParseContext.Document document = new ParseContext.Document();
-        extractQueryTerms(query, document, QUERY_TERMS_FIELD, EXTRACTION_RESULT_FIELD, QUERY_TERMS_FIELD_TYPE);
+        extractQueryTerms(query, document, QUERY_TERMS_FIELD, QUERY_RANGES_FIELD, EXTRACTION_RESULT_FIELD, QUERY_TERMS_FIELD_TYPE);
         assertThat(document.getFields().size(), equalTo(1));
         assertThat(document.getField(EXTRACTION_RESULT_FIELD).stringValue(), equalTo(EXTRACTION_FAILED));
     }
@@ -112,7 +129,7 @@ public class ExtractQueryTermsServiceTests extends ESTestCase {
         PhraseQuery phraseQuery = new PhraseQuery("field", "term");
 
         ParseContext.Document document = new ParseContext.Document();
-        extractQueryTerms(phraseQuery, document, QUERY_TERMS_FIELD, EXTRACTION_RESULT_FIELD, QUERY_TERMS_FIELD_TYPE);
+        extractQueryTerms(phraseQuery, document, QUERY_TERMS_FIELD, QUERY_RANGES_FIELD, EXTRACTION_RESULT_FIELD, QUERY_TERMS_FIELD_TYPE);
         assertThat(document.getFields().size(), equalTo(2));
         assertThat(document.getFields().get(0).name(), equalTo(QUERY_TERMS_FIELD));
         assertThat(document.getFields().get(0).binaryValue().utf8ToString(), equalTo("field\u0000term"));
@@ -579,8 +596,8 @@ public class ExtractQueryTermsServiceTests extends ESTestCase {
         memoryIndex.addField("field4", "123", new WhitespaceAnalyzer());
 
         IndexReader indexReader = memoryIndex.createSearcher().getIndexReader();
-        TermsQuery query = (TermsQuery)
-                createQueryTermsQuery(indexReader, QUERY_TERMS_FIELD, new Term(EXTRACTION_RESULT_FIELD, EXTRACTION_FAILED));
+        TermsQuery query = (TermsQuery) createQueryTermsQuery(indexReader, QUERY_TERMS_FIELD, QUERY_RANGES_FIELD,
+                new Term(EXTRACTION_RESULT_FIELD, EXTRACTION_FAILED));
 
         PrefixCodedTerms terms = query.getTermData();
         assertThat(terms.size(), equalTo(15L));
@@ -602,6 +619,131 @@ public class ExtractQueryTermsServiceTests extends ESTestCase {
         assertTermIterator(termIterator, EXTRACTION_FAILED, EXTRACTION_RESULT_FIELD);
     }
 
+    public void testPointRangeQuery() {
+        Query query = LongPoint.newRangeQuery("_field", 10, 20);
+        Result result = extractQueryTerms(query);
+        assertThat(result.verified, is(false));
+        assertThat(result.terms.isEmpty(), is(true));
+        assertThat(result.ranges.size(), equalTo(1));
+        Range range = result.ranges.iterator().next();
+        assertThat(range.fieldName, equalTo("_field"));
+        assertThat(range.lowerPoint, equalTo(encodeLong(10)));
+        assertThat(range.upperPoint, equalTo(encodeLong(20)));
+
+        // too wide to leave enough room for the field name hash
+        Query ipQuery = InetAddressPoint.newRangeQuery("_field", InetAddresses.forString("192.168.1.0"),
+                InetAddresses.forString("192.168.1.255"));
+        expectThrows(UnsupportedQueryException.class, () -> extractQueryTerms(ipQuery));
+    }
+
+    public void testBooleanQueryWithRanges() {
+        TermQuery termQuery = new TermQuery(new Term("_field", "_term"));
+        Query rangeQuery1 = IntPoint.newRangeQuery("_field1", 10, 20);
+        Query rangeQuery2 = DoublePoint.newRangeQuery("_field2", 0.5, 1.5);
+
+        BooleanQuery.Builder builder = new BooleanQuery.Builder();
+        builder.add(rangeQuery1, BooleanClause.Occur.FILTER);
+        builder.add(termQuery, BooleanClause.Occur.MUST);
+        Result result = extractQueryTerms(builder.build());
+        assertThat(result.verified, is(false));
+        assertTermsEqual(result.terms, termQuery.getTerm());
+        assertThat(result.ranges.isEmpty(), is(true));
+
+        builder = new BooleanQuery.Builder();
+        builder.add(rangeQuery1, BooleanClause.Occur.FILTER);
+        builder.add(rangeQuery2, BooleanClause.Occur.FILTER);
+        result = extractQueryTerms(builder.build());
+        assertThat(result.verified, is(false));
+        assertThat(result.terms.isEmpty(), is(true));
+        assertThat(result.ranges.size(), equalTo(1));
+
+        builder = new BooleanQuery.Builder();
+        builder.add(termQuery, BooleanClause.Occur.SHOULD);
+        builder.add(rangeQuery1, BooleanClause.Occur.SHOULD);
+        builder.add(rangeQuery2, BooleanClause.Occur.SHOULD);
+        result = extractQueryTerms(builder.build());
+        assertThat(result.verified, is(false));
+        assertTermsEqual(result.terms, termQuery.getTerm());
+        assertThat(result.ranges.size(), equalTo(2));
+    }
+
+    public void testExtractQueryMetadata_ranges() {
+        Query query = LongPoint.newRangeQuery("field", 10, 20);
+        ParseContext.Document document = new ParseContext.Document();
+        extractQueryTerms(query, document, QUERY_TERMS_FIELD, QUERY_RANGES_FIELD, EXTRACTION_RESULT_FIELD, QUERY_TERMS_FIELD_TYPE);
+        assertThat(document.getField(EXTRACTION_RESULT_FIELD).stringValue(), equalTo(EXTRACTION_PARTIAL));
+        assertThat(document.getFields(QUERY_TERMS_FIELD).length, equalTo(0));
+        IndexableField[] ranges = document.getFields(QUERY_RANGES_FIELD);
+        assertThat(ranges.length, equalTo(1));
+        BytesRef packed = ranges[0].binaryValue();
+        assertThat(packed.length, equalTo(2 * RANGE_BYTES));
+        assertThat(Arrays.copyOfRange(packed.bytes, packed.offset, packed.offset + RANGE_BYTES),
+                equalTo(encodeRangeValue("field", encodeLong(10))));
+        assertThat(Arrays.copyOfRange(packed.bytes, packed.offset + RANGE_BYTES, packed.offset + 2 * RANGE_BYTES),
+                equalTo(encodeRangeValue("field", encodeLong(20))));
+
+        // without a field for the ranges the query has to be verified
+        document = new ParseContext.Document();
+        extractQueryTerms(query, document, QUERY_TERMS_FIELD, null, EXTRACTION_RESULT_FIELD, QUERY_TERMS_FIELD_TYPE);
+        assertThat(document.getFields().size(), equalTo(1));
+        assertThat(document.getField(EXTRACTION_RESULT_FIELD).stringValue(), equalTo(EXTRACTION_FAILED));
+    }
+
+    public void testCreateQueryMetadataQueryWithRanges() throws Exception {
+        Query[] queries = new Query[] {
+                LongPoint.newRangeQuery("long_field", 10, 20),
+                LongPoint.newRangeQuery("long_field", 21, 30),
+                LongPoint.newRangeQuery("other_long_field", 10, 20),
+                IntPoint.newRangeQuery("int_field", Integer.MIN_VALUE, 0),
+                DoublePoint.newRangeQuery("double_field", 0.5, 1.5),
+                new TermQuery(new Term("field", "value"))
+        };
+        try (Directory directory = newDirectory()) {
+            try (IndexWriter writer = new IndexWriter(directory, new IndexWriterConfig(new WhitespaceAnalyzer()))) {
+                for (Query query : queries) {
+                    ParseContext.Document document = new ParseContext.Document();
+                    extractQueryTerms(query, document, QUERY_TERMS_FIELD, QUERY_RANGES_FIELD, EXTRACTION_RESULT_FIELD,
+                            QUERY_TERMS_FIELD_TYPE);
+                    writer.addDocument(document);
+                }
+            }
+            try (DirectoryReader reader = DirectoryReader.open(directory)) {
+                IndexSearcher searcher = newSearcher(reader);
+
+                MemoryIndex memoryIndex = new MemoryIndex(false);
+                memoryIndex.addField(new LongPoint("long_field", 15), new WhitespaceAnalyzer());
+                memoryIndex.addField(new IntPoint("int_field", -5), new WhitespaceAnalyzer());
+                memoryIndex.addField(new DoublePoint("double_field", 2.0), new WhitespaceAnalyzer());
+                memoryIndex.addField("field", "value", new WhitespaceAnalyzer());
+                Query query = createQueryTermsQuery(memoryIndex.createSearcher().getIndexReader(), QUERY_TERMS_FIELD,
+                        QUERY_RANGES_FIELD);
+                assertThat(query, instanceOf(BooleanQuery.class));
+                assertThat(matchingDocs(searcher, query), equalTo(new HashSet<>(Arrays.asList(0, 3, 5))));
+
+                // a multi valued field selects the ranges between its smallest and largest value
+                memoryIndex = new MemoryIndex(false);
+                memoryIndex.addField(new LongPoint("long_field", 5), new WhitespaceAnalyzer());
+                memoryIndex.addField(new LongPoint("long_field", 25), new WhitespaceAnalyzer());
+                query = createQueryTermsQuery(memoryIndex.createSearcher().getIndexReader(), QUERY_TERMS_FIELD, QUERY_RANGES_FIELD);
+                assertThat(matchingDocs(searcher, query), equalTo(new HashSet<>(Arrays.asList(0, 1))));
+            }
+        }
+    }
+
+    private static byte[] encodeLong(long value) {
+        byte[] encoded = new byte[Long.BYTES];
+        LongPoint.encodeDimension(value, encoded, 0);
+        return encoded;
+    }
+
+    private static Set<Integer> matchingDocs(IndexSearcher searcher, Query query) throws IOException {
+        Set<Integer> docs = new HashSet<>();
+        for (ScoreDoc scoreDoc : searcher.search(query, 10).scoreDocs) {
+            docs.add(scoreDoc.doc);
+        }
+        return docs;
+    }
+
     public void testSelectTermsListWithHighestSumOfTermLength() {
         Set<Term> terms1 = new HashSet<>();
         int shortestTerms1Length = Integer.MAX_VALUE;
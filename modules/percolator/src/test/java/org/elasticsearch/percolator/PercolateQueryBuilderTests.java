@@ -29,6 +29,7 @@ import org.apache.lucene.search.MatchAllDocsQuery;
 import org.apache.lucene.search.Query;
 import org.elasticsearch.ElasticsearchParseException;
 import org.elasticsearch.ResourceNotFoundException;
+import org.elasticsearch.Version;
 import org.elasticsearch.action.admin.indices.mapping.put.PutMappingRequest;
 import org.elasticsearch.action.get.GetRequest;
 import org.elasticsearch.action.get.GetResponse;
@@ -36,6 +37,8 @@ import org.elasticsearch.common.ParsingException;
 import org.elasticsearch.common.bytes.BytesArray;
 import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.compress.CompressedXContent;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.xcontent.XContentBuilder;
 import org.elasticsearch.common.xcontent.XContentFactory;
 import org.elasticsearch.index.get.GetResult;
@@ -52,6 +55,7 @@ import org.hamcrest.Matchers;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
@@ -62,7 +66,8 @@ import static org.hamcrest.Matchers.sameInstance;
 
 public class PercolateQueryBuilderTests extends AbstractQueryTestCase<PercolateQueryBuilder> {
 
-    private static final String[] SHUFFLE_PROTECTED_FIELDS = new String[] { PercolateQueryBuilder.DOCUMENT_FIELD.getPreferredName()};
+    private static final String[] SHUFFLE_PROTECTED_FIELDS = new String[] { PercolateQueryBuilder.DOCUMENT_FIELD.getPreferredName(),
+            PercolateQueryBuilder.DOCUMENTS_FIELD.getPreferredName()};
 
     private static String queryField;
     private static String docType;
@@ -73,7 +78,7 @@ public class PercolateQueryBuilderTests extends AbstractQueryTestCase<PercolateQ
     private String indexedDocumentRouting;
     private String indexedDocumentPreference;
     private Long indexedDocumentVersion;
-    private BytesReference documentSource;
+    private List<BytesReference> documentSource;
 
     boolean indexedDocumentExists = true;
 
@@ -100,8 +105,8 @@ public class PercolateQueryBuilderTests extends AbstractQueryTestCase<PercolateQ
     }
 
     private PercolateQueryBuilder doCreateTestQueryBuilder(boolean indexedDocument) {
-        documentSource = randomSource();
         if (indexedDocument) {
+            documentSource = Collections.singletonList(randomSource());
             indexedDocumentIndex = randomAsciiOfLength(4);
             indexedDocumentType = randomAsciiOfLength(4);
             indexedDocumentId = randomAsciiOfLength(4);
@@ -111,6 +116,11 @@ public class PercolateQueryBuilderTests extends AbstractQueryTestCase<PercolateQ
             return new PercolateQueryBuilder(queryField, docType, indexedDocumentIndex, indexedDocumentType, indexedDocumentId,
                     indexedDocumentRouting, indexedDocumentPreference, indexedDocumentVersion);
         } else {
+            int numDocs = randomBoolean() ? 1 : randomIntBetween(2, 4);
+            documentSource = new ArrayList<>(numDocs);
+            for (int i = 0; i < numDocs; i++) {
+                documentSource.add(randomSource());
+            }
             return new PercolateQueryBuilder(queryField, docType, documentSource);
         }
     }
@@ -135,7 +145,7 @@ public class PercolateQueryBuilderTests extends AbstractQueryTestCase<PercolateQ
         assertThat(getRequest.version(), Matchers.equalTo(indexedDocumentVersion));
         if (indexedDocumentExists) {
             return new GetResponse(
-                    new GetResult(indexedDocumentIndex, indexedDocumentType, indexedDocumentId, 0L, true, documentSource,
+                    new GetResult(indexedDocumentIndex, indexedDocumentType, indexedDocumentId, 0L, true, documentSource.get(0),
                             Collections.emptyMap())
             );
         } else {
@@ -150,7 +160,7 @@ public class PercolateQueryBuilderTests extends AbstractQueryTestCase<PercolateQ
         assertThat(query, Matchers.instanceOf(PercolateQuery.class));
         PercolateQuery percolateQuery = (PercolateQuery) query;
         assertThat(percolateQuery.getDocumentType(), Matchers.equalTo(queryBuilder.getDocumentType()));
-        assertThat(percolateQuery.getDocumentSource(), Matchers.equalTo(documentSource));
+        assertThat(percolateQuery.getDocuments(), Matchers.equalTo(documentSource));
     }
 
     @Override
@@ -208,7 +218,12 @@ public class PercolateQueryBuilderTests extends AbstractQueryTestCase<PercolateQ
         e = expectThrows(IllegalArgumentException.class, () -> new PercolateQueryBuilder("_field", null, new BytesArray("{}")));
         assertThat(e.getMessage(), equalTo("[document_type] is a required argument"));
 
-        e = expectThrows(IllegalArgumentException.class, () -> new PercolateQueryBuilder("_field", "_document_type", null));
+        e = expectThrows(IllegalArgumentException.class,
+                () -> new PercolateQueryBuilder("_field", "_document_type", (BytesReference) null));
+        assertThat(e.getMessage(), equalTo("[document] is a required argument"));
+
+        e = expectThrows(IllegalArgumentException.class,
+                () -> new PercolateQueryBuilder("_field", "_document_type", Collections.emptyList()));
         assertThat(e.getMessage(), equalTo("[document] is a required argument"));
 
         e = expectThrows(IllegalArgumentException.class, () -> {
@@ -243,6 +258,40 @@ public class PercolateQueryBuilderTests extends AbstractQueryTestCase<PercolateQ
         assertThat(e.getMessage(), equalTo("[percolate] query is missing required [document_type] parameter"));
     }
 
+    public void testFromJsonDocuments() throws IOException {
+        QueryBuilder queryBuilder = parseQuery("{\"percolate\" : { \"document_type\": \"" + docType + "\", \"field\": \"" +
+                queryField + "\", \"documents\": [{\"field\": \"value1\"}, {\"field\": \"value2\"}]}}");
+        assertThat(queryBuilder, Matchers.instanceOf(PercolateQueryBuilder.class));
+        List<BytesReference> documents = ((PercolateQueryBuilder) queryBuilder).getDocuments();
+        assertThat(documents.size(), equalTo(2));
+        assertThat(documents.get(0).utf8ToString(), equalTo("{\"field\":\"value1\"}"));
+        assertThat(documents.get(1).utf8ToString(), equalTo("{\"field\":\"value2\"}"));
+
+        ParsingException e = expectThrows(ParsingException.class, () -> parseQuery("{\"percolate\" : { \"document_type\": \"" +
+                docType + "\", \"field\": \"" + queryField + "\", \"documents\": [\"value\"]}}"));
+        assertThat(e.getMessage(), equalTo("[percolate] query expects [documents] to only contain objects, but got [VALUE_STRING]"));
+    }
+
+    public void testSerializationBwc() throws IOException {
+        PercolateQueryBuilder queryBuilder = new PercolateQueryBuilder(queryField, docType, randomSource());
+        try (BytesStreamOutput out = new BytesStreamOutput()) {
+            out.setVersion(Version.V_5_0_0_alpha3);
+            queryBuilder.writeTo(out);
+            // nodes before 5.0.0-alpha4 expect a single optional document
+            StreamInput in = out.bytes().streamInput();
+            in.setVersion(Version.V_5_0_0_alpha3);
+            assertThat(new PercolateQueryBuilder(in), equalTo(queryBuilder));
+        }
+
+        PercolateQueryBuilder multiDocumentQueryBuilder =
+                new PercolateQueryBuilder(queryField, docType, Arrays.asList(randomSource(), randomSource()));
+        try (BytesStreamOutput out = new BytesStreamOutput()) {
+            out.setVersion(Version.V_5_0_0_alpha3);
+            IllegalArgumentException e = expectThrows(IllegalArgumentException.class, () -> multiDocumentQueryBuilder.writeTo(out));
+            assertThat(e.getMessage(), equalTo("percolating multiple documents is not supported by nodes before version [5.0.0-alpha4]"));
+        }
+    }
+
     public void testCreateMultiDocumentSearcher() throws Exception {
         int numDocs = randomIntBetween(2, 8);
         List<ParseContext.Document> docs = new ArrayList<>(numDocs);
@@ -252,7 +301,8 @@ public class PercolateQueryBuilderTests extends AbstractQueryTestCase<PercolateQ
 
         Analyzer analyzer = new WhitespaceAnalyzer();
         ParsedDocument parsedDocument = new ParsedDocument(null, "_id", "_type", null, -1L, -1L, docs, null, null);
-        IndexSearcher indexSearcher = PercolateQueryBuilder.createMultiDocumentSearcher(analyzer, parsedDocument);
+        IndexSearcher indexSearcher =
+                PercolateQueryBuilder.createMultiDocumentSearcher(analyzer, Collections.singletonList(parsedDocument));
         assertThat(indexSearcher.getIndexReader().numDocs(), equalTo(numDocs));
 
         // ensure that any query get modified so that the nested docs are never included as hits:
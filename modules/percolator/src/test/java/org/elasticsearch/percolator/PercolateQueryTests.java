@@ -22,8 +22,10 @@ package org.elasticsearch.percolator;
 import org.apache.lucene.analysis.core.WhitespaceAnalyzer;
 import org.apache.lucene.document.Field;
 import org.apache.lucene.document.FieldType;
+import org.apache.lucene.document.LongPoint;
 import org.apache.lucene.document.StoredField;
 import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
 import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.index.IndexOptions;
 import org.apache.lucene.index.IndexReader;
@@ -49,6 +51,7 @@ import org.apache.lucene.search.MatchAllDocsQuery;
 import org.apache.lucene.search.PhraseQuery;
 import org.apache.lucene.search.PrefixQuery;
 import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
 import org.apache.lucene.search.Scorer;
 import org.apache.lucene.search.TermQuery;
 import org.apache.lucene.search.TopDocs;
@@ -60,10 +63,14 @@ import org.apache.lucene.search.spans.SpanOrQuery;
 import org.apache.lucene.search.spans.SpanTermQuery;
 import org.apache.lucene.store.Directory;
 import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.lucene.Lucene;
 import org.elasticsearch.common.lucene.search.MatchNoDocsQuery;
 import org.elasticsearch.index.mapper.MapperService;
 import org.elasticsearch.index.mapper.ParseContext;
+import org.elasticsearch.index.mapper.ParsedDocument;
 import org.elasticsearch.index.mapper.Uid;
+import org.elasticsearch.index.mapper.internal.TypeFieldMapper;
 import org.elasticsearch.index.mapper.internal.UidFieldMapper;
 import org.elasticsearch.test.ESTestCase;
 import org.junit.After;
@@ -71,9 +78,12 @@ import org.junit.Before;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.function.Function;
 
 import static org.hamcrest.Matchers.arrayWithSize;
@@ -83,6 +93,7 @@ import static org.hamcrest.Matchers.is;
 public class PercolateQueryTests extends ESTestCase {
 
     public static final String EXTRACTED_TERMS_FIELD_NAME = "extracted_terms";
+    public static final String EXTRACTED_RANGES_FIELD_NAME = "extracted_ranges";
     public static final String UNKNOWN_QUERY_FIELD_NAME = "unknown_query";
     public static final FieldType EXTRACTED_TERMS_FIELD_TYPE = new FieldType();
 
@@ -157,10 +168,10 @@ public class PercolateQueryTests extends ESTestCase {
         PercolateQuery.Builder builder = new PercolateQuery.Builder(
                 "docType",
                 queryStore,
-                new BytesArray("{}"),
+                Collections.singletonList(new BytesArray("{}")),
                 percolateSearcher
         );
-        builder.extractQueryTermsQuery(EXTRACTED_TERMS_FIELD_NAME, UNKNOWN_QUERY_FIELD_NAME);
+        builder.extractQueryTermsQuery(EXTRACTED_TERMS_FIELD_NAME, EXTRACTED_RANGES_FIELD_NAME, UNKNOWN_QUERY_FIELD_NAME);
         // no scoring, wrapping it in a constant score query:
         Query query = new ConstantScoreQuery(builder.build());
         TopDocs topDocs = shardSearcher.search(query, 10);
@@ -231,10 +242,10 @@ public class PercolateQueryTests extends ESTestCase {
         PercolateQuery.Builder builder = new PercolateQuery.Builder(
                 "docType",
                 queryStore,
-                new BytesArray("{}"),
+                Collections.singletonList(new BytesArray("{}")),
                 percolateSearcher
         );
-        builder.extractQueryTermsQuery(EXTRACTED_TERMS_FIELD_NAME, UNKNOWN_QUERY_FIELD_NAME);
+        builder.extractQueryTermsQuery(EXTRACTED_TERMS_FIELD_NAME, EXTRACTED_RANGES_FIELD_NAME, UNKNOWN_QUERY_FIELD_NAME);
         Query query = builder.build();
         TopDocs topDocs = shardSearcher.search(query, 10);
         assertThat(topDocs.totalHits, equalTo(3));
@@ -389,11 +400,128 @@ public class PercolateQueryTests extends ESTestCase {
         duelRun(memoryIndex, shardSearcher);
     }
 
+    public void testDuelRangeQueries() throws Exception {
+        int numQueries = scaledRandomIntBetween(32, 256);
+        for (int i = 0; i < numQueries; i++) {
+            long from = randomIntBetween(0, 100);
+            Query rangeQuery = LongPoint.newRangeQuery("long_field", from, from + randomIntBetween(0, 20));
+            if (randomBoolean()) {
+                BooleanQuery.Builder builder = new BooleanQuery.Builder();
+                builder.add(rangeQuery, BooleanClause.Occur.FILTER);
+                builder.add(new TermQuery(new Term("field", randomFrom("fox", "dog"))), BooleanClause.Occur.MUST);
+                addPercolatorQuery(Integer.toString(i), builder.build());
+            } else {
+                addPercolatorQuery(Integer.toString(i), rangeQuery);
+            }
+        }
+
+        indexWriter.close();
+        directoryReader = DirectoryReader.open(directory);
+        IndexSearcher shardSearcher = newSearcher(directoryReader);
+        // Disable query cache, because ControlQuery cannot be cached...
+        shardSearcher.setQueryCache(null);
+
+        for (int i = 0; i < 10; i++) {
+            MemoryIndex memoryIndex = new MemoryIndex();
+            memoryIndex.addField("field", "the quick brown fox", new WhitespaceAnalyzer());
+            int numValues = randomIntBetween(1, 3);
+            for (int j = 0; j < numValues; j++) {
+                memoryIndex.addField(new LongPoint("long_field", randomIntBetween(0, 130)), new WhitespaceAnalyzer());
+            }
+            duelRun(memoryIndex, shardSearcher);
+        }
+    }
+
+    public void testPercolateMultipleDocuments() throws Exception {
+        String[] terms = new String[] {"fox", "dog", "cat", "bird"};
+        int numQueries = scaledRandomIntBetween(16, 64);
+        for (int i = 0; i < numQueries; i++) {
+            Query query;
+            switch (randomIntBetween(0, 2)) {
+                case 0:
+                    query = new TermQuery(new Term("field", randomFrom(terms)));
+                    break;
+                case 1:
+                    BooleanQuery.Builder builder = new BooleanQuery.Builder();
+                    BooleanClause.Occur occur = randomFrom(BooleanClause.Occur.MUST, BooleanClause.Occur.SHOULD);
+                    builder.add(new TermQuery(new Term("field", randomFrom(terms))), occur);
+                    builder.add(new TermQuery(new Term("field", randomFrom(terms))), occur);
+                    query = builder.build();
+                    break;
+                default:
+                    long from = randomIntBetween(0, 100);
+                    query = LongPoint.newRangeQuery("long_field", from, from + randomIntBetween(0, 20));
+                    break;
+            }
+            addPercolatorQuery(Integer.toString(i), query);
+        }
+
+        indexWriter.close();
+        directoryReader = DirectoryReader.open(directory);
+        IndexSearcher shardSearcher = newSearcher(directoryReader);
+        // Disable query cache, because ControlQuery cannot be cached...
+        shardSearcher.setQueryCache(null);
+
+        int numDocs = randomIntBetween(2, 5);
+        List<ParsedDocument> parsedDocuments = new ArrayList<>(numDocs);
+        List<BytesReference> sources = new ArrayList<>(numDocs);
+        List<IndexSearcher> controlSearchers = new ArrayList<>(numDocs);
+        for (int i = 0; i < numDocs; i++) {
+            String text = randomFrom(terms) + " " + randomFrom(terms);
+            long value = randomIntBetween(0, 130);
+            List<ParseContext.Document> docs = new ArrayList<>();
+            if (randomBoolean()) {
+                // a nested document whose terms must not make queries match the root document
+                ParseContext.Document nested = new ParseContext.Document();
+                nested.add(new StringField(TypeFieldMapper.NAME, "__nested", Field.Store.NO));
+                nested.add(new TextField("field", randomFrom(terms), Field.Store.NO));
+                docs.add(nested);
+            }
+            ParseContext.Document root = new ParseContext.Document();
+            root.add(new TextField("field", text, Field.Store.NO));
+            root.add(new LongPoint("long_field", value));
+            docs.add(root);
+            parsedDocuments.add(new ParsedDocument(null, "_id", "_type", null, -1L, -1L, docs, null, null));
+            sources.add(new BytesArray("{\"field\":\"" + text + "\",\"long_field\":" + value + "}"));
+
+            MemoryIndex memoryIndex = new MemoryIndex();
+            memoryIndex.addField("field", text, new WhitespaceAnalyzer());
+            memoryIndex.addField(new LongPoint("long_field", value), new WhitespaceAnalyzer());
+            controlSearchers.add(memoryIndex.createSearcher());
+        }
+
+        IndexSearcher percolateSearcher = PercolateQueryBuilder.createMultiDocumentSearcher(new WhitespaceAnalyzer(), parsedDocuments);
+        PercolateQuery.Builder builder = new PercolateQuery.Builder("docType", queryStore, sources, percolateSearcher);
+        builder.extractQueryTermsQuery(EXTRACTED_TERMS_FIELD_NAME, EXTRACTED_RANGES_FIELD_NAME, UNKNOWN_QUERY_FIELD_NAME);
+        TopDocs topDocs = shardSearcher.search(new ConstantScoreQuery(builder.build()), numQueries);
+        Set<Integer> hits = new HashSet<>();
+        for (ScoreDoc scoreDoc : topDocs.scoreDocs) {
+            hits.add(scoreDoc.doc);
+        }
+
+        int[] rootDocs = PercolatorMatchedSlotSubFetchPhase.rootDocs(percolateSearcher);
+        assertThat(rootDocs.length, equalTo(numDocs));
+        for (LeafReaderContext ctx : directoryReader.leaves()) {
+            for (int docId = 0; docId < ctx.reader().maxDoc(); docId++) {
+                Query query = queryStore.getQueries(ctx).getQuery(docId);
+                List<Integer> expectedSlots = new ArrayList<>();
+                for (int slot = 0; slot < numDocs; slot++) {
+                    if (Lucene.exists(controlSearchers.get(slot), query)) {
+                        expectedSlots.add(slot);
+                    }
+                }
+                assertThat("query " + query, hits.contains(ctx.docBase + docId), equalTo(expectedSlots.isEmpty() == false));
+                int[] slots = PercolatorMatchedSlotSubFetchPhase.matchingSlots(percolateSearcher, rootDocs, query);
+                assertThat("query " + query, slots, equalTo(expectedSlots.stream().mapToInt(Integer::intValue).toArray()));
+            }
+        }
+    }
+
     void addPercolatorQuery(String id, Query query, String... extraFields) throws IOException {
         queries.put(id, query);
         ParseContext.Document document = new ParseContext.Document();
-        ExtractQueryTermsService.extractQueryTerms(query, document, EXTRACTED_TERMS_FIELD_NAME, UNKNOWN_QUERY_FIELD_NAME,
-                EXTRACTED_TERMS_FIELD_TYPE);
+        ExtractQueryTermsService.extractQueryTerms(query, document, EXTRACTED_TERMS_FIELD_NAME, EXTRACTED_RANGES_FIELD_NAME,
+                UNKNOWN_QUERY_FIELD_NAME, EXTRACTED_TERMS_FIELD_TYPE);
         document.add(new StoredField(UidFieldMapper.NAME, Uid.createUid(MapperService.PERCOLATOR_LEGACY_TYPE_NAME, id)));
         assert extraFields.length % 2 == 0;
         for (int i = 0; i < extraFields.length; i++) {
@@ -408,11 +536,11 @@ public class PercolateQueryTests extends ESTestCase {
         PercolateQuery.Builder builder = new PercolateQuery.Builder(
                 "docType",
                 queryStore,
-                new BytesArray("{}"),
+                Collections.singletonList(new BytesArray("{}")),
                 percolateSearcher
         );
         // enables the optimization that prevents queries from being evaluated that don't match
-        builder.extractQueryTermsQuery(EXTRACTED_TERMS_FIELD_NAME, UNKNOWN_QUERY_FIELD_NAME);
+        builder.extractQueryTermsQuery(EXTRACTED_TERMS_FIELD_NAME, EXTRACTED_RANGES_FIELD_NAME, UNKNOWN_QUERY_FIELD_NAME);
         Query query = requireScore ? builder.build() : new ConstantScoreQuery(builder.build());
         TopDocs topDocs = shardSearcher.search(query, 10);
 
@@ -37,20 +37,28 @@ import org.elasticsearch.test.ESSingleNodeTestCase;
 import org.junit.Before;
 
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
 
 import static org.elasticsearch.common.xcontent.XContentFactory.jsonBuilder;
+import static org.elasticsearch.index.query.QueryBuilders.boolQuery;
+import static org.elasticsearch.index.query.QueryBuilders.constantScoreQuery;
+import static org.elasticsearch.index.query.QueryBuilders.disMaxQuery;
+import static org.elasticsearch.index.query.QueryBuilders.indicesQuery;
 import static org.elasticsearch.index.query.QueryBuilders.matchAllQuery;
 import static org.elasticsearch.index.query.QueryBuilders.matchPhraseQuery;
 import static org.elasticsearch.index.query.QueryBuilders.matchQuery;
 import static org.elasticsearch.index.query.QueryBuilders.prefixQuery;
+import static org.elasticsearch.index.query.QueryBuilders.queryStringQuery;
 import static org.elasticsearch.index.query.QueryBuilders.rangeQuery;
 import static org.elasticsearch.index.query.QueryBuilders.termQuery;
 import static org.elasticsearch.index.query.QueryBuilders.termsLookupQuery;
 import static org.elasticsearch.index.query.QueryBuilders.wildcardQuery;
 import static org.elasticsearch.percolator.ExtractQueryTermsService.EXTRACTION_COMPLETE;
 import static org.elasticsearch.percolator.ExtractQueryTermsService.EXTRACTION_FAILED;
+import static org.elasticsearch.percolator.ExtractQueryTermsService.EXTRACTION_PARTIAL;
 import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.instanceOf;
@@ -121,6 +129,69 @@ public class PercolatorFieldMapperTests extends ESSingleNodeTestCase {
         assertQueryBuilder(qbSource, queryBuilder);
     }
 
+    public void testExtractRanges() throws Exception {
+        addQueryMapping();
+        QueryBuilder queryBuilder = boolQuery().must(termQuery("field", "value")).filter(rangeQuery("number_field").gte(10).lte(20));
+        ParsedDocument doc = mapperService.documentMapper(typeName).parse("test", typeName, "1", XContentFactory.jsonBuilder().startObject()
+                .field(fieldName, queryBuilder)
+                .endObject().bytes());
+        // the term is preferred over the range
+        assertThat(doc.rootDoc().getFields(fieldType.getExtractedTermsField()).length, equalTo(1));
+        assertThat(doc.rootDoc().getFields(fieldType.getExtractedRangesField()).length, equalTo(0));
+        assertThat(doc.rootDoc().getFields(fieldType.getExtractionResultFieldName())[0].stringValue(), equalTo(EXTRACTION_PARTIAL));
+
+        queryBuilder = rangeQuery("number_field").gte(10).lte(20);
+        doc = mapperService.documentMapper(typeName).parse("test", typeName, "1", XContentFactory.jsonBuilder().startObject()
+                .field(fieldName, queryBuilder)
+                .endObject().bytes());
+        assertThat(doc.rootDoc().getFields(fieldType.getExtractedTermsField()).length, equalTo(0));
+        assertThat(doc.rootDoc().getFields(fieldType.getExtractedRangesField()).length, equalTo(1));
+        assertThat(doc.rootDoc().getFields(fieldType.getExtractionResultFieldName())[0].stringValue(), equalTo(EXTRACTION_PARTIAL));
+
+        queryBuilder = boolQuery().should(rangeQuery("date_field").gte("2015-01-01").lt("2016-01-01"))
+                .should(rangeQuery("number_field").gt(100));
+        doc = mapperService.documentMapper(typeName).parse("test", typeName, "1", XContentFactory.jsonBuilder().startObject()
+                .field(fieldName, queryBuilder)
+                .endObject().bytes());
+        assertThat(doc.rootDoc().getFields(fieldType.getExtractedRangesField()).length, equalTo(2));
+        assertThat(doc.rootDoc().getFields(fieldType.getExtractionResultFieldName())[0].stringValue(), equalTo(EXTRACTION_PARTIAL));
+
+        // ranges relative to now change over time, so they can't be extracted
+        queryBuilder = constantScoreQuery(rangeQuery("date_field").gte("now-1h"));
+        doc = mapperService.documentMapper(typeName).parse("test", typeName, "1", XContentFactory.jsonBuilder().startObject()
+                .field(fieldName, queryBuilder)
+                .endObject().bytes());
+        assertThat(doc.rootDoc().getFields(fieldType.getExtractedRangesField()).length, equalTo(0));
+        assertThat(doc.rootDoc().getFields(fieldType.getExtractionResultFieldName())[0].stringValue(), equalTo(EXTRACTION_FAILED));
+    }
+
+    public void testQueriesRelativeToNowAreNotExtracted() throws Exception {
+        addQueryMapping();
+        List<QueryBuilder> queryBuilders = Arrays.asList(
+                termQuery("date_field", "now/d"),
+                matchQuery("date_field", "now"),
+                indicesQuery(rangeQuery("date_field").gte("now-1d"), "test"),
+                queryStringQuery("date_field:[now-1d TO *]"),
+                boolQuery().filter(rangeQuery("date_field").gte("2015-01-01").lt("now/d")),
+                disMaxQuery().add(constantScoreQuery(rangeQuery("date_field").lte("now")))
+        );
+        for (QueryBuilder queryBuilder : queryBuilders) {
+            ParsedDocument doc = mapperService.documentMapper(typeName).parse("test", typeName, "1",
+                    XContentFactory.jsonBuilder().startObject().field(fieldName, queryBuilder).endObject().bytes());
+            assertThat(queryBuilder.toString(), doc.rootDoc().getFields(fieldType.getExtractedRangesField()).length, equalTo(0));
+            assertThat(queryBuilder.toString(), doc.rootDoc().getFields(fieldType.getExtractionResultFieldName())[0].stringValue(),
+                    equalTo(EXTRACTION_FAILED));
+        }
+
+        // a fixed date and a term that only looks like a date expression are still extracted
+        QueryBuilder queryBuilder = boolQuery().should(termQuery("date_field", "2015-01-01")).should(termQuery("field", "now"));
+        ParsedDocument doc = mapperService.documentMapper(typeName).parse("test", typeName, "1",
+                XContentFactory.jsonBuilder().startObject().field(fieldName, queryBuilder).endObject().bytes());
+        assertThat(doc.rootDoc().getFields(fieldType.getExtractedTermsField()).length, equalTo(1));
+        assertThat(doc.rootDoc().getFields(fieldType.getExtractedRangesField()).length, equalTo(1));
+        assertThat(doc.rootDoc().getFields(fieldType.getExtractionResultFieldName())[0].stringValue(), equalTo(EXTRACTION_PARTIAL));
+    }
+
     public void testStoringQueries() throws Exception {
         addQueryMapping();
         QueryBuilder[] queries = new QueryBuilder[]{
@@ -0,0 +1,152 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.percolator;
+
+import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.elasticsearch.action.admin.cluster.node.stats.NodesStatsResponse;
+import org.elasticsearch.common.breaker.CircuitBreaker;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.index.IndexService;
+import org.elasticsearch.index.engine.Engine;
+import org.elasticsearch.indices.IndicesService;
+import org.elasticsearch.plugins.Plugin;
+import org.elasticsearch.search.internal.SearchContext;
+import org.elasticsearch.test.ESSingleNodeTestCase;
+import org.elasticsearch.test.TestSearchContext;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import static org.elasticsearch.common.xcontent.XContentFactory.jsonBuilder;
+import static org.elasticsearch.index.query.QueryBuilders.functionScoreQuery;
+import static org.elasticsearch.index.query.QueryBuilders.rangeQuery;
+import static org.elasticsearch.index.query.QueryBuilders.termQuery;
+import static org.elasticsearch.index.query.functionscore.ScoreFunctionBuilders.gaussDecayFunction;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+
+public class PercolatorQueriesIndexFieldDataTests extends ESSingleNodeTestCase {
+
+    @Override
+    protected Collection<Class<? extends Plugin>> getPlugins() {
+        return Collections.singleton(PercolatorPlugin.class);
+    }
+
+    public void testParsedQueriesAreCachedPerSegment() throws Exception {
+        IndexService indexService = createIndex("test", client().admin().indices().prepareCreate("test")
+                .addMapping("type", "field", "type=text", "date_field", "type=date")
+                .addMapping("queries", "query", "type=percolator")
+        );
+        client().prepareIndex("test", "queries", "1")
+                .setSource(jsonBuilder().startObject().field("query", termQuery("field", "value")).endObject())
+                .get();
+        client().prepareIndex("test", "queries", "2")
+                .setSource(jsonBuilder().startObject()
+                        .field("query", functionScoreQuery(gaussDecayFunction("date_field", null, "1d")))
+                        .endObject())
+                .get();
+        client().prepareIndex("test", "queries", "3")
+                .setSource(jsonBuilder().startObject().field("query", rangeQuery("date_field").from("now-1d")).endObject())
+                .get();
+        client().prepareIndex("test", "queries", "4")
+                .setSource(jsonBuilder().startObject().field("query", termQuery("date_field", "now/d")).endObject())
+                .get();
+        client().admin().indices().prepareRefresh("test").get();
+
+        CircuitBreaker breaker = getInstanceFromNode(IndicesService.class).getCircuitBreakerService()
+                .getBreaker(CircuitBreaker.FIELDDATA);
+        long usedBefore = breaker.getUsed();
+        PercolatorFieldMapper.PercolatorFieldType fieldType =
+                (PercolatorFieldMapper.PercolatorFieldType) indexService.mapperService().fullName("query");
+        try (Engine.Searcher searcher = indexService.getShard(0).acquireSearcher("test")) {
+            PercolateQuery.QueryStore first = PercolateQueryBuilder.createStore(fieldType, indexService.newQueryShardContext(), false);
+            PercolateQuery.QueryStore second = PercolateQueryBuilder.createStore(fieldType, indexService.newQueryShardContext(), false);
+            for (String id : new String[] {"1", "2", "3", "4"}) {
+                TopDocs topDocs = searcher.searcher().search(new TermQuery(new Term("_uid", "queries#" + id)), 1);
+                assertThat(topDocs.totalHits, equalTo(1));
+                int docId = topDocs.scoreDocs[0].doc;
+                LeafReaderContext ctx = searcher.reader().leaves().get(0);
+                Query firstQuery = first.getQueries(ctx).getQuery(docId - ctx.docBase);
+                Query secondQuery = second.getQueries(ctx).getQuery(docId - ctx.docBase);
+                assertNotNull(firstQuery);
+                if (id.equals("2")) {
+                    // a decay function without an origin decays from the time of the request
+                    assertThat(secondQuery, not(sameInstance(firstQuery)));
+                } else {
+                    assertThat(secondQuery, sameInstance(firstQuery));
+                }
+                if (id.equals("4")) {
+                    // the cached query resolves now with the time of the search it is executed in
+                    SearchContext.setCurrent(new TestSearchContext(indexService.newQueryShardContext()));
+                    try {
+                        assertThat(firstQuery.rewrite(searcher.reader()),
+                                equalTo(LongPoint.newRangeQuery("date_field", 0L, TimeUnit.DAYS.toMillis(1) - 1)));
+                    } finally {
+                        SearchContext.removeCurrent();
+                    }
+                    assertThat(firstQuery.rewrite(searcher.reader()),
+                            not(equalTo(LongPoint.newRangeQuery("date_field", 0L, TimeUnit.DAYS.toMillis(1) - 1))));
+                }
+            }
+        }
+        assertThat(breaker.getUsed(), greaterThan(usedBefore));
+        NodesStatsResponse stats = client().admin().cluster().prepareNodesStats().setIndices(true).get();
+        assertThat(stats.getNodes().get(0).getIndices().getFieldData().getMemorySizeInBytes(), greaterThan(0L));
+
+        client().admin().indices().prepareClearCache("test").setFieldDataCache(true).get();
+        assertThat(breaker.getUsed(), equalTo(usedBefore));
+    }
+
+    public void testQueriesAreNotCachedWithoutFieldDataCache() throws Exception {
+        IndexService indexService = createIndex("test", client().admin().indices().prepareCreate("test")
+                .setSettings(Settings.builder().put("index.fielddata.cache", "none"))
+                .addMapping("type", "field", "type=text")
+                .addMapping("queries", "query", "type=percolator")
+        );
+        client().prepareIndex("test", "queries", "1")
+                .setSource(jsonBuilder().startObject().field("query", termQuery("field", "value")).endObject())
+                .get();
+        client().admin().indices().prepareRefresh("test").get();
+
+        CircuitBreaker breaker = getInstanceFromNode(IndicesService.class).getCircuitBreakerService()
+                .getBreaker(CircuitBreaker.FIELDDATA);
+        long usedBefore = breaker.getUsed();
+        PercolatorFieldMapper.PercolatorFieldType fieldType =
+                (PercolatorFieldMapper.PercolatorFieldType) indexService.mapperService().fullName("query");
+        try (Engine.Searcher searcher = indexService.getShard(0).acquireSearcher("test")) {
+            LeafReaderContext ctx = searcher.reader().leaves().get(0);
+            PercolateQuery.QueryStore first = PercolateQueryBuilder.createStore(fieldType, indexService.newQueryShardContext(), false);
+            PercolateQuery.QueryStore second = PercolateQueryBuilder.createStore(fieldType, indexService.newQueryShardContext(), false);
+            Query firstQuery = first.getQueries(ctx).getQuery(0);
+            Query secondQuery = second.getQueries(ctx).getQuery(0);
+            assertEquals(firstQuery, secondQuery);
+            assertThat(secondQuery, not(sameInstance(firstQuery)));
+        }
+        assertThat(breaker.getUsed(), equalTo(usedBefore));
+    }
+}
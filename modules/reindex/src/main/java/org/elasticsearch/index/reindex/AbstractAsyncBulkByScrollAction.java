@@ -84,6 +84,10 @@ public abstract class AbstractAsyncBulkByScrollAction<Request extends AbstractBu
     private final AtomicLong startTime = new AtomicLong(-1);
     private final AtomicReference<String> scroll = new AtomicReference<>();
     private final Set<String> destinationIndices = Collections.newSetFromMap(new ConcurrentHashMap<>());
+    /**
+     * The next scroll response if it was requested while the bulk request for the current batch was in flight. Null if there isn't one.
+     */
+    private final AtomicReference<ScrollAhead> scrollAhead = new AtomicReference<>();
 
     private final ESLogger logger;
     private final ParentTaskAssigningClient client;
@@ -142,7 +146,9 @@ public abstract class AbstractAsyncBulkByScrollAction<Request extends AbstractBu
             finishHim(t);
             return;
         }
+        long searchStart = System.nanoTime();
         searchWithRetry(listener -> client.search(firstSearchRequest, listener), (SearchResponse response) -> {
+            task.countSearchWait(System.nanoTime() - searchStart);
             logger.debug("[{}] documents match query", response.getHits().getTotalHits());
             onScrollResponse(timeValueNanos(System.nanoTime()), 0, response);
         });
@@ -232,6 +238,14 @@ public abstract class AbstractAsyncBulkByScrollAction<Request extends AbstractBu
             logger.debug("sending [{}] entry, [{}] bulk request", request.requests().size(),
                     new ByteSizeValue(request.estimatedSizeInBytes()));
         }
+        if (mainRequest.getSize() == SIZE_ALL_MATCHES
+                || task.getSuccessfullyProcessed() + request.requests().size() < mainRequest.getSize()) {
+            /*
+             * Fetch the next scroll response while the bulk request is in flight. Skipped if this batch is going to finish the request
+             * because then we'd be fetching documents we'll never use.
+             */
+            startScrollAhead(thisBatchStartTime, request.requests().size());
+        }
         sendBulkRequest(thisBatchStartTime, request);
     }
 
@@ -243,14 +257,17 @@ public abstract class AbstractAsyncBulkByScrollAction<Request extends AbstractBu
             finishHim(null);
             return;
         }
+        long bulkStart = System.nanoTime();
         bulkRetry.withAsyncBackoff(client, request, new ActionListener<BulkResponse>() {
             @Override
             public void onResponse(BulkResponse response) {
+                task.countBulkWait(System.nanoTime() - bulkStart);
                 onBulkResponse(thisBatchStartTime, response);
             }
 
             @Override
             public void onFailure(Throwable e) {
+                task.countBulkWait(System.nanoTime() - bulkStart);
                 finishHim(e);
             }
         });
@@ -320,17 +337,49 @@ public abstract class AbstractAsyncBulkByScrollAction<Request extends AbstractBu
      *        when the scroll returns
      */
     void startNextScroll(TimeValue lastBatchStartTime, int lastBatchSize) {
+        ScrollAhead ahead = scrollAhead.getAndSet(null);
         if (task.isCancelled()) {
             finishHim(null);
             return;
         }
+        if (ahead != null) {
+            ahead.whenReady(response -> onScrollResponse(lastBatchStartTime, lastBatchSize, response));
+            return;
+        }
+        SearchScrollRequest request = buildScrollRequest(lastBatchStartTime, lastBatchSize);
+        long searchStart = System.nanoTime();
+        searchWithRetry(listener -> client.searchScroll(request, listener), (SearchResponse response) -> {
+            task.countSearchWait(System.nanoTime() - searchStart);
+            onScrollResponse(lastBatchStartTime, lastBatchSize, response);
+        });
+    }
+
+    /**
+     * Start fetching the next scroll response without waiting for the current batch to finish. The response is held until
+     * {@link #startNextScroll(TimeValue, int)} asks for it so it still goes through the throttle. Only one scroll response is ever fetched
+     * ahead because scroll requests against the same scroll context have to be sequential.
+     *
+     * @param thisBatchStartTime the time when the current batch started
+     * @param thisBatchSize the number of requests in the current batch
+     */
+    void startScrollAhead(TimeValue thisBatchStartTime, int thisBatchSize) {
+        if (task.isCancelled()) {
+            return;
+        }
+        ScrollAhead ahead = new ScrollAhead();
+        if (false == scrollAhead.compareAndSet(null, ahead)) {
+            throw new IllegalStateException("already fetching the next scroll response");
+        }
+        SearchScrollRequest request = buildScrollRequest(thisBatchStartTime, thisBatchSize);
+        searchWithRetry(listener -> client.searchScroll(request, listener), ahead::onResponse, ahead::onFailure);
+    }
+
+    private SearchScrollRequest buildScrollRequest(TimeValue lastBatchStartTime, int lastBatchSize) {
         SearchScrollRequest request = new SearchScrollRequest();
         // Add the wait time into the scroll timeout so it won't timeout while we wait for throttling
         request.scrollId(scroll.get()).scroll(timeValueNanos(
                 firstSearchRequest.scroll().keepAlive().nanos() + task.throttleWaitTime(lastBatchStartTime, lastBatchSize).nanos()));
-        searchWithRetry(listener -> client.searchScroll(request, listener), (SearchResponse response) -> {
-            onScrollResponse(lastBatchStartTime, lastBatchSize, response);
-        });
+        return request;
     }
 
     private void recordFailure(Failure failure, List<Failure> failures) {
@@ -467,12 +516,24 @@ public abstract class AbstractAsyncBulkByScrollAction<Request extends AbstractBu
 
     /**
      * Run a search action and call onResponse when a the response comes in, retrying if the action fails with an exception caused by
-     * rejected execution.
+     * rejected execution. Finishes the request if the action fails and can't be retried.
      *
      * @param action consumes a listener and starts the action. The listener it consumes is rigged to retry on failure.
      * @param onResponse consumes the response from the action
      */
     private <T> void searchWithRetry(Consumer<ActionListener<T>> action, Consumer<T> onResponse) {
+        searchWithRetry(action, onResponse, this::finishHim);
+    }
+
+    /**
+     * Run a search action and call onResponse when a the response comes in, retrying if the action fails with an exception caused by
+     * rejected execution.
+     *
+     * @param action consumes a listener and starts the action. The listener it consumes is rigged to retry on failure.
+     * @param onResponse consumes the response from the action
+     * @param onFailure consumes the failure if the action fails and can't be retried
+     */
+    private <T> void searchWithRetry(Consumer<ActionListener<T>> action, Consumer<T> onResponse, Consumer<Throwable> onFailure) {
         class RetryHelper extends AbstractRunnable implements ActionListener<T> {
             private final Iterator<TimeValue> retries = backoffPolicy.iterator();
 
@@ -496,14 +557,66 @@ public abstract class AbstractAsyncBulkByScrollAction<Request extends AbstractBu
                         task.countSearchRetry();
                     } else {
                         logger.warn("giving up on search because we retried {} times without success", e, retries);
-                        finishHim(e);
+                        onFailure.accept(e);
                     }
                 } else {
                     logger.warn("giving up on search because it failed with a non-retryable exception", e);
-                    finishHim(e);
+                    onFailure.accept(e);
                 }
             }
         }
         new RetryHelper().run();
     }
+
+    /**
+     * A scroll response that was requested before the request was ready to process it. Holds on to the response or failure until
+     * {@link #whenReady(Consumer)} is called.
+     */
+    private class ScrollAhead {
+        private SearchResponse response;
+        private Throwable failure;
+        private Consumer<SearchResponse> consumer;
+        private long waitStart;
+
+        void onResponse(SearchResponse response) {
+            Consumer<SearchResponse> consumer;
+            synchronized (this) {
+                if (this.consumer == null) {
+                    this.response = response;
+                    return;
+                }
+                consumer = this.consumer;
+            }
+            task.countSearchWait(System.nanoTime() - waitStart);
+            consumer.accept(response);
+        }
+
+        void onFailure(Throwable failure) {
+            synchronized (this) {
+                if (consumer == null) {
+                    this.failure = failure;
+                    return;
+                }
+            }
+            finishHim(failure);
+        }
+
+        /**
+         * Hand the response to the consumer as soon as it is available. Time spent waiting here counts as search wait time.
+         */
+        void whenReady(Consumer<SearchResponse> consumer) {
+            synchronized (this) {
+                if (response == null && failure == null) {
+                    this.consumer = consumer;
+                    waitStart = System.nanoTime();
+                    return;
+                }
+            }
+            if (response != null) {
+                consumer.accept(response);
+            } else {
+                finishHim(failure);
+            }
+        }
+    }
 }
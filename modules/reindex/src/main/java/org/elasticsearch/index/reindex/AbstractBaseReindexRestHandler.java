@@ -118,6 +118,7 @@ public abstract class AbstractBaseReindexRestHandler<
         if (requestsPerSecond != null) {
             request.setRequestsPerSecond(requestsPerSecond);
         }
+        request.setSlices(restRequest.paramAsInt("slices", request.getSlices()));
         return request;
     }
 
@@ -98,11 +98,35 @@ public abstract class AbstractBulkByScrollRequest<Self extends AbstractBulkByScr
      */
     private boolean shouldPersistResult;
 
+    /**
+     * The number of slices this task should be divided into. Defaults to 1 meaning the task isn't sliced into subtasks.
+     */
+    private int slices = 1;
+
+    /**
+     * The id of the slice of the parent request that this request processes or null if it isn't a slice of another request.
+     */
+    private Integer sliceId;
+
     public AbstractBulkByScrollRequest() {
     }
 
     public AbstractBulkByScrollRequest(SearchRequest source) {
+        this(source, true);
+    }
+
+    /**
+     * Constructor for actual use.
+     *
+     * @param source the search request
+     * @param setDefaults should this request set the defaults on the search request? Usually set to true but leave it false to support
+     *        request slicing
+     */
+    protected AbstractBulkByScrollRequest(SearchRequest source, boolean setDefaults) {
         this.searchRequest = source;
+        if (false == setDefaults) {
+            return;
+        }
 
         // Set the defaults which differ from SearchRequest's defaults.
         source.scroll(DEFAULT_SCROLL_TIMEOUT);
@@ -117,6 +141,17 @@ public abstract class AbstractBulkByScrollRequest<Self extends AbstractBulkByScr
      */
     protected abstract Self self();
 
+    /**
+     * Build a new request that processes one slice of this request. Implementations build the request with
+     * {@link #AbstractBulkByScrollRequest(SearchRequest, boolean)} so the sliced search request is used as is, copy the options specific
+     * to them and then call {@link #doForSlice(AbstractBulkByScrollRequest, TaskId, int)} to copy the common options.
+     *
+     * @param slicingTask the id of the task that is slicing this request, set as the parent of the slice
+     * @param slice the search request for the slice
+     * @param sliceId the id of the slice
+     */
+    abstract Self forSlice(TaskId slicingTask, SearchRequest slice, int sliceId);
+
     @Override
     public ActionRequestValidationException validate() {
         ActionRequestValidationException e = searchRequest.validate();
@@ -135,6 +170,14 @@ public abstract class AbstractBulkByScrollRequest<Self extends AbstractBulkByScr
                             + size + "]",
                     e);
         }
+        if (slices > 1) {
+            if (searchRequest.source() != null && searchRequest.source().slice() != null) {
+                e = addValidationError("can't specify both slice and slices", e);
+            }
+            if (size != SIZE_ALL_MATCHES && size < slices) {
+                e = addValidationError("size [" + size + "] can't be smaller than slices [" + slices + "]", e);
+            }
+        }
         return e;
     }
 
@@ -304,9 +347,58 @@ public abstract class AbstractBulkByScrollRequest<Self extends AbstractBulkByScr
         return shouldPersistResult;
     }
 
+    /**
+     * The number of slices this task should be divided into. Defaults to 1 meaning the task isn't sliced into subtasks.
+     */
+    public int getSlices() {
+        return slices;
+    }
+
+    /**
+     * The number of slices this task should be divided into. Defaults to 1 meaning the task isn't sliced into subtasks. Each slice
+     * scrolls over a disjoint part of the documents with its own search and bulk requests and runs as a child task of this request.
+     */
+    public Self setSlices(int slices) {
+        if (slices < 1) {
+            throw new IllegalArgumentException("[slices] must be at least 1");
+        }
+        this.slices = slices;
+        return self();
+    }
+
+    /**
+     * The id of the slice of the parent request that this request processes or null if it isn't a slice of another request.
+     */
+    Integer getSliceId() {
+        return sliceId;
+    }
+
+    /**
+     * Copy the options that all requests share from this request to the request for one of its slices. The size and the throttle are
+     * divided between the slices so that all slices together process the same number of documents at the same rate as this request would.
+     */
+    protected Self doForSlice(Self request, TaskId slicingTask, int sliceId) {
+        request.setAbortOnVersionConflict(abortOnVersionConflict).setRefresh(refresh).setTimeout(timeout).setConsistency(consistency)
+                .setRetryBackoffInitialTime(retryBackoffInitialTime).setMaxRetries(maxRetries)
+                .setRequestsPerSecond(requestsPerSecond / slices);
+        if (size != SIZE_ALL_MATCHES) {
+            // Spread the remainder over the first slices so the slices add up to size
+            request.setSize(size / slices + (sliceId < size % slices ? 1 : 0));
+        }
+        AbstractBulkByScrollRequest<Self> sliced = request;
+        sliced.sliceId = sliceId;
+        // Only the parent task persists its result
+        request.setShouldPersistResult(false);
+        request.setParentTask(slicingTask);
+        return request;
+    }
+
     @Override
     public Task createTask(long id, String type, String action, TaskId parentTaskId) {
-        return new BulkByScrollTask(id, type, action, getDescription(), parentTaskId, requestsPerSecond);
+        if (slices > 1) {
+            return new ParentBulkByScrollTask(id, type, action, getDescription(), parentTaskId, requestsPerSecond, slices);
+        }
+        return new BulkByScrollTask(id, type, action, getDescription(), parentTaskId, requestsPerSecond, sliceId);
     }
 
     @Override
@@ -322,6 +414,8 @@ public abstract class AbstractBulkByScrollRequest<Self extends AbstractBulkByScr
         retryBackoffInitialTime = new TimeValue(in);
         maxRetries = in.readVInt();
         requestsPerSecond = in.readFloat();
+        slices = in.readVInt();
+        sliceId = in.readOptionalVInt();
     }
 
     @Override
@@ -336,6 +430,8 @@ public abstract class AbstractBulkByScrollRequest<Self extends AbstractBulkByScr
         retryBackoffInitialTime.writeTo(out);
         out.writeVInt(maxRetries);
         out.writeFloat(requestsPerSecond);
+        out.writeVInt(slices);
+        out.writeOptionalVInt(sliceId);
     }
 
     /**
@@ -351,5 +447,8 @@ public abstract class AbstractBulkByScrollRequest<Self extends AbstractBulkByScr
         if (searchRequest.types() != null && searchRequest.types().length != 0) {
             b.append(Arrays.toString(searchRequest.types()));
         }
+        if (sliceId != null) {
+            b.append(" slice [").append(sliceId).append(']');
+        }
     }
 }
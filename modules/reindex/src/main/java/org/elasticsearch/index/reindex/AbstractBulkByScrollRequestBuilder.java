@@ -139,4 +139,12 @@ public abstract class AbstractBulkByScrollRequestBuilder<
         request.setShouldPersistResult(shouldPersistResult);
         return self();
     }
+
+    /**
+     * The number of slices this task should be divided into. Defaults to 1 meaning the task isn't sliced into subtasks.
+     */
+    public Self setSlices(int slices) {
+        request.setSlices(slices);
+        return self();
+    }
 }
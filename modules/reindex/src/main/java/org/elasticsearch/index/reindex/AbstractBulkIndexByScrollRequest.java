@@ -38,7 +38,11 @@ public abstract class AbstractBulkIndexByScrollRequest<Self extends AbstractBulk
     }
 
     public AbstractBulkIndexByScrollRequest(SearchRequest source) {
-        super(source);
+        this(source, true);
+    }
+
+    protected AbstractBulkIndexByScrollRequest(SearchRequest source, boolean setDefaults) {
+        super(source, setDefaults);
     }
 
     /**
@@ -0,0 +1,107 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index.reindex;
+
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.search.SearchRequest;
+import org.elasticsearch.action.support.TransportAction;
+import org.elasticsearch.index.mapper.internal.UidFieldMapper;
+import org.elasticsearch.search.builder.SearchSourceBuilder;
+import org.elasticsearch.search.slice.SliceBuilder;
+import org.elasticsearch.tasks.Task;
+import org.elasticsearch.tasks.TaskId;
+import org.elasticsearch.tasks.TaskManager;
+
+/**
+ * Helps parallelize reindex requests using sliced scrolls.
+ */
+public class BulkByScrollParallelizationHelper {
+    private BulkByScrollParallelizationHelper() {}
+
+    /**
+     * Slice the request into {@link ParentBulkByScrollTask#getSlices()} requests over disjoint slices of the documents and execute them
+     * as child tasks of the parent task on the local node. The listener is notified once all slices have finished.
+     */
+    public static <Request extends AbstractBulkByScrollRequest<Request>> void startSlices(
+            TransportAction<Request, BulkIndexByScrollResponse> action, TaskManager taskManager, String localNodeId,
+            ParentBulkByScrollTask task, Request request, ActionListener<BulkIndexByScrollResponse> listener) {
+        TaskId parentTaskId = new TaskId(localNodeId, task.getId());
+        /* Register the local node as the home of child tasks so cancelling the parent bans it from starting new slices and cancels the
+         * running ones. */
+        taskManager.registerChildTask(task, localNodeId);
+        SearchRequest[] slices = sliceIntoSubRequests(request.getSearchRequest(), UidFieldMapper.NAME, task.getSlices());
+        for (int sliceId = 0; sliceId < slices.length; sliceId++) {
+            final int thisSlice = sliceId;
+            Request sliceRequest = request.forSlice(parentTaskId, slices[sliceId], sliceId);
+            ActionListener<BulkIndexByScrollResponse> sliceListener = new ActionListener<BulkIndexByScrollResponse>() {
+                @Override
+                public void onResponse(BulkIndexByScrollResponse response) {
+                    task.onSliceResponse(listener, thisSlice, response);
+                }
+
+                @Override
+                public void onFailure(Throwable e) {
+                    task.onSliceFailure(listener, thisSlice, e);
+                }
+            };
+            Task sliceTask;
+            try {
+                sliceTask = action.execute(sliceRequest, sliceListener);
+            } catch (Throwable t) {
+                // Registering the slice fails if the parent has been cancelled in the mean time
+                sliceListener.onFailure(t);
+                continue;
+            }
+            task.sliceStarted(sliceId, (BulkByScrollTask) sliceTask);
+        }
+    }
+
+    /**
+     * Slice a search request into <code>times</code> requests, each covering a disjoint part of the documents matched by the request.
+     */
+    static SearchRequest[] sliceIntoSubRequests(SearchRequest request, String field, int times) {
+        SearchRequest[] slices = new SearchRequest[times];
+        for (int slice = 0; slice < times; slice++) {
+            SliceBuilder sliceBuilder = new SliceBuilder(field, slice, times);
+            SearchSourceBuilder slicedSource;
+            if (request.source() == null) {
+                slicedSource = new SearchSourceBuilder().slice(sliceBuilder);
+            } else {
+                if (request.source().slice() != null) {
+                    throw new IllegalStateException("Can't slice a request that already has a slice configuration");
+                }
+                slicedSource = request.source().copyWithNewSlice(sliceBuilder);
+            }
+            slices[slice] = new SearchRequest()
+                    .source(slicedSource)
+                    .searchType(request.searchType())
+                    .types(request.types())
+                    .routing(request.routing())
+                    .preference(request.preference())
+                    .requestCache(request.requestCache())
+                    .scroll(request.scroll())
+                    .indicesOptions(request.indicesOptions());
+            if (request.indices() != null) {
+                slices[slice].indices(request.indices());
+            }
+        }
+        return slices;
+    }
+}
@@ -34,6 +34,8 @@ import org.elasticsearch.tasks.TaskId;
 import org.elasticsearch.threadpool.ThreadPool;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -42,7 +44,11 @@ import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 
 import static java.lang.Math.max;
+import static java.lang.Math.min;
 import static java.lang.Math.round;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.unmodifiableList;
+import static java.util.Objects.requireNonNull;
 import static org.elasticsearch.common.unit.TimeValue.timeValueNanos;
 
 /**
@@ -65,6 +71,14 @@ public class BulkByScrollTask extends CancellableTask {
     private final AtomicLong bulkRetries = new AtomicLong(0);
     private final AtomicLong searchRetries = new AtomicLong(0);
     private final AtomicLong throttledNanos = new AtomicLong();
+    /**
+     * Time spent waiting on search and scroll responses that weren't already available when the request was ready for them.
+     */
+    private final AtomicLong searchWaitNanos = new AtomicLong();
+    /**
+     * Time spent waiting on bulk responses, including any retries.
+     */
+    private final AtomicLong bulkWaitNanos = new AtomicLong();
     /**
      * The number of requests per second to which to throttle the request that this task represents. The other variables are all AtomicXXX
      * style variables but there isn't an AtomicFloat so we just use a volatile.
@@ -74,10 +88,20 @@ public class BulkByScrollTask extends CancellableTask {
      * Reference to any the last delayed prepareBulkRequest call. Used during rethrottling and canceling to reschedule the request.
      */
     private final AtomicReference<DelayedPrepareBulkRequest> delayedPrepareBulkRequestReference = new AtomicReference<>();
+    /**
+     * The id of the slice of the parent task that this task processes or null if it isn't a slice of another task.
+     */
+    private final Integer sliceId;
 
     public BulkByScrollTask(long id, String type, String action, String description, TaskId parentTask, float requestsPerSecond) {
+        this(id, type, action, description, parentTask, requestsPerSecond, null);
+    }
+
+    public BulkByScrollTask(long id, String type, String action, String description, TaskId parentTask, float requestsPerSecond,
+            @Nullable Integer sliceId) {
         super(id, type, action, description, parentTask);
         setRequestsPerSecond(requestsPerSecond);
+        this.sliceId = sliceId;
     }
 
     @Override
@@ -88,9 +112,18 @@ public class BulkByScrollTask extends CancellableTask {
 
     @Override
     public Status getStatus() {
-        return new Status(total.get(), updated.get(), created.get(), deleted.get(), batch.get(), versionConflicts.get(), noops.get(),
-                bulkRetries.get(), searchRetries.get(), timeValueNanos(throttledNanos.get()), getRequestsPerSecond(), getReasonCancelled(),
-                throttledUntil());
+        return new Status(sliceId, total.get(), updated.get(), created.get(), deleted.get(), batch.get(), versionConflicts.get(),
+                noops.get(), bulkRetries.get(), searchRetries.get(), timeValueNanos(throttledNanos.get()), getRequestsPerSecond(),
+                getReasonCancelled(), throttledUntil(), timeValueNanos(searchWaitNanos.get()), timeValueNanos(bulkWaitNanos.get()),
+                emptyList());
+    }
+
+    /**
+     * The id of the slice of the parent task that this task processes or null if it isn't a slice of another task.
+     */
+    @Nullable
+    public Integer getSliceId() {
+        return sliceId;
     }
 
     private TimeValue throttledUntil() {
@@ -126,6 +159,7 @@ public class BulkByScrollTask extends CancellableTask {
          */
         public static final String INCLUDE_UPDATED = "include_updated";
 
+        private final Integer sliceId;
         private final long total;
         private final long updated;
         private final long created;
@@ -139,10 +173,22 @@ public class BulkByScrollTask extends CancellableTask {
         private final float requestsPerSecond;
         private final String reasonCancelled;
         private final TimeValue throttledUntil;
+        private final TimeValue searchWait;
+        private final TimeValue bulkWait;
+        private final List<Status> sliceStatuses;
 
         public Status(long total, long updated, long created, long deleted, int batches, long versionConflicts, long noops,
                 long bulkRetries, long searchRetries, TimeValue throttled, float requestsPerSecond, @Nullable String reasonCancelled,
                 TimeValue throttledUntil) {
+            this(null, total, updated, created, deleted, batches, versionConflicts, noops, bulkRetries, searchRetries, throttled,
+                    requestsPerSecond, reasonCancelled, throttledUntil, timeValueNanos(0), timeValueNanos(0), emptyList());
+        }
+
+        public Status(@Nullable Integer sliceId, long total, long updated, long created, long deleted, int batches, long versionConflicts,
+                long noops, long bulkRetries, long searchRetries, TimeValue throttled, float requestsPerSecond,
+                @Nullable String reasonCancelled, TimeValue throttledUntil, TimeValue searchWait, TimeValue bulkWait,
+                List<Status> sliceStatuses) {
+            this.sliceId = sliceId == null ? null : checkPositive(sliceId, "sliceId");
             this.total = checkPositive(total, "total");
             this.updated = checkPositive(updated, "updated");
             this.created = checkPositive(created, "created");
@@ -156,9 +202,76 @@ public class BulkByScrollTask extends CancellableTask {
             this.requestsPerSecond = requestsPerSecond;
             this.reasonCancelled = reasonCancelled;
             this.throttledUntil = throttledUntil;
+            this.searchWait = searchWait;
+            this.bulkWait = bulkWait;
+            this.sliceStatuses = requireNonNull(sliceStatuses, "sliceStatuses may be empty but not null");
+        }
+
+        /**
+         * Build the status of a sliced request by summing up the statuses of its slices.
+         *
+         * @param sliceStatuses the statuses of the slices, null for the slices that haven't started yet
+         * @param reasonCancelled the reason the sliced request was canceled or null if it hasn't been
+         */
+        public Status(List<Status> sliceStatuses, @Nullable String reasonCancelled) {
+            sliceId = null;
+            this.reasonCancelled = reasonCancelled;
+
+            long mergedTotal = 0;
+            long mergedUpdated = 0;
+            long mergedCreated = 0;
+            long mergedDeleted = 0;
+            int mergedBatches = 0;
+            long mergedVersionConflicts = 0;
+            long mergedNoops = 0;
+            long mergedBulkRetries = 0;
+            long mergedSearchRetries = 0;
+            long mergedThrottled = 0;
+            float mergedRequestsPerSecond = 0;
+            long mergedThrottledUntil = Long.MAX_VALUE;
+            long mergedSearchWait = 0;
+            long mergedBulkWait = 0;
+
+            for (Status slice : sliceStatuses) {
+                if (slice == null) {
+                    // Hasn't started yet
+                    continue;
+                }
+                mergedTotal += slice.getTotal();
+                mergedUpdated += slice.getUpdated();
+                mergedCreated += slice.getCreated();
+                mergedDeleted += slice.getDeleted();
+                mergedBatches += slice.getBatches();
+                mergedVersionConflicts += slice.getVersionConflicts();
+                mergedNoops += slice.getNoops();
+                mergedBulkRetries += slice.getBulkRetries();
+                mergedSearchRetries += slice.getSearchRetries();
+                mergedThrottled += slice.getThrottled().nanos();
+                mergedRequestsPerSecond += slice.getRequestsPerSecond();
+                mergedThrottledUntil = min(mergedThrottledUntil, slice.getThrottledUntil().nanos());
+                mergedSearchWait += slice.getSearchWait().nanos();
+                mergedBulkWait += slice.getBulkWait().nanos();
+            }
+
+            total = mergedTotal;
+            updated = mergedUpdated;
+            created = mergedCreated;
+            deleted = mergedDeleted;
+            batches = mergedBatches;
+            versionConflicts = mergedVersionConflicts;
+            noops = mergedNoops;
+            bulkRetries = mergedBulkRetries;
+            searchRetries = mergedSearchRetries;
+            throttled = timeValueNanos(mergedThrottled);
+            requestsPerSecond = mergedRequestsPerSecond;
+            throttledUntil = timeValueNanos(mergedThrottledUntil == Long.MAX_VALUE ? 0 : mergedThrottledUntil);
+            searchWait = timeValueNanos(mergedSearchWait);
+            bulkWait = timeValueNanos(mergedBulkWait);
+            this.sliceStatuses = sliceStatuses;
         }
 
         public Status(StreamInput in) throws IOException {
+            sliceId = in.readOptionalVInt();
             total = in.readVLong();
             updated = in.readVLong();
             created = in.readVLong();
@@ -172,10 +285,19 @@ public class BulkByScrollTask extends CancellableTask {
             requestsPerSecond = in.readFloat();
             reasonCancelled = in.readOptionalString();
             throttledUntil = new TimeValue(in);
+            searchWait = new TimeValue(in);
+            bulkWait = new TimeValue(in);
+            int sliceStatusesCount = in.readVInt();
+            List<Status> sliceStatuses = new ArrayList<>(sliceStatusesCount);
+            for (int i = 0; i < sliceStatusesCount; i++) {
+                sliceStatuses.add(in.readOptionalWriteable(Status::new));
+            }
+            this.sliceStatuses = unmodifiableList(sliceStatuses);
         }
 
         @Override
         public void writeTo(StreamOutput out) throws IOException {
+            out.writeOptionalVInt(sliceId);
             out.writeVLong(total);
             out.writeVLong(updated);
             out.writeVLong(created);
@@ -189,6 +311,12 @@ public class BulkByScrollTask extends CancellableTask {
             out.writeFloat(requestsPerSecond);
             out.writeOptionalString(reasonCancelled);
             throttledUntil.writeTo(out);
+            searchWait.writeTo(out);
+            bulkWait.writeTo(out);
+            out.writeVInt(sliceStatuses.size());
+            for (Status sliceStatus : sliceStatuses) {
+                out.writeOptionalWriteable(sliceStatus);
+            }
         }
 
         @Override
@@ -200,6 +328,9 @@ public class BulkByScrollTask extends CancellableTask {
 
         public XContentBuilder innerXContent(XContentBuilder builder, Params params)
                 throws IOException {
+            if (sliceId != null) {
+                builder.field("slice_id", sliceId);
+            }
             builder.field("total", total);
             if (params.paramAsBoolean(INCLUDE_UPDATED, true)) {
                 builder.field("updated", updated);
@@ -222,6 +353,19 @@ public class BulkByScrollTask extends CancellableTask {
                 builder.field("canceled", reasonCancelled);
             }
             builder.timeValueField("throttled_until_millis", "throttled_until", throttledUntil);
+            builder.timeValueField("search_wait_millis", "search_wait", searchWait);
+            builder.timeValueField("bulk_wait_millis", "bulk_wait", bulkWait);
+            if (false == sliceStatuses.isEmpty()) {
+                builder.startArray("slices");
+                for (Status slice : sliceStatuses) {
+                    if (slice == null) {
+                        builder.nullValue();
+                    } else {
+                        slice.toXContent(builder, params);
+                    }
+                }
+                builder.endArray();
+            }
             return builder;
         }
 
@@ -234,6 +378,9 @@ public class BulkByScrollTask extends CancellableTask {
         }
 
         public void innerToString(StringBuilder builder) {
+            if (sliceId != null) {
+                builder.append("sliceId=").append(sliceId).append(',');
+            }
             builder.append("updated=").append(updated);
             builder.append(",created=").append(created);
             builder.append(",deleted=").append(deleted);
@@ -245,6 +392,11 @@ public class BulkByScrollTask extends CancellableTask {
                 builder.append(",canceled=").append(reasonCancelled);
             }
             builder.append(",throttledUntil=").append(throttledUntil);
+            builder.append(",searchWait=").append(searchWait);
+            builder.append(",bulkWait=").append(bulkWait);
+            if (false == sliceStatuses.isEmpty()) {
+                builder.append(",slices=").append(sliceStatuses);
+            }
         }
 
         @Override
@@ -252,6 +404,13 @@ public class BulkByScrollTask extends CancellableTask {
             return NAME;
         }
 
+        /**
+         * The id of the slice that this status is reporting or null if this isn't the status of a slice of another request.
+         */
+        public Integer getSliceId() {
+            return sliceId;
+        }
+
         /**
          * The total number of documents this request will process. 0 means we don't yet know or, possibly, there are actually 0 documents
          * to process. Its ok that these have the same meaning because any request with 0 actual documents should be quite short lived.
@@ -344,6 +503,28 @@ public class BulkByScrollTask extends CancellableTask {
             return throttledUntil;
         }
 
+        /**
+         * Total time spent waiting on search and scroll responses. Scroll responses that were fetched ahead while the previous batch was
+         * being indexed only count the time the request actually had to wait for them.
+         */
+        public TimeValue getSearchWait() {
+            return searchWait;
+        }
+
+        /**
+         * Total time spent waiting on bulk responses, including retries.
+         */
+        public TimeValue getBulkWait() {
+            return bulkWait;
+        }
+
+        /**
+         * Statuses of the slices of a sliced request, null for slices that haven't started yet. Empty if the request isn't sliced.
+         */
+        public List<Status> getSliceStatuses() {
+            return sliceStatuses;
+        }
+
         private int checkPositive(int value, String name) {
             if (value < 0) {
                 throw new IllegalArgumentException(name + " must be greater than 0 but was [" + value + "]");
@@ -395,6 +576,14 @@ public class BulkByScrollTask extends CancellableTask {
         searchRetries.incrementAndGet();
     }
 
+    void countSearchWait(long nanos) {
+        searchWaitNanos.addAndGet(nanos);
+    }
+
+    void countBulkWait(long nanos) {
+        bulkWaitNanos.addAndGet(nanos);
+    }
+
     float getRequestsPerSecond() {
         return requestsPerSecond;
     }
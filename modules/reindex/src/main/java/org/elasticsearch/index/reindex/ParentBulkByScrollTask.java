@@ -0,0 +1,172 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index.reindex;
+
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.bulk.BulkItemResponse.Failure;
+import org.elasticsearch.action.search.ShardSearchFailure;
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.tasks.TaskId;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import static java.util.Collections.unmodifiableList;
+
+/**
+ * Task for a BulkByScroll request that is sliced into subrequests. The slices run as child tasks of this task, each with its own
+ * {@link BulkByScrollTask}. This task reports the sum of their statuses, splits rethrottling between them and combines their responses
+ * once all of them have finished.
+ */
+public class ParentBulkByScrollTask extends BulkByScrollTask {
+    /**
+     * The tasks of the running slices, null for slices that haven't started yet.
+     */
+    private final AtomicReferenceArray<BulkByScrollTask> runningSlices;
+    /**
+     * The responses of the finished slices, null for slices that are still running or have failed.
+     */
+    private final AtomicReferenceArray<BulkIndexByScrollResponse> results;
+    /**
+     * The failures of the failed slices, null for slices that haven't failed.
+     */
+    private final AtomicReferenceArray<Throwable> failures;
+    private final AtomicInteger counter;
+
+    public ParentBulkByScrollTask(long id, String type, String action, String description, TaskId parentTask, float requestsPerSecond,
+            int slices) {
+        super(id, type, action, description, parentTask, requestsPerSecond);
+        runningSlices = new AtomicReferenceArray<>(slices);
+        results = new AtomicReferenceArray<>(slices);
+        failures = new AtomicReferenceArray<>(slices);
+        counter = new AtomicInteger(slices);
+    }
+
+    @Override
+    protected void onCancelled() {
+        // The slices are child tasks so they are cancelled along with this task and they have their own throttles to wake up.
+    }
+
+    @Override
+    public Status getStatus() {
+        List<Status> sliceStatuses = new ArrayList<>(results.length());
+        for (int i = 0; i < results.length(); i++) {
+            BulkIndexByScrollResponse result = results.get(i);
+            if (result != null) {
+                sliceStatuses.add(result.getStatus());
+                continue;
+            }
+            BulkByScrollTask slice = runningSlices.get(i);
+            sliceStatuses.add(slice == null ? null : slice.getStatus());
+        }
+        return new Status(unmodifiableList(sliceStatuses), getReasonCancelled());
+    }
+
+    /**
+     * The number of slices this task was divided into.
+     */
+    public int getSlices() {
+        return results.length();
+    }
+
+    /**
+     * Splits the new throttle evenly between the slices that are still running so the sliced request as a whole runs at the requested
+     * rate.
+     */
+    @Override
+    void rethrottle(float newRequestsPerSecond) {
+        super.rethrottle(newRequestsPerSecond);
+        List<BulkByScrollTask> running = new ArrayList<>(runningSlices.length());
+        for (int i = 0; i < runningSlices.length(); i++) {
+            BulkByScrollTask slice = runningSlices.get(i);
+            if (slice != null && results.get(i) == null && failures.get(i) == null) {
+                running.add(slice);
+            }
+        }
+        for (BulkByScrollTask slice : running) {
+            slice.rethrottle(newRequestsPerSecond / running.size());
+        }
+    }
+
+    /**
+     * Record the task of a slice that has started.
+     */
+    void sliceStarted(int sliceId, BulkByScrollTask slice) {
+        runningSlices.set(sliceId, slice);
+    }
+
+    /**
+     * Record the response from a slice and respond to the listener if the request is finished.
+     */
+    void onSliceResponse(ActionListener<BulkIndexByScrollResponse> listener, int sliceId, BulkIndexByScrollResponse response) {
+        results.set(sliceId, response);
+        /* If the request isn't finished we could automatically rethrottle the sub-requests here but we would only want to do that if we
+         * were fairly sure they had a while left to go. */
+        recordSliceCompletionAndRespondIfAllDone(listener);
+    }
+
+    /**
+     * Record a failure from a slice and respond to the listener if the request is finished.
+     */
+    void onSliceFailure(ActionListener<BulkIndexByScrollResponse> listener, int sliceId, Throwable t) {
+        failures.set(sliceId, t);
+        recordSliceCompletionAndRespondIfAllDone(listener);
+    }
+
+    private void recordSliceCompletionAndRespondIfAllDone(ActionListener<BulkIndexByScrollResponse> listener) {
+        if (counter.decrementAndGet() != 0) {
+            return;
+        }
+        List<BulkIndexByScrollResponse> responses = new ArrayList<>(results.length());
+        Throwable failure = null;
+        for (int i = 0; i < results.length(); i++) {
+            if (failures.get(i) == null) {
+                responses.add(results.get(i));
+            } else if (failure == null) {
+                failure = failures.get(i);
+            } else {
+                failure.addSuppressed(failures.get(i));
+            }
+        }
+        if (failure == null) {
+            listener.onResponse(mergeResponses(responses));
+        } else {
+            listener.onFailure(failure);
+        }
+    }
+
+    private BulkIndexByScrollResponse mergeResponses(List<BulkIndexByScrollResponse> responses) {
+        long tookNanos = 0;
+        List<Failure> indexingFailures = new ArrayList<>();
+        List<ShardSearchFailure> searchFailures = new ArrayList<>();
+        boolean timedOut = false;
+        for (BulkIndexByScrollResponse response : responses) {
+            // The slices run in parallel so the request took as long as the slowest one
+            tookNanos = Math.max(tookNanos, response.getTook().nanos());
+            indexingFailures.addAll(response.getIndexingFailures());
+            searchFailures.addAll(response.getSearchFailures());
+            timedOut |= response.isTimedOut();
+        }
+        return new BulkIndexByScrollResponse(TimeValue.timeValueNanos(tookNanos), getStatus(), unmodifiableList(indexingFailures),
+                unmodifiableList(searchFailures), timedOut);
+    }
+}
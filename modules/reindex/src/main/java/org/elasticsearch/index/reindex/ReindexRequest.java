@@ -27,6 +27,7 @@ import org.elasticsearch.action.search.SearchRequest;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.lucene.uid.Versions;
+import org.elasticsearch.tasks.TaskId;
 
 import java.io.IOException;
 import java.util.Arrays;
@@ -52,7 +53,11 @@ public class ReindexRequest extends AbstractBulkIndexByScrollRequest<ReindexRequ
     }
 
     public ReindexRequest(SearchRequest search, IndexRequest destination) {
-        super(search);
+        this(search, destination, true);
+    }
+
+    private ReindexRequest(SearchRequest search, IndexRequest destination, boolean setDefaults) {
+        super(search, setDefaults);
         this.destination = destination;
     }
 
@@ -61,6 +66,13 @@ public class ReindexRequest extends AbstractBulkIndexByScrollRequest<ReindexRequ
         return this;
     }
 
+    @Override
+    ReindexRequest forSlice(TaskId slicingTask, SearchRequest slice, int sliceId) {
+        ReindexRequest sliced = new ReindexRequest(slice, destination, false);
+        sliced.setScript(getScript());
+        return doForSlice(sliced, slicingTask, sliceId);
+    }
+
     @Override
     public ActionRequestValidationException validate() {
         ActionRequestValidationException e = super.validate();
@@ -23,6 +23,7 @@ import org.elasticsearch.action.ActionRequestValidationException;
 import org.elasticsearch.action.support.tasks.BaseTasksRequest;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.tasks.Task;
 
 import java.io.IOException;
 
@@ -80,6 +81,18 @@ public class RethrottleRequest extends BaseTasksRequest<RethrottleRequest> {
         return validationException;
     }
 
+    /**
+     * Slices of a sliced request are never matched directly. They are rethrottled through their parent which splits the new throttle
+     * between them.
+     */
+    @Override
+    public boolean match(Task task) {
+        if (task instanceof BulkByScrollTask && ((BulkByScrollTask) task).getSliceId() != null) {
+            return false;
+        }
+        return super.match(task);
+    }
+
     @Override
     public void readFrom(StreamInput in) throws IOException {
         super.readFrom(in);
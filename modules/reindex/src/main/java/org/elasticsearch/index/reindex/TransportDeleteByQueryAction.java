@@ -56,6 +56,11 @@ public class TransportDeleteByQueryAction extends HandledTransportAction<DeleteB
 
     @Override
     protected void doExecute(Task task, DeleteByQueryRequest request, ActionListener<BulkIndexByScrollResponse> listener) {
+        if (request.getSlices() > 1) {
+            BulkByScrollParallelizationHelper.startSlices(this, taskManager, clusterService.localNode().getId(),
+                    (ParentBulkByScrollTask) task, request, listener);
+            return;
+        }
         ClusterState state = clusterService.state();
         ParentTaskAssigningClient client = new ParentTaskAssigningClient(this.client, clusterService.localNode(), task);
         new AsyncDeleteBySearchAction((BulkByScrollTask) task, logger, client, threadPool, request, listener, scriptService, state).start();
@@ -23,6 +23,7 @@ import org.elasticsearch.action.CompositeIndicesRequest;
 import org.elasticsearch.action.IndicesRequest;
 import org.elasticsearch.action.index.IndexRequest;
 import org.elasticsearch.action.search.SearchRequest;
+import org.elasticsearch.tasks.TaskId;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -45,7 +46,11 @@ public class UpdateByQueryRequest extends AbstractBulkIndexByScrollRequest<Updat
     }
 
     public UpdateByQueryRequest(SearchRequest search) {
-        super(search);
+        this(search, true);
+    }
+
+    private UpdateByQueryRequest(SearchRequest search, boolean setDefaults) {
+        super(search, setDefaults);
     }
 
     /**
@@ -67,6 +72,14 @@ public class UpdateByQueryRequest extends AbstractBulkIndexByScrollRequest<Updat
         return this;
     }
 
+    @Override
+    UpdateByQueryRequest forSlice(TaskId slicingTask, SearchRequest slice, int sliceId) {
+        UpdateByQueryRequest sliced = new UpdateByQueryRequest(slice, false);
+        sliced.setScript(getScript());
+        sliced.setPipeline(pipeline);
+        return doForSlice(sliced, slicingTask, sliceId);
+    }
+
     @Override
     public String toString() {
         StringBuilder b = new StringBuilder();
@@ -471,6 +471,74 @@ public class AsyncBulkByScrollActionTests extends ESTestCase {
         assertEquals(capturedDelay.get(), testTask.getStatus().getThrottled());
     }
 
+    /**
+     * The next scroll request is sent while the bulk request for the current batch is in flight and its response is used once the bulk
+     * request finishes.
+     */
+    public void testScrollAhead() throws Exception {
+        AtomicReference<BulkRequest> sentBulk = new AtomicReference<>();
+        DummyAbstractAsyncBulkByScrollAction action = new ScrollAheadAction(sentBulk);
+        action.setScroll(scrollId());
+        firstSearchRequest.scroll(timeValueSeconds(10));
+
+        action.prepareBulkRequest(timeValueNanos(System.nanoTime()), searchResponseWithOneHit());
+        assertNotNull("bulk request should have been sent", sentBulk.get());
+        assertNotNull("scroll request should have been sent before the bulk request finished", client.lastScroll.get());
+        assertEquals(1, client.scrollAttempts.get());
+
+        boolean respondBeforeBulkFinishes = randomBoolean();
+        if (respondBeforeBulkFinishes) {
+            client.lastScroll.get().listener.onResponse(searchResponseWithOneHit());
+        }
+        action.startNextScroll(timeValueNanos(System.nanoTime()), 1);
+        if (false == respondBeforeBulkFinishes) {
+            client.lastScroll.get().listener.onResponse(searchResponseWithOneHit());
+        }
+        // The scroll response that was fetched ahead is processed as the next batch, which fetches ahead again
+        assertBusy(() -> assertEquals(2, testTask.getStatus().getBatches()));
+        assertBusy(() -> assertEquals(2, client.scrollAttempts.get()));
+        assertFalse(listener.isDone());
+    }
+
+    /**
+     * There is no point in fetching the next scroll response if the current batch finishes the request.
+     */
+    public void testNoScrollAheadWhenBatchFinishesRequest() throws Exception {
+        testRequest.setSize(1);
+        AtomicReference<BulkRequest> sentBulk = new AtomicReference<>();
+        DummyAbstractAsyncBulkByScrollAction action = new ScrollAheadAction(sentBulk);
+        action.setScroll(scrollId());
+        action.prepareBulkRequest(timeValueNanos(System.nanoTime()), searchResponseWithOneHit());
+        assertNotNull("bulk request should have been sent", sentBulk.get());
+        assertNull(client.lastScroll.get());
+    }
+
+    /**
+     * Failures fetching the next scroll response ahead of time only fail the request once the request needs that response.
+     */
+    public void testScrollAheadFailure() throws Exception {
+        AtomicReference<BulkRequest> sentBulk = new AtomicReference<>();
+        DummyAbstractAsyncBulkByScrollAction action = new ScrollAheadAction(sentBulk);
+        action.setScroll(scrollId());
+        firstSearchRequest.scroll(timeValueSeconds(10));
+
+        action.prepareBulkRequest(timeValueNanos(System.nanoTime()), searchResponseWithOneHit());
+        client.lastScroll.get().listener.onFailure(new IllegalArgumentException("test"));
+        assertFalse(listener.isDone());
+
+        action.startNextScroll(timeValueNanos(System.nanoTime()), 1);
+        ExecutionException e = expectThrows(ExecutionException.class, () -> listener.get());
+        assertThat(e.getCause(), instanceOf(IllegalArgumentException.class));
+        assertEquals("test", e.getCause().getMessage());
+    }
+
+    private SearchResponse searchResponseWithOneHit() {
+        InternalSearchHit hit = new InternalSearchHit(0, "id", new Text("type"), emptyMap());
+        InternalSearchHits hits = new InternalSearchHits(new InternalSearchHit[] { hit }, 1, 0);
+        InternalSearchResponse internalResponse = new InternalSearchResponse(hits, null, null, null, false, false);
+        return new SearchResponse(internalResponse, scrollId, 5, 5, randomLong(), null);
+    }
+
     /**
      * Execute a bulk retry test case. The total number of failures is random and the number of retries attempted is set to
      * testRequest.getMaxRetries and controled by the failWithRejection parameter.
@@ -686,11 +754,42 @@ public class AsyncBulkByScrollActionTests extends ESTestCase {
         }
     }
 
+    /**
+     * An extension to {@linkplain DummyAbstractAsyncBulkByScrollAction} that builds an index request per document and captures the bulk
+     * request instead of sending it.
+     */
+    private class ScrollAheadAction extends DummyAbstractAsyncBulkByScrollAction {
+        private final AtomicReference<BulkRequest> sentBulk;
+
+        ScrollAheadAction(AtomicReference<BulkRequest> sentBulk) {
+            this.sentBulk = sentBulk;
+        }
+
+        @Override
+        protected BulkRequest buildBulk(Iterable<SearchHit> docs) {
+            BulkRequest bulk = new BulkRequest();
+            for (SearchHit doc : docs) {
+                bulk.add(new IndexRequest("index", "type", doc.id()));
+            }
+            return bulk;
+        }
+
+        @Override
+        void sendBulkRequest(TimeValue thisBatchStartTime, BulkRequest request) {
+            sentBulk.set(request);
+        }
+    }
+
     private static class DummyAbstractBulkByScrollRequest extends AbstractBulkByScrollRequest<DummyAbstractBulkByScrollRequest> {
         public DummyAbstractBulkByScrollRequest(SearchRequest searchRequest) {
             super(searchRequest);
         }
 
+        @Override
+        DummyAbstractBulkByScrollRequest forSlice(TaskId slicingTask, SearchRequest slice, int sliceId) {
+            throw new UnsupportedOperationException();
+        }
+
         @Override
         protected DummyAbstractBulkByScrollRequest self() {
             return this;
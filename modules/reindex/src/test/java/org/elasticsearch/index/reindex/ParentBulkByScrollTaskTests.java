@@ -0,0 +1,183 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index.reindex;
+
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.tasks.TaskId;
+import org.elasticsearch.test.ESTestCase;
+import org.junit.Before;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static java.util.Collections.emptyList;
+import static org.elasticsearch.common.unit.TimeValue.timeValueMillis;
+import static org.hamcrest.Matchers.hasSize;
+
+public class ParentBulkByScrollTaskTests extends ESTestCase {
+    private int slices;
+    private ParentBulkByScrollTask task;
+
+    @Before
+    public void createTask() {
+        slices = between(2, 50);
+        task = new ParentBulkByScrollTask(1, "test_type", "test_action", "test", TaskId.EMPTY_TASK_ID, Float.POSITIVE_INFINITY, slices);
+    }
+
+    public void testBasicData() {
+        assertEquals(1, task.getId());
+        assertEquals("test_type", task.getType());
+        assertEquals("test_action", task.getAction());
+        assertEquals(slices, task.getSlices());
+        assertNull(task.getStatus().getSliceId());
+        assertThat(task.getStatus().getSliceStatuses(), hasSize(slices));
+    }
+
+    public void testProgress() {
+        List<BulkByScrollTask> sliceTasks = new ArrayList<>(slices);
+        for (int slice = 0; slice < slices; slice++) {
+            BulkByScrollTask sliceTask = new BulkByScrollTask(slice + 2, "test_type", "test_action", "test",
+                    new TaskId("test_node", 1), Float.POSITIVE_INFINITY, slice);
+            sliceTasks.add(sliceTask);
+        }
+        // Slices that haven't started yet don't contribute to the status
+        task.sliceStarted(0, sliceTasks.get(0));
+        sliceTasks.get(0).setTotal(10);
+        sliceTasks.get(0).countCreated();
+        BulkByScrollTask.Status status = task.getStatus();
+        assertEquals(10, status.getTotal());
+        assertEquals(1, status.getCreated());
+        assertEquals(Integer.valueOf(0), status.getSliceStatuses().get(0).getSliceId());
+        for (int slice = 1; slice < slices; slice++) {
+            assertNull(status.getSliceStatuses().get(slice));
+        }
+
+        for (int slice = 1; slice < slices; slice++) {
+            task.sliceStarted(slice, sliceTasks.get(slice));
+            sliceTasks.get(slice).setTotal(10);
+            sliceTasks.get(slice).countUpdated();
+            sliceTasks.get(slice).countUpdated();
+        }
+        status = task.getStatus();
+        assertEquals(10 * slices, status.getTotal());
+        assertEquals(1, status.getCreated());
+        assertEquals(2 * (slices - 1), status.getUpdated());
+        for (int slice = 0; slice < slices; slice++) {
+            assertEquals(Integer.valueOf(slice), status.getSliceStatuses().get(slice).getSliceId());
+        }
+    }
+
+    public void testRethrottleSplitsBetweenRunningSlices() {
+        List<BulkByScrollTask> sliceTasks = new ArrayList<>(slices);
+        for (int slice = 0; slice < slices; slice++) {
+            BulkByScrollTask sliceTask = new BulkByScrollTask(slice + 2, "test_type", "test_action", "test",
+                    new TaskId("test_node", 1), Float.POSITIVE_INFINITY, slice);
+            sliceTasks.add(sliceTask);
+            task.sliceStarted(slice, sliceTask);
+        }
+        // Finish the first slice so it no longer gets a share of the throttle
+        task.onSliceResponse(failOnResponse(), 0, response(sliceTasks.get(0)));
+
+        float newRequestsPerSecond = slices * 10;
+        task.rethrottle(newRequestsPerSecond);
+        assertEquals(newRequestsPerSecond, task.getRequestsPerSecond(), 0f);
+        assertEquals(Float.POSITIVE_INFINITY, sliceTasks.get(0).getRequestsPerSecond(), 0f);
+        for (int slice = 1; slice < slices; slice++) {
+            assertEquals(newRequestsPerSecond / (slices - 1), sliceTasks.get(slice).getRequestsPerSecond(), 0.0001f);
+        }
+    }
+
+    public void testRespondsOnceAllSlicesFinish() {
+        AtomicReference<BulkIndexByScrollResponse> result = new AtomicReference<>();
+        ActionListener<BulkIndexByScrollResponse> listener = new ActionListener<BulkIndexByScrollResponse>() {
+            @Override
+            public void onResponse(BulkIndexByScrollResponse response) {
+                assertTrue("responded more than once", result.compareAndSet(null, response));
+            }
+
+            @Override
+            public void onFailure(Throwable e) {
+                throw new AssertionError(e);
+            }
+        };
+        for (int slice = 0; slice < slices; slice++) {
+            BulkByScrollTask sliceTask = new BulkByScrollTask(slice + 2, "test_type", "test_action", "test",
+                    new TaskId("test_node", 1), Float.POSITIVE_INFINITY, slice);
+            task.sliceStarted(slice, sliceTask);
+            sliceTask.setTotal(5);
+            sliceTask.countCreated();
+            assertNull(result.get());
+            task.onSliceResponse(listener, slice, response(sliceTask));
+        }
+        BulkIndexByScrollResponse response = result.get();
+        assertNotNull(response);
+        assertEquals(5 * slices, response.getStatus().getTotal());
+        assertEquals(slices, response.getCreated());
+        assertThat(response.getStatus().getSliceStatuses(), hasSize(slices));
+        assertEquals(timeValueMillis(slices - 1), response.getTook());
+    }
+
+    public void testFailsIfAnySliceFails() {
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        ActionListener<BulkIndexByScrollResponse> listener = new ActionListener<BulkIndexByScrollResponse>() {
+            @Override
+            public void onResponse(BulkIndexByScrollResponse response) {
+                fail("expected a failure");
+            }
+
+            @Override
+            public void onFailure(Throwable e) {
+                assertTrue("failed more than once", failure.compareAndSet(null, e));
+            }
+        };
+        int failed = between(0, slices - 1);
+        for (int slice = 0; slice < slices; slice++) {
+            BulkByScrollTask sliceTask = new BulkByScrollTask(slice + 2, "test_type", "test_action", "test",
+                    new TaskId("test_node", 1), Float.POSITIVE_INFINITY, slice);
+            task.sliceStarted(slice, sliceTask);
+            if (slice == failed) {
+                task.onSliceFailure(listener, slice, new IllegalStateException("test"));
+            } else {
+                task.onSliceResponse(listener, slice, response(sliceTask));
+            }
+        }
+        assertEquals("test", failure.get().getMessage());
+    }
+
+    private BulkIndexByScrollResponse response(BulkByScrollTask sliceTask) {
+        return new BulkIndexByScrollResponse(timeValueMillis(sliceTask.getSliceId()), sliceTask.getStatus(), emptyList(), emptyList(),
+                false);
+    }
+
+    private ActionListener<BulkIndexByScrollResponse> failOnResponse() {
+        return new ActionListener<BulkIndexByScrollResponse>() {
+            @Override
+            public void onResponse(BulkIndexByScrollResponse response) {
+                fail("shouldn't respond until all slices finish");
+            }
+
+            @Override
+            public void onFailure(Throwable e) {
+                throw new AssertionError(e);
+            }
+        };
+    }
+}
@@ -21,8 +21,12 @@ package org.elasticsearch.index.reindex;
 
 import org.elasticsearch.action.ListenableActionFuture;
 import org.elasticsearch.action.admin.cluster.node.tasks.list.ListTasksResponse;
+import org.elasticsearch.tasks.TaskInfo;
 
+import static org.hamcrest.Matchers.hasItem;
 import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
 
 /**
  * Tests that you can set requests_per_second over the Java API and that you can rethrottle running requests. There are REST tests for this
@@ -43,8 +47,21 @@ public class RethrottleTests extends ReindexTestCase {
         testCase(deleteByQuery().source("test"), DeleteByQueryAction.NAME);
     }
 
+    public void testReindexWithSlices() throws Exception {
+        testCase(reindex().source("test").destination("dest").setSlices(between(2, 5)), ReindexAction.NAME);
+    }
+
+    public void testUpdateByQueryWithSlices() throws Exception {
+        testCase(updateByQuery().source("test").setSlices(between(2, 5)), UpdateByQueryAction.NAME);
+    }
+
+    public void testDeleteByQueryWithSlices() throws Exception {
+        testCase(deleteByQuery().source("test").setSlices(between(2, 5)), DeleteByQueryAction.NAME);
+    }
+
     private void testCase(AbstractBulkByScrollRequestBuilder<?, ?> request, String actionName)
             throws Exception {
+        int slices = request.request().getSlices();
         // Use a single shard so the reindex has to happen in multiple batches
         client().admin().indices().prepareCreate("test").setSettings("index.number_of_shards", 1).get();
         indexRandom(true,
@@ -57,6 +74,22 @@ public class RethrottleTests extends ReindexTestCase {
         request.source().setSize(1);             // Make sure we use multiple batches
         ListenableActionFuture<? extends BulkIndexByScrollResponse> responseListener = request.execute();
 
+        if (slices > 1) {
+            // Wait for all of the slices to start so they all pick up the new throttle
+            assertBusy(() -> {
+                ListTasksResponse tasks = client().admin().cluster().prepareListTasks().setActions(actionName).setDetailed(true).get();
+                BulkByScrollTask.Status parent = null;
+                for (TaskInfo task : tasks.getTasks()) {
+                    if (task.getParentTaskId().isSet() == false) {
+                        parent = (BulkByScrollTask.Status) task.getStatus();
+                    }
+                }
+                assertNotNull(parent);
+                assertThat(parent.getSliceStatuses(), hasSize(slices));
+                assertThat(parent.getSliceStatuses(), not(hasItem(nullValue())));
+            });
+        }
+
         // Now rethrottle it so it'll finish
         ListTasksResponse rethrottleResponse = rethrottle().setActions(actionName).setRequestsPerSecond(Float.POSITIVE_INFINITY).get();
         assertThat(rethrottleResponse.getTasks(), hasSize(1));
@@ -65,6 +98,12 @@ public class RethrottleTests extends ReindexTestCase {
 
         // Now the response should come back quickly because we've rethrottled the request
         BulkIndexByScrollResponse response = responseListener.get();
-        assertEquals("Batches didn't match, this may invalidate the test as throttling is done between batches", 3, response.getBatches());
+        if (slices == 1) {
+            assertEquals("Batches didn't match, this may invalidate the test as throttling is done between batches", 3,
+                    response.getBatches());
+        } else {
+            // Each slice gets a share of the documents so we can't know exactly how many batches there will be but every doc is handled
+            assertEquals(3, response.getCreated() + response.getUpdated() + response.getDeleted());
+        }
     }
 }